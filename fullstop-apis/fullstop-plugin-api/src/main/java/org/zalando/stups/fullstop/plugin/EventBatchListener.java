@@ -0,0 +1,24 @@
+package org.zalando.stups.fullstop.plugin;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+
+import java.util.List;
+
+/**
+ * Gets notified by the events processor around every batch of {@link CloudTrailEvent}s handed to the
+ * {@link FullstopPlugin}s. Allows state that is shared by all plugins to live exactly as long as the events it was
+ * derived from.
+ */
+public interface EventBatchListener {
+
+    /**
+     * Called before any plugin sees one of the events.
+     */
+    void beforeBatch(List<CloudTrailEvent> events);
+
+    /**
+     * Called after all plugins are done with the events, also when processing failed.
+     */
+    void afterBatch(List<CloudTrailEvent> events);
+
+}
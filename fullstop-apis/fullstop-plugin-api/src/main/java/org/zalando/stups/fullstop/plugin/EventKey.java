@@ -0,0 +1,74 @@
+package org.zalando.stups.fullstop.plugin;
+
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies CloudTrail events by their 'eventSource' and 'eventName'. A key without 'eventName' matches every event
+ * of the given 'eventSource'.
+ *
+ * @see SupportedEventsProvider
+ */
+public final class EventKey {
+
+    private final String eventSource;
+
+    private final String eventName;
+
+    private EventKey(final String eventSource, final String eventName) {
+        this.eventSource = requireNonNull(eventSource, "eventSource should never be null");
+        this.eventName = eventName;
+    }
+
+    /**
+     * Matches exactly the given 'eventSource' and 'eventName', e.g. 'ec2.amazonaws.com' and 'RunInstances'.
+     */
+    public static EventKey of(final String eventSource, final String eventName) {
+        return new EventKey(eventSource, requireNonNull(eventName, "eventName should never be null"));
+    }
+
+    /**
+     * Matches every event of the given 'eventSource'.
+     */
+    public static EventKey anyOf(final String eventSource) {
+        return new EventKey(eventSource, null);
+    }
+
+    public String getEventSource() {
+        return eventSource;
+    }
+
+    /**
+     * @return the eventName or null if this key matches every event of the source
+     */
+    public String getEventName() {
+        return eventName;
+    }
+
+    public boolean isAnyEventName() {
+        return eventName == null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final EventKey that = (EventKey) o;
+        return Objects.equals(eventSource, that.eventSource) && Objects.equals(eventName, that.eventName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventSource, eventName);
+    }
+
+    @Override
+    public String toString() {
+        return eventSource + ":" + (isAnyEventName() ? "*" : eventName);
+    }
+}
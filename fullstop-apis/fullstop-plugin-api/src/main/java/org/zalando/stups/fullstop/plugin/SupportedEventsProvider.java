@@ -0,0 +1,20 @@
+package org.zalando.stups.fullstop.plugin;
+
+import java.util.Set;
+
+/**
+ * Optional contract for {@link FullstopPlugin}s that know upfront which CloudTrail events they are interested in.
+ * <p>
+ * The events processor builds a routing index from these keys once and calls {@link FullstopPlugin#supports(Object)}
+ * only for events matching one of them. Plugins not implementing this interface are asked for every event.
+ *
+ * @see EventKey
+ */
+public interface SupportedEventsProvider {
+
+    /**
+     * @return all events this plugin may support, never null
+     */
+    Set<EventKey> getSupportedEvents();
+
+}
@@ -0,0 +1,19 @@
+package org.zalando.stups.fullstop.violation;
+
+/**
+ * A {@link ViolationSink} that buffers violations until they are handled. Producers should slow down while it is
+ * saturated, instead of piling up further violations.
+ */
+public interface BufferingViolationSink extends ViolationSink {
+
+    /**
+     * @return true once the buffer passed its high-water mark, until it drained below its low-water mark
+     */
+    boolean isSaturated();
+
+    /**
+     * @return the number of violations buffered, but not yet handled
+     */
+    long getQueueDepth();
+
+}
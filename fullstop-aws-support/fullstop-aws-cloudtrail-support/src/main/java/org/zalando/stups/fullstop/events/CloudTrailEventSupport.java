@@ -7,6 +7,8 @@ import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent
 import com.amazonaws.services.cloudtrail.processinglibrary.model.internal.UserIdentity;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Supplier;
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import net.minidev.json.JSONArray;
@@ -14,11 +16,15 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.zalando.stups.fullstop.violation.ViolationBuilder;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Suppliers.memoize;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newLinkedHashSet;
@@ -27,6 +33,10 @@ import static java.util.Optional.ofNullable;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
+ * Between {@link #retainResponseElements(Collection)} and {@link #releaseResponseElements(Collection)} the
+ * 'responseElements' of an event are parsed once and shared by all helpers taking a {@link CloudTrailEvent}. Otherwise
+ * they are parsed on every call.
+ *
  * @author jbellmann
  */
 public abstract class CloudTrailEventSupport {
@@ -44,6 +54,31 @@ public abstract class CloudTrailEventSupport {
 
     public static final String INSTANCE_LAUNCH_TIME = "$.instancesSet.items[*].launchTime";
 
+    private static final JsonPath INSTANCE_IDS = JsonPath.compile(INSTANCE_ID_JSON_PATH);
+
+    private static final JsonPath INSTANCES = JsonPath.compile(INSTANCE_JSON_PATH);
+
+    private static final JsonPath RUN_INSTANCE_DATE = JsonPath.compile(RUN_INSTANCE_DATE_JSON_PATH);
+
+    private static final JsonPath SECURITY_GROUP_IDS = JsonPath.compile(SECURITY_GROUP_IDS_JSON_PATH);
+
+    private static final JsonPath INSTANCES_SECURITY_GROUP_IDS = JsonPath.compile(INSTANCES_SECURITY_GROUP_IDS_JSON_PATH);
+
+    private static final JsonPath INSTANCES_LAUNCH_TIME = JsonPath.compile(INSTANCE_LAUNCH_TIME);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Patterns handed in by callers, compiled once.
+     */
+    private static final Map<String, JsonPath> COMPILED_PATTERNS = new ConcurrentHashMap<>();
+
+    /**
+     * Keyed by identity, {@link CloudTrailEvent} does not override equals.
+     */
+    private static final Map<CloudTrailEvent, Supplier<DocumentContext>> RETAINED_RESPONSE_ELEMENTS =
+            new ConcurrentHashMap<>();
+
     private static final String ACCOUNT_ID_OR_RECIPIENT_SHOULD_NEVER_BE_NULL = "AccountId or RecipientAccountId should never be null";
 
     private static final String USER_IDENTITY_SHOULD_NEVER_BE_NULL = "UserIdentity should never be null";
@@ -65,7 +100,7 @@ public abstract class CloudTrailEventSupport {
             return newArrayList();
         }
 
-        return read(responseElements, INSTANCE_ID_JSON_PATH);
+        return getResponseElements(event).read(INSTANCE_IDS);
     }
 
     public static String getEventId(final CloudTrailEvent event) {
@@ -88,6 +123,28 @@ public abstract class CloudTrailEventSupport {
         return checkNotNull(event.getEventData(), CLOUD_TRAIL_EVENT_DATA_SHOULD_NEVER_BE_NULL);
     }
 
+    /**
+     * Returns the parsed 'responseElements' of the event, parsed only once while the event is retained.<br/>
+     * If 'responseElements' is null or empty raises {@link IllegalArgumentException}.
+     */
+    public static DocumentContext getResponseElements(final CloudTrailEvent event) {
+        final CloudTrailEventData eventData = getEventData(event);
+        final Supplier<DocumentContext> retained = RETAINED_RESPONSE_ELEMENTS.get(event);
+        return retained != null ? retained.get() : JsonPath.parse(eventData.getResponseElements());
+    }
+
+    /**
+     * Keeps the parsed 'responseElements' of the events until they are released. Parsing happens on first access.
+     */
+    public static void retainResponseElements(final Collection<CloudTrailEvent> events) {
+        events.forEach(event -> RETAINED_RESPONSE_ELEMENTS.put(event,
+                memoize(() -> JsonPath.parse(getEventData(event).getResponseElements()))));
+    }
+
+    public static void releaseResponseElements(final Collection<CloudTrailEvent> events) {
+        events.forEach(RETAINED_RESPONSE_ELEMENTS::remove);
+    }
+
     /**
      * Reads the given 'responseElements' and extracts information based on given 'pattern'.<br/>
      * If 'responseElements' is null or empty you can handle the {@link IllegalArgumentException} raised or got an empty
@@ -100,7 +157,7 @@ public abstract class CloudTrailEventSupport {
         }
 
         try {
-            return JsonPath.read(responseElements, pattern);
+            return JsonPath.parse(responseElements).read(compile(pattern));
         } catch (final PathNotFoundException e) {
             if (emptyListOnNullOrEmptyResponse) {
                 return emptyList();
@@ -120,17 +177,34 @@ public abstract class CloudTrailEventSupport {
 
     public static List<String> read(final CloudTrailEvent cloudTrailEvent, final String pattern,
                                     final boolean emptyListOnNullOrEmptyResponse) {
-        return read(getEventData(cloudTrailEvent).getResponseElements(), pattern, emptyListOnNullOrEmptyResponse);
+        return read(cloudTrailEvent, compile(pattern), emptyListOnNullOrEmptyResponse);
     }
 
-    public static List<String> getInstanceLaunchTime(CloudTrailEvent cloudTrailEvent) {
-        cloudTrailEvent = checkNotNull(cloudTrailEvent, CLOUD_TRAIL_EVENT_SHOULD_NEVER_BE_NULL);
+    private static List<String> read(final CloudTrailEvent cloudTrailEvent, final JsonPath jsonPath,
+                                     final boolean emptyListOnNullOrEmptyResponse) {
+        if (isNullOrEmpty(getEventData(cloudTrailEvent).getResponseElements()) && emptyListOnNullOrEmptyResponse) {
+            return emptyList();
+        }
 
-        final CloudTrailEventData eventData = getEventData(cloudTrailEvent);
+        try {
+            return getResponseElements(cloudTrailEvent).read(jsonPath);
+        } catch (final PathNotFoundException e) {
+            if (emptyListOnNullOrEmptyResponse) {
+                return emptyList();
+            } else {
+                throw e;
+            }
+        }
+    }
 
-        final String responseElements = eventData.getResponseElements();
+    private static JsonPath compile(final String pattern) {
+        return COMPILED_PATTERNS.computeIfAbsent(pattern, JsonPath::compile);
+    }
+
+    public static List<String> getInstanceLaunchTime(CloudTrailEvent cloudTrailEvent) {
+        cloudTrailEvent = checkNotNull(cloudTrailEvent, CLOUD_TRAIL_EVENT_SHOULD_NEVER_BE_NULL);
 
-        return JsonPath.read(responseElements, INSTANCE_LAUNCH_TIME);
+        return getResponseElements(cloudTrailEvent).read(INSTANCES_LAUNCH_TIME);
     }
 
     public static Region getRegion(final CloudTrailEvent cloudTrailEvent) {
@@ -163,17 +237,16 @@ public abstract class CloudTrailEventSupport {
 
     public static List<String> getInstances(final CloudTrailEvent event) {
         final CloudTrailEventData eventData = getEventData(event);
-        final ObjectMapper mapper = new ObjectMapper();
         final List<String> instances = newArrayList();
         final String responseElements = eventData.getResponseElements();
         if (isNullOrEmpty(responseElements)) {
             return newArrayList();
         }
 
-        final JSONArray items = JsonPath.read(responseElements, INSTANCE_JSON_PATH);
+        final JSONArray items = getResponseElements(event).read(INSTANCES);
         for (final Object item : items) {
             try {
-                instances.add(mapper.writeValueAsString(item));
+                instances.add(OBJECT_MAPPER.writeValueAsString(item));
             } catch (final JsonProcessingException e) {
                 LOG.warn(e.getMessage(), e);
             }
@@ -183,7 +256,7 @@ public abstract class CloudTrailEventSupport {
     }
 
     public static DateTime getRunInstanceTime(final String instance) {
-        return new DateTime((Long) JsonPath.read(instance, RUN_INSTANCE_DATE_JSON_PATH));
+        return new DateTime((Long) JsonPath.parse(instance).read(RUN_INSTANCE_DATE));
     }
 
     public static DateTime getEventTime(CloudTrailEvent event) {
@@ -197,8 +270,8 @@ public abstract class CloudTrailEventSupport {
 
     public static List<String> readSecurityGroupIds(final CloudTrailEvent cloudTrailEvent) {
         final LinkedHashSet<String> result = newLinkedHashSet();
-        result.addAll(read(cloudTrailEvent, SECURITY_GROUP_IDS_JSON_PATH, true));
-        result.addAll(read(cloudTrailEvent, INSTANCES_SECURITY_GROUP_IDS_JSON_PATH, true));
+        result.addAll(read(cloudTrailEvent, SECURITY_GROUP_IDS, true));
+        result.addAll(read(cloudTrailEvent, INSTANCES_SECURITY_GROUP_IDS, true));
         return newArrayList(result);
     }
 }
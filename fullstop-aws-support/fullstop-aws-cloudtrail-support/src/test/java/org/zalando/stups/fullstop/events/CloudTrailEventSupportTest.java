@@ -1,13 +1,18 @@
 package org.zalando.stups.fullstop.events;
 
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.jayway.jsonpath.DocumentContext;
 import org.junit.Test;
 
 import java.util.List;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getInstanceIds;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getInstances;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getResponseElements;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.releaseResponseElements;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.retainResponseElements;
 import static org.zalando.stups.fullstop.events.TestCloudTrailEventSerializer.createCloudTrailEvent;
 
 /**
@@ -52,4 +57,18 @@ public class CloudTrailEventSupportTest {
         assertThat(groups).containsOnly("sg-aaaabbbb");
 
     }
+
+    @Test
+    public void testResponseElementsAreParsedOnceWhileRetained() {
+        final CloudTrailEvent cloudTrailEvent = createCloudTrailEvent("/responseElements.json");
+        assertThat(getResponseElements(cloudTrailEvent)).isNotSameAs(getResponseElements(cloudTrailEvent));
+
+        retainResponseElements(singletonList(cloudTrailEvent));
+        final DocumentContext document = getResponseElements(cloudTrailEvent);
+        assertThat(getResponseElements(cloudTrailEvent)).isSameAs(document);
+        assertThat(getInstanceIds(cloudTrailEvent)).isNotEmpty();
+
+        releaseResponseElements(singletonList(cloudTrailEvent));
+        assertThat(getResponseElements(cloudTrailEvent)).isNotSameAs(document);
+    }
 }
@@ -0,0 +1,136 @@
+package org.zalando.stups.fullstop.events;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.INSTANCES_SECURITY_GROUP_IDS_JSON_PATH;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.INSTANCE_ID_JSON_PATH;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.INSTANCE_JSON_PATH;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.INSTANCE_LAUNCH_TIME;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.SECURITY_GROUP_IDS_JSON_PATH;
+
+/**
+ * What the instance plugins extract from one RunInstances event with 50 instances: instance ids, instance excerpts,
+ * launch times and security groups of the event, then instance id and image id per instance excerpt.
+ * <p>
+ * 'reparse' reads every value from the raw JSON strings, like before. 'parseOnce' retains the document of a fresh
+ * event like the events processor does for a batch, and uses the precompiled paths.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.zalando.stups.fullstop.events.ResponseElementsParsingBenchmark} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseElementsParsingBenchmark {
+
+    private static final int INSTANCE_COUNT = 50;
+
+    private static final JsonPath INSTANCE_ID = JsonPath.compile("$.instanceId");
+
+    private static final JsonPath IMAGE_ID = JsonPath.compile("$.imageId");
+
+    private CloudTrailEventData eventData;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResponseElementsParsingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        eventData = new CloudTrailEventData();
+        eventData.add("eventSource", "ec2.amazonaws.com");
+        eventData.add("eventName", "RunInstances");
+        eventData.add("responseElements", runInstancesResponseElements(INSTANCE_COUNT));
+    }
+
+    @Benchmark
+    public void reparse(final Blackhole blackhole) throws JsonProcessingException {
+        final String responseElements = eventData.getResponseElements();
+        blackhole.consume(JsonPath.read(responseElements, INSTANCE_ID_JSON_PATH));
+        blackhole.consume(JsonPath.read(responseElements, INSTANCE_LAUNCH_TIME));
+        blackhole.consume(JsonPath.read(responseElements, SECURITY_GROUP_IDS_JSON_PATH));
+        blackhole.consume(JsonPath.read(responseElements, INSTANCES_SECURITY_GROUP_IDS_JSON_PATH));
+
+        final ObjectMapper mapper = new ObjectMapper();
+        final JSONArray items = JsonPath.read(responseElements, INSTANCE_JSON_PATH);
+        for (final Object item : items) {
+            final String instanceJson = mapper.writeValueAsString(item);
+            blackhole.consume(JsonPath.read(instanceJson, "$.instanceId"));
+            blackhole.consume(JsonPath.read(instanceJson, "$.imageId"));
+        }
+    }
+
+    @Benchmark
+    public void parseOnce(final Blackhole blackhole) {
+        final List<CloudTrailEvent> batch = singletonList(new CloudTrailEvent(eventData, null));
+        CloudTrailEventSupport.retainResponseElements(batch);
+        try {
+            final CloudTrailEvent event = batch.get(0);
+            blackhole.consume(CloudTrailEventSupport.getInstanceIds(event));
+            blackhole.consume(CloudTrailEventSupport.getInstanceLaunchTime(event));
+            blackhole.consume(CloudTrailEventSupport.readSecurityGroupIds(event));
+
+            final List<String> instances = CloudTrailEventSupport.getInstances(event);
+            for (final String instanceJson : instances) {
+                final DocumentContext instance = JsonPath.parse(instanceJson);
+                blackhole.consume(instance.read(INSTANCE_ID));
+                blackhole.consume(instance.read(IMAGE_ID));
+            }
+        } finally {
+            CloudTrailEventSupport.releaseResponseElements(batch);
+        }
+    }
+
+    static String runInstancesResponseElements(final int instanceCount) {
+        final StringBuilder json = new StringBuilder("{\"reservationId\":\"r-0815\",\"ownerId\":\"123456789012\",")
+                .append("\"groupSet\":{\"items\":[{\"groupId\":\"sg-00000001\",\"groupName\":\"app\"}]},")
+                .append("\"instancesSet\":{\"items\":[");
+        for (int i = 0; i < instanceCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"instanceId\":\"i-").append(String.format("%08x", i)).append("\",")
+                    .append("\"imageId\":\"ami-f4zz5287\",")
+                    .append("\"instanceState\":{\"code\":0,\"name\":\"pending\"},")
+                    .append("\"privateDnsName\":\"ip-172-31-0-").append(i).append(".eu-west-1.compute.internal\",")
+                    .append("\"keyName\":\"\",\"amiLaunchIndex\":").append(i).append(",")
+                    .append("\"productCodes\":{},\"instanceType\":\"t2.micro\",\"launchTime\":1446123107000,")
+                    .append("\"placement\":{\"availabilityZone\":\"eu-west-1b\",\"tenancy\":\"default\"},")
+                    .append("\"monitoring\":{\"state\":\"pending\"},\"subnetId\":\"subnet-57245220\",")
+                    .append("\"vpcId\":\"vpc-e1d74d84\",\"privateIpAddress\":\"172.31.0.").append(i).append("\",")
+                    .append("\"groupSet\":{\"items\":[{\"groupId\":\"sg-33616a66\",\"groupName\":\"app\"}]},")
+                    .append("\"architecture\":\"x86_64\",\"rootDeviceType\":\"ebs\",\"rootDeviceName\":\"/dev/sda1\",")
+                    .append("\"blockDeviceMapping\":{},\"virtualizationType\":\"hvm\",\"hypervisor\":\"xen\",")
+                    .append("\"tagSet\":{\"items\":[{\"key\":\"Name\",\"value\":\"app-").append(i).append("\"}]},")
+                    .append("\"ebsOptimized\":false}");
+        }
+        return json.append("]},\"requesterId\":\"226008221399\"}").toString();
+    }
+}
@@ -1,27 +1,34 @@
 package org.zalando.stups.fullstop;
 
 import com.amazonaws.services.cloudtrail.processinglibrary.AWSCloudTrailProcessingExecutor;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.SmartLifecycle;
-import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
+ * Starts and stops the {@link AWSCloudTrailProcessingExecutor}s of all {@link ProcessingShard}s together.
+ *
  * @author jbellmann
  */
-@Component
 public class AwsCloudTrailProcessingExecutorContainer implements SmartLifecycle {
 
-    private final AWSCloudTrailProcessingExecutor executor;
+    private final Logger log = LoggerFactory.getLogger(AwsCloudTrailProcessingExecutorContainer.class);
+
+    private final List<ProcessingShard> shards;
 
-    @Autowired
-    private final FullstopContainerProperties fullstopContainerProperties = new FullstopContainerProperties();
+    private final FullstopContainerProperties fullstopContainerProperties;
 
     private volatile boolean running = false;
 
-    @Autowired
-    public AwsCloudTrailProcessingExecutorContainer(final AWSCloudTrailProcessingExecutor executor) {
-        this.executor = executor;
+    public AwsCloudTrailProcessingExecutorContainer(final List<ProcessingShard> shards,
+                                                    final FullstopContainerProperties fullstopContainerProperties) {
+        Assert.notEmpty(shards, "Shards should never be empty");
+        this.shards = shards;
+        this.fullstopContainerProperties = fullstopContainerProperties;
     }
 
     @Override
@@ -30,8 +37,18 @@ public class AwsCloudTrailProcessingExecutorContainer implements SmartLifecycle
             return;
         }
 
-        Assert.notNull(executor, "Executor should never be null");
-        executor.start();
+        final List<ProcessingShard> started = new ArrayList<>(shards.size());
+        try {
+            for (final ProcessingShard shard : shards) {
+                shard.start();
+                started.add(shard);
+                log.info("Started {}", shard);
+            }
+        } catch (final RuntimeException e) {
+            // all or nothing
+            started.forEach(ProcessingShard::stop);
+            throw e;
+        }
         running = true;
     }
 
@@ -41,10 +58,15 @@ public class AwsCloudTrailProcessingExecutorContainer implements SmartLifecycle
             return;
         }
 
-        if (executor != null) {
-            executor.stop();
-            running = false;
-        }
+        // every executor waits for its threads to terminate, so stop them all at once
+        shards.parallelStream().forEach(shard -> {
+            try {
+                shard.stop();
+            } catch (final RuntimeException e) {
+                log.warn("Could not stop " + shard, e);
+            }
+        });
+        running = false;
     }
 
     @Override
@@ -70,4 +92,8 @@ public class AwsCloudTrailProcessingExecutorContainer implements SmartLifecycle
         callback.run();
     }
 
+    public List<ProcessingShard> getShards() {
+        return shards;
+    }
+
 }
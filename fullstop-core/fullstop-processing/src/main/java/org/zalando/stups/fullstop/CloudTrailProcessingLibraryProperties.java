@@ -2,20 +2,30 @@ package org.zalando.stups.fullstop;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 /**
  * Collects properties necessary for cloudtrailsprocessinglibrary.
+ * <p>
+ * Every entry of 'shards' runs its own executor, e.g. with its own 'sqsUrl', 'threadCount' and 'visibilityTimeout'.
+ * Shards inherit everything they do not set from 'properties'. Without shards, 'properties' configure the only one.
  *
  * @author jbellmann
  */
 @ConfigurationProperties(prefix = "fullstop.processor")
 public class CloudTrailProcessingLibraryProperties {
 
+    static final String SHARD_NAME = "name";
+
     private Map<String, String> properties = new HashMap<String, String>();
 
+    private List<Map<String, String>> shards = new ArrayList<>();
+
     public Map<String, String> getProperties() {
         return properties;
     }
@@ -24,10 +34,37 @@ public class CloudTrailProcessingLibraryProperties {
         this.properties = properties;
     }
 
+    public List<Map<String, String>> getShards() {
+        return shards;
+    }
+
+    public void setShards(final List<Map<String, String>> shards) {
+        this.shards = shards;
+    }
+
     public Properties getAsProperties() {
         final Properties properties = new Properties();
         properties.putAll(getProperties());
         return properties;
     }
 
+    /**
+     * @return the properties of every shard by its name, 'shard-{index}' unless it has a 'name'
+     */
+    public Map<String, Properties> getShardsAsProperties() {
+        final Map<String, Properties> result = new LinkedHashMap<>();
+        if (shards.isEmpty()) {
+            result.put("default", getAsProperties());
+            return result;
+        }
+
+        for (int i = 0; i < shards.size(); i++) {
+            final Properties properties = getAsProperties();
+            properties.putAll(shards.get(i));
+            final String name = (String) properties.remove(SHARD_NAME);
+            result.put(name != null ? name : "shard-" + i, properties);
+        }
+        return result;
+    }
+
 }
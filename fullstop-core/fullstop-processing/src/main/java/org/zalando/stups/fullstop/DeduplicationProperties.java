@@ -0,0 +1,49 @@
+package org.zalando.stups.fullstop;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Controls how long {@link EventDeduplicator} remembers processed events.
+ */
+@ConfigurationProperties(prefix = "fullstop.processor.deduplication")
+public class DeduplicationProperties {
+
+    /**
+     * Drop events that were processed before.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Minimum time an event id is remembered.
+     */
+    private long windowMinutes = 360;
+
+    /**
+     * Event ids remembered per window, two windows take about 70 bytes per id.
+     */
+    private int maxEventsPerWindow = 250_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    public void setWindowMinutes(final long windowMinutes) {
+        this.windowMinutes = windowMinutes;
+    }
+
+    public int getMaxEventsPerWindow() {
+        return maxEventsPerWindow;
+    }
+
+    public void setMaxEventsPerWindow(final int maxEventsPerWindow) {
+        this.maxEventsPerWindow = maxEventsPerWindow;
+    }
+}
@@ -0,0 +1,195 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Remembers the ids of processed events, so events delivered again by SQS or contained in overlapping log files are
+ * dropped before any plugin runs.
+ * <p>
+ * Ids are kept in two generations of primitive hash sets, at most half full with 17 bytes per slot. The current
+ * generation is retired once it is older than the window or full, so an id is remembered for at least one window
+ * unless more than {@code maxEventsPerWindow} events arrive within it.
+ * <p>
+ * Dropped events are counted as {@code fullstop.processor.events.duplicates}, the share of duplicates among all
+ * checked events is published as {@code fullstop.processor.deduplication.hitRate} in percent.
+ */
+public class EventDeduplicator {
+
+    static final String DUPLICATES_METRIC = "fullstop.processor.events.duplicates";
+
+    static final String HIT_RATE_METRIC = "fullstop.processor.deduplication.hitRate";
+
+    private final long windowMillis;
+
+    private final int maxEventsPerWindow;
+
+    private final Clock clock;
+
+    private final CounterService counterService;
+
+    private final GaugeService gaugeService;
+
+    private UuidSet current;
+
+    private UuidSet previous;
+
+    private long currentSince;
+
+    private long lookups;
+
+    private long hits;
+
+    public EventDeduplicator(final DeduplicationProperties properties, final CounterService counterService,
+                             final GaugeService gaugeService) {
+        this(properties, counterService, gaugeService, Clock.systemUTC());
+    }
+
+    EventDeduplicator(final DeduplicationProperties properties, final CounterService counterService,
+                      final GaugeService gaugeService, final Clock clock) {
+        this.windowMillis = properties.getWindowMinutes() * 60_000L;
+        this.maxEventsPerWindow = Math.max(1, properties.getMaxEventsPerWindow());
+        this.counterService = counterService;
+        this.gaugeService = gaugeService;
+        this.clock = clock;
+        this.current = new UuidSet(maxEventsPerWindow);
+        this.previous = new UuidSet(maxEventsPerWindow);
+        this.currentSince = clock.millis();
+    }
+
+    /**
+     * @return the events not seen before, duplicates within the batch are dropped as well
+     */
+    public List<CloudTrailEvent> dropDuplicates(final List<CloudTrailEvent> events) {
+        final List<CloudTrailEvent> unseen = new ArrayList<>(events.size());
+        final Set<UUID> inBatch = new HashSet<>();
+        int duplicates = 0;
+        synchronized (this) {
+            for (final CloudTrailEvent event : events) {
+                final UUID eventId = eventId(event);
+                if (eventId == null) {
+                    unseen.add(event);
+                } else if (contains(eventId) || !inBatch.add(eventId)) {
+                    duplicates++;
+                } else {
+                    unseen.add(event);
+                }
+                lookups++;
+            }
+            hits += duplicates;
+            gaugeService.submit(HIT_RATE_METRIC, lookups > 0 ? hits * 100.0 / lookups : 0);
+        }
+
+        for (int i = 0; i < duplicates; i++) {
+            counterService.increment(DUPLICATES_METRIC);
+        }
+        return unseen;
+    }
+
+    /**
+     * Remembers the events, called after they were processed so a failed batch can be delivered again.
+     */
+    public synchronized void markSeen(final List<CloudTrailEvent> events) {
+        for (final CloudTrailEvent event : events) {
+            final UUID eventId = eventId(event);
+            if (eventId != null) {
+                rotateIfNecessary();
+                current.add(eventId.getMostSignificantBits(), eventId.getLeastSignificantBits());
+            }
+        }
+    }
+
+    private boolean contains(final UUID eventId) {
+        rotateIfNecessary();
+        final long msb = eventId.getMostSignificantBits();
+        final long lsb = eventId.getLeastSignificantBits();
+        return current.contains(msb, lsb) || previous.contains(msb, lsb);
+    }
+
+    private void rotateIfNecessary() {
+        final long now = clock.millis();
+        if (now - currentSince >= windowMillis || current.size() >= maxEventsPerWindow) {
+            final UuidSet retired = previous;
+            retired.clear();
+            previous = current;
+            current = retired;
+            currentSince = now;
+        }
+    }
+
+    private static UUID eventId(final CloudTrailEvent event) {
+        final CloudTrailEventData eventData = event.getEventData();
+        return eventData != null ? eventData.getEventId() : null;
+    }
+
+    /**
+     * Open addressing set of (most, least) significant bits with linear probing, never resized.
+     */
+    static class UuidSet {
+
+        private final long[] msbs;
+
+        private final long[] lsbs;
+
+        private final boolean[] used;
+
+        private final int mask;
+
+        private int size;
+
+        UuidSet(final int maxSize) {
+            // at most half full keeps the probe sequences short
+            final int capacity = Integer.highestOneBit(Math.max(2, maxSize) * 2 - 1) << 1;
+            this.msbs = new long[capacity];
+            this.lsbs = new long[capacity];
+            this.used = new boolean[capacity];
+            this.mask = capacity - 1;
+        }
+
+        boolean contains(final long msb, final long lsb) {
+            for (int i = index(msb, lsb); used[i]; i = (i + 1) & mask) {
+                if (msbs[i] == msb && lsbs[i] == lsb) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(final long msb, final long lsb) {
+            int i = index(msb, lsb);
+            for (; used[i]; i = (i + 1) & mask) {
+                if (msbs[i] == msb && lsbs[i] == lsb) {
+                    return;
+                }
+            }
+            msbs[i] = msb;
+            lsbs[i] = lsb;
+            used[i] = true;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+
+        private int index(final long msb, final long lsb) {
+            final long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
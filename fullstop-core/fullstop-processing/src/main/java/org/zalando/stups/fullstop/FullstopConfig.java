@@ -3,14 +3,22 @@ package org.zalando.stups.fullstop;
 import com.amazonaws.services.cloudtrail.processinglibrary.AWSCloudTrailProcessingExecutor;
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.plugin.core.PluginRegistry;
+import org.zalando.stups.fullstop.plugin.EventBatchListener;
 import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+import org.zalando.stups.fullstop.violation.BufferingViolationSink;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
-@EnableConfigurationProperties({ FullstopContainerProperties.class, CloudTrailProcessingLibraryProperties.class })
+@EnableConfigurationProperties({ FullstopContainerProperties.class, CloudTrailProcessingLibraryProperties.class,
+        PluginExecutionProperties.class, DeduplicationProperties.class })
 public class FullstopConfig {
 
     @Autowired
@@ -19,20 +27,67 @@ public class FullstopConfig {
     @Autowired
     private CloudTrailProcessingLibraryProperties cloudTrailsProcessingLibraryProperties;
 
+    @Autowired
+    private FullstopContainerProperties fullstopContainerProperties;
+
+    @Autowired
+    private PluginExecutionProperties pluginExecutionProperties;
+
+    @Autowired
+    private DeduplicationProperties deduplicationProperties;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private GaugeService gaugeService;
+
+    @Autowired
+    private MetricsProgressReporter metricsProgressReporter;
+
+    @Autowired(required = false)
+    private List<EventBatchListener> eventBatchListeners;
+
+    @Autowired(required = false)
+    private List<BufferingViolationSink> bufferingViolationSinks;
+
     @Bean
     public PluginEventsProcessor pluginEventsProcessor() {
-        return new PluginEventsProcessor(fullstopPluginRegistry);
+        final PluginBulkheadExecutor bulkheadExecutor = pluginExecutionProperties.isBulkhead()
+                ? new PluginBulkheadExecutor(pluginExecutionProperties, counterService, gaugeService)
+                : null;
+        final EventDeduplicator deduplicator = deduplicationProperties.isEnabled()
+                ? new EventDeduplicator(deduplicationProperties, counterService, gaugeService)
+                : null;
+        return new PluginEventsProcessor(fullstopPluginRegistry, bulkheadExecutor, eventBatchListeners, deduplicator);
+    }
 
+    @Bean
+    public PluginAwareEventFilter pluginAwareEventFilter() {
+        return new PluginAwareEventFilter(pluginEventsProcessor(), counterService);
+    }
+
+    @Bean
+    public ThrottlingProgressReporter throttlingProgressReporter() {
+        return new ThrottlingProgressReporter(metricsProgressReporter, bufferingViolationSinks, counterService,
+                gaugeService);
     }
 
     /**
-     * @return {@link AWSCloudTrailProcessingExecutor}
+     * @return one {@link ProcessingShard} per configured queue, sharing the plugins
      */
     @Bean
-    public AWSCloudTrailProcessingExecutor awsCloudTrailProcessingExecutor() {
-        return new AWSCloudTrailProcessingExecutor.Builder(
-                pluginEventsProcessor(),
-                new ExtPropertiesFileConfiguration(cloudTrailsProcessingLibraryProperties.getAsProperties())).withProgressReporter(
-                new NoOpsProgressReporter()).build();
+    public AwsCloudTrailProcessingExecutorContainer awsCloudTrailProcessingExecutorContainer() {
+        final List<ProcessingShard> shards = new ArrayList<>();
+        cloudTrailsProcessingLibraryProperties.getShardsAsProperties().forEach((name, properties) -> {
+            final ShardMetrics metrics = new ShardMetrics(name, counterService);
+            final AWSCloudTrailProcessingExecutor executor = new AWSCloudTrailProcessingExecutor.Builder(
+                    metrics.measure(pluginEventsProcessor()),
+                    new ExtPropertiesFileConfiguration(properties))
+                    .withEventFilter(pluginAwareEventFilter())
+                    .withProgressReporter(metrics.measure(throttlingProgressReporter())).build();
+            shards.add(new ProcessingShard(name, executor));
+        });
+        return new AwsCloudTrailProcessingExecutorContainer(shards, fullstopContainerProperties);
     }
 }
@@ -0,0 +1,118 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.ProgressReporter;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailLog;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.BasicPollQueueInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressLogInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressState;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.plugin.EventBatchListener;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times every {@link ProgressState} of the CloudTrail processing library, e.g. 'pollQueue', 'downloadLog',
+ * 'processLog' and 'deleteMessage', as {@code timer.fullstop.processor.<state>} and counts the outcome as
+ * {@code fullstop.processor.<state>.success|failure}. The stages currently running are published as
+ * {@code fullstop.processor.<state>.inFlight} and {@code fullstop.processor.inFlight}.
+ * <p>
+ * Messages per poll, and events and bytes per log file, are published as histograms. Events are counted while the
+ * {@link PluginEventsProcessor} gets them, on the thread that processes the log.
+ */
+@Component
+public class MetricsProgressReporter implements ProgressReporter, EventBatchListener {
+
+    static final String METRIC_PREFIX = "fullstop.processor.";
+
+    private final CounterService counterService;
+
+    private final GaugeService gaugeService;
+
+    private final Map<ProgressState, AtomicInteger> inFlightByState = new EnumMap<>(ProgressState.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final ThreadLocal<int[]> eventsOfCurrentLog = new ThreadLocal<>();
+
+    @Autowired
+    public MetricsProgressReporter(final CounterService counterService, final GaugeService gaugeService) {
+        this.counterService = counterService;
+        this.gaugeService = gaugeService;
+        for (final ProgressState state : ProgressState.values()) {
+            inFlightByState.put(state, new AtomicInteger());
+        }
+    }
+
+    @Override
+    public Object reportStart(final ProgressStatus status) {
+        final ProgressState state = status.getProgressState();
+        if (state == ProgressState.processLog) {
+            eventsOfCurrentLog.set(new int[1]);
+        }
+        gaugeService.submit(metric(state, "inFlight"), inFlightByState.get(state).incrementAndGet());
+        gaugeService.submit(METRIC_PREFIX + "inFlight", inFlight.incrementAndGet());
+        return System.nanoTime();
+    }
+
+    @Override
+    public void reportEnd(final ProgressStatus status, final Object startNanos) {
+        final ProgressState state = status.getProgressState();
+        if (startNanos instanceof Long) {
+            gaugeService.submit("timer." + METRIC_PREFIX + state,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - (Long) startNanos));
+            gaugeService.submit(metric(state, "inFlight"), inFlightByState.get(state).decrementAndGet());
+            gaugeService.submit(METRIC_PREFIX + "inFlight", inFlight.decrementAndGet());
+        }
+
+        final ProgressInfo info = status.getProgressInfo();
+        final boolean success = info != null && info.isSuccess();
+        counterService.increment(metric(state, success ? "success" : "failure"));
+
+        if (info instanceof BasicPollQueueInfo) {
+            gaugeService.submit("histogram." + metric(state, "messages"),
+                    ((BasicPollQueueInfo) info).getSuccessPolledMessageCount());
+        }
+        if (state == ProgressState.processLog) {
+            reportLog(info);
+        }
+    }
+
+    private void reportLog(final ProgressInfo info) {
+        final int[] events = eventsOfCurrentLog.get();
+        eventsOfCurrentLog.remove();
+        if (events != null) {
+            gaugeService.submit("histogram." + metric(ProgressState.processLog, "events"), events[0]);
+        }
+
+        final CloudTrailLog ctLog = info instanceof ProgressLogInfo ? ((ProgressLogInfo) info).getLog() : null;
+        if (ctLog != null && ctLog.getLogFileSize() > 0) {
+            gaugeService.submit("histogram." + metric(ProgressState.processLog, "bytes"), ctLog.getLogFileSize());
+        }
+    }
+
+    @Override
+    public void beforeBatch(final List<CloudTrailEvent> events) {
+        final int[] count = eventsOfCurrentLog.get();
+        if (count != null) {
+            count[0] += events.size();
+        }
+    }
+
+    @Override
+    public void afterBatch(final List<CloudTrailEvent> events) {
+    }
+
+    private static String metric(final ProgressState state, final String suffix) {
+        return METRIC_PREFIX + state + "." + suffix;
+    }
+}
@@ -0,0 +1,60 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.EventFilter;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.springframework.boot.actuate.metrics.CounterService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops events no registered {@link org.zalando.stups.fullstop.plugin.FullstopPlugin} is a candidate for, before they
+ * are buffered and handed to the {@link PluginEventsProcessor}. Uses the same {@link PluginRoutingIndex} as the
+ * processor, so plugins without declared events keep receiving everything.
+ * <p>
+ * Dropped events are counted as {@code fullstop.processor.events.filtered}.
+ */
+public class PluginAwareEventFilter implements EventFilter {
+
+    static final String FILTERED_METRIC = "fullstop.processor.events.filtered";
+
+    private final PluginEventsProcessor pluginEventsProcessor;
+
+    private final CounterService counterService;
+
+    private final AtomicLong filteredEvents = new AtomicLong();
+
+    public PluginAwareEventFilter(final PluginEventsProcessor pluginEventsProcessor,
+                                  final CounterService counterService) {
+        this.pluginEventsProcessor = pluginEventsProcessor;
+        this.counterService = counterService;
+    }
+
+    @Override
+    public boolean filterEvent(final CloudTrailEvent event) {
+        final CloudTrailEventData eventData = event.getEventData();
+        return eventData == null || isRelevant(eventData.getEventSource(), eventData.getEventName());
+    }
+
+    /**
+     * Decides on 'eventSource' and 'eventName' alone, so a record can be skipped before it is deserialized.
+     *
+     * @return true if at least one plugin may support such an event
+     */
+    public boolean isRelevant(final String eventSource, final String eventName) {
+        if (!pluginEventsProcessor.getRoutingIndex().getCandidates(eventSource, eventName).isEmpty()) {
+            return true;
+        }
+
+        filteredEvents.incrementAndGet();
+        counterService.increment(FILTERED_METRIC);
+        return false;
+    }
+
+    /**
+     * @return the number of events dropped since startup
+     */
+    public long getFilteredEvents() {
+        return filteredEvents.get();
+    }
+}
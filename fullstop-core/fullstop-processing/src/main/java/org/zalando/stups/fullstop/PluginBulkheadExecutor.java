@@ -0,0 +1,148 @@
+package org.zalando.stups.fullstop;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs every {@link FullstopPlugin} on its own bounded executor, so a slow or hanging plugin only delays its own
+ * events.
+ * <p>
+ * Tasks exceeding the queue of a plugin are rejected, tasks still running when the batch timeout is reached are
+ * cancelled. Both are counted per plugin, next to a gauge for the queue depth:
+ * <ul>
+ * <li>{@code fullstop.processor.plugins.<plugin>.rejected}</li>
+ * <li>{@code fullstop.processor.plugins.<plugin>.timeouts}</li>
+ * <li>{@code fullstop.processor.plugins.<plugin>.queue}</li>
+ * </ul>
+ */
+public class PluginBulkheadExecutor {
+
+    private static final String METRIC_PREFIX = "fullstop.processor.plugins.";
+
+    private final Logger log = LoggerFactory.getLogger(PluginBulkheadExecutor.class);
+
+    private final Map<FullstopPlugin, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private final PluginExecutionProperties properties;
+
+    private final CounterService counterService;
+
+    private final GaugeService gaugeService;
+
+    public PluginBulkheadExecutor(final PluginExecutionProperties properties, final CounterService counterService,
+                                  final GaugeService gaugeService) {
+        this.properties = properties;
+        this.counterService = counterService;
+        this.gaugeService = gaugeService;
+    }
+
+    /**
+     * Queues the task on the executor of the plugin.
+     *
+     * @return the future of the task, or null if the queue of the plugin is full
+     */
+    public Future<?> submit(final FullstopPlugin plugin, final Runnable task) {
+        final Bulkhead bulkhead = bulkheads.computeIfAbsent(plugin, Bulkhead::new);
+        try {
+            final Future<?> future = bulkhead.executor.submit(task);
+            gaugeService.submit(bulkhead.metric("queue"), bulkhead.executor.getQueue().size());
+            return future;
+        } catch (final RejectedExecutionException e) {
+            log.warn("Queue of plugin {} is full, skipping event", bulkhead.name);
+            counterService.increment(bulkhead.metric("rejected"));
+            return null;
+        }
+    }
+
+    /**
+     * Waits for all submitted tasks of a batch. Tasks not finished within the batch timeout are cancelled.
+     *
+     * @param futures the submitted tasks, keyed by their plugin
+     */
+    public void awaitAll(final Map<FullstopPlugin, List<Future<?>>> futures) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(properties.getBatchTimeoutSeconds());
+        for (final Map.Entry<FullstopPlugin, List<Future<?>>> entry : futures.entrySet()) {
+            final Bulkhead bulkhead = bulkheads.get(entry.getKey());
+            int timeouts = 0;
+            for (final Future<?> future : entry.getValue()) {
+                try {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (final TimeoutException e) {
+                    future.cancel(true);
+                    timeouts++;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelAll(futures);
+                    return;
+                } catch (final ExecutionException | CancellationException e) {
+                    // plugin failures are logged by the task itself
+                    log.debug(e.getMessage(), e);
+                }
+            }
+            if (timeouts > 0) {
+                log.warn("Plugin {} did not finish {} events within {} seconds", bulkhead.name, timeouts,
+                        properties.getBatchTimeoutSeconds());
+                for (int i = 0; i < timeouts; i++) {
+                    counterService.increment(bulkhead.metric("timeouts"));
+                }
+            }
+            gaugeService.submit(bulkhead.metric("queue"), bulkhead.executor.getQueue().size());
+        }
+    }
+
+    /**
+     * Stops all plugin executors, running tasks are interrupted.
+     */
+    public void shutdown() {
+        final List<Bulkhead> all = new ArrayList<>(bulkheads.values());
+        bulkheads.clear();
+        all.forEach(bulkhead -> bulkhead.executor.shutdownNow());
+    }
+
+    private static void cancelAll(final Map<FullstopPlugin, List<Future<?>>> futures) {
+        futures.values().forEach(list -> list.forEach(future -> future.cancel(true)));
+    }
+
+    private final class Bulkhead {
+
+        private final String name;
+
+        private final ThreadPoolExecutor executor;
+
+        private Bulkhead(final FullstopPlugin plugin) {
+            this.name = plugin.getClass().getSimpleName();
+            final int threads = Math.max(1, properties.getThreadsPerPlugin());
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacityPerPlugin())),
+                    threadFactory(name),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        private String metric(final String suffix) {
+            return METRIC_PREFIX + name + "." + suffix;
+        }
+    }
+
+    private static CustomizableThreadFactory threadFactory(final String name) {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("plugin-" + name + "-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
@@ -6,32 +6,111 @@ import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent
 import com.netflix.hystrix.exception.HystrixRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.plugin.core.PluginRegistry;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpServerErrorException;
+import org.zalando.stups.fullstop.plugin.EventBatchListener;
 import org.zalando.stups.fullstop.plugin.FullstopPlugin;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Simple {@link EventsProcessor} that delegates to {@link FullstopPlugin}s that can procces the {@link CloudTrailEvent}.
+ * <p>
+ * Plugins are called one after another on the calling thread, unless a {@link PluginBulkheadExecutor} is given.
+ * Every batch is framed by calls to the {@link EventBatchListener}s. With an {@link EventDeduplicator} events that were
+ * processed before are dropped first.
  */
 @Component
-public class PluginEventsProcessor implements EventsProcessor {
+public class PluginEventsProcessor implements EventsProcessor, DisposableBean {
 
     private final Logger log = LoggerFactory.getLogger(PluginEventsProcessor.class);
 
     private final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry;
 
+    private final PluginBulkheadExecutor bulkheadExecutor;
+
+    private final List<EventBatchListener> eventBatchListeners;
+
+    private final EventDeduplicator deduplicator;
+
+    private volatile PluginRoutingIndex routingIndex;
+
     @Autowired
     public PluginEventsProcessor(final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry) {
+        this(fullstopPluginRegistry, null);
+    }
+
+    public PluginEventsProcessor(final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry,
+                                 final PluginBulkheadExecutor bulkheadExecutor) {
+        this(fullstopPluginRegistry, bulkheadExecutor, Collections.emptyList());
+    }
+
+    public PluginEventsProcessor(final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry,
+                                 final PluginBulkheadExecutor bulkheadExecutor,
+                                 final List<EventBatchListener> eventBatchListeners) {
+        this(fullstopPluginRegistry, bulkheadExecutor, eventBatchListeners, null);
+    }
+
+    public PluginEventsProcessor(final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry,
+                                 final PluginBulkheadExecutor bulkheadExecutor,
+                                 final List<EventBatchListener> eventBatchListeners,
+                                 final EventDeduplicator deduplicator) {
         this.fullstopPluginRegistry = fullstopPluginRegistry;
+        this.bulkheadExecutor = bulkheadExecutor;
+        this.eventBatchListeners = eventBatchListeners != null ? eventBatchListeners : Collections.emptyList();
+        this.deduplicator = deduplicator;
     }
 
     @Override
-    public void process(final List<CloudTrailEvent> events) throws CallbackException {
-        events.forEach(this::doProcess);
+    public void process(final List<CloudTrailEvent> batch) throws CallbackException {
+        final List<CloudTrailEvent> events = deduplicator != null ? deduplicator.dropDuplicates(batch) : batch;
+        if (events.isEmpty()) {
+            return;
+        }
+
+        eventBatchListeners.forEach(listener -> listener.beforeBatch(events));
+        try {
+            if (bulkheadExecutor == null) {
+                events.forEach(this::doProcess);
+            } else {
+                doProcessInBulkheads(events);
+            }
+            if (deduplicator != null) {
+                deduplicator.markSeen(events);
+            }
+        } finally {
+            for (final EventBatchListener listener : eventBatchListeners) {
+                try {
+                    listener.afterBatch(events);
+                } catch (final Exception e) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands every (event, plugin) pair to the executor of the plugin and returns when all of them are done or timed out.
+     */
+    protected void doProcessInBulkheads(final List<CloudTrailEvent> events) {
+        final Map<FullstopPlugin, List<Future<?>>> futures = new LinkedHashMap<>();
+        for (final CloudTrailEvent event : events) {
+            for (final FullstopPlugin plugin : getPluginsForEvent(event)) {
+                final Future<?> future = bulkheadExecutor.submit(plugin, () -> doProcess(event, plugin));
+                if (future != null) {
+                    futures.computeIfAbsent(plugin, p -> new ArrayList<>()).add(future);
+                }
+            }
+        }
+        bulkheadExecutor.awaitAll(futures);
     }
 
     /**
@@ -59,12 +138,44 @@ public class PluginEventsProcessor implements EventsProcessor {
     }
 
     /**
-     * Returns a list of plugins configured.
+     * Returns the plugins supporting the event. Only the candidates from the {@link PluginRoutingIndex} are asked.
      *
-     * @return list of plugins configured
+     * @return list of plugins supporting the event
      */
     protected List<FullstopPlugin> getPluginsForEvent(final CloudTrailEvent event) {
-        return this.fullstopPluginRegistry.getPluginsFor(event);
+        final List<FullstopPlugin> candidates = getRoutingIndex().getCandidates(event);
+        final List<FullstopPlugin> plugins = new ArrayList<>(candidates.size());
+        for (final FullstopPlugin candidate : candidates) {
+            if (candidate.supports(event)) {
+                plugins.add(candidate);
+            }
+        }
+        return plugins;
+    }
+
+    /**
+     * The index is built on first use, the registry might not be populated earlier.
+     */
+    protected PluginRoutingIndex getRoutingIndex() {
+        PluginRoutingIndex index = routingIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = routingIndex;
+                if (index == null) {
+                    index = new PluginRoutingIndex(fullstopPluginRegistry.getPlugins());
+                    log.info("Built plugin routing index for {} plugins, {} of them receive every event",
+                            index.getPlugins().size(), index.getCatchAllPlugins().size());
+                    routingIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
+    @Override
+    public void destroy() {
+        if (bulkheadExecutor != null) {
+            bulkheadExecutor.shutdown();
+        }
+    }
 }
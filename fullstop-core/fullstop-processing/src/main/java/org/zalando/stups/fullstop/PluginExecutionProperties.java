@@ -0,0 +1,64 @@
+package org.zalando.stups.fullstop;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Controls how {@link PluginEventsProcessor} runs the plugins.
+ *
+ * @see PluginBulkheadExecutor
+ */
+@ConfigurationProperties(prefix = "fullstop.processor.plugin-execution")
+public class PluginExecutionProperties {
+
+    /**
+     * Run every plugin on its own bounded executor instead of the callback thread of the CloudTrail library.
+     */
+    private boolean bulkhead = false;
+
+    /**
+     * Threads per plugin. With one thread a plugin sees the events in the order they were delivered.
+     */
+    private int threadsPerPlugin = 1;
+
+    /**
+     * Events queued per plugin before further events for this plugin are rejected.
+     */
+    private int queueCapacityPerPlugin = 500;
+
+    /**
+     * Maximum time to wait for all plugins to finish a batch, unfinished tasks are cancelled afterwards.
+     */
+    private long batchTimeoutSeconds = 120;
+
+    public boolean isBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(final boolean bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public int getThreadsPerPlugin() {
+        return threadsPerPlugin;
+    }
+
+    public void setThreadsPerPlugin(final int threadsPerPlugin) {
+        this.threadsPerPlugin = threadsPerPlugin;
+    }
+
+    public int getQueueCapacityPerPlugin() {
+        return queueCapacityPerPlugin;
+    }
+
+    public void setQueueCapacityPerPlugin(final int queueCapacityPerPlugin) {
+        this.queueCapacityPerPlugin = queueCapacityPerPlugin;
+    }
+
+    public long getBatchTimeoutSeconds() {
+        return batchTimeoutSeconds;
+    }
+
+    public void setBatchTimeoutSeconds(final long batchTimeoutSeconds) {
+        this.batchTimeoutSeconds = batchTimeoutSeconds;
+    }
+}
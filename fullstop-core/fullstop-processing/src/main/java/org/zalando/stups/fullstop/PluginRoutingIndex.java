@@ -0,0 +1,123 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Maps 'eventSource' and 'eventName' of {@link CloudTrailEvent}s to the {@link FullstopPlugin}s that may support them.
+ * <p>
+ * Built once from the registered plugins, see {@link SupportedEventsProvider}. Plugins not declaring their events are
+ * candidates for every event. The registration order of the plugins is kept in every candidate list.
+ */
+public class PluginRoutingIndex {
+
+    private final List<FullstopPlugin> plugins;
+
+    private final List<FullstopPlugin> catchAllPlugins;
+
+    private final Map<String, SourceRoutes> routesBySource = new HashMap<>();
+
+    public PluginRoutingIndex(final List<FullstopPlugin> plugins) {
+        this.plugins = unmodifiableList(new ArrayList<>(plugins));
+
+        final Map<FullstopPlugin, Set<EventKey>> supportedEvents = new HashMap<>();
+        final Map<String, Set<String>> eventNamesBySource = new HashMap<>();
+        for (final FullstopPlugin plugin : this.plugins) {
+            if (plugin instanceof SupportedEventsProvider) {
+                final Set<EventKey> keys = ((SupportedEventsProvider) plugin).getSupportedEvents();
+                supportedEvents.put(plugin, keys != null ? keys : emptySet());
+                for (final EventKey key : supportedEvents.get(plugin)) {
+                    final Set<String> names = eventNamesBySource.computeIfAbsent(key.getEventSource(), s -> new HashSet<>());
+                    if (!key.isAnyEventName()) {
+                        names.add(key.getEventName());
+                    }
+                }
+            }
+        }
+
+        this.catchAllPlugins = candidates(supportedEvents, null, null);
+
+        for (final Map.Entry<String, Set<String>> entry : eventNamesBySource.entrySet()) {
+            final String source = entry.getKey();
+            final Map<String, List<FullstopPlugin>> byName = new HashMap<>();
+            for (final String name : entry.getValue()) {
+                byName.put(name, candidates(supportedEvents, source, name));
+            }
+            routesBySource.put(source, new SourceRoutes(candidates(supportedEvents, source, null), byName));
+        }
+    }
+
+    /**
+     * @return the plugins that may support the given event, in registration order
+     */
+    public List<FullstopPlugin> getCandidates(final CloudTrailEvent event) {
+        final CloudTrailEventData eventData = event.getEventData();
+        if (eventData == null) {
+            return catchAllPlugins;
+        }
+
+        return getCandidates(eventData.getEventSource(), eventData.getEventName());
+    }
+
+    public List<FullstopPlugin> getCandidates(final String eventSource, final String eventName) {
+        final SourceRoutes routes = eventSource != null ? routesBySource.get(eventSource) : null;
+        if (routes == null) {
+            return catchAllPlugins;
+        }
+
+        final List<FullstopPlugin> byName = eventName != null ? routes.byName.get(eventName) : null;
+        return byName != null ? byName : routes.anyName;
+    }
+
+    public List<FullstopPlugin> getPlugins() {
+        return plugins;
+    }
+
+    public List<FullstopPlugin> getCatchAllPlugins() {
+        return catchAllPlugins;
+    }
+
+    /**
+     * Collects all plugins matching the given source and name in registration order. A null source or name only
+     * matches plugins that are not restricted to it.
+     */
+    private List<FullstopPlugin> candidates(final Map<FullstopPlugin, Set<EventKey>> supportedEvents,
+                                            final String eventSource, final String eventName) {
+        final List<FullstopPlugin> result = new ArrayList<>();
+        for (final FullstopPlugin plugin : plugins) {
+            final Set<EventKey> keys = supportedEvents.get(plugin);
+            if (keys == null
+                    || (eventSource != null && keys.contains(EventKey.anyOf(eventSource)))
+                    || (eventSource != null && eventName != null && keys.contains(EventKey.of(eventSource, eventName)))) {
+                result.add(plugin);
+            }
+        }
+        return unmodifiableList(result);
+    }
+
+    private static final class SourceRoutes {
+
+        private final List<FullstopPlugin> anyName;
+
+        private final Map<String, List<FullstopPlugin>> byName;
+
+        private SourceRoutes(final List<FullstopPlugin> anyName, final Map<String, List<FullstopPlugin>> byName) {
+            this.anyName = anyName;
+            this.byName = byName.isEmpty() ? emptyMap() : byName;
+        }
+    }
+}
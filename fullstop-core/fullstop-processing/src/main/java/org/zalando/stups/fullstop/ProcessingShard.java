@@ -0,0 +1,37 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.AWSCloudTrailProcessingExecutor;
+
+/**
+ * One {@link AWSCloudTrailProcessingExecutor} polling its own queue, all of them share the plugins.
+ *
+ * @see AwsCloudTrailProcessingExecutorContainer
+ */
+public class ProcessingShard {
+
+    private final String name;
+
+    private final AWSCloudTrailProcessingExecutor executor;
+
+    public ProcessingShard(final String name, final AWSCloudTrailProcessingExecutor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void start() {
+        executor.start();
+    }
+
+    public void stop() {
+        executor.stop();
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessingShard{name='" + name + "'}";
+    }
+}
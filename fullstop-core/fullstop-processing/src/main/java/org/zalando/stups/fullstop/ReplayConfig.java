@@ -0,0 +1,60 @@
+package org.zalando.stups.fullstop;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.zalando.stups.fullstop.filereader.CloudTrailLogReplayer;
+
+/**
+ * With the 'replay' profile Fullstop replays the archived CloudTrail log files below
+ * {@code fullstop.replay.directory} through the plugins and exits, instead of polling SQS.
+ */
+@Configuration
+@Profile("replay")
+@EnableConfigurationProperties(ReplayProperties.class)
+public class ReplayConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayConfig.class);
+
+    @Autowired
+    private ReplayProperties replayProperties;
+
+    @Autowired
+    private PluginEventsProcessor pluginEventsProcessor;
+
+    @Autowired
+    private PluginAwareEventFilter pluginAwareEventFilter;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Bean
+    public CloudTrailLogReplayer cloudTrailLogReplayer() {
+        return new CloudTrailLogReplayer(replayProperties, pluginEventsProcessor, pluginAwareEventFilter);
+    }
+
+    @Bean
+    public ApplicationRunner replayRunner() {
+        return args -> {
+            final CloudTrailLogReplayer replayer = cloudTrailLogReplayer();
+            int exitCode = 0;
+            try {
+                replayer.replay();
+                exitCode = replayer.getFailedFiles() == 0 ? 0 : 1;
+            }
+            catch (final Exception e) {
+                log.error("Replay failed", e);
+                exitCode = 1;
+            }
+            final int code = exitCode;
+            System.exit(SpringApplication.exit(applicationContext, () -> code));
+        };
+    }
+}
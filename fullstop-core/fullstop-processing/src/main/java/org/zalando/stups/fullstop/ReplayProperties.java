@@ -0,0 +1,77 @@
+package org.zalando.stups.fullstop;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Controls the replay of archived CloudTrail log files with the 'replay' profile.
+ *
+ * @see org.zalando.stups.fullstop.filereader.CloudTrailLogReplayer
+ */
+@ConfigurationProperties(prefix = "fullstop.replay")
+public class ReplayProperties {
+
+    /**
+     * Local copy of the CloudTrail bucket, every '*.json.gz' file below is replayed.
+     */
+    private String directory;
+
+    /**
+     * Keeps the files replayed so far, a restarted replay skips them. Defaults to a file in the replayed directory.
+     */
+    private String checkpointFile;
+
+    /**
+     * Files decompressed and parsed in parallel.
+     */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Events handed to the plugins at once.
+     */
+    private int maxEventsPerEmit = 500;
+
+    /**
+     * Interval to log the throughput.
+     */
+    private long reportIntervalSeconds = 10;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(final String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(final int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxEventsPerEmit() {
+        return maxEventsPerEmit;
+    }
+
+    public void setMaxEventsPerEmit(final int maxEventsPerEmit) {
+        this.maxEventsPerEmit = maxEventsPerEmit;
+    }
+
+    public long getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    public void setReportIntervalSeconds(final long reportIntervalSeconds) {
+        this.reportIntervalSeconds = reportIntervalSeconds;
+    }
+}
@@ -0,0 +1,64 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.EventsProcessor;
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.ProgressReporter;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.BasicPollQueueInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressState;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressStatus;
+import org.springframework.boot.actuate.metrics.CounterService;
+
+/**
+ * Measures the throughput of one {@link ProcessingShard} by wrapping the {@link EventsProcessor} and
+ * {@link ProgressReporter} it shares with the other shards. With Dropwizard metrics the 'meter.' prefix turns the
+ * counters into rates:
+ * <ul>
+ * <li>{@code meter.fullstop.processor.shards.<name>.messages}, notifications polled from SQS</li>
+ * <li>{@code meter.fullstop.processor.shards.<name>.logs}, log files processed</li>
+ * <li>{@code meter.fullstop.processor.shards.<name>.events}, events handed to the plugins</li>
+ * </ul>
+ */
+public class ShardMetrics {
+
+    private final String prefix;
+
+    private final CounterService counterService;
+
+    public ShardMetrics(final String shardName, final CounterService counterService) {
+        this.prefix = "meter.fullstop.processor.shards." + shardName + ".";
+        this.counterService = counterService;
+    }
+
+    public EventsProcessor measure(final EventsProcessor eventsProcessor) {
+        return events -> {
+            eventsProcessor.process(events);
+            mark("events", events.size());
+        };
+    }
+
+    public ProgressReporter measure(final ProgressReporter progressReporter) {
+        return new ProgressReporter() {
+
+            @Override
+            public Object reportStart(final ProgressStatus status) {
+                return progressReporter.reportStart(status);
+            }
+
+            @Override
+            public void reportEnd(final ProgressStatus status, final Object object) {
+                progressReporter.reportEnd(status, object);
+                if (status.getProgressInfo() instanceof BasicPollQueueInfo) {
+                    mark("messages", ((BasicPollQueueInfo) status.getProgressInfo()).getSuccessPolledMessageCount());
+                } else if (status.getProgressState() == ProgressState.processLog
+                        && status.getProgressInfo() != null && status.getProgressInfo().isSuccess()) {
+                    mark("logs", 1);
+                }
+            }
+        };
+    }
+
+    private void mark(final String metric, final int count) {
+        for (int i = 0; i < count; i++) {
+            counterService.increment(prefix + metric);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.ProgressReporter;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressState;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.zalando.stups.fullstop.violation.BufferingViolationSink;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pauses polling SQS while a {@link BufferingViolationSink} is saturated, so notifications stay in the queue instead
+ * of piling up as violations in memory. The CloudTrail processing library polls right after reporting the start of
+ * 'pollQueue', which is where this reporter waits. Everything is reported to the delegate afterwards.
+ * <p>
+ * Publishes the depth of the sinks as {@code fullstop.processor.sink.depth}, every pause as
+ * {@code timer.fullstop.processor.throttled} and the total time spent throttled as
+ * {@code fullstop.processor.throttled.totalSeconds}.
+ */
+public class ThrottlingProgressReporter implements ProgressReporter {
+
+    static final String DEPTH_METRIC = "fullstop.processor.sink.depth";
+
+    static final String THROTTLED_METRIC = "fullstop.processor.throttled";
+
+    private static final long CHECK_INTERVAL_MILLIS = 200;
+
+    private final Logger log = LoggerFactory.getLogger(ThrottlingProgressReporter.class);
+
+    private final ProgressReporter delegate;
+
+    private final List<BufferingViolationSink> sinks;
+
+    private final CounterService counterService;
+
+    private final GaugeService gaugeService;
+
+    private final AtomicLong throttledMillis = new AtomicLong();
+
+    public ThrottlingProgressReporter(final ProgressReporter delegate, final List<BufferingViolationSink> sinks,
+                                      final CounterService counterService, final GaugeService gaugeService) {
+        this.delegate = delegate;
+        this.sinks = sinks != null ? sinks : Collections.emptyList();
+        this.counterService = counterService;
+        this.gaugeService = gaugeService;
+    }
+
+    @Override
+    public Object reportStart(final ProgressStatus status) {
+        if (status.getProgressState() == ProgressState.pollQueue) {
+            awaitCapacity();
+        }
+        return delegate.reportStart(status);
+    }
+
+    @Override
+    public void reportEnd(final ProgressStatus status, final Object object) {
+        delegate.reportEnd(status, object);
+    }
+
+    /**
+     * Blocks while any sink is saturated. Returns early when interrupted, e.g. by stopping the executor.
+     */
+    void awaitCapacity() {
+        if (!isSaturated()) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        log.info("Violation sink saturated, pausing polling");
+        counterService.increment(THROTTLED_METRIC);
+        try {
+            while (isSaturated()) {
+                TimeUnit.MILLISECONDS.sleep(CHECK_INTERVAL_MILLIS);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            gaugeService.submit("timer." + THROTTLED_METRIC, millis);
+            gaugeService.submit(THROTTLED_METRIC + ".totalSeconds",
+                    TimeUnit.MILLISECONDS.toSeconds(throttledMillis.addAndGet(millis)));
+            log.info("Resuming polling after {} ms", millis);
+        }
+    }
+
+    private boolean isSaturated() {
+        boolean saturated = false;
+        long depth = 0;
+        for (final BufferingViolationSink sink : sinks) {
+            saturated |= sink.isSaturated();
+            depth += sink.getQueueDepth();
+        }
+        gaugeService.submit(DEPTH_METRIC, depth);
+        return saturated;
+    }
+
+    /**
+     * @return the time polling was paused since startup
+     */
+    public long getThrottledMillis() {
+        return throttledMillis.get();
+    }
+}
@@ -0,0 +1,212 @@
+package org.zalando.stups.fullstop.filereader;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.exceptions.CallbackException;
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.EventsProcessor;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.zalando.stups.fullstop.PluginAwareEventFilter;
+import org.zalando.stups.fullstop.ReplayProperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Replays a local directory tree of archived CloudTrail log files, as laid out in the CloudTrail bucket
+ * ('AWSLogs/{account}/CloudTrail/{region}/{yyyy}/{MM}/{dd}/*.json.gz'), without any access to SQS or S3.
+ * <p>
+ * Files are decompressed and parsed by a pool of workers and handed to the {@link EventsProcessor} in large batches.
+ * Every completed file is appended to a checkpoint file, so an interrupted replay continues where it stopped. Files
+ * of one account and region are not replayed in order, plugins must not rely on it.
+ * <p>
+ * Throughput is logged in events and compressed bytes per second.
+ */
+public class CloudTrailLogReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(CloudTrailLogReplayer.class);
+
+    private static final String LOG_FILE_SUFFIX = ".json.gz";
+
+    private static final String DEFAULT_CHECKPOINT_FILE = ".fullstop-replay-checkpoint";
+
+    private final ReplayProperties properties;
+
+    private final FileEventReader fileEventReader;
+
+    private final AtomicLong replayedFiles = new AtomicLong();
+
+    private final AtomicLong failedFiles = new AtomicLong();
+
+    private final AtomicLong replayedEvents = new AtomicLong();
+
+    private final AtomicLong replayedBytes = new AtomicLong();
+
+    public CloudTrailLogReplayer(final ReplayProperties properties, final EventsProcessor eventsProcessor,
+                                 final PluginAwareEventFilter eventFilter) {
+        this.properties = properties;
+        this.fileEventReader = new FileEventReader(eventsProcessor, eventFilter);
+        this.fileEventReader.setMaxEventsPerEmit(Math.max(1, properties.getMaxEventsPerEmit()));
+    }
+
+    /**
+     * Replays all files not yet in the checkpoint and blocks until they are done.
+     */
+    public void replay() throws IOException, InterruptedException {
+        Assert.hasText(properties.getDirectory(), "Directory to replay should never be empty");
+        final Path directory = Paths.get(properties.getDirectory());
+        final Path checkpointFile = StringUtils.hasText(properties.getCheckpointFile())
+                ? Paths.get(properties.getCheckpointFile())
+                : directory.resolve(DEFAULT_CHECKPOINT_FILE);
+
+        final Set<String> done = readCheckpoint(checkpointFile);
+        final List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(LOG_FILE_SUFFIX))
+                    .filter(path -> !done.contains(relativeName(directory, path)))
+                    .sorted()
+                    .collect(toList());
+        }
+        log.info("Replaying {} files from {}, {} files already done according to {}", files.size(), directory,
+                done.size(), checkpointFile);
+
+        final long start = System.nanoTime();
+        final ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, properties.getWorkers()),
+                threadFactory("replay-"));
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+                threadFactory("replay-report-"));
+        try (BufferedWriter checkpoint = Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8, CREATE,
+                APPEND)) {
+            final long interval = Math.max(1, properties.getReportIntervalSeconds());
+            reporter.scheduleAtFixedRate(new ThroughputReport(), interval, interval, TimeUnit.SECONDS);
+
+            for (final Path file : files) {
+                workers.execute(() -> replayFile(directory, file, checkpoint));
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        finally {
+            workers.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        final double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        log.info("Replayed {} files ({} failed), {} events ({} events/s), {} bytes ({} bytes/s) in {} seconds",
+                replayedFiles.get(), failedFiles.get(), replayedEvents.get(), perSecond(replayedEvents.get(), seconds),
+                replayedBytes.get(), perSecond(replayedBytes.get(), seconds), Math.round(seconds));
+    }
+
+    private void replayFile(final Path directory, final Path file, final BufferedWriter checkpoint) {
+        final String name = relativeName(directory, file);
+        try {
+            final long size = Files.size(file);
+            final CloudTrailLog ctLog = new CloudTrailLog(directory.toString(), name);
+            ctLog.setLogFileSize(size);
+
+            replayedEvents.addAndGet(fileEventReader.readAllEvents(file.toFile(), ctLog));
+            replayedBytes.addAndGet(size);
+            replayedFiles.incrementAndGet();
+
+            synchronized (checkpoint) {
+                checkpoint.write(name);
+                checkpoint.newLine();
+                checkpoint.flush();
+            }
+        }
+        catch (CallbackException | IOException | RuntimeException e) {
+            // not checkpointed, the next replay tries again
+            failedFiles.incrementAndGet();
+            log.warn("Could not replay {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Set<String> readCheckpoint(final Path checkpointFile) throws IOException {
+        final Set<String> done = new HashSet<>();
+        if (Files.exists(checkpointFile)) {
+            for (final String line : Files.readAllLines(checkpointFile, StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    done.add(line.trim());
+                }
+            }
+        }
+        return done;
+    }
+
+    private static String relativeName(final Path directory, final Path file) {
+        return directory.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static long perSecond(final long value, final double seconds) {
+        return Math.round(value / seconds);
+    }
+
+    private static CustomizableThreadFactory threadFactory(final String prefix) {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    public long getReplayedFiles() {
+        return replayedFiles.get();
+    }
+
+    public long getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    public long getReplayedEvents() {
+        return replayedEvents.get();
+    }
+
+    public long getReplayedBytes() {
+        return replayedBytes.get();
+    }
+
+    /**
+     * Logs the throughput since the previous report.
+     */
+    private class ThroughputReport implements Runnable {
+
+        private long lastEvents;
+
+        private long lastBytes;
+
+        private long lastNanos = System.nanoTime();
+
+        @Override
+        public void run() {
+            final long events = replayedEvents.get();
+            final long bytes = replayedBytes.get();
+            final long nanos = System.nanoTime();
+            final double seconds = Math.max(1, nanos - lastNanos) / 1e9;
+
+            log.info("Replayed {} files, {} events ({} events/s), {} bytes ({} bytes/s)", replayedFiles.get(), events,
+                    perSecond(events - lastEvents, seconds), bytes, perSecond(bytes - lastBytes, seconds));
+
+            lastEvents = events;
+            lastBytes = bytes;
+            lastNanos = nanos;
+        }
+    }
+}
@@ -21,12 +21,15 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.zalando.stups.fullstop.PluginAwareEventFilter;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.BiPredicate;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -38,8 +41,15 @@ public class FileEventReader {
 
     private static final Logger logger = LoggerFactory.getLogger(FileEventReader.class);
 
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
     private final EventFilter eventFilter;
 
+    /**
+     * Decides on 'eventSource' and 'eventName' before a record is deserialized, null to deserialize every record.
+     */
+    private final BiPredicate<String, String> recordFilter;
+
     private final EventsProcessor eventsProcessor;
 
     private final ExceptionHandler exceptionHandler;
@@ -48,9 +58,24 @@ public class FileEventReader {
 
     private final boolean isEnableRawEventInfo = false;
 
+    private int maxEventsPerEmit = 10;
+
     public FileEventReader(final EventsProcessor eventsProcessor, final EventFilter eventFilter) {
+        this(eventsProcessor, eventFilter, null);
+    }
+
+    /**
+     * Skips records no plugin is interested in while streaming through the file.
+     */
+    public FileEventReader(final EventsProcessor eventsProcessor, final PluginAwareEventFilter eventFilter) {
+        this(eventsProcessor, eventFilter, eventFilter::isRelevant);
+    }
+
+    private FileEventReader(final EventsProcessor eventsProcessor, final EventFilter eventFilter,
+                            final BiPredicate<String, String> recordFilter) {
         this.eventsProcessor = eventsProcessor;
         this.eventFilter = eventFilter;
+        this.recordFilter = recordFilter;
         this.mapper = new ObjectMapper();
         this.exceptionHandler = new DefaultExceptionHandler();
     }
@@ -59,13 +84,13 @@ public class FileEventReader {
         this(eventsProcessor, new DefaultEventFilter());
     }
 
+    public void setMaxEventsPerEmit(final int maxEventsPerEmit) {
+        this.maxEventsPerEmit = maxEventsPerEmit;
+    }
+
     public void readEvents(final File file, final CloudTrailLog ctLog) throws CallbackException {
         try {
-            final GZIPInputStream gzippedInputStream = new GZIPInputStream(new FileInputStream(file));
-
-            final EventSerializer serializer = this.getEventSerializer(gzippedInputStream, ctLog);
-
-            this.emitEvents(serializer);
+            readAllEvents(file, ctLog);
         }
         catch (IllegalArgumentException | IOException e) {
             this.exceptionHandler.handleException(
@@ -75,6 +100,19 @@ public class FileEventReader {
         }
     }
 
+    /**
+     * Like {@link #readEvents(File, CloudTrailLog)}, but lets the caller decide about unreadable files.
+     *
+     * @return the number of events handed to the {@link EventsProcessor}
+     */
+    long readAllEvents(final File file, final CloudTrailLog ctLog) throws CallbackException, IOException {
+        try (GZIPInputStream gzippedInputStream = new GZIPInputStream(
+                new BufferedInputStream(new FileInputStream(file), READ_BUFFER_SIZE), READ_BUFFER_SIZE);
+             EventSerializer serializer = this.getEventSerializer(gzippedInputStream, ctLog)) {
+            return this.emitEvents(serializer);
+        }
+    }
+
     /**
      * Get the EventSerializer based on user's configuration.
      *
@@ -92,6 +130,10 @@ public class FileEventReader {
             final JsonParser jsonParser = this.mapper.getFactory().createParser(logFileContent);
             serializer = new RawLogDeliveryEventSerializer(logFileContent, ctLog, jsonParser);
         }
+        else if (recordFilter != null) {
+            final JsonParser jsonParser = this.mapper.getFactory().createParser(inputStream);
+            serializer = new PreScanningEventSerializer(ctLog, jsonParser, recordFilter);
+        }
         else {
             final JsonParser jsonParser = this.mapper.getFactory().createParser(inputStream);
             serializer = new DefaultEventSerializer(ctLog, jsonParser);
@@ -100,14 +142,16 @@ public class FileEventReader {
         return serializer;
     }
 
-    private void emitEvents(final EventSerializer serializer) throws CallbackException, IOException {
-        final EventBuffer<CloudTrailEvent> eventBuffer = new EventBuffer<>(10);
+    private long emitEvents(final EventSerializer serializer) throws CallbackException, IOException {
+        final EventBuffer<CloudTrailEvent> eventBuffer = new EventBuffer<>(maxEventsPerEmit);
+        long emitted = 0;
         while (serializer.hasNextEvent()) {
 
             final CloudTrailEvent event = serializer.getNextEvent();
 
             if (this.eventFilter.filterEvent(event)) {
                 eventBuffer.addEvent(event);
+                emitted++;
 
                 if (eventBuffer.isBufferFull()) {
                     this.eventsProcessor.process(eventBuffer.getEvents());
@@ -124,6 +168,7 @@ public class FileEventReader {
         if (!events.isEmpty()) {
             this.eventsProcessor.process(events);
         }
+        return emitted;
     }
 
     static class FakeProgressInfo implements ProgressInfo {
@@ -0,0 +1,152 @@
+package org.zalando.stups.fullstop.filereader;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailLog;
+import com.amazonaws.services.cloudtrail.processinglibrary.serializer.DefaultEventSerializer;
+import com.amazonaws.services.cloudtrail.processinglibrary.serializer.EventSerializer;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.function.BiPredicate;
+
+/**
+ * Streams through the 'Records' of a CloudTrail log and looks at 'eventSource' and 'eventName' first. Records the
+ * filter rejects are skipped token by token, only the remaining ones are deserialized into {@link CloudTrailEvent}s
+ * by the {@link DefaultEventSerializer}.
+ * <p>
+ * CloudTrail writes both fields before the large request and response elements, so most of a skipped record is
+ * never copied.
+ */
+class PreScanningEventSerializer implements EventSerializer {
+
+    private static final String RECORDS = "Records";
+
+    private static final String EVENT_SOURCE = "eventSource";
+
+    private static final String EVENT_NAME = "eventName";
+
+    private final CloudTrailLog ctLog;
+
+    private final JsonParser jsonParser;
+
+    private final BiPredicate<String, String> recordFilter;
+
+    private TokenBuffer nextRecord;
+
+    PreScanningEventSerializer(final CloudTrailLog ctLog, final JsonParser jsonParser,
+                               final BiPredicate<String, String> recordFilter) throws IOException {
+        this.ctLog = ctLog;
+        this.jsonParser = jsonParser;
+        this.recordFilter = recordFilter;
+        readArrayHeader();
+    }
+
+    private void readArrayHeader() throws IOException {
+        if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(jsonParser, "Not a Json object");
+        }
+
+        jsonParser.nextToken();
+        if (!RECORDS.equals(jsonParser.getText())) {
+            throw new JsonParseException(jsonParser, "Not a CloudTrail log");
+        }
+
+        if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(jsonParser, "Not a CloudTrail log");
+        }
+    }
+
+    @Override
+    public boolean hasNextEvent() throws IOException {
+        while (nextRecord == null) {
+            if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            nextRecord = scanRecord();
+        }
+        return true;
+    }
+
+    @Override
+    public CloudTrailEvent getNextEvent() throws IOException {
+        if (!hasNextEvent()) {
+            throw new NoSuchElementException();
+        }
+
+        final TokenBuffer record = nextRecord;
+        nextRecord = null;
+        final EventSerializer serializer = new DefaultEventSerializer(ctLog, record.asParser());
+        serializer.hasNextEvent();
+        return serializer.getNextEvent();
+    }
+
+    @Override
+    public void close() throws IOException {
+        jsonParser.close();
+    }
+
+    /**
+     * Copies the record the parser points to into a single-record log, or skips it.
+     *
+     * @return the buffered log, null if the record was skipped
+     */
+    private TokenBuffer scanRecord() throws IOException {
+        final TokenBuffer buffer = new TokenBuffer(jsonParser);
+        buffer.writeStartObject();
+        buffer.writeFieldName(RECORDS);
+        buffer.writeStartArray();
+        buffer.writeStartObject();
+
+        String eventSource = null;
+        String eventName = null;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = jsonParser.getCurrentName();
+            jsonParser.nextToken();
+
+            if (EVENT_SOURCE.equals(field)) {
+                eventSource = jsonParser.getValueAsString();
+            } else if (EVENT_NAME.equals(field)) {
+                eventName = jsonParser.getValueAsString();
+            }
+
+            buffer.writeFieldName(field);
+            buffer.copyCurrentStructure(jsonParser);
+
+            if (eventSource != null && eventName != null) {
+                if (!recordFilter.test(eventSource, eventName)) {
+                    skipRemainingFields();
+                    return null;
+                }
+                // relevant, copy the rest without further checks
+                copyRemainingFields(buffer);
+                return endRecord(buffer);
+            }
+        }
+
+        return recordFilter.test(eventSource, eventName) ? endRecord(buffer) : null;
+    }
+
+    private void skipRemainingFields() throws IOException {
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            jsonParser.nextToken();
+            jsonParser.skipChildren();
+        }
+    }
+
+    private void copyRemainingFields(final TokenBuffer buffer) throws IOException {
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            buffer.copyCurrentStructure(jsonParser);
+        }
+    }
+
+    private static TokenBuffer endRecord(final TokenBuffer buffer) throws IOException {
+        buffer.writeEndObject();
+        buffer.writeEndArray();
+        buffer.writeEndObject();
+        return buffer;
+    }
+}
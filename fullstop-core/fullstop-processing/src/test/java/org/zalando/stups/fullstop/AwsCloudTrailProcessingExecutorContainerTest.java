@@ -0,0 +1,92 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.AWSCloudTrailProcessingExecutor;
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.EventsProcessor;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AwsCloudTrailProcessingExecutorContainerTest {
+
+    @Test
+    public void testStartsAndStopsAllShards() {
+        final AWSCloudTrailProcessingExecutor first = mock(AWSCloudTrailProcessingExecutor.class);
+        final AWSCloudTrailProcessingExecutor second = mock(AWSCloudTrailProcessingExecutor.class);
+        final AwsCloudTrailProcessingExecutorContainer container = new AwsCloudTrailProcessingExecutorContainer(
+                asList(new ProcessingShard("first", first), new ProcessingShard("second", second)),
+                new FullstopContainerProperties());
+
+        container.start();
+        assertThat(container.isRunning()).isTrue();
+        verify(first).start();
+        verify(second).start();
+
+        container.stop();
+        assertThat(container.isRunning()).isFalse();
+        verify(first).stop();
+        verify(second).stop();
+    }
+
+    @Test
+    public void testStopsStartedShardsIfOneFails() {
+        final AWSCloudTrailProcessingExecutor first = mock(AWSCloudTrailProcessingExecutor.class);
+        final AWSCloudTrailProcessingExecutor second = mock(AWSCloudTrailProcessingExecutor.class);
+        doThrow(new IllegalStateException("no queue")).when(second).start();
+        final AwsCloudTrailProcessingExecutorContainer container = new AwsCloudTrailProcessingExecutorContainer(
+                asList(new ProcessingShard("first", first), new ProcessingShard("second", second)),
+                new FullstopContainerProperties());
+
+        try {
+            container.start();
+            fail("start should fail");
+        } catch (final IllegalStateException e) {
+            assertThat(container.isRunning()).isFalse();
+            verify(first).stop();
+            verify(second, never()).stop();
+        }
+    }
+
+    @Test
+    public void testShardsInheritProperties() {
+        final CloudTrailProcessingLibraryProperties properties = new CloudTrailProcessingLibraryProperties();
+        properties.getProperties().put("sqsUrl", "https://sqs/default");
+        properties.getProperties().put("threadCount", "1");
+        properties.getShards().add(ImmutableMap.of("name", "eu", "sqsUrl", "https://sqs/eu", "threadCount", "4"));
+        properties.getShards().add(ImmutableMap.of("sqsUrl", "https://sqs/us"));
+
+        final Map<String, Properties> shards = properties.getShardsAsProperties();
+
+        assertThat(shards).containsOnlyKeys("eu", "shard-1");
+        assertThat(shards.get("eu").getProperty("sqsUrl")).isEqualTo("https://sqs/eu");
+        assertThat(shards.get("eu").getProperty("threadCount")).isEqualTo("4");
+        assertThat(shards.get("eu").getProperty("name")).isNull();
+        assertThat(shards.get("shard-1").getProperty("sqsUrl")).isEqualTo("https://sqs/us");
+        assertThat(shards.get("shard-1").getProperty("threadCount")).isEqualTo("1");
+    }
+
+    @Test
+    public void testShardMetricsCountEvents() throws Exception {
+        final CounterService counterService = mock(CounterService.class);
+        final EventsProcessor delegate = mock(EventsProcessor.class);
+        final List<CloudTrailEvent> events = asList(new CloudTrailEvent(null, null), new CloudTrailEvent(null, null));
+
+        new ShardMetrics("eu", counterService).measure(delegate).process(events);
+
+        verify(delegate).process(events);
+        verify(counterService, times(2)).increment("meter.fullstop.processor.shards.eu.events");
+    }
+}
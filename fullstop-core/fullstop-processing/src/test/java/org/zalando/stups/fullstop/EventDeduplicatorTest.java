@@ -0,0 +1,150 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EventDeduplicatorTest {
+
+    private final CounterService counterService = mock(CounterService.class);
+
+    private final GaugeService gaugeService = mock(GaugeService.class);
+
+    private DeduplicationProperties properties;
+
+    private MutableClock clock;
+
+    @Before
+    public void setUp() {
+        properties = new DeduplicationProperties();
+        properties.setWindowMinutes(10);
+        properties.setMaxEventsPerWindow(100);
+        clock = new MutableClock();
+    }
+
+    @Test
+    public void testDropsDuplicates() {
+        final EventDeduplicator deduplicator = new EventDeduplicator(properties, counterService, gaugeService, clock);
+        final CloudTrailEvent first = event(UUID.randomUUID());
+        final CloudTrailEvent second = event(UUID.randomUUID());
+        final CloudTrailEvent withoutId = new CloudTrailEvent(new CloudTrailEventData(), null);
+
+        final List<CloudTrailEvent> unseen = deduplicator.dropDuplicates(asList(first, first, second, withoutId));
+        assertThat(unseen).containsExactly(first, second, withoutId);
+
+        // not yet processed, so a redelivery is still accepted
+        assertThat(deduplicator.dropDuplicates(singletonList(second))).containsExactly(second);
+
+        deduplicator.markSeen(unseen);
+        assertThat(deduplicator.dropDuplicates(asList(event(first.getEventData().getEventId()), second))).isEmpty();
+
+        verify(counterService, times(3)).increment(EventDeduplicator.DUPLICATES_METRIC);
+        verify(gaugeService).submit(EventDeduplicator.HIT_RATE_METRIC, 3 * 100.0 / 7);
+    }
+
+    @Test
+    public void testForgetsAfterTwoWindows() {
+        final EventDeduplicator deduplicator = new EventDeduplicator(properties, counterService, gaugeService, clock);
+        final CloudTrailEvent event = event(UUID.randomUUID());
+        deduplicator.markSeen(singletonList(event));
+
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(deduplicator.dropDuplicates(singletonList(event))).isEmpty();
+
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(deduplicator.dropDuplicates(singletonList(event))).containsExactly(event);
+    }
+
+    @Test
+    public void testRotatesWhenFull() {
+        final EventDeduplicator deduplicator = new EventDeduplicator(properties, counterService, gaugeService, clock);
+        final List<CloudTrailEvent> events = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            events.add(event(UUID.randomUUID()));
+        }
+        deduplicator.markSeen(events);
+
+        // the last two generations are remembered, the first 100 events were retired
+        assertThat(deduplicator.dropDuplicates(events)).hasSize(100).containsExactlyElementsOf(events.subList(0, 100));
+    }
+
+    @Test
+    public void testProcessorSkipsDuplicates() throws Exception {
+        final CountingPlugin plugin = new CountingPlugin();
+        final PluginEventsProcessor processor = new PluginEventsProcessor(
+                SimplePluginRegistry.create(singletonList(plugin)), null, null,
+                new EventDeduplicator(properties, counterService, gaugeService, clock));
+        final CloudTrailEvent event = event(UUID.randomUUID());
+
+        processor.process(singletonList(event));
+        processor.process(asList(event, event(event.getEventData().getEventId())));
+
+        assertThat(plugin.processed).isEqualTo(1);
+    }
+
+    private static CloudTrailEvent event(final UUID eventId) {
+        final CloudTrailEventData eventData = new CloudTrailEventData();
+        eventData.add("eventID", eventId);
+        return new CloudTrailEvent(eventData, null);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2017-05-09T12:00:00Z");
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static class CountingPlugin extends AbstractFullstopPlugin {
+
+        private int processed;
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+            processed++;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailLog;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.BasicPollQueueInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.BasicProcessLogInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressState;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class MetricsProgressReporterTest {
+
+    private CounterService counterService;
+
+    private GaugeService gaugeService;
+
+    private MetricsProgressReporter reporter;
+
+    @Before
+    public void setUp() {
+        counterService = mock(CounterService.class);
+        gaugeService = mock(GaugeService.class);
+        reporter = new MetricsProgressReporter(counterService, gaugeService);
+    }
+
+    @Test
+    public void testPollQueue() {
+        final ProgressStatus status = new ProgressStatus(ProgressState.pollQueue, new BasicPollQueueInfo(3, true));
+
+        final Object start = reporter.reportStart(status);
+        verify(gaugeService).submit("fullstop.processor.pollQueue.inFlight", 1);
+        verify(gaugeService).submit("fullstop.processor.inFlight", 1);
+
+        reporter.reportEnd(status, start);
+        verify(gaugeService).submit(eq("timer.fullstop.processor.pollQueue"), anyDouble());
+        verify(gaugeService).submit("fullstop.processor.pollQueue.inFlight", 0);
+        verify(gaugeService).submit("fullstop.processor.inFlight", 0);
+        verify(gaugeService).submit("histogram.fullstop.processor.pollQueue.messages", 3);
+        verify(counterService).increment("fullstop.processor.pollQueue.success");
+    }
+
+    @Test
+    public void testProcessLogCountsEventsAndBytes() {
+        final CloudTrailLog ctLog = new CloudTrailLog("bucket", "key");
+        ctLog.setLogFileSize(2048);
+        final ProgressStatus status = new ProgressStatus(ProgressState.processLog,
+                new BasicProcessLogInfo(null, ctLog, false));
+        final List<CloudTrailEvent> events = asList(new CloudTrailEvent(null, null), new CloudTrailEvent(null, null));
+
+        final Object start = reporter.reportStart(status);
+        reporter.beforeBatch(events);
+        reporter.beforeBatch(events.subList(0, 1));
+        reporter.reportEnd(status, start);
+
+        verify(gaugeService).submit("histogram.fullstop.processor.processLog.events", 3);
+        verify(gaugeService).submit("histogram.fullstop.processor.processLog.bytes", 2048);
+        verify(counterService).increment("fullstop.processor.processLog.failure");
+    }
+}
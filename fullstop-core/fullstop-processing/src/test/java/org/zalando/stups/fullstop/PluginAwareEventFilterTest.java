@@ -0,0 +1,128 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.EventsProcessor;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.zalando.stups.fullstop.filereader.FileEventReader;
+import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PluginAwareEventFilterTest {
+
+    private static final String EC2 = "ec2.amazonaws.com";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private CounterService counterService;
+
+    private PluginAwareEventFilter filter;
+
+    @Before
+    public void setUp() {
+        counterService = mock(CounterService.class);
+        final PluginEventsProcessor processor = new PluginEventsProcessor(
+                SimplePluginRegistry.create(singletonList(new RunInstancesPlugin())));
+        filter = new PluginAwareEventFilter(processor, counterService);
+    }
+
+    @Test
+    public void testDropsEventsWithoutCandidates() {
+        assertThat(filter.filterEvent(event(EC2, "RunInstances"))).isTrue();
+        assertThat(filter.filterEvent(event(EC2, "DescribeInstances"))).isFalse();
+        assertThat(filter.filterEvent(event("s3.amazonaws.com", "PutObject"))).isFalse();
+
+        assertThat(filter.getFilteredEvents()).isEqualTo(2);
+        verify(counterService, times(2)).increment(PluginAwareEventFilter.FILTERED_METRIC);
+    }
+
+    @Test
+    public void testFileReaderSkipsIrrelevantRecords() throws Exception {
+        final File file = folder.newFile("log.json.gz");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)),
+                StandardCharsets.UTF_8)) {
+            writer.write("{\"Records\":[");
+            writer.write(record(1, EC2, "DescribeInstances"));
+            writer.write(",");
+            writer.write(record(2, EC2, "RunInstances"));
+            writer.write(",");
+            writer.write(record(3, "s3.amazonaws.com", "PutObject"));
+            writer.write(",");
+            writer.write(record(4, EC2, "RunInstances"));
+            writer.write("]}");
+        }
+
+        final List<CloudTrailEvent> processed = new ArrayList<>();
+        final EventsProcessor eventsProcessor = processed::addAll;
+        new FileEventReader(eventsProcessor, filter).readEvents(file, null);
+
+        final List<String> eventIds = processed.stream()
+                .map(e -> e.getEventData().getEventId().toString())
+                .collect(toList());
+        assertThat(eventIds).containsExactly(eventId(2), eventId(4));
+        assertThat(processed.get(0).getEventData().getResponseElements()).contains("i-2");
+        assertThat(filter.getFilteredEvents()).isEqualTo(2);
+    }
+
+    private static String eventId(final int record) {
+        return String.format("00000000-0000-0000-0000-%012d", record);
+    }
+
+    private static String record(final int record, final String eventSource, final String eventName) {
+        return "{\"eventVersion\":\"1.03\",\"eventTime\":\"2015-10-29T12:51:47Z\",\"eventSource\":\"" + eventSource
+                + "\",\"eventName\":\"" + eventName + "\",\"awsRegion\":\"eu-west-1\","
+                + "\"requestParameters\":{\"instancesSet\":{\"items\":[{\"imageId\":\"ami-1\"}]}},"
+                + "\"responseElements\":{\"instancesSet\":{\"items\":[{\"instanceId\":\"i-" + record + "\"}]}},"
+                + "\"eventID\":\"" + eventId(record) + "\","
+                + "\"eventType\":\"AwsApiCall\",\"recipientAccountId\":\"123\"}";
+    }
+
+    private static CloudTrailEvent event(final String eventSource, final String eventName) {
+        final CloudTrailEventData eventData = new CloudTrailEventData();
+        eventData.add("eventSource", eventSource);
+        eventData.add("eventName", eventName);
+        return new CloudTrailEvent(eventData, null);
+    }
+
+    private static class RunInstancesPlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
+
+        @Override
+        public Set<EventKey> getSupportedEvents() {
+            return ImmutableSet.of(EventKey.of(EC2, "RunInstances"));
+        }
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PluginBulkheadExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private CounterService counterService;
+
+    private GaugeService gaugeService;
+
+    private PluginExecutionProperties properties;
+
+    private PluginEventsProcessor processor;
+
+    private RecordingPlugin fast;
+
+    private HangingPlugin hanging;
+
+    @Before
+    public void setUp() {
+        counterService = mock(CounterService.class);
+        gaugeService = mock(GaugeService.class);
+
+        properties = new PluginExecutionProperties();
+        properties.setBulkhead(true);
+        properties.setQueueCapacityPerPlugin(10);
+        properties.setBatchTimeoutSeconds(1);
+
+        fast = new RecordingPlugin();
+        hanging = new HangingPlugin(release);
+        processor = new PluginEventsProcessor(SimplePluginRegistry.create(asList(hanging, fast)),
+                new PluginBulkheadExecutor(properties, counterService, gaugeService));
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        processor.destroy();
+    }
+
+    @Test
+    public void testHangingPluginDoesNotBlockOthers() throws Exception {
+        final List<CloudTrailEvent> events = asList(event("1"), event("2"), event("3"), event("4"));
+
+        final long start = System.nanoTime();
+        processor.process(events);
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(fast.userAgents).containsExactly("1", "2", "3", "4");
+        assertThat(elapsed).isLessThan(5000);
+
+        verify(counterService, times(4)).increment("fullstop.processor.plugins.HangingPlugin.timeouts");
+        verify(counterService, never()).increment("fullstop.processor.plugins.RecordingPlugin.timeouts");
+        verify(gaugeService, atLeastOnce()).submit(eq("fullstop.processor.plugins.HangingPlugin.queue"), anyDouble());
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() {
+        properties.setQueueCapacityPerPlugin(2);
+        final PluginBulkheadExecutor executor = new PluginBulkheadExecutor(properties, counterService, gaugeService);
+        try {
+            // the first task starts the worker thread, two are queued, the fourth does not fit
+            assertThat(executor.submit(hanging, () -> hanging.processEvent(null))).isNotNull();
+            assertThat(executor.submit(hanging, () -> hanging.processEvent(null))).isNotNull();
+            assertThat(executor.submit(hanging, () -> hanging.processEvent(null))).isNotNull();
+            assertThat(executor.submit(hanging, () -> hanging.processEvent(null))).isNull();
+
+            verify(counterService).increment("fullstop.processor.plugins.HangingPlugin.rejected");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSequentialWithoutBulkhead() throws Exception {
+        final PluginEventsProcessor sequential = new PluginEventsProcessor(SimplePluginRegistry.create(asList(fast)));
+
+        sequential.process(asList(event("1"), event("2")));
+
+        assertThat(fast.userAgents).containsExactly("1", "2");
+    }
+
+    private static CloudTrailEvent event(final String userAgent) {
+        final CloudTrailEventData eventData = new CloudTrailEventData();
+        eventData.add("userAgent", userAgent);
+        eventData.add("eventSource", "ec2.amazonaws.com");
+        eventData.add("eventName", "RunInstances");
+        return new CloudTrailEvent(eventData, null);
+    }
+
+    private static class RecordingPlugin extends AbstractFullstopPlugin {
+
+        private final List<String> userAgents = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+            userAgents.add(event.getEventData().getUserAgent());
+        }
+    }
+
+    private static class HangingPlugin extends AbstractFullstopPlugin {
+
+        private final CountDownLatch release;
+
+        HangingPlugin(final CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.singleton;
+
+/**
+ * Dispatch cost per event: asking every plugin via the registry vs. asking only the candidates of the
+ * {@link PluginRoutingIndex}. Nine out of ten events match no plugin, like in production.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.zalando.stups.fullstop.PluginDispatchBenchmark} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginDispatchBenchmark {
+
+    private static final int EVENT_COUNT = 1024;
+
+    @Param({ "1", "10", "50" })
+    private int pluginCount;
+
+    private PluginRegistry<FullstopPlugin, CloudTrailEvent> registry;
+
+    private PluginEventsProcessor processor;
+
+    private CloudTrailEvent[] events;
+
+    private int next;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PluginDispatchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        final List<FullstopPlugin> plugins = new ArrayList<>();
+        for (int i = 0; i < pluginCount; i++) {
+            plugins.add(new SyntheticPlugin(source(i), "Event" + i));
+        }
+        registry = SimplePluginRegistry.create(plugins);
+        processor = new PluginEventsProcessor(registry);
+        processor.getRoutingIndex();
+
+        final Random random = new Random(42);
+        events = new CloudTrailEvent[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            final int target = random.nextInt(pluginCount);
+            events[i] = random.nextInt(10) == 0
+                    ? event(source(target), "Event" + target)
+                    : event(source(target), "Describe" + random.nextInt(100));
+        }
+    }
+
+    @Benchmark
+    public List<FullstopPlugin> registry() {
+        return registry.getPluginsFor(nextEvent());
+    }
+
+    @Benchmark
+    public List<FullstopPlugin> routingIndex() {
+        return processor.getPluginsForEvent(nextEvent());
+    }
+
+    private CloudTrailEvent nextEvent() {
+        next = (next + 1) & (EVENT_COUNT - 1);
+        return events[next];
+    }
+
+    private static String source(final int i) {
+        return "service" + (i % 5) + ".amazonaws.com";
+    }
+
+    private static CloudTrailEvent event(final String eventSource, final String eventName) {
+        final CloudTrailEventData eventData = new CloudTrailEventData();
+        eventData.add("eventSource", eventSource);
+        eventData.add("eventName", eventName);
+        return new CloudTrailEvent(eventData, null);
+    }
+
+    /**
+     * Mimics the usual 'supports' implementations: compare the source, then match the name.
+     */
+    private static class SyntheticPlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
+
+        private final String eventSource;
+
+        private final String eventName;
+
+        private final Pattern eventNamePattern;
+
+        SyntheticPlugin(final String eventSource, final String eventName) {
+            this.eventSource = eventSource;
+            this.eventName = eventName;
+            this.eventNamePattern = Pattern.compile(Pattern.quote(eventName));
+        }
+
+        @Override
+        public Set<EventKey> getSupportedEvents() {
+            return singleton(EventKey.of(eventSource, eventName));
+        }
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            final CloudTrailEventData eventData = event.getEventData();
+            return eventSource.equals(eventData.getEventSource())
+                    && eventNamePattern.matcher(eventData.getEventName()).matches();
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginRoutingIndexTest {
+
+    private static final String EC2 = "ec2.amazonaws.com";
+
+    private static final String LAMBDA = "lambda.amazonaws.com";
+
+    private RoutedPlugin runInstances;
+
+    private RoutedPlugin startInstances;
+
+    private RoutedPlugin anyLambda;
+
+    private CatchAllPlugin catchAll;
+
+    private PluginRoutingIndex index;
+
+    @Before
+    public void setUp() {
+        runInstances = new RoutedPlugin(EventKey.of(EC2, "RunInstances"));
+        catchAll = new CatchAllPlugin();
+        startInstances = new RoutedPlugin(EventKey.of(EC2, "RunInstances"), EventKey.of(EC2, "StartInstances"));
+        anyLambda = new RoutedPlugin(EventKey.anyOf(LAMBDA));
+        index = new PluginRoutingIndex(asList(runInstances, catchAll, startInstances, anyLambda));
+    }
+
+    @Test
+    public void testExactMatchKeepsRegistrationOrder() {
+        assertThat(index.getCandidates(EC2, "RunInstances")).containsExactly(runInstances, catchAll, startInstances);
+        assertThat(index.getCandidates(EC2, "StartInstances")).containsExactly(catchAll, startInstances);
+    }
+
+    @Test
+    public void testUnknownEventsOnlyReachCatchAllPlugins() {
+        assertThat(index.getCandidates(EC2, "DescribeInstances")).containsExactly(catchAll);
+        assertThat(index.getCandidates("s3.amazonaws.com", "PutObject")).containsExactly(catchAll);
+        assertThat(index.getCandidates(null, null)).containsExactly(catchAll);
+    }
+
+    @Test
+    public void testAnyEventOfSource() {
+        assertThat(index.getCandidates(LAMBDA, "CreateFunction20150331")).containsExactly(catchAll, anyLambda);
+        assertThat(index.getCandidates(LAMBDA, null)).containsExactly(catchAll, anyLambda);
+    }
+
+    @Test
+    public void testProcessorOnlyAsksCandidates() {
+        final PluginEventsProcessor processor = new PluginEventsProcessor(
+                SimplePluginRegistry.create(asList(runInstances, catchAll, startInstances, anyLambda)));
+
+        final List<FullstopPlugin> plugins = processor.getPluginsForEvent(event(EC2, "StartInstances"));
+
+        assertThat(plugins).containsExactly(catchAll, startInstances);
+        assertThat(runInstances.supportsCalls.get()).isEqualTo(0);
+        assertThat(anyLambda.supportsCalls.get()).isEqualTo(0);
+        assertThat(startInstances.supportsCalls.get()).isEqualTo(1);
+    }
+
+    private static CloudTrailEvent event(final String eventSource, final String eventName) {
+        final CloudTrailEventData eventData = new CloudTrailEventData();
+        eventData.add("eventSource", eventSource);
+        eventData.add("eventName", eventName);
+        return new CloudTrailEvent(eventData, null);
+    }
+
+    private static class RoutedPlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
+
+        private final Set<EventKey> keys;
+
+        private final AtomicInteger supportsCalls = new AtomicInteger();
+
+        RoutedPlugin(final EventKey... keys) {
+            this.keys = ImmutableSet.copyOf(keys);
+        }
+
+        @Override
+        public Set<EventKey> getSupportedEvents() {
+            return keys;
+        }
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            supportsCalls.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+        }
+    }
+
+    private static class CatchAllPlugin extends AbstractFullstopPlugin {
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+        }
+    }
+}
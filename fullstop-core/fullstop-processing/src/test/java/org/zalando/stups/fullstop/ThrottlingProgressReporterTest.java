@@ -0,0 +1,70 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.ProgressReporter;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.BasicPollQueueInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressState;
+import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.zalando.stups.fullstop.violation.BufferingViolationSink;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ThrottlingProgressReporterTest {
+
+    private ProgressReporter delegate;
+
+    private BufferingViolationSink sink;
+
+    private CounterService counterService;
+
+    private GaugeService gaugeService;
+
+    private ThrottlingProgressReporter reporter;
+
+    @Before
+    public void setUp() {
+        delegate = mock(ProgressReporter.class);
+        sink = mock(BufferingViolationSink.class);
+        counterService = mock(CounterService.class);
+        gaugeService = mock(GaugeService.class);
+        reporter = new ThrottlingProgressReporter(delegate, singletonList(sink), counterService, gaugeService);
+    }
+
+    @Test
+    public void testPausesPollingWhileSinkIsSaturated() {
+        when(sink.isSaturated()).thenReturn(true, true, false);
+        when(sink.getQueueDepth()).thenReturn(7000L);
+        final ProgressStatus status = new ProgressStatus(ProgressState.pollQueue, new BasicPollQueueInfo(0, true));
+
+        reporter.reportStart(status);
+
+        verify(delegate).reportStart(status);
+        verify(counterService).increment(ThrottlingProgressReporter.THROTTLED_METRIC);
+        verify(gaugeService).submit(eq("timer.fullstop.processor.throttled"), anyDouble());
+        verify(gaugeService, atLeastOnce()).submit(ThrottlingProgressReporter.DEPTH_METRIC, 7000);
+        assertThat(reporter.getThrottledMillis()).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    public void testOnlyPollingIsThrottled() {
+        when(sink.isSaturated()).thenReturn(true);
+        final ProgressStatus status = new ProgressStatus(ProgressState.processLog, null);
+
+        reporter.reportStart(status);
+
+        verify(delegate).reportStart(status);
+        verify(sink, never()).isSaturated();
+        assertThat(reporter.getThrottledMillis()).isZero();
+    }
+}
@@ -0,0 +1,112 @@
+package org.zalando.stups.fullstop.filereader;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.EventsProcessor;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.zalando.stups.fullstop.PluginAwareEventFilter;
+import org.zalando.stups.fullstop.PluginEventsProcessor;
+import org.zalando.stups.fullstop.ReplayProperties;
+import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class CloudTrailLogReplayerTest {
+
+    private static final String DAY = "AWSLogs/123456789012/CloudTrail/eu-west-1/2017/05/09/";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<CloudTrailEvent> processed = new CopyOnWriteArrayList<>();
+
+    private ReplayProperties properties;
+
+    private PluginAwareEventFilter eventFilter;
+
+    @Before
+    public void setUp() throws Exception {
+        writeLog(DAY + "first.json.gz", 3);
+        writeLog(DAY + "second.json.gz", 2);
+        final File broken = new File(folder.getRoot(), DAY + "broken.json.gz");
+        Files.write(broken.toPath(), "no gzip".getBytes(StandardCharsets.UTF_8));
+
+        properties = new ReplayProperties();
+        properties.setDirectory(folder.getRoot().getAbsolutePath());
+        properties.setWorkers(2);
+        properties.setMaxEventsPerEmit(2);
+
+        eventFilter = new PluginAwareEventFilter(
+                new PluginEventsProcessor(SimplePluginRegistry.create(singletonList(new CatchAllPlugin()))),
+                mock(CounterService.class));
+    }
+
+    @Test
+    public void testReplayAndResume() throws Exception {
+        final EventsProcessor eventsProcessor = processed::addAll;
+
+        final CloudTrailLogReplayer replayer = new CloudTrailLogReplayer(properties, eventsProcessor, eventFilter);
+        replayer.replay();
+
+        assertThat(processed).hasSize(5);
+        assertThat(replayer.getReplayedFiles()).isEqualTo(2);
+        assertThat(replayer.getReplayedEvents()).isEqualTo(5);
+        assertThat(replayer.getReplayedBytes()).isGreaterThan(0);
+        assertThat(replayer.getFailedFiles()).isEqualTo(1);
+        assertThat(Files.readAllLines(new File(folder.getRoot(), ".fullstop-replay-checkpoint").toPath()))
+                .containsOnly(DAY + "first.json.gz", DAY + "second.json.gz");
+
+        // only the broken file is left
+        final CloudTrailLogReplayer resumed = new CloudTrailLogReplayer(properties, eventsProcessor, eventFilter);
+        resumed.replay();
+
+        assertThat(processed).hasSize(5);
+        assertThat(resumed.getReplayedFiles()).isEqualTo(0);
+        assertThat(resumed.getFailedFiles()).isEqualTo(1);
+    }
+
+    private void writeLog(final String name, final int records) throws Exception {
+        final File file = new File(folder.getRoot(), name);
+        assertThat(file.getParentFile().mkdirs() || file.getParentFile().isDirectory()).isTrue();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)),
+                StandardCharsets.UTF_8)) {
+            writer.write("{\"Records\":[");
+            for (int i = 0; i < records; i++) {
+                if (i > 0) {
+                    writer.write(",");
+                }
+                writer.write("{\"eventVersion\":\"1.03\",\"eventSource\":\"ec2.amazonaws.com\","
+                        + "\"eventName\":\"RunInstances\",\"awsRegion\":\"eu-west-1\"}");
+            }
+            writer.write("]}");
+        }
+    }
+
+    private static class CatchAllPlugin extends AbstractFullstopPlugin {
+
+        @Override
+        public boolean supports(final CloudTrailEvent event) {
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+        }
+    }
+}
@@ -1,31 +1,58 @@
 package org.zalando.stups.fullstop.violation.reactor;
 
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.zalando.stups.fullstop.violation.BufferingViolationSink;
 import org.zalando.stups.fullstop.violation.Violation;
-import org.zalando.stups.fullstop.violation.ViolationSink;
 import reactor.bus.Event;
 import reactor.bus.EventBus;
+import reactor.core.Dispatcher;
 
 /**
  * Uses the {@link EventBus} to transport Violations to interested Consumers.
+ * <p>
+ * The {@link Dispatcher} of the bus is bounded, {@link #put(Violation)} blocks once it is full. Producers should
+ * already back off when {@link #isSaturated()}, at the high-water mark.
  *
  * @author jbellmann
  */
-public class EventBusViolationSink implements ViolationSink {
+public class EventBusViolationSink implements BufferingViolationSink {
 
     private static final String VIOLATIONS_EVENTBUS_QUEUED = "violations.eventbus.queued";
 
     private static final String VIOLATIONS_EVENTBUS_PUT = "violations.eventbus.put";
 
+    private static final String VIOLATIONS_EVENTBUS_DEPTH = "violations.eventbus.depth";
+
     private static final String DEFAULT_VIOLATIONS_TOPIC = "/violations";
 
     private final EventBus eventBus;
 
     private final CounterService counterService;
 
+    private final GaugeService gaugeService;
+
+    private final Dispatcher dispatcher;
+
+    private final long highWaterMark;
+
+    private final long lowWaterMark;
+
+    private volatile boolean saturated;
+
     public EventBusViolationSink(final EventBus eventBus, final CounterService counterService) {
+        this(eventBus, counterService, null, null, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public EventBusViolationSink(final EventBus eventBus, final CounterService counterService,
+                                 final GaugeService gaugeService, final Dispatcher dispatcher,
+                                 final long highWaterMark, final long lowWaterMark) {
         this.eventBus = eventBus;
         this.counterService = counterService;
+        this.gaugeService = gaugeService;
+        this.dispatcher = dispatcher;
+        this.highWaterMark = highWaterMark;
+        this.lowWaterMark = Math.min(lowWaterMark, highWaterMark);
     }
 
     @Override
@@ -33,6 +60,25 @@ public class EventBusViolationSink implements ViolationSink {
         eventBus.notify(DEFAULT_VIOLATIONS_TOPIC, Event.wrap(violation));
         counterService.increment(VIOLATIONS_EVENTBUS_QUEUED);
         counterService.increment(VIOLATIONS_EVENTBUS_PUT);
+        if (gaugeService != null) {
+            gaugeService.submit(VIOLATIONS_EVENTBUS_DEPTH, getQueueDepth());
+        }
+    }
+
+    @Override
+    public boolean isSaturated() {
+        final long depth = getQueueDepth();
+        if (depth >= highWaterMark) {
+            saturated = true;
+        } else if (depth <= lowWaterMark) {
+            saturated = false;
+        }
+        return saturated;
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return dispatcher != null ? Math.max(0, dispatcher.backlogSize() - dispatcher.remainingSlots()) : 0;
     }
 
 }
@@ -2,28 +2,47 @@ package org.zalando.stups.fullstop.violation.reactor.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.stups.fullstop.violation.reactor.EventBusViolationSink;
 import reactor.Environment;
 import reactor.bus.EventBus;
+import reactor.core.Dispatcher;
+import reactor.core.dispatch.RingBufferDispatcher;
 
 /**
  * @author jbellmann
  */
 @Configuration
+@EnableConfigurationProperties(EventBusViolationSinkProperties.class)
 public class EventBusViolationSinkAutoConfiguration {
 
     @Autowired
     private CounterService counterService;
 
+    @Autowired
+    private GaugeService gaugeService;
+
+    @Autowired
+    private EventBusViolationSinkProperties properties;
+
     @Bean
     public EventBusViolationSink eventBusViolationSink() {
-        return new EventBusViolationSink(eventBus(), counterService);
+        return new EventBusViolationSink(eventBus(), counterService, gaugeService, violationDispatcher(),
+                properties.getHighWaterMark(), properties.getLowWaterMark());
     }
 
     @Bean
     public EventBus eventBus() {
-        return EventBus.create(Environment.initializeIfEmpty());
+        return EventBus.create(Environment.initializeIfEmpty(), violationDispatcher());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Dispatcher violationDispatcher() {
+        // the ring buffer needs a power of two
+        final int capacity = Integer.highestOneBit(Math.max(1, properties.getCapacity() - 1)) << 1;
+        return new RingBufferDispatcher("violations", capacity);
     }
 }
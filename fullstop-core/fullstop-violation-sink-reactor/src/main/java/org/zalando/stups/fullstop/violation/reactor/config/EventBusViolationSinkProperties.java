@@ -0,0 +1,49 @@
+package org.zalando.stups.fullstop.violation.reactor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bounds the violations buffered by the {@link org.zalando.stups.fullstop.violation.reactor.EventBusViolationSink}.
+ */
+@ConfigurationProperties(prefix = "fullstop.violation-sink")
+public class EventBusViolationSinkProperties {
+
+    /**
+     * Violations buffered before further violations block the plugins, rounded up to a power of two.
+     */
+    private int capacity = 8192;
+
+    /**
+     * Buffered violations from which the sink reports to be saturated, and CloudTrail processing pauses polling.
+     */
+    private int highWaterMark = 6144;
+
+    /**
+     * Buffered violations below which polling resumes.
+     */
+    private int lowWaterMark = 2048;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public void setHighWaterMark(final int highWaterMark) {
+        this.highWaterMark = highWaterMark;
+    }
+
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    public void setLowWaterMark(final int lowWaterMark) {
+        this.lowWaterMark = lowWaterMark;
+    }
+}
@@ -0,0 +1,48 @@
+package org.zalando.stups.fullstop.violation.reactor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import reactor.bus.EventBus;
+import reactor.core.Dispatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EventBusViolationSinkTest {
+
+    private Dispatcher dispatcher;
+
+    private EventBusViolationSink sink;
+
+    @Before
+    public void setUp() {
+        dispatcher = mock(Dispatcher.class);
+        when(dispatcher.backlogSize()).thenReturn(1024L);
+        sink = new EventBusViolationSink(mock(EventBus.class), mock(CounterService.class), mock(GaugeService.class),
+                dispatcher, 768, 256);
+    }
+
+    @Test
+    public void testSaturationBetweenWaterMarks() {
+        queued(500);
+        assertThat(sink.getQueueDepth()).isEqualTo(500);
+        assertThat(sink.isSaturated()).isFalse();
+
+        queued(800);
+        assertThat(sink.isSaturated()).isTrue();
+
+        // stays saturated until drained below the low-water mark
+        queued(500);
+        assertThat(sink.isSaturated()).isTrue();
+
+        queued(200);
+        assertThat(sink.isSaturated()).isFalse();
+    }
+
+    private void queued(final long violations) {
+        when(dispatcher.remainingSlots()).thenReturn(1024L - violations);
+    }
+}
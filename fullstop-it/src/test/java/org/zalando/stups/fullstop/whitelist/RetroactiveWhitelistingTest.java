@@ -0,0 +1,124 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.rule.entity.RetroactiveWhitelistingStatus;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.service.RulesChangedEvent;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class RetroactiveWhitelistingTest {
+
+    private ViolationRepository violationRepository;
+
+    private RetroactiveWhitelisting retroactiveWhitelisting;
+
+    private RuleEntity rule;
+
+    @Before
+    public void setUp() throws Exception {
+        violationRepository = mock(ViolationRepository.class);
+        retroactiveWhitelisting = new RetroactiveWhitelisting(violationRepository, 2, 2);
+
+        rule = new RuleEntity();
+        rule.setId(1L);
+        rule.setReason("Known edge case");
+        rule.setAccountId("123");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        retroactiveWhitelisting.destroy();
+    }
+
+    @Test
+    public void testSimpleRuleIsAppliedWithSingleUpdate() throws Exception {
+        when(violationRepository.whitelistOpenViolations(any(RuleEntity.class), anyString())).thenReturn(42L);
+        final RetroactiveWhitelistingStatus status = new RetroactiveWhitelistingStatus(1L);
+
+        retroactiveWhitelisting.apply(rule, status);
+
+        verify(violationRepository).whitelistOpenViolations(rule, "Whitelisted automatically because of:Known edge case");
+        verifyNoMoreInteractions(violationRepository);
+        assertThat(status.getState()).isEqualTo(RetroactiveWhitelistingStatus.State.DONE);
+        assertThat(status.isEvaluatedInDatabase()).isTrue();
+        assertThat(status.getWhitelistedViolations()).isEqualTo(42);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testImageNameIsEvaluatedPageByPage() throws Exception {
+        rule.setImageName("jenkins.+");
+        final ViolationEntity first = violation(10L, "jenkins-1");
+        final ViolationEntity second = violation(11L, "other");
+        final ViolationEntity third = violation(12L, "jenkins-2");
+        when(violationRepository.findOpenViolations(eq(rule), (Long) isNull(), eq(2))).thenReturn(newArrayList(first, second));
+        when(violationRepository.findOpenViolations(eq(rule), eq(11L), eq(2))).thenReturn(newArrayList(third));
+        when(violationRepository.whitelistOpenViolations(any(Collection.class), eq(rule), anyString()))
+                .thenAnswer(invocation -> (long) ((Collection<Long>) invocation.getArguments()[0]).size());
+        final RetroactiveWhitelistingStatus status = new RetroactiveWhitelistingStatus(1L);
+
+        retroactiveWhitelisting.apply(rule, status);
+
+        final List<Long> firstPage = newArrayList(10L);
+        final List<Long> secondPage = newArrayList(12L);
+        verify(violationRepository).whitelistOpenViolations(eq(firstPage), eq(rule), anyString());
+        verify(violationRepository).whitelistOpenViolations(eq(secondPage), eq(rule), anyString());
+        assertThat(status.getState()).isEqualTo(RetroactiveWhitelistingStatus.State.DONE);
+        assertThat(status.isEvaluatedInDatabase()).isFalse();
+        assertThat(status.getEvaluatedViolations()).isEqualTo(3);
+        assertThat(status.getWhitelistedViolations()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailureIsReported() throws Exception {
+        rule.setMetaInfoJsonPath("$.[?(@.user_name == 'robot')]");
+        when(violationRepository.findOpenViolations(any(RuleEntity.class), any(Long.class), anyInt()))
+                .thenThrow(new IllegalStateException("database down"));
+        final RetroactiveWhitelistingStatus status = new RetroactiveWhitelistingStatus(1L);
+
+        retroactiveWhitelisting.apply(rule, status);
+
+        assertThat(status.getState()).isEqualTo(RetroactiveWhitelistingStatus.State.FAILED);
+        assertThat(status.getError()).isEqualTo("database down");
+    }
+
+    @Test
+    public void testOnlyRequestedRulesAreApplied() throws Exception {
+        retroactiveWhitelisting.onApplicationEvent(new RulesChangedEvent(rule));
+        assertThat(retroactiveWhitelisting.getStatus(1L)).isNull();
+
+        retroactiveWhitelisting.onApplicationEvent(new RulesChangedEvent(rule, true));
+        assertThat(retroactiveWhitelisting.getStatus(1L)).isNotNull();
+        verify(violationRepository, timeout(5000)).whitelistOpenViolations(eq(rule), anyString());
+    }
+
+    private static ViolationEntity violation(final Long id, final String amiName) {
+        // as converted by the ViolationObjectConverter when loaded from the database
+        final ObjectNode metaInfo = JsonNodeFactory.instance.objectNode().put("ami_name", amiName);
+        final ViolationEntity violation = new ViolationEntity(null, "123", "eu-west-1", null, metaInfo, null, null, null,
+                null, null);
+        violation.setId(id);
+        return violation;
+    }
+}
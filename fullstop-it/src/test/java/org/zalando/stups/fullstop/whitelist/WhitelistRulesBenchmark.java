@@ -0,0 +1,172 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.zalando.stups.fullstop.rule.entity.RuleDTO;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whitelisting 100k violations against 1k rules: every rule through the {@link WhitelistRulesEvaluator}, as before,
+ * vs. the compiled and indexed rules of {@link WhitelistRules}. The database query the former ran per violation is
+ * left out, so the difference in production is larger. Rules are spread over 100 accounts and 20 violation types,
+ * one in ten matches an image name, one in fifty a JSON path.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.zalando.stups.fullstop.whitelist.WhitelistRulesBenchmark} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class WhitelistRulesBenchmark {
+
+    private static final int RULE_COUNT = 1000;
+
+    private static final int VIOLATION_COUNT = 100_000;
+
+    private final WhitelistRulesEvaluator evaluator = new WhitelistRulesEvaluator();
+
+    private List<RuleEntity> rules;
+
+    private WhitelistRules whitelistRules;
+
+    private ViolationEntity[] violations;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WhitelistRulesBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final DateTime expiryDate = DateTime.now().plusYears(1);
+
+        rules = new ArrayList<>(RULE_COUNT);
+        for (int i = 0; i < RULE_COUNT; i++) {
+            final RuleEntity rule = new RuleEntity();
+            rule.setId((long) i);
+            rule.setReason("Rule " + i);
+            rule.setExpiryDate(expiryDate);
+            rule.setAccountId(account(random.nextInt(100)));
+            rule.setViolationTypeEntityId(type(random.nextInt(20)));
+            if (i % 10 == 0) {
+                rule.setImageName("^Taupage-AMI-" + random.nextInt(100) + "-.+$");
+            }
+            if (i % 50 == 0) {
+                rule.setAccountId(null);
+                rule.setMetaInfoJsonPath("$.[?(@.user_name =~ /robot-" + random.nextInt(100) + "-.+/)]");
+            }
+            rules.add(rule);
+        }
+        whitelistRules = new WhitelistRules(new FixedRuleEntityService(rules), Long.MAX_VALUE);
+
+        violations = new ViolationEntity[VIOLATION_COUNT];
+        for (int i = 0; i < VIOLATION_COUNT; i++) {
+            final Map<String, String> metaInfo = new HashMap<>();
+            metaInfo.put("ami_name", "Taupage-AMI-" + random.nextInt(100) + "-20170509");
+            metaInfo.put("user_name", "robot-" + random.nextInt(1000) + "-deployer");
+            final ViolationEntity violation = new ViolationEntity("event-" + i, account(random.nextInt(100)),
+                    "eu-west-1", "i-" + i, metaInfo, null, null, null, null, null);
+            violation.setViolationTypeEntity(new ViolationTypeEntity(type(random.nextInt(20))));
+            violations[i] = violation;
+        }
+    }
+
+    @Benchmark
+    public int evaluator() {
+        int whitelisted = 0;
+        for (final ViolationEntity violation : violations) {
+            for (final RuleEntity rule : rules) {
+                if (evaluator.apply(rule, violation)) {
+                    whitelisted++;
+                    break;
+                }
+            }
+        }
+        return whitelisted;
+    }
+
+    @Benchmark
+    public int compiled() {
+        int whitelisted = 0;
+        for (final ViolationEntity violation : violations) {
+            violation.setRuleEntity(null);
+            whitelistRules.execute(violation);
+            if (violation.getRuleEntity() != null) {
+                whitelisted++;
+            }
+        }
+        return whitelisted;
+    }
+
+    private static String account(final int i) {
+        return String.format("%012d", 100_000_000_000L + i);
+    }
+
+    private static String type(final int i) {
+        return "VIOLATION_TYPE_" + i;
+    }
+
+    private static class FixedRuleEntityService implements RuleEntityService {
+
+        private final List<RuleEntity> rules;
+
+        FixedRuleEntityService(final List<RuleEntity> rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        public List<RuleEntity> findByNotExpired() {
+            return rules;
+        }
+
+        @Override
+        public RuleEntity save(final RuleDTO ruleDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RuleEntity update(final RuleDTO ruleDTO, final Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RuleEntity findById(final Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<RuleEntity> findAll() {
+            return rules;
+        }
+
+        @Override
+        public void expire(final Long id, final DateTime expiryDate) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.rule.service.RulesChangedEvent;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhitelistRulesTest {
+
+    private static final long NOW = 1_500_000_000_000L;
+
+    private RuleEntityService ruleEntityService;
+
+    private WhitelistRules whitelistRules;
+
+    private RuleEntity accountAndType;
+
+    private RuleEntity anyAccount;
+
+    private RuleEntity imageName;
+
+    private RuleEntity jsonPath;
+
+    @Before
+    public void setUp() throws Exception {
+        accountAndType = rule(1L, "Account and type");
+        accountAndType.setAccountId(" 123 ");
+        accountAndType.setViolationTypeEntityId("TYPE");
+
+        anyAccount = rule(2L, "Any account");
+        anyAccount.setViolationTypeEntityId("TYPE");
+        anyAccount.setRegion("eu-west-1");
+
+        imageName = rule(3L, "Image name");
+        imageName.setAccountId("456");
+        imageName.setImageName("jenkins.+");
+
+        jsonPath = rule(4L, "JSON path");
+        jsonPath.setMetaInfoJsonPath("$.[?(@.user_name =~ /ses\\.ci-master-.+/)]");
+
+        ruleEntityService = mock(RuleEntityService.class);
+        when(ruleEntityService.findByNotExpired()).thenReturn(newArrayList(accountAndType, anyAccount, imageName, jsonPath));
+        whitelistRules = new WhitelistRules(ruleEntityService, 60_000, Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testFirstMatchingRuleWins() throws Exception {
+        final ViolationEntity violation = violation("123", "eu-west-1", "TYPE", null);
+        whitelistRules.execute(violation);
+
+        assertThat(violation.getRuleEntity()).isSameAs(accountAndType);
+        assertThat(violation.getComment()).isEqualTo("Whitelisted automatically because of:Account and type");
+    }
+
+    @Test
+    public void testRuleWithoutAccount() throws Exception {
+        final ViolationEntity violation = violation("789", "eu-west-1", "TYPE", null);
+        whitelistRules.execute(violation);
+
+        assertThat(violation.getRuleEntity()).isSameAs(anyAccount);
+    }
+
+    @Test
+    public void testImageNameAndJsonPath() throws Exception {
+        final Map<String, String> metaInfo = new HashMap<>();
+        metaInfo.put("ami_name", "jenkins-machine");
+        final ViolationEntity image = violation("456", "eu-central-1", "OTHER", metaInfo);
+        whitelistRules.execute(image);
+        assertThat(image.getRuleEntity()).isSameAs(imageName);
+
+        metaInfo.clear();
+        metaInfo.put("user_name", "ses.ci-master-foobar-123abc");
+        final ViolationEntity user = violation("456", "eu-central-1", "OTHER", metaInfo);
+        whitelistRules.execute(user);
+        assertThat(user.getRuleEntity()).isSameAs(jsonPath);
+    }
+
+    @Test
+    public void testNoMatch() throws Exception {
+        final Map<String, String> metaInfo = new HashMap<>();
+        metaInfo.put("ami_name", "CD-jenkins");
+        metaInfo.put("user_name", "ses.ci-slave");
+        final ViolationEntity violation = violation("456", "eu-central-1", null, metaInfo);
+        whitelistRules.execute(violation);
+
+        assertThat(violation.getRuleEntity()).isNull();
+        assertThat(violation.getComment()).isNull();
+    }
+
+    @Test
+    public void testExpiredRuleIsSkipped() throws Exception {
+        accountAndType.setExpiryDate(new DateTime(NOW));
+        final ViolationEntity violation = violation("123", "eu-west-1", "TYPE", null);
+        whitelistRules.execute(violation);
+
+        assertThat(violation.getRuleEntity()).isSameAs(anyAccount);
+    }
+
+    @Test
+    public void testInvalidRuleNeverMatches() throws Exception {
+        final RuleEntity invalid = rule(5L, "Invalid");
+        invalid.setImageName("[jenkins");
+        final RuleEntity empty = rule(6L, "Empty");
+        when(ruleEntityService.findByNotExpired()).thenReturn(newArrayList(invalid, empty));
+
+        final Map<String, String> metaInfo = new HashMap<>();
+        metaInfo.put("ami_name", "[jenkins");
+        final ViolationEntity violation = violation("123", "eu-west-1", "TYPE", metaInfo);
+        whitelistRules.execute(violation);
+
+        assertThat(violation.getRuleEntity()).isNull();
+    }
+
+    @Test
+    public void testRulesAreLoadedOnceUntilChanged() throws Exception {
+        whitelistRules.execute(violation("123", "eu-west-1", "TYPE", null));
+        whitelistRules.execute(violation("789", "eu-west-1", "TYPE", null));
+        verify(ruleEntityService).findByNotExpired();
+
+        whitelistRules.onApplicationEvent(new RulesChangedEvent(accountAndType));
+        whitelistRules.execute(violation("123", "eu-west-1", "TYPE", null));
+        verify(ruleEntityService, times(2)).findByNotExpired();
+    }
+
+    @Test
+    public void testRulesAreReloadedAfterRefreshInterval() throws Exception {
+        final Clock[] clock = { Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC) };
+        whitelistRules = new WhitelistRules(ruleEntityService, 60_000, new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(final ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return clock[0].instant();
+            }
+        });
+
+        whitelistRules.execute(violation("123", "eu-west-1", "TYPE", null));
+        clock[0] = Clock.fixed(Instant.ofEpochMilli(NOW + 60_000), ZoneOffset.UTC);
+        whitelistRules.execute(violation("123", "eu-west-1", "TYPE", null));
+
+        verify(ruleEntityService, times(2)).findByNotExpired();
+    }
+
+    private static RuleEntity rule(final Long id, final String reason) {
+        final RuleEntity rule = new RuleEntity();
+        rule.setId(id);
+        rule.setReason(reason);
+        rule.setExpiryDate(new DateTime(NOW + 3_600_000));
+        return rule;
+    }
+
+    private static ViolationEntity violation(final String account, final String region, final String type,
+                                             final Object metaInfo) {
+        final ViolationEntity violation = new ViolationEntity(null, account, region, null, metaInfo, null, null, null,
+                null, null);
+        if (type != null) {
+            violation.setViolationTypeEntity(new ViolationTypeEntity(type));
+        }
+        return violation;
+    }
+}
@@ -0,0 +1,175 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.zalando.stups.fullstop.rule.entity.RuleDTO;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.entity.WhitelistingDryRunResult;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhitelistingDryRunTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private ViolationRepository violationRepository;
+
+    private WhitelistingDryRun dryRun;
+
+    private RuleDTO ruleDTO;
+
+    @Before
+    public void setUp() throws Exception {
+        violationRepository = mock(ViolationRepository.class);
+        dryRun = new WhitelistingDryRun(violationRepository, 2, 1, 10_000, 2, new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(final ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        });
+
+        ruleDTO = new RuleDTO();
+        ruleDTO.setAccountId("123");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dryRun.destroy();
+    }
+
+    @Test
+    public void testSimpleRuleIsCountedInDatabase() throws Exception {
+        when(violationRepository.countOpenViolations(any(RuleEntity.class), eq(10_000)))
+                .thenReturn(newArrayList(new CountByAccountAndType("123", "WRONG_AMI", 3)));
+        when(violationRepository.findOpenViolationIds(any(RuleEntity.class), eq(1))).thenReturn(newArrayList(5L));
+
+        final WhitelistingDryRunResult result = dryRun.dryRun(ruleDTO);
+
+        assertThat(result.isEvaluatedInDatabase()).isTrue();
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getEvaluatedViolations()).isEqualTo(3);
+        assertThat(result.getSampleViolationIds()).containsExactly(5L);
+    }
+
+    @Test
+    public void testDatabaseTimeout() throws Exception {
+        when(violationRepository.countOpenViolations(any(RuleEntity.class), anyInt()))
+                .thenThrow(new QueryTimeoutException("canceled"));
+
+        final WhitelistingDryRunResult result = dryRun.dryRun(ruleDTO);
+
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.getCounts()).isEmpty();
+        verify(violationRepository, never()).findOpenViolationIds(any(RuleEntity.class), anyInt());
+    }
+
+    @Test
+    public void testImageNameIsEvaluatedPageByPage() throws Exception {
+        ruleDTO.setImageName("jenkins.+");
+        when(violationRepository.findOpenViolations(any(RuleEntity.class), (Long) isNull(), eq(2))).thenReturn(newArrayList(
+                violation(10L, "TYPE_A", "jenkins-1"), violation(11L, "TYPE_A", "other")));
+        when(violationRepository.findOpenViolations(any(RuleEntity.class), eq(11L), eq(2))).thenReturn(newArrayList(
+                violation(12L, "TYPE_B", "jenkins-2")));
+
+        final WhitelistingDryRunResult result = dryRun.dryRun(ruleDTO);
+
+        assertThat(result.isEvaluatedInDatabase()).isFalse();
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getEvaluatedViolations()).isEqualTo(3);
+        assertThat(result.getCounts())
+                .extracting(CountByAccountAndType::getAccount, CountByAccountAndType::getType, CountByAccountAndType::getQuantity)
+                .containsExactly(tuple("123", "TYPE_A", 1L), tuple("123", "TYPE_B", 1L));
+        assertThat(result.getSampleViolationIds()).containsExactly(10L);
+    }
+
+    @Test
+    public void testImageOwnerIsEvaluated() throws Exception {
+        ruleDTO.setImageOwner("111");
+        when(violationRepository.findOpenViolations(any(RuleEntity.class), (Long) isNull(), eq(2))).thenReturn(newArrayList(
+                violation(10L, "TYPE_A", "jenkins-1")));
+
+        final WhitelistingDryRunResult result = dryRun.dryRun(ruleDTO);
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getCounts())
+                .extracting(CountByAccountAndType::getAccount, CountByAccountAndType::getType, CountByAccountAndType::getQuantity)
+                .containsExactly(tuple("123", "TYPE_A", 1L));
+    }
+
+    @Test
+    public void testViolationWithoutAccountIsCounted() throws Exception {
+        ruleDTO.setAccountId(null);
+        ruleDTO.setImageName("jenkins.+");
+        final ViolationEntity withoutAccount = violation(10L, "TYPE_A", "jenkins-1");
+        withoutAccount.setAccountId(null);
+        when(violationRepository.findOpenViolations(any(RuleEntity.class), (Long) isNull(), eq(2))).thenReturn(newArrayList(
+                withoutAccount, violation(11L, "TYPE_A", "jenkins-2")));
+
+        final WhitelistingDryRunResult result = dryRun.dryRun(ruleDTO);
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getCounts())
+                .extracting(CountByAccountAndType::getAccount, CountByAccountAndType::getType, CountByAccountAndType::getQuantity)
+                .containsExactly(tuple("123", "TYPE_A", 1L), tuple("UNKNOWN", "TYPE_A", 1L));
+    }
+
+    @Test
+    public void testEvaluationStopsWhenTimeBudgetRunsOut() throws Exception {
+        ruleDTO.setImageName("jenkins.+");
+        when(violationRepository.findOpenViolations(any(RuleEntity.class), (Long) isNull(), eq(2))).thenAnswer(invocation -> {
+            now.addAndGet(10_000);
+            return newArrayList(violation(10L, "TYPE_A", "jenkins-1"), violation(11L, "TYPE_A", "jenkins-2"));
+        });
+
+        final WhitelistingDryRunResult result = dryRun.dryRun(ruleDTO);
+
+        assertThat(result.isComplete()).isFalse();
+        verify(violationRepository, never()).findOpenViolations(any(RuleEntity.class), eq(11L), anyInt());
+    }
+
+    private static ViolationEntity violation(final Long id, final String type, final String amiName) {
+        // as converted by the ViolationObjectConverter when loaded from the database
+        final ObjectNode metaInfo = JsonNodeFactory.instance.objectNode()
+                .put("ami_name", amiName)
+                .put("ami_owner_id", "111");
+        final ViolationEntity violation = new ViolationEntity(null, "123", "eu-west-1", null, metaInfo, null, null, null,
+                null, null);
+        violation.setId(id);
+        violation.setViolationTypeEntity(new ViolationTypeEntity(type));
+        return violation;
+    }
+}
@@ -4,12 +4,8 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.DescribeImagesRequest;
 import com.amazonaws.services.ec2.model.DescribeImagesResult;
-import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
-import com.amazonaws.services.ec2.model.DescribeInstancesResult;
-import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.Image;
 import com.amazonaws.services.ec2.model.Instance;
-import com.amazonaws.services.ec2.model.Reservation;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -21,6 +17,9 @@ import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionExecutor;
+import org.zalando.stups.fullstop.jobs.common.EC2Inventory;
+import org.zalando.stups.fullstop.jobs.common.EC2InventorySnapshot;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
 import org.zalando.stups.fullstop.jobs.common.TaupageExpirationTimeProvider;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
@@ -31,6 +30,7 @@ import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
@@ -43,7 +43,6 @@ import static java.time.ZonedDateTime.now;
 import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
-import static org.apache.commons.lang3.StringUtils.trimToNull;
 import static org.zalando.stups.fullstop.violation.ViolationType.OUTDATED_TAUPAGE;
 
 @Component
@@ -51,6 +50,8 @@ public class FetchAmiJob implements FullstopJob {
 
     static final String EVENT_ID = "checkAmiJob";
 
+    private static final Duration DEADLINE = Duration.ofHours(4);
+
     private final String taupageNamePrefix;
 
     private final List<String> taupageOwners;
@@ -72,6 +73,10 @@ public class FetchAmiJob implements FullstopJob {
 
     private final TaupageExpirationTimeProvider taupageExpirationTimeProvider;
 
+    private final AccountRegionExecutor accountRegionExecutor;
+
+    private final EC2Inventory ec2Inventory;
+
     @Autowired
     public FetchAmiJob(final ViolationSink violationSink,
                        final ClientProvider clientProvider,
@@ -82,7 +87,9 @@ public class FetchAmiJob implements FullstopJob {
                        @Value("${FULLSTOP_TAUPAGE_NAME_PREFIX}") final String taupageNamePrefix,
                        @Value("${FULLSTOP_TAUPAGE_OWNERS}") final String taupageOwners,
                        final JobExceptionHandler jobExceptionHandler,
-                       final TaupageExpirationTimeProvider taupageExpirationTimeProvider) {
+                       final TaupageExpirationTimeProvider taupageExpirationTimeProvider,
+                       final AccountRegionExecutor accountRegionExecutor,
+                       final EC2Inventory ec2Inventory) {
         this.violationSink = violationSink;
         this.clientProvider = clientProvider;
         this.allAccountIds = allAccountIds;
@@ -93,6 +100,8 @@ public class FetchAmiJob implements FullstopJob {
         this.taupageOwners = Stream.of(taupageOwners.split(",")).filter(s -> !s.isEmpty()).collect(toList());
         this.jobExceptionHandler = jobExceptionHandler;
         this.taupageExpirationTimeProvider = taupageExpirationTimeProvider;
+        this.accountRegionExecutor = accountRegionExecutor;
+        this.ec2Inventory = ec2Inventory;
     }
 
     @PostConstruct
@@ -103,60 +112,38 @@ public class FetchAmiJob implements FullstopJob {
     @Scheduled(fixedRate = 60_000 * 60 * 4, initialDelay = -1) // ((1 min * 60) * 4) = 4 hours rate, 0 min delay
     public void run() {
         log.info("Running job {}", getClass().getSimpleName());
-        final List<String> regions = jobsProperties.getWhitelistedRegions();
-        for (final String account : allAccountIds.get()) {
-            for (final String region : regions) {
-                runOn(account, region);
-            }
-        }
+        accountRegionExecutor.run(getClass().getSimpleName(), allAccountIds.get(),
+                jobsProperties.getWhitelistedRegions(), DEADLINE, this::runOn);
     }
 
-    private void runOn(final String account, final String region) {
-        final Map<String, String> accountRegionCtx = ImmutableMap.of(
-                "job", this.getClass().getSimpleName(),
-                "aws_account_id", account,
-                "aws_region", region);
-
-        try {
-            log.debug("Scanning EC2 instances to fetch AMIs {}/{}", account, region);
-            final AmazonEC2Client ec2Client = clientProvider.getClient(
-                    AmazonEC2Client.class,
-                    account,
-                    getRegion(fromName(region)));
-            Optional<String> nextToken = empty();
-            do {
-                final DescribeInstancesRequest request = new DescribeInstancesRequest();
-                if (nextToken.isPresent()) {
-                    request.withNextToken(nextToken.get());
-                } else {
-                    request.withFilters(new Filter("instance-state-name").withValues("running"));
-                }
-
-                final DescribeInstancesResult result = ec2Client.describeInstances(request);
-                nextToken = Optional.ofNullable(trimToNull(result.getNextToken()));
-
-                for (final Reservation reservation : result.getReservations()) {
-                    for (final Instance instance : reservation.getInstances()) {
-                        try {
-                            processInstance(ec2Client, account, region, instance);
-                        } catch (Exception e) {
-                            jobExceptionHandler.onException(e, ImmutableMap.<String, String>builder()
-                                    .putAll(accountRegionCtx).put("ec2_instance_id", instance.getInstanceId()).build());
-                        }
-                    }
-                }
-            } while (nextToken.isPresent());
-        } catch (final Exception e) {
-            jobExceptionHandler.onException(e, accountRegionCtx);
+    private void runOn(final String account, final String region, final Map<String, String> accountRegionCtx) {
+        log.debug("Checking AMIs of EC2 instances in {}/{}", account, region);
+        final EC2InventorySnapshot inventory = ec2Inventory.get(account, region);
+        final AmazonEC2Client ec2Client = clientProvider.getClient(
+                AmazonEC2Client.class,
+                account,
+                getRegion(fromName(region)));
+
+        for (final String imageId : inventory.getImageIds()) {
+            try {
+                processImage(ec2Client, account, region, imageId, inventory.getByImageId(imageId));
+            } catch (Exception e) {
+                jobExceptionHandler.onException(e, ImmutableMap.<String, String>builder()
+                        .putAll(accountRegionCtx).put("ami_id", imageId).build());
+            }
         }
     }
 
-    private void processInstance(final AmazonEC2Client ec2Client, final String account, final String region, final Instance instance) {
-        if (violationService.violationExists(account, region, EVENT_ID, instance.getInstanceId(), OUTDATED_TAUPAGE)) {
+    private void processImage(final AmazonEC2Client ec2Client, final String account, final String region,
+                              final String imageId, final List<Instance> instances) {
+        final List<Instance> unreported = instances.stream()
+                .filter(instance -> !violationService.violationExists(account, region, EVENT_ID, instance.getInstanceId(), OUTDATED_TAUPAGE))
+                .collect(toList());
+        if (unreported.isEmpty()) {
             return;
         }
 
-        final Optional<Image> optionalImage = getAmiFromEC2Api(ec2Client, instance.getImageId());
+        final Optional<Image> optionalImage = getAmiFromEC2Api(ec2Client, imageId);
         final Optional<Boolean> isTaupageAmi = optionalImage
                 .filter(img -> img.getName().startsWith(taupageNamePrefix))
                 .map(Image::getOwnerId)
@@ -174,26 +161,31 @@ public class FetchAmiJob implements FullstopJob {
         if (optionalExpirationDate.isPresent()) {
             final ZonedDateTime expirationDate = optionalExpirationDate.get();
             if (now().isAfter(expirationDate)) {
-                final Optional<TaupageYaml> taupageYaml = fetchTaupageYaml.getTaupageYaml(instance.getInstanceId(), account, region);
-                violationSink.put(new ViolationBuilder()
-                        .withAccountId(account)
-                        .withRegion(region)
-                        .withPluginFullyQualifiedClassName(FetchAmiJob.class)
-                        .withEventId(EVENT_ID)
-                        .withType(OUTDATED_TAUPAGE)
-                        .withInstanceId(instance.getInstanceId())
-                        .withApplicationId(taupageYaml.map(TaupageYaml::getApplicationId).map(StringUtils::trimToNull).orElse(null))
-                        .withApplicationVersion(taupageYaml.map(TaupageYaml::getApplicationVersion).map(StringUtils::trimToNull).orElse(null))
-                        .withMetaInfo(ImmutableMap.of(
-                                "ami_owner_id", image.getOwnerId(),
-                                "ami_id", image.getImageId(),
-                                "ami_name", image.getName(),
-                                "expiration_date", expirationDate.toString()))
-                        .build());
+                unreported.forEach(instance -> writeViolation(account, region, instance, image, expirationDate));
             }
         }
     }
 
+    private void writeViolation(final String account, final String region, final Instance instance,
+                                final Image image, final ZonedDateTime expirationDate) {
+        final Optional<TaupageYaml> taupageYaml = fetchTaupageYaml.getTaupageYaml(instance.getInstanceId(), account, region);
+        violationSink.put(new ViolationBuilder()
+                .withAccountId(account)
+                .withRegion(region)
+                .withPluginFullyQualifiedClassName(FetchAmiJob.class)
+                .withEventId(EVENT_ID)
+                .withType(OUTDATED_TAUPAGE)
+                .withInstanceId(instance.getInstanceId())
+                .withApplicationId(taupageYaml.map(TaupageYaml::getApplicationId).map(StringUtils::trimToNull).orElse(null))
+                .withApplicationVersion(taupageYaml.map(TaupageYaml::getApplicationVersion).map(StringUtils::trimToNull).orElse(null))
+                .withMetaInfo(ImmutableMap.of(
+                        "ami_owner_id", image.getOwnerId(),
+                        "ami_id", image.getImageId(),
+                        "ami_name", image.getName(),
+                        "expiration_date", expirationDate.toString()))
+                .build());
+    }
+
     private Optional<Image> getAmiFromEC2Api(final AmazonEC2Client ec2Client, final String imageId) {
         try {
             final DescribeImagesResult response = ec2Client.describeImages(new DescribeImagesRequest().withImageIds(imageId));
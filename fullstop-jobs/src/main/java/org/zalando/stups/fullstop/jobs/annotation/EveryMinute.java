@@ -0,0 +1,12 @@
+package org.zalando.stups.fullstop.jobs.annotation;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.lang.annotation.*;
+
+@Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Scheduled(cron = "0 * * * * *")
+public @interface EveryMinute {
+}
@@ -0,0 +1,21 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Runs the account/region units of the scan jobs in parallel, on a pool shared by all jobs.
+ */
+public interface AccountRegionExecutor {
+
+    /**
+     * Runs the task for every pair of account and region and waits until all of them are done or the deadline has
+     * passed. Units not done by then are cancelled.
+     *
+     * @param job      name of the job, for the logs and the exception context
+     * @param deadline how long the run may take, usually the rate of the job
+     * @return the number of units and how long it took
+     */
+    JobRunSummary run(String job, Collection<String> accounts, Collection<String> regions, Duration deadline,
+                      AccountRegionTask task);
+}
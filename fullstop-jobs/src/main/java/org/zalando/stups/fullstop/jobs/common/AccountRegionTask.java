@@ -0,0 +1,18 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import java.util.Map;
+
+/**
+ * The work of a job in one account and region.
+ */
+@FunctionalInterface
+public interface AccountRegionTask {
+
+    /**
+     * @param context job, account and region, to be passed to the {@link
+     *                org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler}, extended if needed
+     * @throws Exception handed to the {@link org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler} with
+     *                   the context
+     */
+    void run(String account, String region, Map<String, String> context) throws Exception;
+}
@@ -0,0 +1,14 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+/**
+ * The running EC2 instances of an account and region, crawled once and shared by all jobs that check instances.
+ */
+public interface EC2Inventory {
+
+    /**
+     * @return the snapshot crawled within the last five minutes, or a new one. Concurrent callers for the same account
+     * and region wait for a single crawl.
+     */
+    EC2InventorySnapshot get(String accountId, String region);
+
+}
@@ -0,0 +1,105 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import com.amazonaws.services.ec2.model.GroupIdentifier;
+import com.amazonaws.services.ec2.model.Instance;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The running instances of one account and region at a point in time, indexed by instance id, AMI and security
+ * group.
+ */
+public class EC2InventorySnapshot {
+
+    private final String accountId;
+
+    private final String region;
+
+    private final Instant crawledAt;
+
+    private final List<Instance> instances;
+
+    private final ImmutableMap<String, Instance> byInstanceId;
+
+    private final ImmutableListMultimap<String, Instance> byImageId;
+
+    private final ImmutableListMultimap<String, Instance> bySecurityGroupId;
+
+    public EC2InventorySnapshot(final String accountId, final String region, final Instant crawledAt,
+                                final Collection<Instance> instances) {
+        this.accountId = accountId;
+        this.region = region;
+        this.crawledAt = crawledAt;
+        this.instances = ImmutableList.copyOf(instances);
+
+        final ImmutableMap.Builder<String, Instance> byInstanceId = ImmutableMap.builder();
+        final ImmutableListMultimap.Builder<String, Instance> byImageId = ImmutableListMultimap.builder();
+        final ImmutableListMultimap.Builder<String, Instance> bySecurityGroupId = ImmutableListMultimap.builder();
+        for (final Instance instance : this.instances) {
+            byInstanceId.put(instance.getInstanceId(), instance);
+            if (instance.getImageId() != null) {
+                byImageId.put(instance.getImageId(), instance);
+            }
+            for (final GroupIdentifier group : instance.getSecurityGroups()) {
+                bySecurityGroupId.put(group.getGroupId(), instance);
+            }
+        }
+        this.byInstanceId = byInstanceId.build();
+        this.byImageId = byImageId.build();
+        this.bySecurityGroupId = bySecurityGroupId.build();
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public Instant getCrawledAt() {
+        return crawledAt;
+    }
+
+    public List<Instance> getInstances() {
+        return instances;
+    }
+
+    public Optional<Instance> getById(final String instanceId) {
+        return Optional.ofNullable(byInstanceId.get(instanceId));
+    }
+
+    public Set<String> getImageIds() {
+        return byImageId.keySet();
+    }
+
+    public List<Instance> getByImageId(final String imageId) {
+        return byImageId.get(imageId);
+    }
+
+    public Set<String> getSecurityGroupIds() {
+        return bySecurityGroupId.keySet();
+    }
+
+    public List<Instance> getBySecurityGroupId(final String securityGroupId) {
+        return bySecurityGroupId.get(securityGroupId);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("accountId", accountId)
+                .add("region", region)
+                .add("crawledAt", crawledAt)
+                .add("instances", instances.size())
+                .toString();
+    }
+}
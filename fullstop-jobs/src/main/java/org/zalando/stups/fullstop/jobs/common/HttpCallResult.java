@@ -3,11 +3,17 @@ package org.zalando.stups.fullstop.jobs.common;
 public class HttpCallResult {
     private  boolean open;
     private String message;
+    private final boolean reachable;
 
 
     HttpCallResult(final boolean isOpen, final String message) {
+        this(isOpen, message, true);
+    }
+
+    HttpCallResult(final boolean isOpen, final String message, final boolean reachable) {
         this.open = isOpen;
         this.message = message;
+        this.reachable = reachable;
     }
 
     void setIsOpen() {
@@ -19,6 +25,13 @@ public class HttpCallResult {
     }
 
 
+    /**
+     * @return false if the host did not accept the connection or did not answer in time
+     */
+    public boolean isReachable() {
+        return reachable;
+    }
+
     public String getMessage() {
         return message;
     }
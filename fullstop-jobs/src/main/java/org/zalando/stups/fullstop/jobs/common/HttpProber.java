@@ -0,0 +1,29 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Probes the root of public endpoints without blocking the calling thread.
+ */
+public interface HttpProber {
+
+    /**
+     * Sends GET / to the host, https on port 443 and http on all other ports, see {@link HttpGetRootCall#evaluate}.
+     *
+     * @return completes with a result that is not open if the host cannot be reached in time. Callbacks run on a
+     * pool of the prober, they may block.
+     */
+    ListenableFuture<HttpCallResult> probe(String host, int port);
+
+    /**
+     * Like {@link #probe(String, int)}, but may answer with the result of an earlier probe of the same host and port
+     * with the same fingerprint.
+     *
+     * @param fingerprint everything that decides whether the endpoint is reachable, e.g. security group rules and
+     *                    listeners
+     */
+    default ListenableFuture<HttpCallResult> probe(String host, int port, String fingerprint) {
+        return probe(host, port);
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import java.time.Duration;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+public class JobRunSummary {
+
+    private final String job;
+
+    private final int units;
+
+    private final int completed;
+
+    private final int failed;
+
+    private final Duration wallTime;
+
+    public JobRunSummary(final String job, final int units, final int completed, final int failed,
+                         final Duration wallTime) {
+        this.job = job;
+        this.units = units;
+        this.completed = completed;
+        this.failed = failed;
+        this.wallTime = wallTime;
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    /**
+     * @return the number of account/region pairs
+     */
+    public int getUnits() {
+        return units;
+    }
+
+    /**
+     * @return the number of units that ran to the end, including the failed ones
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the number of units that were cancelled or never started because of the deadline
+     */
+    public int getSkipped() {
+        return units - completed;
+    }
+
+    public Duration getWallTime() {
+        return wallTime;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("job", job)
+                .add("units", units)
+                .add("completed", completed)
+                .add("failed", failed)
+                .add("skipped", getSkipped())
+                .add("wallTime", wallTime)
+                .toString();
+    }
+}
@@ -12,4 +12,10 @@ public interface SecurityGroupsChecker {
      */
     Map<String, SecurityGroupCheckDetails> check(Collection<String> groupIds, String account, Region region);
 
+    /**
+     * Returns a value that changes when one of the groups or its rules change, to tell whether results that depend on
+     * the groups are still valid.
+     */
+    String fingerprint(Collection<String> groupIds, String account, Region region);
+
 }
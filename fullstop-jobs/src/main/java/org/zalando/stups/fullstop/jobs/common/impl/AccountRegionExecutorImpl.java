@@ -0,0 +1,290 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionExecutor;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionTask;
+import org.zalando.stups.fullstop.jobs.common.JobRunSummary;
+import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Starts the units of a run from the calling thread, as long as neither all runs together, nor the account, nor the
+ * region of the next unit have reached their limit. The limits hold across the runs of all jobs, so jobs running at
+ * the same time share them. AWS throttles per account and region, so the units of one account are spread over time
+ * instead of being started all at once.
+ */
+public class AccountRegionExecutorImpl implements AccountRegionExecutor, DisposableBean {
+
+    private final Logger log = LoggerFactory.getLogger(AccountRegionExecutorImpl.class);
+
+    private final JobExceptionHandler jobExceptionHandler;
+
+    private final int maxUnits;
+
+    private final int maxUnitsPerAccount;
+
+    private final int maxUnitsPerRegion;
+
+    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+
+    /**
+     * Guards the units running and the state of all runs, and is notified when a unit is done.
+     */
+    private final Object lock = new Object();
+
+    private int runningUnits;
+
+    private final Map<String, Integer> runningPerAccount = new HashMap<>();
+
+    private final Map<String, Integer> runningPerRegion = new HashMap<>();
+
+    /**
+     * @param maxUnits           the number of threads and the number of units all runs execute at the same time
+     * @param maxUnitsPerAccount the number of units of one account all runs execute at the same time
+     * @param maxUnitsPerRegion  the number of units of one region all runs execute at the same time
+     */
+    public AccountRegionExecutorImpl(final JobExceptionHandler jobExceptionHandler,
+                                     final int maxUnits,
+                                     final int maxUnitsPerAccount,
+                                     final int maxUnitsPerRegion) {
+        Assert.isTrue(maxUnits > 0, "maxUnits must be positive");
+        Assert.isTrue(maxUnitsPerAccount > 0, "maxUnitsPerAccount must be positive");
+        Assert.isTrue(maxUnitsPerRegion > 0, "maxUnitsPerRegion must be positive");
+        this.jobExceptionHandler = jobExceptionHandler;
+        this.maxUnits = maxUnits;
+        this.maxUnitsPerAccount = maxUnitsPerAccount;
+        this.maxUnitsPerRegion = maxUnitsPerRegion;
+
+        threadPoolTaskExecutor.setCorePoolSize(maxUnits);
+        threadPoolTaskExecutor.setMaxPoolSize(maxUnits);
+        threadPoolTaskExecutor.setAllowCoreThreadTimeOut(true);
+        threadPoolTaskExecutor.setKeepAliveSeconds(30);
+        threadPoolTaskExecutor.setThreadGroupName("account-region-group");
+        threadPoolTaskExecutor.setThreadNamePrefix("account-region-");
+        threadPoolTaskExecutor.afterPropertiesSet();
+    }
+
+    @Override
+    public JobRunSummary run(final String job, final Collection<String> accounts, final Collection<String> regions,
+                             final Duration deadline, final AccountRegionTask task) {
+        final long start = System.nanoTime();
+
+        final Run run = new Run(job, task);
+        for (final String account : accounts) {
+            for (final String region : regions) {
+                run.add(new Unit(account, region));
+            }
+        }
+
+        final boolean finished = run.await(start + deadline.toNanos());
+        final JobRunSummary summary = run.summary(Duration.ofNanos(System.nanoTime() - start));
+        if (finished) {
+            log.info("Finished job {}: {}", job, summary);
+        } else {
+            log.warn("Job {} did not finish within {}: {}", job, deadline, summary);
+        }
+        return summary;
+    }
+
+    @Override
+    public void destroy() {
+        threadPoolTaskExecutor.shutdown();
+    }
+
+    /**
+     * Must hold the lock.
+     */
+    private boolean isStartable(final Unit unit) {
+        return runningUnits < maxUnits
+                && runningPerAccount.getOrDefault(unit.account, 0) < maxUnitsPerAccount
+                && runningPerRegion.getOrDefault(unit.region, 0) < maxUnitsPerRegion;
+    }
+
+    /**
+     * Must hold the lock.
+     */
+    private void acquire(final Unit unit) {
+        runningUnits++;
+        runningPerAccount.merge(unit.account, 1, Integer::sum);
+        runningPerRegion.merge(unit.region, 1, Integer::sum);
+    }
+
+    /**
+     * Must hold the lock.
+     */
+    private void release(final Unit unit) {
+        runningUnits--;
+        runningPerAccount.merge(unit.account, -1, Integer::sum);
+        runningPerRegion.merge(unit.region, -1, Integer::sum);
+        lock.notifyAll();
+    }
+
+    private static final class Unit {
+
+        private final String account;
+
+        private final String region;
+
+        private Unit(final String account, final String region) {
+            this.account = account;
+            this.region = region;
+        }
+    }
+
+    /**
+     * The state of one run, guarded by the lock of the executor.
+     */
+    private final class Run {
+
+        private final String job;
+
+        private final AccountRegionTask task;
+
+        private final List<Unit> pending = new LinkedList<>();
+
+        private final Map<Unit, Future<?>> running = new HashMap<>();
+
+        /**
+         * Units running on a thread of the pool, which release their limits themselves when done
+         */
+        private final Set<Unit> started = new HashSet<>();
+
+        private int units;
+
+        private int completed;
+
+        private int failed;
+
+        private Run(final String job, final AccountRegionTask task) {
+            this.job = job;
+            this.task = task;
+        }
+
+        private void add(final Unit unit) {
+            synchronized (lock) {
+                pending.add(unit);
+                units++;
+            }
+        }
+
+        /**
+         * @return false if the deadline passed or the calling thread was interrupted first
+         */
+        private boolean await(final long deadlineNanos) {
+            synchronized (lock) {
+                try {
+                    while (!pending.isEmpty() || !running.isEmpty()) {
+                        final long remaining = deadlineNanos - System.nanoTime();
+                        if (remaining <= 0) {
+                            cancel();
+                            return false;
+                        }
+
+                        final Unit next = removeStartable();
+                        if (next != null) {
+                            start(next);
+                        } else {
+                            NANOSECONDS.timedWait(lock, remaining);
+                        }
+                    }
+                    return true;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    return false;
+                }
+            }
+        }
+
+        private JobRunSummary summary(final Duration wallTime) {
+            synchronized (lock) {
+                return new JobRunSummary(job, units, completed, failed, wallTime);
+            }
+        }
+
+        private Unit removeStartable() {
+            for (final Iterator<Unit> iterator = pending.iterator(); iterator.hasNext(); ) {
+                final Unit unit = iterator.next();
+                if (isStartable(unit)) {
+                    iterator.remove();
+                    return unit;
+                }
+            }
+            return null;
+        }
+
+        private void start(final Unit unit) {
+            acquire(unit);
+
+            final Map<String, String> context = ImmutableMap.of(
+                    "job", job,
+                    "aws_account_id", unit.account,
+                    "aws_region", unit.region);
+            running.put(unit, threadPoolTaskExecutor.submit(() -> execute(unit, context)));
+        }
+
+        private void execute(final Unit unit, final Map<String, String> context) {
+            synchronized (lock) {
+                // cancelled before it started, its limits are released already
+                if (!running.containsKey(unit)) {
+                    return;
+                }
+                started.add(unit);
+            }
+
+            boolean succeeded = false;
+            try {
+                task.run(unit.account, unit.region, context);
+                succeeded = true;
+            } catch (final Exception e) {
+                jobExceptionHandler.onException(e, context);
+            } finally {
+                finished(unit, succeeded);
+            }
+        }
+
+        private void finished(final Unit unit, final boolean succeeded) {
+            synchronized (lock) {
+                release(unit);
+                // units cancelled at the deadline are no longer counted
+                if (running.remove(unit) == null) {
+                    return;
+                }
+
+                completed++;
+                if (!succeeded) {
+                    failed++;
+                }
+            }
+        }
+
+        private void cancel() {
+            running.forEach((unit, future) -> {
+                future.cancel(true);
+                // units still running hold their limits until they are done
+                if (!started.contains(unit)) {
+                    release(unit);
+                }
+            });
+            running.clear();
+            pending.clear();
+        }
+    }
+}
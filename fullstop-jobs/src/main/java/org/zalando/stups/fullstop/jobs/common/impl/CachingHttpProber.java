@@ -0,0 +1,176 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
+import org.zalando.stups.fullstop.jobs.common.HttpProber;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Keeps the results of fingerprinted probes for a while, so an endpoint is probed again only when its fingerprint
+ * changed or its result expired. Probes of the same endpoint and fingerprint that are in flight at the same time are
+ * sent once. Only answers of the endpoint are kept: failed probes, and probes of endpoints that did not accept the
+ * connection or did not answer in time, are sent again next time.
+ * <p>
+ * Probes sent are counted as {@code fullstop.jobs.probes.sent}, probes answered from the cache as {@code
+ * fullstop.jobs.probes.cached}. The share of probes sent among those requested in the last five minutes, about the
+ * length of a sweep, is published as {@code fullstop.jobs.probes.effectiveRate} in percent.
+ */
+public class CachingHttpProber implements HttpProber, DisposableBean {
+
+    static final String SENT_METRIC = "fullstop.jobs.probes.sent";
+
+    static final String CACHED_METRIC = "fullstop.jobs.probes.cached";
+
+    static final String EFFECTIVE_RATE_METRIC = "fullstop.jobs.probes.effectiveRate";
+
+    private static final long RATE_WINDOW_NANOS = MINUTES.toNanos(5);
+
+    private final HttpProber delegate;
+
+    private final CounterService counterService;
+
+    private final GaugeService gaugeService;
+
+    private final Cache<Key, ListenableFuture<HttpCallResult>> results;
+
+    private final Ticker ticker;
+
+    private long windowStart;
+
+    private long requested;
+
+    private long sent;
+
+    public CachingHttpProber(final HttpProber delegate, final long maximumSize, final long expireAfterMinutes,
+                             final CounterService counterService, final GaugeService gaugeService) {
+        this(delegate, maximumSize, expireAfterMinutes, counterService, gaugeService, Ticker.systemTicker());
+    }
+
+    CachingHttpProber(final HttpProber delegate, final long maximumSize, final long expireAfterMinutes,
+                      final CounterService counterService, final GaugeService gaugeService, final Ticker ticker) {
+        this.delegate = delegate;
+        this.counterService = counterService;
+        this.gaugeService = gaugeService;
+        this.ticker = ticker;
+        this.windowStart = ticker.read();
+        this.results = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterMinutes, MINUTES)
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public ListenableFuture<HttpCallResult> probe(final String host, final int port) {
+        requested(true);
+        return delegate.probe(host, port);
+    }
+
+    @Override
+    public ListenableFuture<HttpCallResult> probe(final String host, final int port, final String fingerprint) {
+        final Key key = new Key(host, port, fingerprint);
+        final AtomicBoolean probed = new AtomicBoolean();
+        final ListenableFuture<HttpCallResult> result;
+        try {
+            result = results.get(key, () -> {
+                probed.set(true);
+                return delegate.probe(host, port);
+            });
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Could not probe " + key, e.getCause());
+        }
+
+        if (probed.get()) {
+            result.addCallback(
+                    r -> {
+                        if (!r.isReachable()) {
+                            results.asMap().remove(key, result);
+                        }
+                    },
+                    e -> results.asMap().remove(key, result));
+        }
+        requested(probed.get());
+        return result;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean) {
+            ((DisposableBean) delegate).destroy();
+        }
+    }
+
+    private void requested(final boolean wasSent) {
+        counterService.increment(wasSent ? SENT_METRIC : CACHED_METRIC);
+        final double effectiveRate;
+        synchronized (this) {
+            final long now = ticker.read();
+            if (now - windowStart >= RATE_WINDOW_NANOS) {
+                windowStart = now;
+                requested = 0;
+                sent = 0;
+            }
+            requested++;
+            if (wasSent) {
+                sent++;
+            }
+            effectiveRate = sent * 100.0 / requested;
+        }
+        gaugeService.submit(EFFECTIVE_RATE_METRIC, effectiveRate);
+    }
+
+    private static final class Key {
+
+        private final String host;
+
+        private final int port;
+
+        private final String fingerprint;
+
+        private Key(final String host, final int port, final String fingerprint) {
+            this.host = host;
+            this.port = port;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return port == key.port
+                    && Objects.equals(host, key.host)
+                    && Objects.equals(fingerprint, key.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, fingerprint);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("host", host)
+                    .add("port", port)
+                    .add("fingerprint", fingerprint)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Filter;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.EC2Inventory;
+import org.zalando.stups.fullstop.jobs.common.EC2InventorySnapshot;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static com.amazonaws.regions.Region.getRegion;
+import static com.amazonaws.regions.Regions.fromName;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Optional.empty;
+import static org.apache.commons.lang3.StringUtils.trimToNull;
+
+@Component
+public class EC2InventoryImpl implements EC2Inventory {
+
+    private final Logger log = LoggerFactory.getLogger(EC2InventoryImpl.class);
+
+    private final ClientProvider clientProvider;
+
+    @Autowired
+    public EC2InventoryImpl(final ClientProvider clientProvider) {
+        this.clientProvider = clientProvider;
+    }
+
+    @Override
+    @Cacheable(cacheNames = "ec2-inventory", cacheManager = "fiveMinutesTTLCacheManager", sync = true)
+    public EC2InventorySnapshot get(final String accountId, final String region) {
+        final AmazonEC2Client ec2Client = clientProvider.getClient(
+                AmazonEC2Client.class,
+                accountId,
+                getRegion(fromName(region)));
+
+        final Instant crawledAt = Instant.now();
+        final List<Instance> instances = newArrayList();
+        Optional<String> nextToken = empty();
+        do {
+            final DescribeInstancesRequest request = new DescribeInstancesRequest();
+            if (nextToken.isPresent()) {
+                request.setNextToken(nextToken.get());
+            } else {
+                request.withFilters(new Filter("instance-state-name").withValues("running"));
+            }
+
+            final DescribeInstancesResult result = ec2Client.describeInstances(request);
+            nextToken = Optional.ofNullable(trimToNull(result.getNextToken()));
+
+            for (final Reservation reservation : result.getReservations()) {
+                instances.addAll(reservation.getInstances());
+            }
+        } while (nextToken.isPresent());
+
+        final EC2InventorySnapshot snapshot = new EC2InventorySnapshot(accountId, region, crawledAt, instances);
+        log.debug("Crawled {}", snapshot);
+        return snapshot;
+    }
+}
@@ -0,0 +1,179 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
+import org.zalando.stups.fullstop.jobs.common.HttpGetRootCall;
+import org.zalando.stups.fullstop.jobs.common.HttpProber;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Probes on the I/O threads of an {@link CloseableHttpAsyncClient}, so the number of probes in flight is limited by
+ * connections instead of threads. Probes beyond the connection limits wait in the connection pool, up to {@link
+ * #QUEUE_TIMEOUT_MILLIS}. Only status and headers are kept, the body is discarded, and connections are not reused.
+ */
+public class HttpProberImpl implements HttpProber, DisposableBean {
+
+    private static final int QUEUE_TIMEOUT_MILLIS = 300_000;
+
+    private final Logger log = LoggerFactory.getLogger(HttpProberImpl.class);
+
+    private final CloseableHttpAsyncClient httpClient;
+
+    private final ThreadPoolTaskExecutor callbackExecutor = new ThreadPoolTaskExecutor();
+
+    /**
+     * @param maxConnections        the number of probes in flight
+     * @param maxConnectionsPerHost the number of probes in flight to one host and port
+     */
+    public HttpProberImpl(final int maxConnections,
+                          final int maxConnectionsPerHost,
+                          final int connectTimeoutMillis,
+                          final int readTimeoutMillis) {
+        Assert.isTrue(maxConnections > 0, "maxConnections must be positive");
+        Assert.isTrue(maxConnectionsPerHost > 0, "maxConnectionsPerHost must be positive");
+
+        final RequestConfig config = RequestConfig.custom()
+                .setConnectionRequestTimeout(QUEUE_TIMEOUT_MILLIS)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSocketTimeout(readTimeoutMillis)
+                .setRedirectsEnabled(false)
+                .build();
+
+        try {
+            httpClient = HttpAsyncClientBuilder.create()
+                    .disableAuthCaching()
+                    .disableConnectionState()
+                    .disableCookieManagement()
+                    .setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE)
+                    .setMaxConnTotal(maxConnections)
+                    .setMaxConnPerRoute(maxConnectionsPerHost)
+                    .setDefaultRequestConfig(config)
+                    .setUserAgent("fullstop-job (https://github.com/zalando-stups/fullstop)")
+                    .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                    .setSSLContext(
+                            SSLContextBuilder.create()
+                                    .loadTrustMaterial(
+                                            null,
+                                            (arrayX509Certificate, value) -> true)
+                                    .build())
+                    .build();
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+            throw new IllegalStateException("Could not initialize httpClient", e);
+        }
+        httpClient.start();
+
+        // results are handed over, so that slow callbacks (e.g. writing violations) never block the I/O threads
+        callbackExecutor.setCorePoolSize(8);
+        callbackExecutor.setMaxPoolSize(8);
+        callbackExecutor.setAllowCoreThreadTimeOut(true);
+        callbackExecutor.setKeepAliveSeconds(30);
+        callbackExecutor.setThreadGroupName("http-probe-group");
+        callbackExecutor.setThreadNamePrefix("http-probe-");
+        callbackExecutor.afterPropertiesSet();
+    }
+
+    @Override
+    public ListenableFuture<HttpCallResult> probe(final String host, final int port) {
+        final SettableListenableFuture<HttpCallResult> future = new SettableListenableFuture<>();
+        final URI uri;
+        try {
+            uri = HttpGetRootCall.rootUri(host, port);
+        } catch (final URISyntaxException e) {
+            future.setException(e);
+            return future;
+        }
+
+        log.debug("Checking URL: {}", uri);
+        httpClient.execute(HttpAsyncMethods.createGet(uri), new ResponseHeadConsumer(), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                callbackExecutor.execute(() -> future.set(HttpGetRootCall.evaluate(uri, response)));
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                if (e instanceof IOException) {
+                    callbackExecutor.execute(() -> future.set(HttpGetRootCall.unreachable(uri, (IOException) e)));
+                } else {
+                    callbackExecutor.execute(() -> future.setException(e));
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                callbackExecutor.execute(() -> future.setException(new CancellationException("Probe of " + uri + " was cancelled")));
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+        callbackExecutor.shutdown();
+    }
+
+    /**
+     * Keeps status line and headers, and reads over the body.
+     */
+    private static class ResponseHeadConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+        private final ByteBuffer discard = ByteBuffer.allocate(4096);
+
+        private HttpResponse response;
+
+        @Override
+        protected void onResponseReceived(final HttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        protected void onEntityEnclosed(final HttpEntity entity, final ContentType contentType) {
+        }
+
+        @Override
+        protected void onContentReceived(final ContentDecoder decoder, final IOControl ioctrl) throws IOException {
+            do {
+                discard.clear();
+            } while (decoder.read(discard) > 0);
+        }
+
+        @Override
+        protected HttpResponse buildResult(final HttpContext context) {
+            return response;
+        }
+
+        @Override
+        protected void releaseResources() {
+        }
+    }
+}
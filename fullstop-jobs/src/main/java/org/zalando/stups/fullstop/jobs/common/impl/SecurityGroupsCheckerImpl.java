@@ -6,53 +6,149 @@ import com.amazonaws.services.ec2.model.DescribeSecurityGroupsRequest;
 import com.amazonaws.services.ec2.model.DescribeSecurityGroupsResult;
 import com.amazonaws.services.ec2.model.IpPermission;
 import com.amazonaws.services.ec2.model.SecurityGroup;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupCheckDetails;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
 
+import javax.annotation.Nonnull;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
+import static com.amazonaws.regions.Region.getRegion;
+import static com.amazonaws.regions.Regions.fromName;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.StringUtils.trimToNull;
 
+/**
+ * Describes all security groups of an account and region at the first check, and evaluates each of them once. The
+ * results and a hash of each group's rules are kept for the rest of the sweep, so checking or fingerprinting the groups
+ * of an instance or ELB is a lookup. Groups created after that are described when they are first checked.
+ */
 public class SecurityGroupsCheckerImpl implements SecurityGroupsChecker {
 
+    private static final int PAGE_SIZE = 1000;
+
+    private static final long SWEEP_MINUTES = 5;
+
     private final ClientProvider clientProvider;
     private final Predicate<? super IpPermission> isOffending;
 
+    /**
+     * Evaluated groups by [account, region].
+     */
+    private final LoadingCache<List<String>, Map<String, EvaluatedGroup>> groupsByAccountRegion;
+
     public SecurityGroupsCheckerImpl(final ClientProvider clientProvider, Predicate<? super IpPermission> isOffending) {
         this.clientProvider = clientProvider;
         this.isOffending = isOffending;
+        this.groupsByAccountRegion = CacheBuilder.newBuilder()
+                .expireAfterWrite(SWEEP_MINUTES, MINUTES)
+                .build(new CacheLoader<List<String>, Map<String, EvaluatedGroup>>() {
+                    @Override
+                    public Map<String, EvaluatedGroup> load(@Nonnull final List<String> accountRegion) {
+                        return describeAll(accountRegion.get(0), getRegion(fromName(accountRegion.get(1))));
+                    }
+                });
     }
 
     @Override
     public Map<String, SecurityGroupCheckDetails> check(final Collection<String> groupIds, final String account, final Region region) {
-        final DescribeSecurityGroupsRequest describeSecurityGroupsRequest = new DescribeSecurityGroupsRequest();
-        describeSecurityGroupsRequest.setGroupIds(groupIds);
-        final AmazonEC2Client amazonEC2Client = clientProvider.getClient(
-                AmazonEC2Client.class,
-                account, region);
-        final DescribeSecurityGroupsResult describeSecurityGroupsResult = amazonEC2Client.describeSecurityGroups(
-                describeSecurityGroupsRequest);
-
+        final Map<String, EvaluatedGroup> groups = lookup(groupIds, account, region);
 
         final ImmutableMap.Builder<String, SecurityGroupCheckDetails> result = ImmutableMap.builder();
-
-        for (final SecurityGroup securityGroup : describeSecurityGroupsResult.getSecurityGroups()) {
-            final List<String> offendingRules = securityGroup.getIpPermissions().stream()
-                    .filter(isOffending)
-                    .map(Object::toString)
-                    .collect(toList());
-            if (!offendingRules.isEmpty()) {
-                final SecurityGroupCheckDetails details = new SecurityGroupCheckDetails(
-                        securityGroup.getGroupName(), ImmutableList.copyOf(offendingRules));
-                result.put(securityGroup.getGroupId(), details);
-            }
+        for (final String groupId : new LinkedHashSet<>(groupIds)) {
+            Optional.ofNullable(groups.get(groupId))
+                    .flatMap(group -> group.details)
+                    .ifPresent(details -> result.put(groupId, details));
         }
         return result.build();
     }
+
+    @Override
+    public String fingerprint(final Collection<String> groupIds, final String account, final Region region) {
+        final Map<String, EvaluatedGroup> groups = lookup(groupIds, account, region);
+
+        return new TreeSet<>(groupIds).stream()
+                .map(groupId -> groupId + ":" + Optional.ofNullable(groups.get(groupId))
+                        .map(group -> Integer.toHexString(group.rulesHash))
+                        .orElse("unknown"))
+                .collect(joining(","));
+    }
+
+    /**
+     * @return the groups of the sweep, after describing those not known yet
+     */
+    private Map<String, EvaluatedGroup> lookup(final Collection<String> groupIds, final String account, final Region region) {
+        final Map<String, EvaluatedGroup> groups = groupsByAccountRegion.getUnchecked(asList(account, region.getName()));
+
+        final List<String> unknownGroupIds = groupIds.stream()
+                .filter(groupId -> !groups.containsKey(groupId))
+                .distinct()
+                .collect(toList());
+        if (!unknownGroupIds.isEmpty()) {
+            final DescribeSecurityGroupsResult result = getClient(account, region).describeSecurityGroups(
+                    new DescribeSecurityGroupsRequest().withGroupIds(unknownGroupIds));
+            result.getSecurityGroups().forEach(securityGroup -> groups.put(securityGroup.getGroupId(), evaluate(securityGroup)));
+        }
+        return groups;
+    }
+
+    private Map<String, EvaluatedGroup> describeAll(final String account, final Region region) {
+        final AmazonEC2Client amazonEC2Client = getClient(account, region);
+        final Map<String, EvaluatedGroup> groups = new ConcurrentHashMap<>();
+        Optional<String> nextToken = Optional.empty();
+        do {
+            final DescribeSecurityGroupsRequest request = new DescribeSecurityGroupsRequest().withMaxResults(PAGE_SIZE);
+            nextToken.ifPresent(request::setNextToken);
+            final DescribeSecurityGroupsResult result = amazonEC2Client.describeSecurityGroups(request);
+            nextToken = Optional.ofNullable(trimToNull(result.getNextToken()));
+
+            result.getSecurityGroups().forEach(securityGroup -> groups.put(securityGroup.getGroupId(), evaluate(securityGroup)));
+        } while (nextToken.isPresent());
+        return groups;
+    }
+
+    private EvaluatedGroup evaluate(final SecurityGroup securityGroup) {
+        final List<String> offendingRules = securityGroup.getIpPermissions().stream()
+                .filter(isOffending)
+                .map(Object::toString)
+                .collect(toList());
+        final Optional<SecurityGroupCheckDetails> details = offendingRules.isEmpty()
+                ? Optional.empty()
+                : Optional.of(new SecurityGroupCheckDetails(securityGroup.getGroupName(), ImmutableList.copyOf(offendingRules)));
+        return new EvaluatedGroup(details, securityGroup.getIpPermissions().hashCode());
+    }
+
+    private AmazonEC2Client getClient(final String account, final Region region) {
+        return clientProvider.getClient(AmazonEC2Client.class, account, region);
+    }
+
+    private static final class EvaluatedGroup {
+
+        /**
+         * Empty if the group is not offending
+         */
+        private final Optional<SecurityGroupCheckDetails> details;
+
+        private final int rulesHash;
+
+        private EvaluatedGroup(final Optional<SecurityGroupCheckDetails> details, final int rulesHash) {
+            this.details = details;
+            this.rulesHash = rulesHash;
+        }
+    }
 }
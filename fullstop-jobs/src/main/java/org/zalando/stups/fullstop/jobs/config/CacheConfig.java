@@ -25,6 +25,11 @@ public class CacheConfig extends CachingConfigurerSupport {
         return buildCacheManager("maximumSize=1000,expireAfterWrite=2h");
     }
 
+    @Bean
+    public CacheManager fiveMinutesTTLCacheManager() {
+        return buildCacheManager("maximumSize=5000,expireAfterWrite=5m");
+    }
+
     @Bean
     public CacheManager oneMinuteTTLCacheManager() {
         return buildCacheManager("maximumSize=1000,expireAfterWrite=1m");
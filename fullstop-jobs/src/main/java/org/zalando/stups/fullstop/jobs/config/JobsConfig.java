@@ -1,17 +1,27 @@
 package org.zalando.stups.fullstop.jobs.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionExecutor;
+import org.zalando.stups.fullstop.jobs.common.HttpProber;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
+import org.zalando.stups.fullstop.jobs.common.impl.AccountRegionExecutorImpl;
+import org.zalando.stups.fullstop.jobs.common.impl.CachingHttpProber;
+import org.zalando.stups.fullstop.jobs.common.impl.HttpProberImpl;
 import org.zalando.stups.fullstop.jobs.common.impl.SecurityGroupsCheckerImpl;
+import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
 
 import static org.zalando.stups.fullstop.jobs.utils.Predicates.securityGroupExposesNotAllowedPorts;
 
 @Configuration
 public class JobsConfig {
 
+    private static final long PROBE_RESULTS_MAXIMUM_SIZE = 100_000;
+
     @Autowired
     private JobsProperties jobsProperties;
 
@@ -24,4 +34,19 @@ public class JobsConfig {
     public SecurityGroupsChecker ec2SecurityGroupsChecker(final ClientProvider clientProvider) {
         return new SecurityGroupsCheckerImpl(clientProvider, securityGroupExposesNotAllowedPorts(jobsProperties.getEc2AllowedPorts()));
     }
+
+    @Bean
+    public AccountRegionExecutor accountRegionExecutor(final JobExceptionHandler jobExceptionHandler) {
+        return new AccountRegionExecutorImpl(jobExceptionHandler, jobsProperties.getMaxParallelUnits(),
+                jobsProperties.getMaxParallelUnitsPerAccount(), jobsProperties.getMaxParallelUnitsPerRegion());
+    }
+
+    @Bean
+    public HttpProber httpProber(final CounterService counterService, final GaugeService gaugeService) {
+        final HttpProber httpProber = new HttpProberImpl(jobsProperties.getProbeMaxConnections(),
+                jobsProperties.getProbeMaxConnectionsPerHost(), jobsProperties.getProbeConnectTimeoutMillis(),
+                jobsProperties.getProbeReadTimeoutMillis());
+        return new CachingHttpProber(httpProber, PROBE_RESULTS_MAXIMUM_SIZE, jobsProperties.getProbeResultTtlMinutes(),
+                counterService, gaugeService);
+    }
 }
@@ -19,6 +19,14 @@ public class JobsProperties {
     private Set<Integer> ec2AllowedPorts = Sets.newHashSet(80, 443, 22);
     private int accessKeysExpireAfterDays = 30;
     private String managementAccount;
+    private int maxParallelUnits = 16;
+    private int maxParallelUnitsPerAccount = 2;
+    private int maxParallelUnitsPerRegion = 8;
+    private int probeMaxConnections = 1000;
+    private int probeMaxConnectionsPerHost = 2;
+    private int probeConnectTimeoutMillis = 1000;
+    private int probeReadTimeoutMillis = 1000;
+    private int probeResultTtlMinutes = 60;
 
     public List<String> getWhitelistedRegions() {
         return whitelistedRegions;
@@ -67,4 +75,68 @@ public class JobsProperties {
     public void setManagementAccount(final String managementAccount) {
         this.managementAccount = managementAccount;
     }
+
+    public int getMaxParallelUnits() {
+        return maxParallelUnits;
+    }
+
+    public void setMaxParallelUnits(final int maxParallelUnits) {
+        this.maxParallelUnits = maxParallelUnits;
+    }
+
+    public int getMaxParallelUnitsPerAccount() {
+        return maxParallelUnitsPerAccount;
+    }
+
+    public void setMaxParallelUnitsPerAccount(final int maxParallelUnitsPerAccount) {
+        this.maxParallelUnitsPerAccount = maxParallelUnitsPerAccount;
+    }
+
+    public int getMaxParallelUnitsPerRegion() {
+        return maxParallelUnitsPerRegion;
+    }
+
+    public void setMaxParallelUnitsPerRegion(final int maxParallelUnitsPerRegion) {
+        this.maxParallelUnitsPerRegion = maxParallelUnitsPerRegion;
+    }
+
+    public int getProbeMaxConnections() {
+        return probeMaxConnections;
+    }
+
+    public void setProbeMaxConnections(final int probeMaxConnections) {
+        this.probeMaxConnections = probeMaxConnections;
+    }
+
+    public int getProbeMaxConnectionsPerHost() {
+        return probeMaxConnectionsPerHost;
+    }
+
+    public void setProbeMaxConnectionsPerHost(final int probeMaxConnectionsPerHost) {
+        this.probeMaxConnectionsPerHost = probeMaxConnectionsPerHost;
+    }
+
+    public int getProbeConnectTimeoutMillis() {
+        return probeConnectTimeoutMillis;
+    }
+
+    public void setProbeConnectTimeoutMillis(final int probeConnectTimeoutMillis) {
+        this.probeConnectTimeoutMillis = probeConnectTimeoutMillis;
+    }
+
+    public int getProbeReadTimeoutMillis() {
+        return probeReadTimeoutMillis;
+    }
+
+    public void setProbeReadTimeoutMillis(final int probeReadTimeoutMillis) {
+        this.probeReadTimeoutMillis = probeReadTimeoutMillis;
+    }
+
+    public int getProbeResultTtlMinutes() {
+        return probeResultTtlMinutes;
+    }
+
+    public void setProbeResultTtlMinutes(final int probeResultTtlMinutes) {
+        this.probeResultTtlMinutes = probeResultTtlMinutes;
+    }
 }
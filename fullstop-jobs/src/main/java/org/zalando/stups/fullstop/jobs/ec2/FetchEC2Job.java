@@ -1,31 +1,25 @@
 package org.zalando.stups.fullstop.jobs.ec2;
 
-import com.amazonaws.services.ec2.AmazonEC2Client;
-import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
-import com.amazonaws.services.ec2.model.DescribeInstancesResult;
-import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.GroupIdentifier;
 import com.amazonaws.services.ec2.model.Instance;
-import com.amazonaws.services.ec2.model.Reservation;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFuture;
-import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionExecutor;
 import org.zalando.stups.fullstop.jobs.common.AmiDetailsProvider;
 import org.zalando.stups.fullstop.jobs.common.AwsApplications;
+import org.zalando.stups.fullstop.jobs.common.EC2Inventory;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
 import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
-import org.zalando.stups.fullstop.jobs.common.HttpGetRootCall;
+import org.zalando.stups.fullstop.jobs.common.HttpProber;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupCheckDetails;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
@@ -37,18 +31,16 @@ import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.amazonaws.regions.Region.getRegion;
 import static com.amazonaws.regions.Regions.fromName;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
-import static java.util.Optional.empty;
 import static java.util.stream.Collectors.toList;
-import static org.apache.commons.lang3.StringUtils.trimToNull;
 import static org.zalando.stups.fullstop.violation.ViolationType.UNSECURED_PUBLIC_ENDPOINT;
 
 @Component
@@ -56,11 +48,13 @@ public class FetchEC2Job implements FullstopJob {
 
     private static final String EVENT_ID = "checkPublicEC2InstanceJob";
 
+    private static final Duration DEADLINE = Duration.ofMinutes(5);
+
     private final Logger log = LoggerFactory.getLogger(FetchEC2Job.class);
 
     private final ViolationSink violationSink;
 
-    private final ClientProvider clientProvider;
+    private final EC2Inventory ec2Inventory;
 
     private final AccountIdSupplier allAccountIds;
 
@@ -68,9 +62,8 @@ public class FetchEC2Job implements FullstopJob {
 
     private final SecurityGroupsChecker securityGroupsChecker;
 
-    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    private final HttpProber httpProber;
 
-    private final CloseableHttpClient httpClient;
     private final JobExceptionHandler jobExceptionHandler;
 
     private final AwsApplications awsApplications;
@@ -81,9 +74,11 @@ public class FetchEC2Job implements FullstopJob {
 
     private final AmiDetailsProvider amiDetailsProvider;
 
+    private final AccountRegionExecutor accountRegionExecutor;
+
     @Autowired
     public FetchEC2Job(final ViolationSink violationSink,
-                       final ClientProvider clientProvider,
+                       final EC2Inventory ec2Inventory,
                        final AccountIdSupplier allAccountIds,
                        final JobsProperties jobsProperties,
                        final @Qualifier("ec2SecurityGroupsChecker") SecurityGroupsChecker securityGroupsChecker,
@@ -91,10 +86,11 @@ public class FetchEC2Job implements FullstopJob {
                        final ViolationService violationService,
                        final FetchTaupageYaml fetchTaupageYaml,
                        final AmiDetailsProvider amiDetailsProvider,
-                       final CloseableHttpClient httpClient,
-                       final JobExceptionHandler jobExceptionHandler) {
+                       final HttpProber httpProber,
+                       final JobExceptionHandler jobExceptionHandler,
+                       final AccountRegionExecutor accountRegionExecutor) {
         this.violationSink = violationSink;
-        this.clientProvider = clientProvider;
+        this.ec2Inventory = ec2Inventory;
         this.allAccountIds = allAccountIds;
         this.jobsProperties = jobsProperties;
         this.securityGroupsChecker = securityGroupsChecker;
@@ -102,19 +98,9 @@ public class FetchEC2Job implements FullstopJob {
         this.violationService = violationService;
         this.fetchTaupageYaml = fetchTaupageYaml;
         this.amiDetailsProvider = amiDetailsProvider;
-        this.httpClient = httpClient;
+        this.httpProber = httpProber;
         this.jobExceptionHandler = jobExceptionHandler;
-
-        threadPoolTaskExecutor.setCorePoolSize(12);
-        threadPoolTaskExecutor.setMaxPoolSize(20);
-        threadPoolTaskExecutor.setQueueCapacity(75);
-        threadPoolTaskExecutor.setAllowCoreThreadTimeOut(true);
-        threadPoolTaskExecutor.setKeepAliveSeconds(30);
-        threadPoolTaskExecutor.setThreadGroupName("ec2-check-group");
-        threadPoolTaskExecutor.setThreadNamePrefix("ec2-check-");
-        threadPoolTaskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        threadPoolTaskExecutor.setWaitForTasksToCompleteOnShutdown(true);
-        threadPoolTaskExecutor.afterPropertiesSet();
+        this.accountRegionExecutor = accountRegionExecutor;
     }
 
     @PostConstruct
@@ -125,50 +111,25 @@ public class FetchEC2Job implements FullstopJob {
     @Scheduled(fixedRate = 300_000, initialDelay = 240_000) // 5 min rate, 4 min delay
     public void run() {
         log.info("Running job {}", getClass().getSimpleName());
-        for (final String account : allAccountIds.get()) {
-            for (final String region : jobsProperties.getWhitelistedRegions()) {
-                final Map<String, String> accountRegionCtx = ImmutableMap.of(
-                        "job", this.getClass().getSimpleName(),
-                        "aws_account_id", account,
-                        "aws_region", region);
-                try {
-                    log.debug("Scanning public EC2 instances for {}/{}", account, region);
-                    final AmazonEC2Client ec2Client = clientProvider.getClient(
-                            AmazonEC2Client.class,
-                            account,
-                            getRegion(fromName(region)));
-                    Optional<String> nextToken = empty();
-                    do {
-                        final DescribeInstancesRequest request = new DescribeInstancesRequest();
-                        if (nextToken.isPresent()) {
-                            request.setNextToken(nextToken.get());
-                        } else {
-                            request.withFilters(
-                                    new Filter("ip-address").withValues("*"),
-                                    new Filter("instance-state-name").withValues("running"));
-                        }
+        accountRegionExecutor.run(getClass().getSimpleName(), allAccountIds.get(),
+                jobsProperties.getWhitelistedRegions(), DEADLINE, this::scan);
+    }
 
-                        final DescribeInstancesResult result = ec2Client.describeInstances(request);
-                        nextToken = Optional.ofNullable(trimToNull(result.getNextToken()));
-
-                        for (final Reservation reservation : result.getReservations()) {
-                            for (final Instance instance : reservation.getInstances()) {
-                                try {
-                                    processInstance(account, region, instance);
-                                } catch (Exception e) {
-                                    final Map<String, String> ec2Ctx = ImmutableMap.<String, String>builder()
-                                            .putAll(accountRegionCtx)
-                                            .put("ec2_instance_id", instance.getInstanceId())
-                                            .build();
-                                    jobExceptionHandler.onException(e, ec2Ctx);
-                                }
-                            }
-                        }
-                    } while (nextToken.isPresent());
+    private void scan(final String account, final String region, final Map<String, String> accountRegionCtx) {
+        log.debug("Scanning public EC2 instances for {}/{}", account, region);
+        for (final Instance instance : ec2Inventory.get(account, region).getInstances()) {
+            if (instance.getPublicIpAddress() == null) {
+                continue;
+            }
 
-                } catch (final Exception e) {
-                    jobExceptionHandler.onException(e, accountRegionCtx);
-                }
+            try {
+                processInstance(account, region, instance);
+            } catch (Exception e) {
+                final Map<String, String> ec2Ctx = ImmutableMap.<String, String>builder()
+                        .putAll(accountRegionCtx)
+                        .put("ec2_instance_id", instance.getInstanceId())
+                        .build();
+                jobExceptionHandler.onException(e, ec2Ctx);
             }
         }
     }
@@ -183,8 +144,9 @@ public class FetchEC2Job implements FullstopJob {
             return;
         }
 
+        final List<String> groupIds = instance.getSecurityGroups().stream().map(GroupIdentifier::getGroupId).collect(toList());
         final Map<String, SecurityGroupCheckDetails> unsecureGroups = securityGroupsChecker.check(
-                instance.getSecurityGroups().stream().map(GroupIdentifier::getGroupId).collect(toList()),
+                groupIds,
                 account,
                 getRegion(fromName(region)));
         if (!unsecureGroups.isEmpty()) {
@@ -205,15 +167,15 @@ public class FetchEC2Job implements FullstopJob {
             return;
         }
 
+        // the result of a probe stays valid as long as the rules of the instance's groups do not change
+        final String fingerprint = securityGroupsChecker.fingerprint(groupIds, account, getRegion(fromName(region)));
         for (final Integer allowedPort : jobsProperties.getEc2AllowedPorts()) {
 
             if (allowedPort == 22) {
                 continue;
             }
 
-            final HttpGetRootCall httpCall = new HttpGetRootCall(httpClient, instancePublicIpAddress, allowedPort);
-            final ListenableFuture<HttpCallResult> listenableFuture = threadPoolTaskExecutor.submitListenable(
-                    httpCall);
+            final ListenableFuture<HttpCallResult> listenableFuture = httpProber.probe(instancePublicIpAddress, allowedPort, fingerprint);
             listenableFuture.addCallback(
                     httpCallResult -> {
                         log.debug("address: {} and port: {}", instancePublicIpAddress, allowedPort);
@@ -226,8 +188,6 @@ public class FetchEC2Job implements FullstopJob {
                             writeViolation(account, region, md, instance.getInstanceId());
                         }
                     }, ex -> log.warn("Could not call " + instancePublicIpAddress, ex));
-
-            log.debug("Active threads in pool: {}/{}", threadPoolTaskExecutor.getActiveCount(), threadPoolTaskExecutor.getMaxPoolSize());
         }
     }
 
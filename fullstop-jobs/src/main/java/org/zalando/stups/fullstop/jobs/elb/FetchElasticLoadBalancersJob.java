@@ -1,33 +1,37 @@
 package org.zalando.stups.fullstop.jobs.elb;
 
 import com.amazonaws.regions.Region;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.elasticloadbalancing.AmazonElasticLoadBalancingClient;
 import com.amazonaws.services.elasticloadbalancing.model.DescribeLoadBalancersRequest;
 import com.amazonaws.services.elasticloadbalancing.model.DescribeLoadBalancersResult;
 import com.amazonaws.services.elasticloadbalancing.model.DescribeTagsRequest;
 import com.amazonaws.services.elasticloadbalancing.model.Instance;
+import com.amazonaws.services.elasticloadbalancing.model.ListenerDescription;
 import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription;
 import com.amazonaws.services.elasticloadbalancing.model.Tag;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionExecutor;
 import org.zalando.stups.fullstop.jobs.common.AmiDetailsProvider;
 import org.zalando.stups.fullstop.jobs.common.AwsApplications;
-import org.zalando.stups.fullstop.jobs.common.EC2InstanceProvider;
+import org.zalando.stups.fullstop.jobs.common.EC2Inventory;
+import org.zalando.stups.fullstop.jobs.common.EC2InventorySnapshot;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
 import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
-import org.zalando.stups.fullstop.jobs.common.HttpGetRootCall;
+import org.zalando.stups.fullstop.jobs.common.HttpProber;
 import org.zalando.stups.fullstop.jobs.common.PortsChecker;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupCheckDetails;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
@@ -40,10 +44,10 @@ import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.amazonaws.regions.Region.getRegion;
 import static com.amazonaws.regions.Regions.fromName;
@@ -54,6 +58,7 @@ import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.startsWith;
 import static org.apache.commons.lang3.StringUtils.trimToNull;
@@ -70,6 +75,8 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
 
     private static final int ELB_NAMES_MAX_SIZE = 20;
 
+    private static final Duration DEADLINE = Duration.ofMinutes(5);
+
     private final Logger log = LoggerFactory.getLogger(FetchElasticLoadBalancersJob.class);
 
     private final ViolationSink violationSink;
@@ -84,9 +91,7 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
 
     private final PortsChecker portsChecker;
 
-    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
-
-    private final CloseableHttpClient httpclient;
+    private final HttpProber httpProber;
 
     private final AwsApplications awsApplications;
 
@@ -96,10 +101,12 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
 
     private final AmiDetailsProvider amiDetailsProvider;
 
-    private final EC2InstanceProvider ec2Instance;
+    private final EC2Inventory ec2Inventory;
 
     private final JobExceptionHandler jobExceptionHandler;
 
+    private final AccountRegionExecutor accountRegionExecutor;
+
     @Autowired
     public FetchElasticLoadBalancersJob(final ViolationSink violationSink,
                                         final ClientProvider clientProvider,
@@ -110,9 +117,10 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
                                         final ViolationService violationService,
                                         final FetchTaupageYaml fetchTaupageYaml,
                                         final AmiDetailsProvider amiDetailsProvider,
-                                        final EC2InstanceProvider ec2Instance,
-                                        final CloseableHttpClient httpClient,
-                                        final JobExceptionHandler jobExceptionHandler) {
+                                        final EC2Inventory ec2Inventory,
+                                        final HttpProber httpProber,
+                                        final JobExceptionHandler jobExceptionHandler,
+                                        final AccountRegionExecutor accountRegionExecutor) {
         this.violationSink = violationSink;
         this.clientProvider = clientProvider;
         this.allAccountIds = allAccountIds;
@@ -123,20 +131,10 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
         this.violationService = violationService;
         this.fetchTaupageYaml = fetchTaupageYaml;
         this.amiDetailsProvider = amiDetailsProvider;
-        this.ec2Instance = ec2Instance;
-        this.httpclient = httpClient;
+        this.ec2Inventory = ec2Inventory;
+        this.httpProber = httpProber;
         this.jobExceptionHandler = jobExceptionHandler;
-
-        threadPoolTaskExecutor.setCorePoolSize(12);
-        threadPoolTaskExecutor.setMaxPoolSize(20);
-        threadPoolTaskExecutor.setQueueCapacity(75);
-        threadPoolTaskExecutor.setAllowCoreThreadTimeOut(true);
-        threadPoolTaskExecutor.setKeepAliveSeconds(30);
-        threadPoolTaskExecutor.setThreadGroupName("elb-check-group");
-        threadPoolTaskExecutor.setThreadNamePrefix("elb-check-");
-        threadPoolTaskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        threadPoolTaskExecutor.setWaitForTasksToCompleteOnShutdown(true);
-        threadPoolTaskExecutor.afterPropertiesSet();
+        this.accountRegionExecutor = accountRegionExecutor;
     }
 
     @PostConstruct
@@ -147,62 +145,67 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
     @Scheduled(fixedRate = 300_000, initialDelay = 120_000) // 5 min rate, 2 min delay
     public void run() {
         log.info("Running job {}", getClass().getSimpleName());
-        for (final String account : allAccountIds.get()) {
-            for (final String region : jobsProperties.getWhitelistedRegions()) {
-                log.debug("Scanning ELBs for {}/{}", account, region);
-                final Map<String, String> accountRegionCtx = ImmutableMap.of(
-                        "job", this.getClass().getSimpleName(),
-                        "aws_account_id", account,
-                        "aws_region", region);
-                try {
-                    final Region awsRegion = getRegion(fromName(region));
-                    final AmazonElasticLoadBalancingClient elbClient = clientProvider.getClient(
-                            AmazonElasticLoadBalancingClient.class,
-                            account,
-                            getRegion(fromName(region)));
-
-                    Optional<String> marker = Optional.empty();
-
-                    do {
-                        final DescribeLoadBalancersRequest request = new DescribeLoadBalancersRequest();
-                        marker.ifPresent(request::setMarker);
-                        final DescribeLoadBalancersResult result = elbClient.describeLoadBalancers(request);
-                        marker = Optional.ofNullable(trimToNull(result.getNextMarker()));
-
-                        final List<String> publicElbNames = result.getLoadBalancerDescriptions().stream()
-                                .filter(this::isInternetFacing) // optimization: fetch only tags for public elbs
-                                .map(LoadBalancerDescription::getLoadBalancerName)
-                                .collect(toList());
-                        final Map<String, List<Tag>> tagsByPublicElb = getElbTags(elbClient, publicElbNames);
-                        for (final LoadBalancerDescription elb : result.getLoadBalancerDescriptions()) {
-                            if (!isInternetFacing(elb)) {
-                                continue;
-                            }
-
-                            // This check only works for "Senza" Load Balancers, for Kubernetes it's currently
-                            // meaningless. Hence just skip Kubernetes ELBs.
-                            if (hasKubernetesTag(tagsByPublicElb.getOrDefault(elb.getLoadBalancerName(), emptyList()))) {
-                                continue;
-                            }
-
-                            try {
-                                processELB(account, awsRegion, elb);
-                            } catch (Exception e) {
-                                final Map<String, String> elbCtx = ImmutableMap.<String, String>builder()
-                                        .putAll(accountRegionCtx)
-                                        .put("load_balancer_name", elb.getLoadBalancerName())
-                                        .build();
-                                jobExceptionHandler.onException(e, elbCtx);
-                            }
-                        }
+        accountRegionExecutor.run(getClass().getSimpleName(), allAccountIds.get(),
+                jobsProperties.getWhitelistedRegions(), DEADLINE, this::scan);
+    }
+
+    private void scan(final String account, final String region, final Map<String, String> accountRegionCtx) {
+        log.debug("Scanning ELBs for {}/{}", account, region);
+        final Region awsRegion = getRegion(fromName(region));
+        final AmazonElasticLoadBalancingClient elbClient = clientProvider.getClient(
+                AmazonElasticLoadBalancingClient.class,
+                account,
+                getRegion(fromName(region)));
+
+        Optional<String> marker = Optional.empty();
+
+        do {
+            final DescribeLoadBalancersRequest request = new DescribeLoadBalancersRequest();
+            marker.ifPresent(request::setMarker);
+            final DescribeLoadBalancersResult result = elbClient.describeLoadBalancers(request);
+            marker = Optional.ofNullable(trimToNull(result.getNextMarker()));
+
+            final List<String> publicElbNames = result.getLoadBalancerDescriptions().stream()
+                    .filter(this::isInternetFacing) // optimization: fetch only tags for public elbs
+                    .map(LoadBalancerDescription::getLoadBalancerName)
+                    .collect(toList());
+            final Map<String, List<Tag>> tagsByPublicElb = getElbTags(elbClient, publicElbNames);
+            for (final LoadBalancerDescription elb : result.getLoadBalancerDescriptions()) {
+                if (!isInternetFacing(elb)) {
+                    continue;
+                }
 
-                    } while (marker.isPresent());
+                // This check only works for "Senza" Load Balancers, for Kubernetes it's currently
+                // meaningless. Hence just skip Kubernetes ELBs.
+                if (hasKubernetesTag(tagsByPublicElb.getOrDefault(elb.getLoadBalancerName(), emptyList()))) {
+                    continue;
+                }
 
-                } catch (final Exception e) {
-                    jobExceptionHandler.onException(e, accountRegionCtx);
+                try {
+                    processELB(account, awsRegion, elb);
+                } catch (Exception e) {
+                    final Map<String, String> elbCtx = ImmutableMap.<String, String>builder()
+                            .putAll(accountRegionCtx)
+                            .put("load_balancer_name", elb.getLoadBalancerName())
+                            .build();
+                    jobExceptionHandler.onException(e, elbCtx);
                 }
             }
-        }
+
+        } while (marker.isPresent());
+    }
+
+    private Optional<com.amazonaws.services.ec2.model.Instance> describeFirstInstance(final String account,
+                                                                                    final Region awsRegion,
+                                                                                    final List<String> instanceIds) {
+        // unlike the instance ids of the request, the filter does not fail for instances terminated meanwhile
+        final DescribeInstancesRequest request = new DescribeInstancesRequest()
+                .withFilters(new Filter("instance-id").withValues(instanceIds));
+        return clientProvider.getClient(AmazonEC2Client.class, account, awsRegion)
+                .describeInstances(request)
+                .getReservations().stream()
+                .flatMap(reservation -> reservation.getInstances().stream())
+                .findFirst();
     }
 
     private Map<String, List<Tag>> getElbTags(AmazonElasticLoadBalancingClient elbClient, List<String> elbNames) {
@@ -238,13 +241,18 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
 
         final List<String> instanceIds = elb.getInstances().stream().map(Instance::getInstanceId).collect(toList());
 
-        instanceIds.stream()
-                .map(id -> ec2Instance.getById(account, awsRegion, id))
+        final EC2InventorySnapshot inventory = ec2Inventory.get(account, awsRegion.getName());
+        Optional<com.amazonaws.services.ec2.model.Instance> instance = instanceIds.stream()
+                .map(inventory::getById)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
-                .map(com.amazonaws.services.ec2.model.Instance::getImageId)
+                .findFirst();
+        if (!instance.isPresent() && !instanceIds.isEmpty()) {
+            // the inventory holds running instances only
+            instance = describeFirstInstance(account, awsRegion, instanceIds);
+        }
+        instance.map(com.amazonaws.services.ec2.model.Instance::getImageId)
                 .map(amiId -> amiDetailsProvider.getAmiDetails(account, awsRegion, amiId))
-                .findFirst()
                 .ifPresent(metaData::putAll);
 
         if (violationService.violationExists(account, awsRegion.getName(), EVENT_ID, canonicalHostedZoneName, UNSECURED_PUBLIC_ENDPOINT)) {
@@ -283,9 +291,15 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
             return;
         }
 
+        // the result of a probe stays valid as long as the listeners and the rules of the ELB's groups do not change
+        final String fingerprint = securityGroupsChecker.fingerprint(elb.getSecurityGroups(), account, awsRegion)
+                + "|" + elb.getListenerDescriptions().stream()
+                .map(ListenerDescription::getListener)
+                .map(String::valueOf)
+                .sorted()
+                .collect(joining(","));
         for (final Integer allowedPort : jobsProperties.getElbAllowedPorts()) {
-            final HttpGetRootCall HttpGetRootCall = new HttpGetRootCall(httpclient, canonicalHostedZoneName, allowedPort);
-            final ListenableFuture<HttpCallResult> listenableFuture = threadPoolTaskExecutor.submitListenable(HttpGetRootCall);
+            final ListenableFuture<HttpCallResult> listenableFuture = httpProber.probe(canonicalHostedZoneName, allowedPort, fingerprint);
             listenableFuture.addCallback(
                     httpCallResult -> {
                         log.debug("address: {} and port: {}", canonicalHostedZoneName, allowedPort);
@@ -299,8 +313,6 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
                             writeViolation(account, awsRegion.getName(), md, canonicalHostedZoneName, instanceIds);
                         }
                     }, ex -> log.warn(ex.getMessage(), ex));
-
-            log.debug("Active threads in pool: {}/{}", threadPoolTaskExecutor.getActiveCount(), threadPoolTaskExecutor.getMaxPoolSize());
         }
     }
 
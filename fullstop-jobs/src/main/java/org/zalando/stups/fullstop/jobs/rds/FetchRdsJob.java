@@ -6,7 +6,6 @@ import com.amazonaws.services.rds.AmazonRDSClient;
 import com.amazonaws.services.rds.model.DBInstance;
 import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
 import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
-import com.google.common.collect.ImmutableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +14,7 @@ import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionExecutor;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
 import org.zalando.stups.fullstop.violation.Violation;
@@ -22,6 +22,7 @@ import org.zalando.stups.fullstop.violation.ViolationBuilder;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 
@@ -35,6 +36,8 @@ public class FetchRdsJob implements FullstopJob {
 
     private static final String EVENT_ID = "checkRdsJob";
 
+    private static final Duration DEADLINE = Duration.ofMinutes(5);
+
     private final Logger log = LoggerFactory.getLogger(FetchRdsJob.class);
 
     private final AccountIdSupplier allAccountIds;
@@ -46,16 +49,20 @@ public class FetchRdsJob implements FullstopJob {
     private final ViolationSink violationSink;
     private final JobExceptionHandler jobExceptionHandler;
 
+    private final AccountRegionExecutor accountRegionExecutor;
+
     @Autowired
     public FetchRdsJob(final AccountIdSupplier allAccountIds, final ClientProvider clientProvider,
                        final JobsProperties jobsProperties,
                        final ViolationSink violationSink,
-                       final JobExceptionHandler jobExceptionHandler) {
+                       final JobExceptionHandler jobExceptionHandler,
+                       final AccountRegionExecutor accountRegionExecutor) {
         this.allAccountIds = allAccountIds;
         this.clientProvider = clientProvider;
         this.jobsProperties = jobsProperties;
         this.violationSink = violationSink;
         this.jobExceptionHandler = jobExceptionHandler;
+        this.accountRegionExecutor = accountRegionExecutor;
     }
 
     @PostConstruct
@@ -65,41 +72,34 @@ public class FetchRdsJob implements FullstopJob {
 
     @Scheduled(fixedRate = 300_000)
     public void run() {
-        for (final String accountId : allAccountIds.get()) {
-            for (final String region : jobsProperties.getWhitelistedRegions()) {
-                try {
-                    final AmazonRDSClient amazonRDSClient = clientProvider.getClient(AmazonRDSClient.class, accountId,
-                            Region.getRegion(Regions.fromName(region)));
-
-                    Optional<String> marker = Optional.empty();
-
-                    do {
-                        final DescribeDBInstancesRequest request = new DescribeDBInstancesRequest();
-                        marker.ifPresent(request::setMarker);
-                        final DescribeDBInstancesResult result = amazonRDSClient.describeDBInstances(request);
-                        marker = Optional.ofNullable(trimToNull(result.getMarker()));
-
-                        result.getDBInstances().stream()
-                                .filter(DBInstance::getPubliclyAccessible)
-                                .filter(dbInstance -> dbInstance.getEndpoint() != null)
-                                .forEach(dbInstance -> {
-                                    final Map<String, Object> metadata = newHashMap();
-                                    metadata.put("unsecuredDatabase", dbInstance.getEndpoint().getAddress());
-                                    metadata.put("errorMessages", "Unsecured Database! Your DB can be reached from outside");
-                                    writeViolation(accountId, region, metadata, dbInstance.getEndpoint().getAddress());
-
-                                });
-
-                    } while (marker.isPresent());
-
-                } catch (final Exception e) {
-                    jobExceptionHandler.onException(e, ImmutableMap.of(
-                            "job", this.getClass().getSimpleName(),
-                            "aws_account_id", accountId,
-                            "aws_region", region));
-                }
-            }
-        }
+        accountRegionExecutor.run(getClass().getSimpleName(), allAccountIds.get(),
+                jobsProperties.getWhitelistedRegions(), DEADLINE, this::scan);
+    }
+
+    private void scan(final String accountId, final String region, final Map<String, String> accountRegionCtx) {
+        final AmazonRDSClient amazonRDSClient = clientProvider.getClient(AmazonRDSClient.class, accountId,
+                Region.getRegion(Regions.fromName(region)));
+
+        Optional<String> marker = Optional.empty();
+
+        do {
+            final DescribeDBInstancesRequest request = new DescribeDBInstancesRequest();
+            marker.ifPresent(request::setMarker);
+            final DescribeDBInstancesResult result = amazonRDSClient.describeDBInstances(request);
+            marker = Optional.ofNullable(trimToNull(result.getMarker()));
+
+            result.getDBInstances().stream()
+                    .filter(DBInstance::getPubliclyAccessible)
+                    .filter(dbInstance -> dbInstance.getEndpoint() != null)
+                    .forEach(dbInstance -> {
+                        final Map<String, Object> metadata = newHashMap();
+                        metadata.put("unsecuredDatabase", dbInstance.getEndpoint().getAddress());
+                        metadata.put("errorMessages", "Unsecured Database! Your DB can be reached from outside");
+                        writeViolation(accountId, region, metadata, dbInstance.getEndpoint().getAddress());
+
+                    });
+
+        } while (marker.isPresent());
     }
 
     private void writeViolation(final String account, final String region, final Object metaInfo, final String rdsEndpoint) {
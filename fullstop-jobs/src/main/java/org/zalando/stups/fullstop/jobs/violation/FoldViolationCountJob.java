@@ -0,0 +1,50 @@
+package org.zalando.stups.fullstop.jobs.violation;
+
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.jobs.FullstopJob;
+import org.zalando.stups.fullstop.jobs.annotation.EveryMinute;
+import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
+import org.zalando.stups.fullstop.violation.repository.ViolationCountRepository;
+
+import javax.annotation.PostConstruct;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Folds the journaled changes of violations into the violation count rollup, so that the journal read along with it
+ * stays small.
+ */
+@Component
+public class FoldViolationCountJob implements FullstopJob {
+
+    private final Logger log = getLogger(FoldViolationCountJob.class);
+
+    private final ViolationCountRepository violationCountRepository;
+
+    private final JobExceptionHandler jobExceptionHandler;
+
+    @Autowired
+    public FoldViolationCountJob(final ViolationCountRepository violationCountRepository,
+                                 final JobExceptionHandler jobExceptionHandler) {
+        this.violationCountRepository = violationCountRepository;
+        this.jobExceptionHandler = jobExceptionHandler;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("{} initialized", getClass().getSimpleName());
+    }
+
+    @EveryMinute
+    public void run() {
+        try {
+            final long rows = violationCountRepository.fold();
+            log.debug("Finished {}, {} rows of the rollup changed", getClass().getSimpleName(), rows);
+        } catch (final Exception e) {
+            jobExceptionHandler.onException(e, ImmutableMap.of("job", getClass().getSimpleName()));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.zalando.stups.fullstop.jobs.violation;
+
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.jobs.FullstopJob;
+import org.zalando.stups.fullstop.jobs.annotation.EverySundayAtThreeAM;
+import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
+import org.zalando.stups.fullstop.violation.repository.ViolationCountRepository;
+
+import javax.annotation.PostConstruct;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Recounts the violation count rollup, which is otherwise maintained incrementally, to repair any drift.
+ */
+@Component
+public class RebuildViolationCountJob implements FullstopJob {
+
+    private final Logger log = getLogger(RebuildViolationCountJob.class);
+
+    private final ViolationCountRepository violationCountRepository;
+
+    private final JobExceptionHandler jobExceptionHandler;
+
+    @Autowired
+    public RebuildViolationCountJob(final ViolationCountRepository violationCountRepository,
+                                    final JobExceptionHandler jobExceptionHandler) {
+        this.violationCountRepository = violationCountRepository;
+        this.jobExceptionHandler = jobExceptionHandler;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("{} initialized", getClass().getSimpleName());
+    }
+
+    @EverySundayAtThreeAM
+    public void run() {
+        log.info("Running {}", getClass().getSimpleName());
+        try {
+            final long rows = violationCountRepository.rebuild();
+            log.info("Finished {}, the rollup has {} rows", getClass().getSimpleName(), rows);
+        } catch (final Exception e) {
+            jobExceptionHandler.onException(e, ImmutableMap.of("job", getClass().getSimpleName()));
+        }
+    }
+}
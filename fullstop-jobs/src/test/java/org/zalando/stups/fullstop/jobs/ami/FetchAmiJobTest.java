@@ -4,11 +4,8 @@ import com.amazonaws.regions.Regions;
 import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.DescribeImagesRequest;
 import com.amazonaws.services.ec2.model.DescribeImagesResult;
-import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
-import com.amazonaws.services.ec2.model.DescribeInstancesResult;
 import com.amazonaws.services.ec2.model.Image;
 import com.amazonaws.services.ec2.model.Instance;
-import com.amazonaws.services.ec2.model.Reservation;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -19,14 +16,18 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.EC2Inventory;
+import org.zalando.stups.fullstop.jobs.common.EC2InventorySnapshot;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
 import org.zalando.stups.fullstop.jobs.common.TaupageExpirationTimeProvider;
+import org.zalando.stups.fullstop.jobs.common.impl.AccountRegionExecutorImpl;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
 import org.zalando.stups.fullstop.violation.Violation;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
@@ -80,6 +81,8 @@ public class FetchAmiJobTest {
     private JobExceptionHandler mockExceptionHandler;
     @Mock
     private TaupageExpirationTimeProvider mockExpirationTimeProvider;
+    @Mock
+    private EC2Inventory mockEC2Inventory;
 
     private FetchAmiJob job;
 
@@ -89,14 +92,15 @@ public class FetchAmiJobTest {
 
     @Before
     public void setUp() {
-        job = new FetchAmiJob(mockViolationSink, mockClientProvider, mockAccountIdSupplier, mockJobsProperties, mockViolationService, mockFetchTaupageYaml, "Taupage-AMI-", ACCOUNT_1, mockExceptionHandler, mockExpirationTimeProvider);
+        job = new FetchAmiJob(mockViolationSink, mockClientProvider, mockAccountIdSupplier, mockJobsProperties, mockViolationService, mockFetchTaupageYaml, "Taupage-AMI-", ACCOUNT_1, mockExceptionHandler, mockExpirationTimeProvider,
+                new AccountRegionExecutorImpl(mockExceptionHandler, 1, 1, 1), mockEC2Inventory);
 
         when(mockFetchTaupageYaml.getTaupageYaml(anyString(), anyString(), anyString())).thenReturn(Optional.empty());
     }
 
     @After
     public void tearDown() {
-        verifyNoMoreInteractions(mockViolationSink, mockClientProvider, mockAccountIdSupplier, mockJobsProperties, mockViolationService, mockFetchTaupageYaml, mockEC2Client, mockExpirationTimeProvider);
+        verifyNoMoreInteractions(mockViolationSink, mockClientProvider, mockAccountIdSupplier, mockJobsProperties, mockViolationService, mockFetchTaupageYaml, mockEC2Client, mockExpirationTimeProvider, mockEC2Inventory);
     }
 
     @Test
@@ -106,8 +110,6 @@ public class FetchAmiJobTest {
 
     @Test
     public void testRunWithMultipleAccountsAndRegions() {
-        final DescribeInstancesResult describeInstancesResult = new DescribeInstancesResult()
-                .withReservations(new Reservation().withInstances(instance1));
         final Image image = new Image()
                 .withImageId(IMAGE_ID)
                 .withName("Taupage-AMI-" + LocalDate.now().format(ofPattern("yyyyMMdd")) + "-123456")
@@ -117,7 +119,8 @@ public class FetchAmiJobTest {
         when(mockAccountIdSupplier.get()).thenReturn(ACCOUNTS);
         when(mockJobsProperties.getWhitelistedRegions()).thenReturn(REGIONS);
         when(mockClientProvider.getClient(eq(AmazonEC2Client.class), anyString(), any())).thenReturn(mockEC2Client);
-        when(mockEC2Client.describeInstances(any(DescribeInstancesRequest.class))).thenReturn(describeInstancesResult);
+        when(mockEC2Inventory.get(anyString(), anyString()))
+                .thenAnswer(invocation -> snapshot(invocation.getArgumentAt(0, String.class), invocation.getArgumentAt(1, String.class), instance1));
         when(mockEC2Client.describeImages(any(DescribeImagesRequest.class))).thenReturn(new DescribeImagesResult().withImages(image));
 
         job.run();
@@ -130,6 +133,7 @@ public class FetchAmiJobTest {
             verify(mockExpirationTimeProvider, times(ACCOUNTS.size())).getExpirationTime(eq(regionName), eq(ACCOUNT_1), eq(IMAGE_ID));
 
             ACCOUNTS.forEach(account -> {
+                verify(mockEC2Inventory).get(eq(account), eq(regionName));
                 verify(mockClientProvider).getClient(eq(AmazonEC2Client.class), eq(account), eq(getRegion(Regions.fromName(regionName))));
                 verify(mockViolationService).violationExists(eq(account), eq(regionName), eq(FetchAmiJob.EVENT_ID), eq(INSTANCE_ID), eq(OUTDATED_TAUPAGE));
             });
@@ -137,10 +141,6 @@ public class FetchAmiJobTest {
 
         final int accountsTimesRegions = ACCOUNTS.size() * REGIONS.size();
 
-        final ArgumentCaptor<DescribeInstancesRequest> describeInstances = ArgumentCaptor.forClass(DescribeInstancesRequest.class);
-        verify(mockEC2Client, times(accountsTimesRegions)).describeInstances(describeInstances.capture());
-        assertThat(describeInstances.getValue().getNextToken()).isNull();
-
         final ArgumentCaptor<DescribeImagesRequest> describeImages = ArgumentCaptor.forClass(DescribeImagesRequest.class);
         verify(mockEC2Client, times(accountsTimesRegions)).describeImages(describeImages.capture());
         assertThat(describeImages.getValue().getImageIds()).containsExactly(IMAGE_ID);
@@ -148,8 +148,6 @@ public class FetchAmiJobTest {
 
     @Test
     public void testFindOutdatedTaupage() {
-        final DescribeInstancesResult describeInstancesResult = new DescribeInstancesResult()
-                .withReservations(new Reservation().withInstances(instance1));
         final Image image = new Image()
                 .withImageId(IMAGE_ID)
                 .withName("Taupage-AMI-" + LocalDate.now().minusDays(70).format(ofPattern("yyyyMMdd")) + "-123456")
@@ -158,7 +156,7 @@ public class FetchAmiJobTest {
         when(mockAccountIdSupplier.get()).thenReturn(singleton(ACCOUNT_1));
         when(mockJobsProperties.getWhitelistedRegions()).thenReturn(singletonList(REGION_1));
         when(mockClientProvider.getClient(eq(AmazonEC2Client.class), anyString(), any())).thenReturn(mockEC2Client);
-        when(mockEC2Client.describeInstances(any(DescribeInstancesRequest.class))).thenReturn(describeInstancesResult);
+        when(mockEC2Inventory.get(anyString(), anyString())).thenReturn(snapshot(ACCOUNT_1, REGION_1, instance1));
         when(mockEC2Client.describeImages(any(DescribeImagesRequest.class))).thenReturn(new DescribeImagesResult().withImages(image));
 
         job.run();
@@ -166,13 +164,10 @@ public class FetchAmiJobTest {
         verify(mockExpirationTimeProvider).getExpirationTime(eq(REGION_1), eq(ACCOUNT_1), eq(IMAGE_ID));
         verify(mockAccountIdSupplier).get();
         verify(mockJobsProperties).getWhitelistedRegions();
+        verify(mockEC2Inventory).get(eq(ACCOUNT_1), eq(REGION_1));
         verify(mockClientProvider).getClient(eq(AmazonEC2Client.class), eq(ACCOUNT_1), eq(getRegion(Regions.fromName(REGION_1))));
         verify(mockViolationService).violationExists(eq(ACCOUNT_1), eq(REGION_1), eq(FetchAmiJob.EVENT_ID), eq(INSTANCE_ID), eq(OUTDATED_TAUPAGE));
 
-        final ArgumentCaptor<DescribeInstancesRequest> describeInstances = ArgumentCaptor.forClass(DescribeInstancesRequest.class);
-        verify(mockEC2Client).describeInstances(describeInstances.capture());
-        assertThat(describeInstances.getValue().getNextToken()).isNull();
-
         final ArgumentCaptor<DescribeImagesRequest> describeImages = ArgumentCaptor.forClass(DescribeImagesRequest.class);
         verify(mockEC2Client).describeImages(describeImages.capture());
         assertThat(describeImages.getValue().getImageIds()).containsExactly(IMAGE_ID);
@@ -195,26 +190,28 @@ public class FetchAmiJobTest {
     }
 
     @Test
-    public void testFollowPagination() {
-        final DescribeInstancesResult result1 = new DescribeInstancesResult().withNextToken("123");
-        final DescribeInstancesResult result2 = new DescribeInstancesResult().withNextToken("456");
-        final DescribeInstancesResult result3 = new DescribeInstancesResult();
-
+    public void testDescribesEachImageOnce() {
+        final Instance instance2 = new Instance()
+                .withInstanceId("i-67890")
+                .withImageId(IMAGE_ID);
         when(mockAccountIdSupplier.get()).thenReturn(singleton(ACCOUNT_1));
         when(mockJobsProperties.getWhitelistedRegions()).thenReturn(singletonList(REGION_1));
+        when(mockEC2Inventory.get(anyString(), anyString())).thenReturn(snapshot(ACCOUNT_1, REGION_1, instance1, instance2));
         when(mockClientProvider.getClient(eq(AmazonEC2Client.class), anyString(), any())).thenReturn(mockEC2Client);
-        when(mockEC2Client.describeInstances(any(DescribeInstancesRequest.class))).thenReturn(result1, result2, result3);
+        when(mockEC2Client.describeImages(any(DescribeImagesRequest.class))).thenReturn(new DescribeImagesResult());
 
         job.run();
 
         verify(mockAccountIdSupplier).get();
         verify(mockJobsProperties).getWhitelistedRegions();
+        verify(mockEC2Inventory).get(eq(ACCOUNT_1), eq(REGION_1));
         verify(mockClientProvider).getClient(eq(AmazonEC2Client.class), eq(ACCOUNT_1), eq(getRegion(Regions.fromName(REGION_1))));
+        verify(mockViolationService).violationExists(eq(ACCOUNT_1), eq(REGION_1), eq(FetchAmiJob.EVENT_ID), eq(INSTANCE_ID), eq(OUTDATED_TAUPAGE));
+        verify(mockViolationService).violationExists(eq(ACCOUNT_1), eq(REGION_1), eq(FetchAmiJob.EVENT_ID), eq("i-67890"), eq(OUTDATED_TAUPAGE));
+        verify(mockEC2Client).describeImages(any(DescribeImagesRequest.class));
+    }
 
-
-        final ArgumentCaptor<DescribeInstancesRequest> describeInstances = ArgumentCaptor.forClass(DescribeInstancesRequest.class);
-        verify(mockEC2Client, times(3)).describeInstances(describeInstances.capture());
-        assertThat(describeInstances.getAllValues()).extracting(DescribeInstancesRequest::getNextToken).containsExactly(null, "123", "456");
-
+    private static EC2InventorySnapshot snapshot(final String account, final String region, final Instance... instances) {
+        return new EC2InventorySnapshot(account, region, Instant.now(), asList(instances));
     }
 }
@@ -0,0 +1,141 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.jobs.common.AccountRegionTask;
+import org.zalando.stups.fullstop.jobs.common.JobRunSummary;
+import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class AccountRegionExecutorImplTest {
+
+    private static final List<String> ACCOUNTS = asList("111111111111", "222222222222", "333333333333");
+
+    private static final List<String> REGIONS = asList("eu-west-1", "eu-central-1");
+
+    private JobExceptionHandler mockExceptionHandler;
+
+    private AccountRegionExecutorImpl executor;
+
+    @Before
+    public void setUp() {
+        mockExceptionHandler = mock(JobExceptionHandler.class);
+        executor = new AccountRegionExecutorImpl(mockExceptionHandler, 4, 1, 2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.destroy();
+        verifyNoMoreInteractions(mockExceptionHandler);
+    }
+
+    @Test
+    public void testRunsEveryAccountAndRegion() {
+        final List<Map<String, String>> contexts = new CopyOnWriteArrayList<>();
+
+        final JobRunSummary summary = executor.run("TestJob", ACCOUNTS, REGIONS, Duration.ofSeconds(10),
+                (account, region, context) -> contexts.add(context));
+
+        assertThat(contexts).hasSize(6).contains(ImmutableMap.of(
+                "job", "TestJob",
+                "aws_account_id", "222222222222",
+                "aws_region", "eu-central-1"));
+        assertThat(summary.getUnits()).isEqualTo(6);
+        assertThat(summary.getCompleted()).isEqualTo(6);
+        assertThat(summary.getFailed()).isEqualTo(0);
+        assertThat(summary.getSkipped()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPassesExceptionsWithContext() {
+        final IllegalStateException exception = new IllegalStateException("test");
+
+        final JobRunSummary summary = executor.run("TestJob", ACCOUNTS, REGIONS, Duration.ofSeconds(10),
+                (account, region, context) -> {
+                    if (account.equals("111111111111") && region.equals("eu-west-1")) {
+                        throw exception;
+                    }
+                });
+
+        verify(mockExceptionHandler).onException(exception, ImmutableMap.of(
+                "job", "TestJob",
+                "aws_account_id", "111111111111",
+                "aws_region", "eu-west-1"));
+        assertThat(summary.getCompleted()).isEqualTo(6);
+        assertThat(summary.getFailed()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLimitsParallelUnitsPerAccountAndRegion() {
+        final Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        final Map<String, Integer> maxRunning = new ConcurrentHashMap<>();
+
+        executor.run("TestJob", ACCOUNTS, REGIONS, Duration.ofSeconds(10), (account, region, context) -> {
+            for (final String key : asList(account, region)) {
+                maxRunning.merge(key, running.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet(), Math::max);
+            }
+            Thread.sleep(50);
+            running.get(account).decrementAndGet();
+            running.get(region).decrementAndGet();
+        });
+
+        ACCOUNTS.forEach(account -> assertThat(maxRunning.get(account)).isEqualTo(1));
+        REGIONS.forEach(region -> assertThat(maxRunning.get(region)).isLessThanOrEqualTo(2));
+    }
+
+    @Test
+    public void testLimitsAreSharedByConcurrentRuns() throws Exception {
+        final Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        final Map<String, Integer> maxRunning = new ConcurrentHashMap<>();
+        final AccountRegionTask task = (account, region, context) -> {
+            maxRunning.merge(account, running.computeIfAbsent(account, k -> new AtomicInteger()).incrementAndGet(),
+                    Math::max);
+            Thread.sleep(50);
+            running.get(account).decrementAndGet();
+        };
+
+        final Thread otherJob = new Thread(() ->
+                executor.run("OtherJob", ACCOUNTS, REGIONS, Duration.ofSeconds(10), task));
+        otherJob.start();
+        final JobRunSummary summary = executor.run("TestJob", ACCOUNTS, REGIONS, Duration.ofSeconds(10), task);
+        otherJob.join();
+
+        assertThat(summary.getCompleted()).isEqualTo(6);
+        ACCOUNTS.forEach(account -> assertThat(maxRunning.get(account)).isEqualTo(1));
+    }
+
+    @Test
+    public void testCancelsUnitsAtDeadline() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(3);
+
+        final JobRunSummary summary = executor.run("TestJob", ACCOUNTS, REGIONS, Duration.ofMillis(200),
+                (account, region, context) -> {
+                    try {
+                        Thread.sleep(60_000);
+                    } catch (final InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                });
+
+        assertThat(summary.getCompleted()).isEqualTo(0);
+        assertThat(summary.getSkipped()).isEqualTo(6);
+        assertThat(summary.getWallTime()).isLessThan(Duration.ofSeconds(10));
+        // one unit per account was running
+        interrupted.await();
+    }
+}
@@ -0,0 +1,162 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.google.common.base.Ticker;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
+import org.zalando.stups.fullstop.jobs.common.HttpGetRootCall;
+import org.zalando.stups.fullstop.jobs.common.HttpProber;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.zalando.stups.fullstop.jobs.common.impl.CachingHttpProber.CACHED_METRIC;
+import static org.zalando.stups.fullstop.jobs.common.impl.CachingHttpProber.EFFECTIVE_RATE_METRIC;
+import static org.zalando.stups.fullstop.jobs.common.impl.CachingHttpProber.SENT_METRIC;
+
+public class CachingHttpProberTest {
+
+    private static final String HOST = "test.example.org";
+
+    private HttpProber mockDelegate;
+
+    private CounterService mockCounterService;
+
+    private GaugeService mockGaugeService;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private CachingHttpProber prober;
+
+    @Before
+    public void setUp() {
+        mockDelegate = mock(HttpProber.class);
+        mockCounterService = mock(CounterService.class);
+        mockGaugeService = mock(GaugeService.class);
+        prober = new CachingHttpProber(mockDelegate, 100, 60, mockCounterService, mockGaugeService, new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        verifyNoMoreInteractions(mockDelegate, mockCounterService, mockGaugeService);
+    }
+
+    @Test
+    public void testReusesResultOfSameFingerprint() throws Exception {
+        final SettableListenableFuture<HttpCallResult> probe = new SettableListenableFuture<>();
+        when(mockDelegate.probe(HOST, 80)).thenReturn(probe);
+
+        assertThat(prober.probe(HOST, 80, "sg-1:abc")).isSameAs(probe);
+        assertThat(prober.probe(HOST, 80, "sg-1:abc")).isSameAs(probe);
+        assertThat(prober.probe(HOST, 80, "sg-1:abc")).isSameAs(probe);
+        assertThat(prober.probe(HOST, 80, "sg-1:abc")).isSameAs(probe);
+
+        verify(mockDelegate).probe(HOST, 80);
+        verify(mockCounterService).increment(SENT_METRIC);
+        verify(mockCounterService, times(3)).increment(CACHED_METRIC);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 100.0);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 50.0);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 100.0 / 3);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 25.0);
+    }
+
+    @Test
+    public void testProbesAgainWhenFingerprintChanges() throws Exception {
+        when(mockDelegate.probe(HOST, 80)).thenReturn(new SettableListenableFuture<>(), new SettableListenableFuture<>());
+
+        prober.probe(HOST, 80, "sg-1:abc");
+        prober.probe(HOST, 80, "sg-1:def");
+
+        verify(mockDelegate, times(2)).probe(HOST, 80);
+        verify(mockCounterService, times(2)).increment(SENT_METRIC);
+        verify(mockGaugeService, times(2)).submit(EFFECTIVE_RATE_METRIC, 100.0);
+    }
+
+    @Test
+    public void testDropsFailedProbes() throws Exception {
+        final SettableListenableFuture<HttpCallResult> failed = new SettableListenableFuture<>();
+        failed.setException(new IOException("test"));
+        final SettableListenableFuture<HttpCallResult> succeeded = new SettableListenableFuture<>();
+        when(mockDelegate.probe(HOST, 443)).thenReturn(failed, succeeded);
+
+        assertThat(prober.probe(HOST, 443, "sg-1:abc")).isSameAs(failed);
+        assertThat(prober.probe(HOST, 443, "sg-1:abc")).isSameAs(succeeded);
+
+        verify(mockDelegate, times(2)).probe(HOST, 443);
+        verify(mockCounterService, times(2)).increment(SENT_METRIC);
+        verify(mockGaugeService, times(2)).submit(EFFECTIVE_RATE_METRIC, 100.0);
+    }
+
+    @Test
+    public void testDropsUnreachableResults() throws Exception {
+        final SettableListenableFuture<HttpCallResult> unreachable = new SettableListenableFuture<>();
+        final SettableListenableFuture<HttpCallResult> answered = new SettableListenableFuture<>();
+        when(mockDelegate.probe(HOST, 80)).thenReturn(unreachable, answered);
+
+        assertThat(prober.probe(HOST, 80, "sg-1:abc")).isSameAs(unreachable);
+        unreachable.set(HttpGetRootCall.unreachable(HttpGetRootCall.rootUri(HOST, 80), new ConnectException("refused")));
+        assertThat(prober.probe(HOST, 80, "sg-1:abc")).isSameAs(answered);
+        answered.set(HttpGetRootCall.evaluate(HttpGetRootCall.rootUri(HOST, 80), response(401)));
+        assertThat(prober.probe(HOST, 80, "sg-1:abc")).isSameAs(answered);
+
+        verify(mockDelegate, times(2)).probe(HOST, 80);
+        verify(mockCounterService, times(2)).increment(SENT_METRIC);
+        verify(mockCounterService).increment(CACHED_METRIC);
+        verify(mockGaugeService, times(2)).submit(EFFECTIVE_RATE_METRIC, 100.0);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 200.0 / 3);
+    }
+
+    @Test
+    public void testEffectiveRateIsPublishedPerWindow() throws Exception {
+        when(mockDelegate.probe(HOST, 80)).thenReturn(new SettableListenableFuture<>());
+
+        prober.probe(HOST, 80, "sg-1:abc");
+        prober.probe(HOST, 80, "sg-1:abc");
+        nanos.addAndGet(MINUTES.toNanos(5));
+        prober.probe(HOST, 80, "sg-1:abc");
+
+        verify(mockDelegate).probe(HOST, 80);
+        verify(mockCounterService).increment(SENT_METRIC);
+        verify(mockCounterService, times(2)).increment(CACHED_METRIC);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 100.0);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 50.0);
+        verify(mockGaugeService).submit(EFFECTIVE_RATE_METRIC, 0.0);
+    }
+
+    @Test
+    public void testProbesWithoutFingerprintAreNotCached() throws Exception {
+        when(mockDelegate.probe(HOST, 80)).thenReturn(new SettableListenableFuture<>());
+
+        prober.probe(HOST, 80);
+        prober.probe(HOST, 80);
+
+        verify(mockDelegate, times(2)).probe(HOST, 80);
+        verify(mockCounterService, times(2)).increment(SENT_METRIC);
+        verify(mockGaugeService, times(2)).submit(EFFECTIVE_RATE_METRIC, 100.0);
+    }
+
+    private static HttpResponse response(final int statusCode) {
+        return new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
+    }
+}
@@ -0,0 +1,107 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Filter;
+import com.amazonaws.services.ec2.model.GroupIdentifier;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.Reservation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.EC2InventorySnapshot;
+
+import static com.amazonaws.regions.Region.getRegion;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class EC2InventoryImplTest {
+
+    private static final String ACCOUNT_ID = "111111111111";
+
+    private static final String REGION = "eu-west-1";
+
+    private ClientProvider mockClientProvider;
+
+    private AmazonEC2Client mockEC2Client;
+
+    private EC2InventoryImpl inventory;
+
+    @Before
+    public void setUp() {
+        mockClientProvider = mock(ClientProvider.class);
+        mockEC2Client = mock(AmazonEC2Client.class);
+        inventory = new EC2InventoryImpl(mockClientProvider);
+
+        when(mockClientProvider.getClient(eq(AmazonEC2Client.class), anyString(), any())).thenReturn(mockEC2Client);
+    }
+
+    @After
+    public void tearDown() {
+        verify(mockClientProvider).getClient(eq(AmazonEC2Client.class), eq(ACCOUNT_ID), eq(getRegion(Regions.fromName(REGION))));
+        verifyNoMoreInteractions(mockClientProvider, mockEC2Client);
+    }
+
+    @Test
+    public void testIndexesRunningInstances() {
+        final Instance web1 = instance("i-1", "ami-1", "sg-web");
+        final Instance web2 = instance("i-2", "ami-1", "sg-web", "sg-ssh");
+        final Instance db = instance("i-3", "ami-2", "sg-db");
+        when(mockEC2Client.describeInstances(any(DescribeInstancesRequest.class))).thenReturn(new DescribeInstancesResult()
+                .withReservations(new Reservation().withInstances(web1, web2), new Reservation().withInstances(db)));
+
+        final EC2InventorySnapshot snapshot = inventory.get(ACCOUNT_ID, REGION);
+
+        final ArgumentCaptor<DescribeInstancesRequest> request = ArgumentCaptor.forClass(DescribeInstancesRequest.class);
+        verify(mockEC2Client).describeInstances(request.capture());
+        assertThat(request.getValue().getFilters()).containsExactly(new Filter("instance-state-name").withValues("running"));
+
+        assertThat(snapshot.getAccountId()).isEqualTo(ACCOUNT_ID);
+        assertThat(snapshot.getRegion()).isEqualTo(REGION);
+        assertThat(snapshot.getInstances()).containsExactly(web1, web2, db);
+        assertThat(snapshot.getById("i-2")).contains(web2);
+        assertThat(snapshot.getById("i-4")).isEmpty();
+        assertThat(snapshot.getImageIds()).containsOnly("ami-1", "ami-2");
+        assertThat(snapshot.getByImageId("ami-1")).containsExactly(web1, web2);
+        assertThat(snapshot.getByImageId("ami-3")).isEmpty();
+        assertThat(snapshot.getSecurityGroupIds()).containsOnly("sg-web", "sg-ssh", "sg-db");
+        assertThat(snapshot.getBySecurityGroupId("sg-web")).containsExactly(web1, web2);
+        assertThat(snapshot.getBySecurityGroupId("sg-ssh")).containsExactly(web2);
+    }
+
+    @Test
+    public void testFollowPagination() {
+        final DescribeInstancesResult result1 = new DescribeInstancesResult().withNextToken("123")
+                .withReservations(new Reservation().withInstances(instance("i-1", "ami-1")));
+        final DescribeInstancesResult result2 = new DescribeInstancesResult().withNextToken("456");
+        final DescribeInstancesResult result3 = new DescribeInstancesResult()
+                .withReservations(new Reservation().withInstances(instance("i-2", "ami-1")));
+        when(mockEC2Client.describeInstances(any(DescribeInstancesRequest.class))).thenReturn(result1, result2, result3);
+
+        final EC2InventorySnapshot snapshot = inventory.get(ACCOUNT_ID, REGION);
+
+        final ArgumentCaptor<DescribeInstancesRequest> requests = ArgumentCaptor.forClass(DescribeInstancesRequest.class);
+        verify(mockEC2Client, times(3)).describeInstances(requests.capture());
+        assertThat(requests.getAllValues()).extracting(DescribeInstancesRequest::getNextToken).containsExactly(null, "123", "456");
+        assertThat(snapshot.getInstances()).extracting(Instance::getInstanceId).containsExactly("i-1", "i-2");
+    }
+
+    private static Instance instance(final String instanceId, final String imageId, final String... securityGroupIds) {
+        final Instance instance = new Instance().withInstanceId(instanceId).withImageId(imageId);
+        for (final String securityGroupId : securityGroupIds) {
+            instance.withSecurityGroups(new GroupIdentifier().withGroupId(securityGroupId));
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,164 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
+import org.zalando.stups.fullstop.jobs.common.HttpGetRootCall;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sweep over 2000 endpoints that answer after 50 ms: the former blocking calls on the 12-20 thread pool of the
+ * jobs vs. the {@link HttpProberImpl}. The endpoints are distinct loopback addresses (127.0.x.y) served by one
+ * embedded server, so the per host limits apply as in production. Needs Linux, which routes all of 127/8 to the
+ * loopback interface.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.zalando.stups.fullstop.jobs.common.impl.HttpProbeBenchmark} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HttpProbeBenchmark {
+
+    private static final int ENDPOINT_COUNT = 2000;
+
+    private static final int LATENCY_MILLIS = 50;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private List<String> hosts;
+
+    private CloseableHttpClient blockingClient;
+
+    private ThreadPoolTaskExecutor blockingExecutor;
+
+    private HttpProberImpl prober;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HttpProbeBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(0), 4096);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        hosts = new ArrayList<>(ENDPOINT_COUNT);
+        for (int i = 0; i < ENDPOINT_COUNT; i++) {
+            hosts.add("127.0." + (1 + i / 250) + "." + (1 + i % 250));
+        }
+
+        blockingClient = HttpClientBuilder.create()
+                .disableAutomaticRetries()
+                .disableRedirectHandling()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(1000)
+                        .setConnectTimeout(1000)
+                        .setSocketTimeout(1000)
+                        .build())
+                .build();
+        blockingExecutor = new ThreadPoolTaskExecutor();
+        blockingExecutor.setCorePoolSize(12);
+        blockingExecutor.setMaxPoolSize(20);
+        blockingExecutor.setQueueCapacity(75);
+        blockingExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        blockingExecutor.afterPropertiesSet();
+
+        prober = new HttpProberImpl(1000, 2, 1000, 1000);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        prober.destroy();
+        blockingExecutor.shutdown();
+        blockingClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int blockingPool() throws Exception {
+        final List<ListenableFuture<HttpCallResult>> futures = new ArrayList<>(ENDPOINT_COUNT);
+        for (final String host : hosts) {
+            futures.add(blockingExecutor.submitListenable(() -> blockingGetRoot(host)));
+        }
+        return countOpen(futures);
+    }
+
+    @Benchmark
+    public int asyncProber() throws Exception {
+        final List<ListenableFuture<HttpCallResult>> futures = new ArrayList<>(ENDPOINT_COUNT);
+        for (final String host : hosts) {
+            futures.add(prober.probe(host, port()));
+        }
+        return countOpen(futures);
+    }
+
+    private HttpCallResult blockingGetRoot(final String host) throws Exception {
+        final URI uri = HttpGetRootCall.rootUri(host, port());
+        try (final CloseableHttpResponse response = blockingClient.execute(new HttpGet(uri))) {
+            return HttpGetRootCall.evaluate(uri, response);
+        } catch (final IOException e) {
+            return HttpGetRootCall.unreachable(uri, e);
+        }
+    }
+
+    private int port() {
+        return server.getAddress().getPort();
+    }
+
+    private static int countOpen(final List<ListenableFuture<HttpCallResult>> futures) throws Exception {
+        int open = 0;
+        for (final ListenableFuture<HttpCallResult> future : futures) {
+            if (future.get().isOpen()) {
+                open++;
+            }
+        }
+        return open;
+    }
+}
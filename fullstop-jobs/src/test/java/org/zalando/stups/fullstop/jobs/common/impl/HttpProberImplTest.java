@@ -0,0 +1,97 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
+
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpProberImplTest {
+
+    @Rule
+    public final WireMockRule wireMock = new WireMockRule(options().dynamicPort());
+
+    private final HttpProberImpl prober = new HttpProberImpl(10, 2, 500, 500);
+
+    @After
+    public void tearDown() throws Exception {
+        prober.destroy();
+    }
+
+    @Test
+    public void testOpenEndpoint() throws Exception {
+        stubFor(get("/").willReturn(aResponse().withStatus(200).withBody("hello")));
+
+        final HttpCallResult result = probe(wireMock.port());
+
+        assertThat(result.isOpen()).isTrue();
+        assertThat(result.getMessage()).contains("returned status code 200");
+    }
+
+    @Test
+    public void testSecuredEndpoint() throws Exception {
+        stubFor(get("/").willReturn(aResponse().withStatus(401)));
+
+        assertThat(probe(wireMock.port()).isOpen()).isFalse();
+    }
+
+    @Test
+    public void testRedirectToHttps() throws Exception {
+        stubFor(get("/").willReturn(aResponse().withStatus(301).withHeader("Location", "https://localhost/")));
+
+        assertThat(probe(wireMock.port()).isOpen()).isFalse();
+    }
+
+    @Test
+    public void testRedirectToHttp() throws Exception {
+        stubFor(get("/").willReturn(aResponse().withStatus(302).withHeader("Location", "http://localhost/login")));
+
+        final HttpCallResult result = probe(wireMock.port());
+
+        assertThat(result.isOpen()).isTrue();
+        assertThat(result.getMessage()).contains("unsafe protocol");
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+        stubFor(get("/").willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+
+        assertThat(probe(wireMock.port()).isOpen()).isFalse();
+    }
+
+    @Test
+    public void testConnectionRefused() throws Exception {
+        final int closedPort;
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        assertThat(probe(closedPort).isOpen()).isFalse();
+    }
+
+    @Test
+    public void testCallbacksRunOutsideOfIOThreads() throws Exception {
+        stubFor(get("/").willReturn(aResponse().withStatus(200)));
+        final CompletableFuture<String> callbackThread = new CompletableFuture<>();
+
+        prober.probe("localhost", wireMock.port()).addCallback(
+                result -> callbackThread.complete(Thread.currentThread().getName()),
+                callbackThread::completeExceptionally);
+
+        assertThat(callbackThread.get(5, TimeUnit.SECONDS)).startsWith("http-probe-");
+    }
+
+    private HttpCallResult probe(final int port) throws Exception {
+        return prober.probe("localhost", port).get(5, TimeUnit.SECONDS);
+    }
+}
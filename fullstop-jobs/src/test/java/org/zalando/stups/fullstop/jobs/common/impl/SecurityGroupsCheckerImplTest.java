@@ -1,6 +1,7 @@
 package org.zalando.stups.fullstop.jobs.common.impl;
 
 import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeSecurityGroupsRequest;
 import com.amazonaws.services.ec2.model.DescribeSecurityGroupsResult;
 import com.amazonaws.services.ec2.model.IpPermission;
 import com.amazonaws.services.ec2.model.IpRange;
@@ -9,6 +10,7 @@ import com.amazonaws.services.ec2.model.SecurityGroup;
 import com.amazonaws.services.ec2.model.UserIdGroupPair;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.slf4j.Logger;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupCheckDetails;
@@ -18,10 +20,13 @@ import java.util.function.Predicate;
 
 import static com.amazonaws.regions.Region.getRegion;
 import static com.amazonaws.regions.Regions.EU_WEST_1;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -31,13 +36,15 @@ public class SecurityGroupsCheckerImplTest {
 
     private Predicate<IpPermission> mockPredicate;
 
+    private AmazonEC2Client mockEC2;
+
     private SecurityGroupsCheckerImpl securityGroupsChecker;
 
     @SuppressWarnings("unchecked")
     @Before
     public void setUp() throws Exception {
         final ClientProvider mockClientProvider = mock(ClientProvider.class);
-        final AmazonEC2Client mockEC2 = mock(AmazonEC2Client.class);
+        mockEC2 = mock(AmazonEC2Client.class);
         mockPredicate = (Predicate<IpPermission>) mock(Predicate.class);
 
         when(mockClientProvider.getClient(any(), any(), any())).thenReturn(mockEC2);
@@ -78,4 +85,56 @@ public class SecurityGroupsCheckerImplTest {
         log.info("Check result: {}", checkResult);
         assertThat(checkResult).isEmpty();
     }
+
+    @Test
+    public void checkEvaluatesEachGroupOncePerSweep() throws Exception {
+        when(mockPredicate.test(any())).thenReturn(true);
+
+        securityGroupsChecker.check(singleton("sg-12345678"), "111222333444", getRegion(EU_WEST_1));
+        final Map<String, SecurityGroupCheckDetails> checkResult = securityGroupsChecker.check(
+                asList("sg-12345678", "sg-12345678"), "111222333444", getRegion(EU_WEST_1));
+
+        assertThat(checkResult).containsOnlyKeys("sg-12345678");
+        final ArgumentCaptor<DescribeSecurityGroupsRequest> request = ArgumentCaptor.forClass(DescribeSecurityGroupsRequest.class);
+        verify(mockEC2).describeSecurityGroups(request.capture());
+        assertThat(request.getValue().getGroupIds()).isEmpty();
+        verify(mockPredicate).test(any());
+    }
+
+    @Test
+    public void checkDescribesGroupsMissingFromSweep() throws Exception {
+        when(mockPredicate.test(any())).thenReturn(false);
+
+        final Map<String, SecurityGroupCheckDetails> checkResult = securityGroupsChecker.check(
+                asList("sg-12345678", "sg-87654321"), "111222333444", getRegion(EU_WEST_1));
+
+        assertThat(checkResult).isEmpty();
+        final ArgumentCaptor<DescribeSecurityGroupsRequest> request = ArgumentCaptor.forClass(DescribeSecurityGroupsRequest.class);
+        verify(mockEC2, times(2)).describeSecurityGroups(request.capture());
+        assertThat(request.getAllValues().get(1).getGroupIds()).containsExactly("sg-87654321");
+    }
+
+    @Test
+    public void fingerprintChangesWithRules() throws Exception {
+        when(mockPredicate.test(any())).thenReturn(false);
+
+        final String fingerprint = securityGroupsChecker.fingerprint(singleton("sg-12345678"), "111222333444", getRegion(EU_WEST_1));
+        final String otherAccountFingerprint = securityGroupsChecker.fingerprint(singleton("sg-12345678"), "999888777666", getRegion(EU_WEST_1));
+
+        assertThat(fingerprint).startsWith("sg-12345678:");
+        assertThat(otherAccountFingerprint).isEqualTo(fingerprint);
+
+        when(mockEC2.describeSecurityGroups(any())).thenReturn(new DescribeSecurityGroupsResult()
+                .withSecurityGroups(new SecurityGroup()
+                        .withGroupId("sg-12345678")
+                        .withGroupName("my-sec-group")
+                        .withIpPermissions(new IpPermission()
+                                .withIpProtocol("tcp")
+                                .withIpv4Ranges(new IpRange().withCidrIp("10.0.0.0/8"))
+                                .withFromPort(443)
+                                .withToPort(443))));
+        final String changedFingerprint = securityGroupsChecker.fingerprint(singleton("sg-12345678"), "555444333222", getRegion(EU_WEST_1));
+
+        assertThat(changedFingerprint).startsWith("sg-12345678:").isNotEqualTo(fingerprint);
+    }
 }
@@ -1,6 +1,11 @@
 package org.zalando.stups.fullstop.jobs.elb;
 
 import com.amazonaws.regions.Region;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Filter;
+import com.amazonaws.services.ec2.model.Reservation;
 import com.amazonaws.services.elasticloadbalancing.AmazonElasticLoadBalancingClient;
 import com.amazonaws.services.elasticloadbalancing.model.DescribeLoadBalancersRequest;
 import com.amazonaws.services.elasticloadbalancing.model.DescribeLoadBalancersResult;
@@ -13,7 +18,6 @@ import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription
 import com.amazonaws.services.elasticloadbalancing.model.Tag;
 import com.amazonaws.services.elasticloadbalancing.model.TagDescription;
 import com.google.common.collect.ImmutableMap;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,15 +25,19 @@ import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
 import org.zalando.stups.fullstop.jobs.common.AmiDetailsProvider;
 import org.zalando.stups.fullstop.jobs.common.AwsApplications;
-import org.zalando.stups.fullstop.jobs.common.EC2InstanceProvider;
+import org.zalando.stups.fullstop.jobs.common.EC2Inventory;
+import org.zalando.stups.fullstop.jobs.common.EC2InventorySnapshot;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
+import org.zalando.stups.fullstop.jobs.common.HttpProber;
 import org.zalando.stups.fullstop.jobs.common.PortsChecker;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
+import org.zalando.stups.fullstop.jobs.common.impl.AccountRegionExecutorImpl;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -40,7 +48,9 @@ import static com.amazonaws.regions.Regions.fromName;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.anyListOf;
 import static org.mockito.Mockito.anyString;
@@ -84,7 +94,7 @@ public class FetchElasticLoadBalancersJobTest {
 
     private AmiDetailsProvider mockAmiDetailsProvider;
 
-    private EC2InstanceProvider mockEC2InstanceProvider;
+    private EC2Inventory mockEC2Inventory;
 
     @Before
     public void setUp() throws Exception {
@@ -99,7 +109,7 @@ public class FetchElasticLoadBalancersJobTest {
         this.mockViolationService = mock(ViolationService.class);
         this.fetchTaupageYamlMock = mock(FetchTaupageYaml.class);
         this.mockAmiDetailsProvider = mock(AmiDetailsProvider.class);
-        this.mockEC2InstanceProvider = mock(EC2InstanceProvider.class);
+        this.mockEC2Inventory = mock(EC2Inventory.class);
 
         final Listener listener = new Listener("HTTPS", 80, 80);
 
@@ -154,13 +164,45 @@ public class FetchElasticLoadBalancersJobTest {
 
         when(clientProviderMock.getClient(any(), any(String.class), any(Region.class))).thenReturn(mockAwsELBClient);
 
-        when(mockEC2InstanceProvider.getById(anyString(), any(Region.class), anyString()))
-                .thenReturn(Optional.of(new com.amazonaws.services.ec2.model.Instance().withInstanceId("foo").withImageId("bar")));
+        when(mockEC2Inventory.get(anyString(), anyString()))
+                .thenReturn(new EC2InventorySnapshot(ACCOUNT_ID, REGION1, Instant.now(), singletonList(
+                        new com.amazonaws.services.ec2.model.Instance().withInstanceId("i2").withImageId("bar"))));
         when(mockAmiDetailsProvider.getAmiDetails(anyString(), any(Region.class), anyString()))
                 .thenReturn(ImmutableMap.of("ami_id", "bar"));
     }
     @Test
     public void testCheck() throws Exception {
+        final FetchElasticLoadBalancersJob fetchELBJob = prepareJob();
+
+        fetchELBJob.run();
+
+        verifyScan();
+        verify(clientProviderMock).getClient(any(), any(String.class), any(Region.class));
+        verify(mockAmiDetailsProvider).getAmiDetails(eq(ACCOUNT_ID), eq(getRegion(fromName(REGION1))), eq("bar"));
+    }
+
+    @Test
+    public void testInstancesNotRunningAreDescribed() throws Exception {
+        when(mockEC2Inventory.get(anyString(), anyString()))
+                .thenReturn(new EC2InventorySnapshot(ACCOUNT_ID, REGION1, Instant.now(), emptyList()));
+        final AmazonEC2Client mockEC2Client = mock(AmazonEC2Client.class);
+        when(clientProviderMock.getClient(eq(AmazonEC2Client.class), any(String.class), any(Region.class)))
+                .thenReturn(mockEC2Client);
+        when(mockEC2Client.describeInstances(any(DescribeInstancesRequest.class)))
+                .thenReturn(new DescribeInstancesResult().withReservations(new Reservation().withInstances(
+                        new com.amazonaws.services.ec2.model.Instance().withInstanceId("i1").withImageId("foo"))));
+        final FetchElasticLoadBalancersJob fetchELBJob = prepareJob();
+
+        fetchELBJob.run();
+
+        verifyScan();
+        verify(clientProviderMock, times(2)).getClient(any(), any(String.class), any(Region.class));
+        verify(mockEC2Client).describeInstances(
+                new DescribeInstancesRequest().withFilters(new Filter("instance-id").withValues("i1", "i2")));
+        verify(mockAmiDetailsProvider).getAmiDetails(eq(ACCOUNT_ID), eq(getRegion(fromName(REGION1))), eq("foo"));
+    }
+
+    private FetchElasticLoadBalancersJob prepareJob() {
         when(accountIdSupplierMock.get()).thenReturn(newHashSet(ACCOUNT_ID));
         when(jobsPropertiesMock.getWhitelistedRegions()).thenReturn(regions);
         when(portsChecker.check(any(LoadBalancerDescription.class))).thenReturn(Collections.<Integer>emptyList());
@@ -170,7 +212,7 @@ public class FetchElasticLoadBalancersJobTest {
         when(mockAwsApplications.isPubliclyAccessible(anyString(), anyString(), anyListOf(String.class)))
                 .thenReturn(Optional.of(false));
 
-        final FetchElasticLoadBalancersJob fetchELBJob = new FetchElasticLoadBalancersJob(
+        return new FetchElasticLoadBalancersJob(
                 violationSinkMock,
                 clientProviderMock,
                 accountIdSupplierMock,
@@ -181,24 +223,24 @@ public class FetchElasticLoadBalancersJobTest {
                 mockViolationService,
                 fetchTaupageYamlMock,
                 mockAmiDetailsProvider,
-                mockEC2InstanceProvider,
-                mock(CloseableHttpClient.class),
-                mock(JobExceptionHandler.class));
-
-        fetchELBJob.run();
+                mockEC2Inventory,
+                mock(HttpProber.class),
+                mock(JobExceptionHandler.class),
+                new AccountRegionExecutorImpl(mock(JobExceptionHandler.class), 1, 1, 1));
+    }
 
+    private void verifyScan() {
         verify(accountIdSupplierMock).get();
         verify(jobsPropertiesMock, atLeast(1)).getWhitelistedRegions();
         verify(jobsPropertiesMock).getElbAllowedPorts();
         verify(securityGroupsChecker, atLeast(1)).check(any(), any(), any());
+        verify(securityGroupsChecker).fingerprint(any(), eq(ACCOUNT_ID), eq(getRegion(fromName(REGION1))));
         verify(portsChecker, atLeast(1)).check(any());
         verify(mockAwsELBClient).describeLoadBalancers(any(DescribeLoadBalancersRequest.class));
         // maximum 20 ELB names can be requested at once. So this needs to be split into two calls.
         verify(mockAwsELBClient, times(2)).describeTags(any(DescribeTagsRequest.class));
-        verify(clientProviderMock).getClient(any(), any(String.class), any(Region.class));
         verify(mockAwsApplications).isPubliclyAccessible(eq(ACCOUNT_ID), eq(REGION1), eq(asList("i1", "i2")));
-        verify(mockEC2InstanceProvider).getById(eq(ACCOUNT_ID), eq(getRegion(fromName(REGION1))), eq("i1"));
-        verify(mockAmiDetailsProvider).getAmiDetails(eq(ACCOUNT_ID), eq(getRegion(fromName(REGION1))), eq("bar"));
+        verify(mockEC2Inventory).get(eq(ACCOUNT_ID), eq(REGION1));
     }
 
     @After
@@ -209,6 +251,7 @@ public class FetchElasticLoadBalancersJobTest {
                 jobsPropertiesMock,
                 securityGroupsChecker,
                 portsChecker,
-                mockAwsApplications);
+                mockAwsApplications,
+                mockEC2Inventory);
     }
 }
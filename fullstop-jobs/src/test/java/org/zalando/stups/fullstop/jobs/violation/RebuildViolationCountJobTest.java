@@ -0,0 +1,49 @@
+package org.zalando.stups.fullstop.jobs.violation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.jobs.exception.JobExceptionHandler;
+import org.zalando.stups.fullstop.violation.repository.ViolationCountRepository;
+
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class RebuildViolationCountJobTest {
+
+    private ViolationCountRepository violationCountRepository;
+
+    private JobExceptionHandler jobExceptionHandler;
+
+    private RebuildViolationCountJob job;
+
+    @Before
+    public void setUp() {
+        violationCountRepository = mock(ViolationCountRepository.class);
+        jobExceptionHandler = mock(JobExceptionHandler.class);
+        job = new RebuildViolationCountJob(violationCountRepository, jobExceptionHandler);
+    }
+
+    @Test
+    public void testRebuild() {
+        when(violationCountRepository.rebuild()).thenReturn(42L);
+
+        job.run();
+
+        verify(violationCountRepository).rebuild();
+        verifyZeroInteractions(jobExceptionHandler);
+    }
+
+    @Test
+    public void testFailureIsHandled() {
+        final IllegalStateException failure = new IllegalStateException("lock timeout");
+        when(violationCountRepository.rebuild()).thenThrow(failure);
+
+        job.run();
+
+        verify(jobExceptionHandler).onException(same(failure), anyMapOf(String.class, String.class));
+    }
+}
@@ -2,15 +2,15 @@ package org.zalando.stups.fullstop.plugin.ami;
 
 import com.amazonaws.services.ec2.model.Image;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.zalando.stups.fullstop.plugin.AbstractEC2InstancePlugin;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
-import java.util.function.Predicate;
+import java.util.Set;
 
-import static java.util.function.Predicate.isEqual;
 import static org.zalando.stups.fullstop.violation.ViolationType.WRONG_AMI;
 
 public class AmiPlugin extends AbstractEC2InstancePlugin {
@@ -25,8 +25,8 @@ public class AmiPlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
-        return isEqual(RUN_INSTANCES);
+    protected Set<String> supportedEventNames() {
+        return ImmutableSet.of(RUN_INSTANCES);
     }
 
     @Override
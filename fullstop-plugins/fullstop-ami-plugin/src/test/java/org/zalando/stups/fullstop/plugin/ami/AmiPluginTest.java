@@ -42,11 +42,11 @@ public class AmiPluginTest {
 
     @Test
     public void testSupportsEventName() throws Exception {
-        assertThat(amiPlugin.supportsEventName().test("RunInstances")).isTrue();
-        assertThat(amiPlugin.supportsEventName().test("StartInstances")).isFalse();
-        assertThat(amiPlugin.supportsEventName().test("TerminateInstances")).isFalse();
-        assertThat(amiPlugin.supportsEventName().test("StopInstances")).isFalse();
-        assertThat(amiPlugin.supportsEventName().test("Foobar")).isFalse();
+        assertThat(amiPlugin.supportedEventNames().contains("RunInstances")).isTrue();
+        assertThat(amiPlugin.supportedEventNames().contains("StartInstances")).isFalse();
+        assertThat(amiPlugin.supportedEventNames().contains("TerminateInstances")).isFalse();
+        assertThat(amiPlugin.supportedEventNames().contains("StopInstances")).isFalse();
+        assertThat(amiPlugin.supportedEventNames().contains("Foobar")).isFalse();
     }
 
     @Test
@@ -1,6 +1,7 @@
 package org.zalando.stups.fullstop.plugin;
 
 import com.amazonaws.services.ec2.model.Image;
+import com.google.common.collect.ImmutableSet;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +12,8 @@ import org.zalando.stups.fullstop.violation.entity.VersionEntity;
 import org.zalando.stups.fullstop.violation.service.ApplicationLifecycleService;
 
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
 
-import static java.util.function.Predicate.isEqual;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getEventTime;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getRunInstanceTime;
@@ -33,11 +33,8 @@ public class LifecyclePlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
-        return isEqual(RUN_INSTANCES)
-                .or(isEqual(START_INSTANCES))
-                .or(isEqual(STOP_INSTANCES))
-                .or(isEqual(TERMINATE_INSTANCES));
+    protected Set<String> supportedEventNames() {
+        return ImmutableSet.of(RUN_INSTANCES, START_INSTANCES, STOP_INSTANCES, TERMINATE_INSTANCES);
     }
 
     @Override
@@ -4,9 +4,14 @@ import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 
-public abstract class AbstractEC2InstancePlugin extends AbstractFullstopPlugin {
+import static java.util.stream.Collectors.toSet;
+
+public abstract class AbstractEC2InstancePlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
+
+    protected static final String EC2_SOURCE_EVENTS = "ec2.amazonaws.com";
 
     protected static final String START_INSTANCES = "StartInstances";
     protected static final String RUN_INSTANCES = "RunInstances";
@@ -23,13 +28,25 @@ public abstract class AbstractEC2InstancePlugin extends AbstractFullstopPlugin {
     public boolean supports(final CloudTrailEvent cloudTrailEvent) {
         return Optional.ofNullable(cloudTrailEvent)
                 .map(CloudTrailEvent::getEventData)
-                .filter(e -> "ec2.amazonaws.com".equals(e.getEventSource()))
+                .filter(e -> EC2_SOURCE_EVENTS.equals(e.getEventSource()))
                 .map(CloudTrailEventData::getEventName)
                 .filter(supportsEventName())
                 .isPresent();
     }
 
-    protected abstract Predicate<? super String> supportsEventName();
+    @Override
+    public Set<EventKey> getSupportedEvents() {
+        return supportedEventNames().stream().map(name -> EventKey.of(EC2_SOURCE_EVENTS, name)).collect(toSet());
+    }
+
+    /**
+     * @return the names of the 'ec2.amazonaws.com' events this plugin handles
+     */
+    protected abstract Set<String> supportedEventNames();
+
+    protected Predicate<? super String> supportsEventName() {
+        return supportedEventNames()::contains;
+    }
 
     @Override
     public void processEvent(final CloudTrailEvent event) {
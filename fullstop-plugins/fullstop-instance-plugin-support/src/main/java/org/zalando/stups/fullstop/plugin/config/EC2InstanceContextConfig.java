@@ -8,7 +8,9 @@ import org.springframework.context.annotation.Configuration;
 import org.zalando.stups.clients.kio.KioOperations;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
+import org.zalando.stups.fullstop.plugin.EventBatchListener;
 import org.zalando.stups.fullstop.plugin.impl.EC2InstanceContextProviderImpl;
+import org.zalando.stups.fullstop.plugin.impl.ResponseElementsBatchListener;
 import org.zalando.stups.fullstop.plugin.provider.AmiIdProvider;
 import org.zalando.stups.fullstop.plugin.provider.AmiProvider;
 import org.zalando.stups.fullstop.plugin.provider.KioApplicationProvider;
@@ -37,9 +39,13 @@ public class EC2InstanceContextConfig {
     @Autowired
     private Function<String, PieroneOperations> pieroneOperationsProvider;
 
-    @ConditionalOnMissingBean
+    /**
+     * Exposed with its implementation type, the events processor picks it up as
+     * {@link org.zalando.stups.fullstop.plugin.EventBatchListener}.
+     */
+    @ConditionalOnMissingBean(EC2InstanceContextProvider.class)
     @Bean
-    EC2InstanceContextProvider contextProvider(final ClientProvider clientProvider,
+    EC2InstanceContextProviderImpl contextProvider(final ClientProvider clientProvider,
                                                @Value("${fullstop.plugins.ami.taupageNamePrefix}") final String taupageNamePrefix,
                                                @Value("${fullstop.plugins.ami.taupageOwners}") final String taupageOwners) {
         return new EC2InstanceContextProviderImpl(
@@ -54,6 +60,11 @@ public class EC2InstanceContextConfig {
                 scmSourceProvider());
     }
 
+    @Bean
+    EventBatchListener responseElementsBatchListener() {
+        return new ResponseElementsBatchListener();
+    }
+
     @Bean
     AmiIdProvider amiIdProvider() {
         return new AmiIdProviderImpl();
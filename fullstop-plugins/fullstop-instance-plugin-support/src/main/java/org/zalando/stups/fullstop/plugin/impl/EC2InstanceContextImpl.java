@@ -4,6 +4,7 @@ import com.amazonaws.AmazonWebServiceClient;
 import com.amazonaws.regions.Region;
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import com.amazonaws.services.ec2.model.Image;
+import com.google.common.base.Supplier;
 import com.jayway.jsonpath.JsonPath;
 import org.apache.commons.lang3.StringUtils;
 import org.zalando.stups.clients.kio.Application;
@@ -27,11 +28,15 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Suppliers.memoize;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getUsernameAsString;
 
+/**
+ * Values needing a remote call are looked up at most once per context, no matter how many plugins ask for them.
+ */
 class EC2InstanceContextImpl implements EC2InstanceContext {
 
-    private static final String INSTANCE_ID_JSON_PATH_EXPRESSION = "$.instanceId";
+    private static final JsonPath INSTANCE_ID_JSON_PATH = JsonPath.compile("$.instanceId");
 
     private final String taupageNamePrefix;
 
@@ -50,17 +55,19 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
 
     private final ClientProvider clientProvider;
 
-    private final AmiIdProvider amiIdProvider;
+    private final Supplier<String> instanceId;
 
-    private final AmiProvider amiProvider;
+    private final Supplier<Optional<String>> amiId;
 
-    private final TaupageYamlProvider taupageYamlProvider;
+    private final Supplier<Optional<Image>> ami;
 
-    private final KioApplicationProvider kioApplicationProvider;
+    private final Supplier<Optional<TaupageYaml>> taupageYaml;
 
-    private final PieroneTagProvider pieroneTagProvider;
+    private final Supplier<Optional<Application>> kioApplication;
 
-    private final ScmSourceProvider scmSourceProvider;
+    private final Supplier<Optional<TagSummary>> pieroneTag;
+
+    private final Supplier<Optional<Map<String, String>>> scmSource;
 
     EC2InstanceContextImpl(
             final CloudTrailEvent event,
@@ -77,14 +84,15 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
         this.event = event;
         this.instanceJson = instanceJson;
         this.clientProvider = clientProvider;
-        this.amiIdProvider = amiIdProvider;
-        this.amiProvider = amiProvider;
-        this.taupageYamlProvider = taupageYamlProvider;
         this.taupageNamePrefix = taupageNamePrefix;
         this.taupageOwners = taupageOwners;
-        this.kioApplicationProvider = kioApplicationProvider;
-        this.pieroneTagProvider = pieroneTagProvider;
-        this.scmSourceProvider = scmSourceProvider;
+        this.instanceId = memoize(() -> JsonPath.parse(instanceJson).read(INSTANCE_ID_JSON_PATH));
+        this.amiId = memoize(() -> amiIdProvider.apply(this));
+        this.ami = memoize(() -> amiProvider.apply(this));
+        this.taupageYaml = memoize(() -> taupageYamlProvider.apply(this));
+        this.kioApplication = memoize(() -> kioApplicationProvider.apply(this));
+        this.pieroneTag = memoize(() -> pieroneTagProvider.apply(this));
+        this.scmSource = memoize(() -> scmSourceProvider.apply(this));
     }
 
     @Override
@@ -99,7 +107,7 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
 
     @Override
     public String getInstanceId() {
-        return JsonPath.read(getInstanceJson(), INSTANCE_ID_JSON_PATH_EXPRESSION);
+        return instanceId.get();
     }
 
     @Override
@@ -152,17 +160,17 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
 
     @Override
     public Optional<Application> getKioApplication() {
-        return kioApplicationProvider.apply(this);
+        return kioApplication.get();
     }
 
     @Override
     public Optional<String> getAmiId() {
-        return amiIdProvider.apply(this);
+        return amiId.get();
     }
 
     @Override
     public Optional<Image> getAmi() {
-        return amiProvider.apply(this);
+        return ami.get();
     }
 
     @Override
@@ -175,17 +183,17 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
 
     @Override
     public Optional<TaupageYaml> getTaupageYaml() {
-        return taupageYamlProvider.apply(this);
+        return taupageYaml.get();
     }
 
     @Override
     public Optional<TagSummary> getPieroneTag() {
-        return pieroneTagProvider.apply(this);
+        return pieroneTag.get();
     }
 
     @Override
     public Optional<Map<String, String>> getScmSource() {
-        return scmSourceProvider.apply(this);
+        return scmSource.get();
     }
 
     @Override
@@ -1,12 +1,12 @@
 package org.zalando.stups.fullstop.plugin.impl;
 
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.base.Supplier;
 import org.slf4j.Logger;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
+import org.zalando.stups.fullstop.plugin.EventBatchListener;
 import org.zalando.stups.fullstop.plugin.provider.AmiIdProvider;
 import org.zalando.stups.fullstop.plugin.provider.AmiProvider;
 import org.zalando.stups.fullstop.plugin.provider.KioApplicationProvider;
@@ -14,20 +14,43 @@ import org.zalando.stups.fullstop.plugin.provider.PieroneTagProvider;
 import org.zalando.stups.fullstop.plugin.provider.ScmSourceProvider;
 import org.zalando.stups.fullstop.plugin.provider.TaupageYamlProvider;
 
-import javax.annotation.Nonnull;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static com.google.common.cache.CacheBuilder.newBuilder;
-import static java.util.concurrent.TimeUnit.MINUTES;
+import static com.google.common.base.Suppliers.memoize;
 import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getInstances;
 
-public class EC2InstanceContextProviderImpl implements EC2InstanceContextProvider {
+/**
+ * Creates the {@link EC2InstanceContext}s of an event at most once per batch, so all instance plugins share the same
+ * contexts and thereby the values memoized on them. Contexts are dropped when the batch is done. Outside of a batch
+ * every call creates new contexts.
+ */
+public class EC2InstanceContextProviderImpl implements EC2InstanceContextProvider, EventBatchListener {
 
     private final Logger log = getLogger(getClass());
 
-    final LoadingCache<CloudTrailEvent, List<EC2InstanceContext>> cache;
+    private final Map<CloudTrailEvent, Supplier<List<EC2InstanceContext>>> contextsInBatch = new ConcurrentHashMap<>();
+
+    private final ClientProvider clientProvider;
+
+    private final AmiIdProvider amiIdProvider;
+
+    private final AmiProvider amiProvider;
+
+    private final TaupageYamlProvider taupageYamlProvider;
+
+    private final String taupageNamePrefix;
+
+    private final List<String> taupageOwners;
+
+    private final KioApplicationProvider kioApplicationProvider;
+
+    private final PieroneTagProvider pieroneTagProvider;
+
+    private final ScmSourceProvider scmSourceProvider;
 
     public EC2InstanceContextProviderImpl(
             final ClientProvider clientProvider,
@@ -39,38 +62,53 @@ public class EC2InstanceContextProviderImpl implements EC2InstanceContextProvide
             final KioApplicationProvider kioApplicationProvider,
             final PieroneTagProvider pieroneTagProvider,
             final ScmSourceProvider scmSourceProvider) {
-        cache = newBuilder()
-                .expireAfterAccess(1, MINUTES)
-                .maximumSize(100)
-                .build(new CacheLoader<CloudTrailEvent, List<EC2InstanceContext>>() {
-                           @Override
-                           public List<EC2InstanceContext> load(@Nonnull final CloudTrailEvent cloudTrailEvent) {
-                               final List<EC2InstanceContext> result = getInstances(cloudTrailEvent)
-                                       .stream()
-                                       .map(instanceJson -> new EC2InstanceContextImpl(
-                                               cloudTrailEvent,
-                                               instanceJson,
-                                               clientProvider,
-                                               amiIdProvider,
-                                               amiProvider,
-                                               taupageYamlProvider,
-                                               taupageNamePrefix,
-                                               taupageOwners,
-                                               kioApplicationProvider,
-                                               pieroneTagProvider,
-                                               scmSourceProvider))
-                                       .collect(toList());
-                               if (result.isEmpty()){
-                                   log.warn("Could not find any EC2 instance in CloudTrailEvent {}", cloudTrailEvent);
-                               }
-                               return result;
-                           }
-                       }
-                );
+        this.clientProvider = clientProvider;
+        this.amiIdProvider = amiIdProvider;
+        this.amiProvider = amiProvider;
+        this.taupageYamlProvider = taupageYamlProvider;
+        this.taupageNamePrefix = taupageNamePrefix;
+        this.taupageOwners = taupageOwners;
+        this.kioApplicationProvider = kioApplicationProvider;
+        this.pieroneTagProvider = pieroneTagProvider;
+        this.scmSourceProvider = scmSourceProvider;
     }
 
     @Override
     public List<EC2InstanceContext> instancesIn(final CloudTrailEvent event) {
-        return cache.getUnchecked(event);
+        final Supplier<List<EC2InstanceContext>> contexts = contextsInBatch.get(event);
+        return contexts != null ? contexts.get() : createContexts(event);
+    }
+
+    @Override
+    public void beforeBatch(final List<CloudTrailEvent> events) {
+        // only registered here, the contexts are created when the first plugin asks for them
+        events.forEach(event -> contextsInBatch.put(event, memoize(() -> createContexts(event))));
+    }
+
+    @Override
+    public void afterBatch(final List<CloudTrailEvent> events) {
+        events.forEach(contextsInBatch::remove);
+    }
+
+    private List<EC2InstanceContext> createContexts(final CloudTrailEvent cloudTrailEvent) {
+        final List<EC2InstanceContext> result = getInstances(cloudTrailEvent)
+                .stream()
+                .map(instanceJson -> new EC2InstanceContextImpl(
+                        cloudTrailEvent,
+                        instanceJson,
+                        clientProvider,
+                        amiIdProvider,
+                        amiProvider,
+                        taupageYamlProvider,
+                        taupageNamePrefix,
+                        taupageOwners,
+                        kioApplicationProvider,
+                        pieroneTagProvider,
+                        scmSourceProvider))
+                .collect(toList());
+        if (result.isEmpty()) {
+            log.warn("Could not find any EC2 instance in CloudTrailEvent {}", cloudTrailEvent);
+        }
+        return result;
     }
 }
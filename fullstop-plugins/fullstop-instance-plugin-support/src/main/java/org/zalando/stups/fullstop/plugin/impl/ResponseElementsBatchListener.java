@@ -0,0 +1,25 @@
+package org.zalando.stups.fullstop.plugin.impl;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import org.zalando.stups.fullstop.events.CloudTrailEventSupport;
+import org.zalando.stups.fullstop.plugin.EventBatchListener;
+
+import java.util.List;
+
+/**
+ * Lets all plugins share the parsed 'responseElements' of the events in a batch.
+ *
+ * @see CloudTrailEventSupport#retainResponseElements(java.util.Collection)
+ */
+public class ResponseElementsBatchListener implements EventBatchListener {
+
+    @Override
+    public void beforeBatch(final List<CloudTrailEvent> events) {
+        CloudTrailEventSupport.retainResponseElements(events);
+    }
+
+    @Override
+    public void afterBatch(final List<CloudTrailEvent> events) {
+        CloudTrailEventSupport.releaseResponseElements(events);
+    }
+}
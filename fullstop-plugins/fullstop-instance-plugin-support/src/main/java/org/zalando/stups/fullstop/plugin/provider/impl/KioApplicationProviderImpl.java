@@ -1,8 +1,5 @@
 package org.zalando.stups.fullstop.plugin.provider.impl;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import org.slf4j.Logger;
 import org.zalando.stups.clients.kio.Application;
 import org.zalando.stups.clients.kio.KioOperations;
@@ -14,7 +11,6 @@ import javax.annotation.Nonnull;
 import java.util.Optional;
 
 import static java.util.Optional.*;
-import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class KioApplicationProviderImpl implements KioApplicationProvider {
@@ -27,20 +23,6 @@ public class KioApplicationProviderImpl implements KioApplicationProvider {
         this.kioOperations = kioOperations;
     }
 
-    private final LoadingCache<EC2InstanceContext, Optional<Application>> cache = CacheBuilder.newBuilder()
-            .expireAfterAccess(60, MINUTES)
-            .maximumSize(100)
-            .build(new CacheLoader<EC2InstanceContext, Optional<Application>>() {
-                @Override
-                public Optional<Application> load(@Nonnull final EC2InstanceContext context) throws Exception {
-                    final Optional<Application> kioApplication = getKioApplication(context);
-                    if (!kioApplication.isPresent()) {
-                        log.warn("Could not find the application {} in KIO.", context);
-                    }
-                    return kioApplication;
-                }
-            });
-
     private Optional<Application> getKioApplication(@Nonnull final EC2InstanceContext context) {
         try {
             return context.getApplicationId().map(kioOperations::getApplicationById);
@@ -51,7 +33,11 @@ public class KioApplicationProviderImpl implements KioApplicationProvider {
 
     @Override
     public Optional<Application> apply(final EC2InstanceContext context) {
-        return cache.getUnchecked(context);
+        final Optional<Application> kioApplication = getKioApplication(context);
+        if (!kioApplication.isPresent()) {
+            log.warn("Could not find the application {} in KIO.", context);
+        }
+        return kioApplication;
     }
 
 }
@@ -6,9 +6,6 @@ import com.amazonaws.services.ec2.model.DescribeInstanceAttributeRequest;
 import com.amazonaws.services.ec2.model.DescribeInstanceAttributeResult;
 import com.amazonaws.services.ec2.model.InstanceAttribute;
 import com.amazonaws.util.Base64;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import org.slf4j.Logger;
 import org.yaml.snakeyaml.error.YAMLException;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
@@ -20,7 +17,6 @@ import javax.annotation.Nonnull;
 import java.util.Optional;
 
 import static java.util.Optional.empty;
-import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class TaupageYamlProviderImpl implements TaupageYamlProvider {
@@ -29,20 +25,6 @@ public class TaupageYamlProviderImpl implements TaupageYamlProvider {
 
     private final Logger log = getLogger(getClass());
 
-    private final LoadingCache<EC2InstanceContext, Optional<TaupageYaml>> cache = CacheBuilder.newBuilder()
-            .expireAfterAccess(1, MINUTES)
-            .maximumSize(100)
-            .build(new CacheLoader<EC2InstanceContext, Optional<TaupageYaml>>() {
-                @Override
-                public Optional<TaupageYaml> load(@Nonnull final EC2InstanceContext context) throws Exception {
-                    final Optional<TaupageYaml> taupageYaml = getTaupageYaml(context);
-                    if (!taupageYaml.isPresent()) {
-                        log.warn("Could not find the Taupage YAML for {}", context);
-                    }
-                    return taupageYaml;
-                }
-            });
-
     private Optional<TaupageYaml> getTaupageYaml(@Nonnull final EC2InstanceContext context) {
 
         if (context.isTaupageAmi().orElse(false)) {
@@ -76,6 +58,10 @@ public class TaupageYamlProviderImpl implements TaupageYamlProvider {
 
     @Override
     public Optional<TaupageYaml> apply(final EC2InstanceContext context) {
-        return cache.getUnchecked(context);
+        final Optional<TaupageYaml> taupageYaml = getTaupageYaml(context);
+        if (!taupageYaml.isPresent()) {
+            log.warn("Could not find the Taupage YAML for {}", context);
+        }
+        return taupageYaml;
     }
 }
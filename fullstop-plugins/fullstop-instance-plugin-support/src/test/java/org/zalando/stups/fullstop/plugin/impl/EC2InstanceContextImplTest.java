@@ -21,6 +21,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class EC2InstanceContextImplTest {
@@ -82,4 +84,23 @@ public class EC2InstanceContextImplTest {
         final Optional<String> versionId = ec2InstanceContext.getVersionId();
         assertThat(versionId).isEmpty();
     }
+
+    @Test
+    public void testLookupsAreMemoized() throws Exception {
+        when(taupageYamlProviderMock.apply(any(EC2InstanceContext.class))).thenReturn(Optional.of(taupageYaml));
+        when(amiIdProviderMock.apply(any(EC2InstanceContext.class))).thenReturn(Optional.of("ami-1234"));
+        final EC2InstanceContext ec2InstanceContext = new EC2InstanceContextImpl(
+                eventMock, instanceJsonMock, clientProviderMock, amiIdProviderMock, amiProviderMock, taupageYamlProviderMock,
+                taupageNamePrefixMock, taupageOwnersMock, kioApplicationProviderMock,
+                pieroneTagProviderMock, scmSourceProviderMock);
+
+        assertThat(ec2InstanceContext.getApplicationId()).contains("fullstop");
+        assertThat(ec2InstanceContext.getVersionId()).contains("10.0");
+        assertThat(ec2InstanceContext.getSource()).contains("stups/fullstop:10.0");
+        assertThat(ec2InstanceContext.getAmiId()).contains("ami-1234");
+        assertThat(ec2InstanceContext.getAmiId()).contains("ami-1234");
+
+        verify(taupageYamlProviderMock, times(1)).apply(ec2InstanceContext);
+        verify(amiIdProviderMock, times(1)).apply(ec2InstanceContext);
+    }
 }
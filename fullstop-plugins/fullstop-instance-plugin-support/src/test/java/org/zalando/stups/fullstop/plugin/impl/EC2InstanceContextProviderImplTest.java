@@ -0,0 +1,73 @@
+package org.zalando.stups.fullstop.plugin.impl;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
+import org.zalando.stups.fullstop.plugin.provider.AmiIdProvider;
+import org.zalando.stups.fullstop.plugin.provider.AmiProvider;
+import org.zalando.stups.fullstop.plugin.provider.KioApplicationProvider;
+import org.zalando.stups.fullstop.plugin.provider.PieroneTagProvider;
+import org.zalando.stups.fullstop.plugin.provider.ScmSourceProvider;
+import org.zalando.stups.fullstop.plugin.provider.TaupageYamlProvider;
+
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class EC2InstanceContextProviderImplTest {
+
+    private static final String RESPONSE_ELEMENTS =
+            "{\"instancesSet\":{\"items\":[{\"instanceId\":\"i-1\"},{\"instanceId\":\"i-2\"}]}}";
+
+    private EC2InstanceContextProviderImpl contextProvider;
+
+    private CloudTrailEvent event;
+
+    @Before
+    public void setUp() {
+        contextProvider = new EC2InstanceContextProviderImpl(
+                mock(ClientProvider.class),
+                mock(AmiIdProvider.class),
+                mock(AmiProvider.class),
+                mock(TaupageYamlProvider.class),
+                "Taupage",
+                emptyList(),
+                mock(KioApplicationProvider.class),
+                mock(PieroneTagProvider.class),
+                mock(ScmSourceProvider.class));
+
+        final CloudTrailEventData eventData = new CloudTrailEventData();
+        eventData.add("responseElements", RESPONSE_ELEMENTS);
+        event = new CloudTrailEvent(eventData, null);
+    }
+
+    @Test
+    public void testContextsAreSharedWithinBatch() {
+        contextProvider.beforeBatch(singletonList(event));
+
+        final List<EC2InstanceContext> first = contextProvider.instancesIn(event);
+        final List<EC2InstanceContext> second = contextProvider.instancesIn(event);
+
+        assertThat(first).hasSize(2);
+        assertThat(second).isSameAs(first);
+
+        contextProvider.afterBatch(singletonList(event));
+
+        assertThat(contextProvider.instancesIn(event)).isNotSameAs(first);
+    }
+
+    @Test
+    public void testContextsOutsideOfBatch() {
+        final List<EC2InstanceContext> first = contextProvider.instancesIn(event);
+        final List<EC2InstanceContext> second = contextProvider.instancesIn(event);
+
+        assertThat(first).hasSize(2);
+        assertThat(second).isNotSameAs(first).isEqualTo(first);
+    }
+}
@@ -2,6 +2,7 @@ package org.zalando.stups.fullstop.plugin.keypair;
 
 import com.amazonaws.services.ec2.model.Image;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.JsonPathException;
 import org.zalando.stups.fullstop.plugin.AbstractEC2InstancePlugin;
@@ -10,14 +11,15 @@ import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
 
-import static java.util.function.Predicate.isEqual;
 import static org.apache.commons.lang3.StringUtils.trimToNull;
 import static org.zalando.stups.fullstop.violation.ViolationType.EC2_WITH_KEYPAIR;
 
 public class KeyPairPlugin extends AbstractEC2InstancePlugin {
 
+    private static final JsonPath KEY_NAME_JSON_PATH = JsonPath.compile("$.keyName");
+
     private final ViolationSink violationSink;
 
     public KeyPairPlugin(final EC2InstanceContextProvider contextProvider, final ViolationSink violationSink) {
@@ -26,10 +28,10 @@ public class KeyPairPlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
+    protected Set<String> supportedEventNames() {
         // A key pair can only be assigned to an EC instance at launch time.
         // Once the key pair is set it cannot be changed.
-        return isEqual(RUN_INSTANCES);
+        return ImmutableSet.of(RUN_INSTANCES);
     }
 
     @Override
@@ -49,7 +51,7 @@ public class KeyPairPlugin extends AbstractEC2InstancePlugin {
 
     private Optional<String> getKeyName(final EC2InstanceContext context) {
         try {
-            return Optional.ofNullable(trimToNull(JsonPath.read(context.getInstanceJson(), "$.keyName")));
+            return Optional.ofNullable(trimToNull(JsonPath.parse(context.getInstanceJson()).read(KEY_NAME_JSON_PATH)));
         } catch (final JsonPathException ignored) {
             return Optional.empty();
         }
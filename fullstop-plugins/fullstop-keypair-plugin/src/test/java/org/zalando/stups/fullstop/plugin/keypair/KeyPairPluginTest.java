@@ -11,7 +11,7 @@ import org.zalando.stups.fullstop.violation.ViolationBuilder;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
@@ -45,12 +45,12 @@ public class KeyPairPluginTest {
 
     @Test
     public void testSupportsEventName() throws Exception {
-        final Predicate<? super String> supportsEventName = keyPairPlugin.supportsEventName();
-        assertThat(supportsEventName.test("Foobar")).isFalse();
-        assertThat(supportsEventName.test("RunInstances")).isTrue();
-        assertThat(supportsEventName.test("StartInstances")).isFalse();
-        assertThat(supportsEventName.test("StopInstances")).isFalse();
-        assertThat(supportsEventName.test("TerminateInstances")).isFalse();
+        final Set<String> supportedEventNames = keyPairPlugin.supportedEventNames();
+        assertThat(supportedEventNames.contains("Foobar")).isFalse();
+        assertThat(supportedEventNames.contains("RunInstances")).isTrue();
+        assertThat(supportedEventNames.contains("StartInstances")).isFalse();
+        assertThat(supportedEventNames.contains("StopInstances")).isFalse();
+        assertThat(supportedEventNames.contains("TerminateInstances")).isFalse();
     }
 
     @Test
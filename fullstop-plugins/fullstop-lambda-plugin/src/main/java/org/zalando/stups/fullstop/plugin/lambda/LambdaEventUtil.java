@@ -3,6 +3,7 @@ package org.zalando.stups.fullstop.plugin.lambda;
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.JsonPathException;
+import org.zalando.stups.fullstop.plugin.EventKey;
 
 import java.util.Optional;
 import java.util.regex.Pattern;
@@ -19,6 +20,11 @@ final class LambdaEventUtil {
     static final String EMPTY = "";
     static final String FUNCTION_NAME = "function_name";
 
+    /**
+     * Lambda event names carry an API version suffix, so every event of the source is routed to the plugins.
+     */
+    static final EventKey LAMBDA_EVENTS = EventKey.anyOf(LAMBDA_SOURCE);
+
     private LambdaEventUtil() {
     }
 
@@ -5,14 +5,19 @@ import com.google.common.collect.ImmutableMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
 import org.zalando.stups.fullstop.plugin.lambda.config.LambdaPluginProperties;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.Optional;
+import java.util.Set;
 
+import static java.util.Collections.singleton;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.violationFor;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.EMPTY;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.FUNCTION_NAME;
+import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.LAMBDA_EVENTS;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.getFromJSON;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.getFunctionName;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.hasLambdaSource;
@@ -21,7 +26,7 @@ import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.isUpdateF
 import static org.zalando.stups.fullstop.violation.ViolationType.LAMBDA_FUNCTION_CREATED_FROM_UNTRUSTED_LOCATION;
 
 @Component
-public class LambdaPlugin extends AbstractFullstopPlugin {
+public class LambdaPlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
 
     private static final String S3_BUCKET_CODE_JSON_PATH = "$.code.s3Bucket";
     private static final String S3_BUCKET_JSON_PATH = "$.s3Bucket";
@@ -42,6 +47,11 @@ public class LambdaPlugin extends AbstractFullstopPlugin {
         this.lambdaPluginProperties = lambdaPluginProperties;
     }
 
+    @Override
+    public Set<EventKey> getSupportedEvents() {
+        return singleton(LAMBDA_EVENTS);
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         return hasLambdaSource(event) && (isCreateFunctionEvent(event) || isUpdateFunctionEvent(event));
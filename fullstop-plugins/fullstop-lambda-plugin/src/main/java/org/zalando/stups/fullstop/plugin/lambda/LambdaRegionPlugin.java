@@ -5,14 +5,19 @@ import com.google.common.collect.ImmutableMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
 import org.zalando.stups.fullstop.plugin.config.RegionPluginProperties;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.List;
+import java.util.Set;
 
+import static java.util.Collections.singleton;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.violationFor;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.EMPTY;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.FUNCTION_NAME;
+import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.LAMBDA_EVENTS;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.getFunctionArn;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.getFunctionName;
 import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.hasLambdaSource;
@@ -20,7 +25,7 @@ import static org.zalando.stups.fullstop.plugin.lambda.LambdaEventUtil.isCreateF
 import static org.zalando.stups.fullstop.violation.ViolationType.WRONG_REGION;
 
 @Component
-public class LambdaRegionPlugin extends AbstractFullstopPlugin {
+public class LambdaRegionPlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
 
     private final ViolationSink violationSink;
     private final RegionPluginProperties regionProps;
@@ -31,6 +36,11 @@ public class LambdaRegionPlugin extends AbstractFullstopPlugin {
         this.regionProps = regionProps;
     }
 
+    @Override
+    public Set<EventKey> getSupportedEvents() {
+        return singleton(LAMBDA_EVENTS);
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         return hasLambdaSource(event) && isCreateFunctionEvent(event);
@@ -1,15 +1,15 @@
 package org.zalando.stups.fullstop.plugin;
 
+import com.google.common.collect.ImmutableSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.plugin.config.RegionPluginProperties;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Set;
 
 import static java.util.Collections.singletonMap;
-import static java.util.function.Predicate.isEqual;
 import static org.zalando.stups.fullstop.violation.ViolationType.WRONG_REGION;
 
 /**
@@ -31,10 +31,10 @@ public class RegionPlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
+    protected Set<String> supportedEventNames() {
         // It should only be possible to change the region in "RunInstances" events
         // So activating the plugin while processing these event types should be sufficient
-        return isEqual(RUN_INSTANCES);
+        return ImmutableSet.of(RUN_INSTANCES);
     }
 
     @Override
@@ -1,14 +1,14 @@
 package org.zalando.stups.fullstop.plugin;
 
+import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.zalando.stups.clients.kio.Application;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
 
 import static java.util.Collections.singletonMap;
-import static java.util.function.Predicate.isEqual;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.zalando.stups.fullstop.violation.ViolationType.APPLICATION_NOT_PRESENT_IN_KIO;
 
@@ -25,8 +25,8 @@ public class ApplicationRegistryPlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
-        return isEqual(RUN_INSTANCES).or(isEqual(START_INSTANCES));
+    protected Set<String> supportedEventNames() {
+        return ImmutableSet.of(RUN_INSTANCES, START_INSTANCES);
     }
 
     @Override
@@ -1,12 +1,14 @@
 package org.zalando.stups.fullstop.plugin;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.pierone.client.TagSummary;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import static java.util.Collections.singletonMap;
@@ -31,8 +33,8 @@ public class DockerRegistryPlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
-        return isEqual(RUN_INSTANCES).or(isEqual(START_INSTANCES));
+    protected Set<String> supportedEventNames() {
+        return ImmutableSet.of(RUN_INSTANCES, START_INSTANCES);
     }
 
     @Override
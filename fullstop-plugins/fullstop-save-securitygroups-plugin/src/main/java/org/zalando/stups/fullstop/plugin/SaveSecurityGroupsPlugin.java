@@ -19,8 +19,10 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Set;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.*;
 
@@ -28,7 +30,7 @@ import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.*;
  * @author gkneitschel
  */
 @Component
-public class SaveSecurityGroupsPlugin extends AbstractFullstopPlugin {
+public class SaveSecurityGroupsPlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
 
     public static final String SECURITY_GROUPS = "security-groups-";
 
@@ -55,6 +57,11 @@ public class SaveSecurityGroupsPlugin extends AbstractFullstopPlugin {
         this.bucketName = bucketName;
     }
 
+    @Override
+    public Set<EventKey> getSupportedEvents() {
+        return singleton(EventKey.of(EC2_SOURCE_EVENTS, EVENT_NAME));
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         final CloudTrailEventData cloudTrailEventData = event.getEventData();
@@ -1,6 +1,7 @@
 package org.zalando.stups.fullstop.plugin.scm;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.yaml.snakeyaml.Yaml;
 import org.zalando.stups.clients.kio.Application;
@@ -12,11 +13,10 @@ import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
 
 import static java.lang.String.format;
 import static java.util.Collections.singletonMap;
-import static java.util.function.Predicate.isEqual;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.zalando.stups.fullstop.violation.ViolationType.ILLEGAL_SCM_REPOSITORY;
@@ -46,8 +46,8 @@ public class ScmRepositoryPlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
-        return isEqual(RUN_INSTANCES).or(isEqual(START_INSTANCES));
+    protected Set<String> supportedEventNames() {
+        return ImmutableSet.of(RUN_INSTANCES, START_INSTANCES);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.zalando.stups.fullstop.plugin.snapshot;
 
+import com.google.common.collect.ImmutableSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.zalando.stups.fullstop.plugin.AbstractEC2InstancePlugin;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
@@ -7,10 +8,9 @@ import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.ViolationType;
 
-import java.util.function.Predicate;
+import java.util.Set;
 
 import static java.util.Collections.singletonMap;
-import static java.util.function.Predicate.isEqual;
 
 public class SnapshotSourcePlugin extends AbstractEC2InstancePlugin {
 
@@ -25,8 +25,8 @@ public class SnapshotSourcePlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
-        return isEqual(RUN_INSTANCES).or(isEqual(START_INSTANCES));
+    protected Set<String> supportedEventNames() {
+        return ImmutableSet.of(RUN_INSTANCES, START_INSTANCES);
     }
 
     @Override
@@ -40,11 +40,11 @@ public class SnapshotSourcePluginTest {
 
     @Test
     public void testSupportsEventName() throws Exception {
-        assertThat(plugin.supportsEventName().test("RunInstances")).isTrue();
-        assertThat(plugin.supportsEventName().test("StartInstances")).isTrue();
-        assertThat(plugin.supportsEventName().test("TerminateInstances")).isFalse();
-        assertThat(plugin.supportsEventName().test("StopInstances")).isFalse();
-        assertThat(plugin.supportsEventName().test("Foobar")).isFalse();
+        assertThat(plugin.supportedEventNames().contains("RunInstances")).isTrue();
+        assertThat(plugin.supportedEventNames().contains("StartInstances")).isTrue();
+        assertThat(plugin.supportedEventNames().contains("TerminateInstances")).isFalse();
+        assertThat(plugin.supportedEventNames().contains("StopInstances")).isFalse();
+        assertThat(plugin.supportedEventNames().contains("Foobar")).isFalse();
     }
 
     @Test
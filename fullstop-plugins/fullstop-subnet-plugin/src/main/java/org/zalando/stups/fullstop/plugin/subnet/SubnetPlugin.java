@@ -12,11 +12,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.List;
+import java.util.Set;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.singleton;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getInstanceIds;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.violationFor;
 import static org.zalando.stups.fullstop.violation.ViolationType.EC2_RUN_IN_PUBLIC_SUBNET;
@@ -26,7 +30,7 @@ import static org.zalando.stups.fullstop.violation.ViolationType.EC2_RUN_IN_PUBL
 // It is not possible to get a subnet's routing tables using the filter "association.subnet-id", when the subnet is not
 // explicitly associated with the routing table. This is the case for our DMZ subnets / routing tables.
 // I'll leave the plugin deactivated, until we have working solution.
-public class SubnetPlugin extends AbstractFullstopPlugin {
+public class SubnetPlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(SubnetPlugin.class);
 
@@ -44,6 +48,11 @@ public class SubnetPlugin extends AbstractFullstopPlugin {
         this.violationSink = violationSink;
     }
 
+    @Override
+    public Set<EventKey> getSupportedEvents() {
+        return singleton(EventKey.of(EC2_SOURCE_EVENTS, EVENT_NAME));
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         final CloudTrailEventData cloudTrailEventData = event.getEventData();
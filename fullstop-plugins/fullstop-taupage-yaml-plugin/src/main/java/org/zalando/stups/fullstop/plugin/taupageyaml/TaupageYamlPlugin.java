@@ -1,14 +1,14 @@
 package org.zalando.stups.fullstop.plugin.taupageyaml;
 
+import com.google.common.collect.ImmutableSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.zalando.stups.fullstop.plugin.AbstractEC2InstancePlugin;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
-import java.util.function.Predicate;
+import java.util.Set;
 
-import static java.util.function.Predicate.isEqual;
 import static org.zalando.stups.fullstop.violation.ViolationType.MISSING_APPLICATION_ID_IN_USER_DATA;
 import static org.zalando.stups.fullstop.violation.ViolationType.MISSING_SOURCE_IN_USER_DATA;
 import static org.zalando.stups.fullstop.violation.ViolationType.MISSING_USER_DATA;
@@ -24,8 +24,8 @@ public class TaupageYamlPlugin extends AbstractEC2InstancePlugin {
     }
 
     @Override
-    protected Predicate<? super String> supportsEventName() {
-        return isEqual(RUN_INSTANCES);
+    protected Set<String> supportedEventNames() {
+        return ImmutableSet.of(RUN_INSTANCES);
     }
 
     @Override
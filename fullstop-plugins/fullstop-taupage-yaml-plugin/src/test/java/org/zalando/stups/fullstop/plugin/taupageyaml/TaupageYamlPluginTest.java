@@ -47,11 +47,11 @@ public class TaupageYamlPluginTest {
 
     @Test
     public void testSupportsEventName() throws Exception {
-        assertThat(plugin.supportsEventName().test("RunInstances")).isTrue();
-        assertThat(plugin.supportsEventName().test("StartInstances")).isFalse();
-        assertThat(plugin.supportsEventName().test("TerminateInstances")).isFalse();
-        assertThat(plugin.supportsEventName().test("StopInstances")).isFalse();
-        assertThat(plugin.supportsEventName().test("Foobar")).isFalse();
+        assertThat(plugin.supportedEventNames().contains("RunInstances")).isTrue();
+        assertThat(plugin.supportedEventNames().contains("StartInstances")).isFalse();
+        assertThat(plugin.supportedEventNames().contains("TerminateInstances")).isFalse();
+        assertThat(plugin.supportedEventNames().contains("StopInstances")).isFalse();
+        assertThat(plugin.supportedEventNames().contains("Foobar")).isFalse();
     }
 
     @Test
@@ -15,6 +15,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventKey;
+import org.zalando.stups.fullstop.plugin.SupportedEventsProvider;
 import org.zalando.stups.fullstop.plugin.unapproved.config.UnapprovedServicesAndRoleProperties;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
@@ -26,13 +28,14 @@ import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.stream.Collectors.toSet;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getAccountId;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getRegion;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.violationFor;
 import static org.zalando.stups.fullstop.violation.ViolationType.MODIFIED_ROLE_OR_SERVICE;
 
 @Component
-public class UnapprovedServicesAndRolePlugin extends AbstractFullstopPlugin {
+public class UnapprovedServicesAndRolePlugin extends AbstractFullstopPlugin implements SupportedEventsProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(UnapprovedServicesAndRolePlugin.class);
 
@@ -66,6 +69,13 @@ public class UnapprovedServicesAndRolePlugin extends AbstractFullstopPlugin {
         }
     }
 
+    @Override
+    public Set<EventKey> getSupportedEvents() {
+        return unapprovedServicesAndRoleProperties.getEventNames().stream()
+                .map(eventName -> EventKey.of(EVENT_SOURCE, eventName))
+                .collect(toSet());
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         final CloudTrailEventData cloudTrailEventData = event.getEventData();
@@ -0,0 +1,101 @@
+package org.zalando.stups.fullstop.rule.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.joda.time.DateTime;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of applying a whitelisting rule to the open violations persisted before the rule.
+ */
+public class RetroactiveWhitelistingStatus {
+
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    @JsonProperty(value = "rule_id")
+    private final Long ruleId;
+
+    @JsonProperty(value = "state")
+    private volatile State state = State.PENDING;
+
+    @JsonProperty(value = "evaluated_in_database")
+    private volatile boolean evaluatedInDatabase;
+
+    @JsonProperty(value = "evaluated_violations")
+    private final AtomicLong evaluatedViolations = new AtomicLong();
+
+    @JsonProperty(value = "whitelisted_violations")
+    private final AtomicLong whitelistedViolations = new AtomicLong();
+
+    @JsonProperty(value = "started")
+    private volatile DateTime started;
+
+    @JsonProperty(value = "finished")
+    private volatile DateTime finished;
+
+    @JsonProperty(value = "error")
+    private volatile String error;
+
+    public RetroactiveWhitelistingStatus(final Long ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public void start(final boolean inDatabase) {
+        this.evaluatedInDatabase = inDatabase;
+        this.started = DateTime.now();
+        this.state = State.RUNNING;
+    }
+
+    public void evaluated(final long violations, final long whitelisted) {
+        evaluatedViolations.addAndGet(violations);
+        whitelistedViolations.addAndGet(whitelisted);
+    }
+
+    public void done() {
+        this.finished = DateTime.now();
+        this.state = State.DONE;
+    }
+
+    public void failed(final String error) {
+        this.error = error;
+        this.finished = DateTime.now();
+        this.state = State.FAILED;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return true if the rule was applied with a single update, the number of evaluated violations is unknown then
+     */
+    public boolean isEvaluatedInDatabase() {
+        return evaluatedInDatabase;
+    }
+
+    public long getEvaluatedViolations() {
+        return evaluatedViolations.get();
+    }
+
+    public long getWhitelistedViolations() {
+        return whitelistedViolations.get();
+    }
+
+    public DateTime getStarted() {
+        return started;
+    }
+
+    public DateTime getFinished() {
+        return finished;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
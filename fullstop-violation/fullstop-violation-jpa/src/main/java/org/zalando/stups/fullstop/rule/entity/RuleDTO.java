@@ -38,6 +38,9 @@ public class RuleDTO {
     @JsonProperty(value = "version")
     private Long version;
 
+    @JsonProperty(value = "apply_to_existing_violations")
+    private boolean applyToExistingViolations;
+
     public String getAccountId() {
         return accountId;
     }
@@ -125,4 +128,12 @@ public class RuleDTO {
     public void setVersion(final Long version) {
         this.version = version;
     }
+
+    public boolean isApplyToExistingViolations() {
+        return applyToExistingViolations;
+    }
+
+    public void setApplyToExistingViolations(final boolean applyToExistingViolations) {
+        this.applyToExistingViolations = applyToExistingViolations;
+    }
 }
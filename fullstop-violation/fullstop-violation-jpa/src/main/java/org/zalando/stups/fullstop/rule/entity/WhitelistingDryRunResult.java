@@ -0,0 +1,74 @@
+package org.zalando.stups.fullstop.rule.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+
+import java.util.List;
+
+/**
+ * The open violations a whitelisting rule would match, if it was created now.
+ */
+public class WhitelistingDryRunResult {
+
+    @JsonProperty(value = "counts")
+    private final List<CountByAccountAndType> counts;
+
+    @JsonProperty(value = "sample_violation_ids")
+    private final List<Long> sampleViolationIds;
+
+    @JsonProperty(value = "evaluated_in_database")
+    private final boolean evaluatedInDatabase;
+
+    @JsonProperty(value = "evaluated_violations")
+    private final long evaluatedViolations;
+
+    @JsonProperty(value = "complete")
+    private final boolean complete;
+
+    @JsonProperty(value = "duration_millis")
+    private final long durationMillis;
+
+    public WhitelistingDryRunResult(final List<CountByAccountAndType> counts, final List<Long> sampleViolationIds,
+                                    final boolean evaluatedInDatabase, final long evaluatedViolations,
+                                    final boolean complete, final long durationMillis) {
+        this.counts = counts;
+        this.sampleViolationIds = sampleViolationIds;
+        this.evaluatedInDatabase = evaluatedInDatabase;
+        this.evaluatedViolations = evaluatedViolations;
+        this.complete = complete;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * @return the number of matching violations by account and violation type
+     */
+    public List<CountByAccountAndType> getCounts() {
+        return counts;
+    }
+
+    public List<Long> getSampleViolationIds() {
+        return sampleViolationIds;
+    }
+
+    public boolean isEvaluatedInDatabase() {
+        return evaluatedInDatabase;
+    }
+
+    /**
+     * @return the number of violations the rule was evaluated against, the number of matches if evaluated in database
+     */
+    public long getEvaluatedViolations() {
+        return evaluatedViolations;
+    }
+
+    /**
+     * @return false if the time budget ran out, the counts only cover the violations evaluated until then
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
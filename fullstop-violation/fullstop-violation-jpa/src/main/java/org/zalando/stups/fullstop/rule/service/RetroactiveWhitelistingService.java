@@ -0,0 +1,14 @@
+package org.zalando.stups.fullstop.rule.service;
+
+import org.zalando.stups.fullstop.rule.entity.RetroactiveWhitelistingStatus;
+
+/**
+ * Applies whitelisting rules to the open violations persisted before the rule, in the background.
+ */
+public interface RetroactiveWhitelistingService {
+
+    /**
+     * @return the progress of the latest run for the rule on this instance, or null if there was none
+     */
+    RetroactiveWhitelistingStatus getStatus(Long ruleId);
+}
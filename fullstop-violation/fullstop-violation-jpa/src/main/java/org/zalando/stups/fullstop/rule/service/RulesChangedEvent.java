@@ -0,0 +1,32 @@
+package org.zalando.stups.fullstop.rule.service;
+
+import org.springframework.context.ApplicationEvent;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+
+/**
+ * Published by the {@link RuleEntityService} after a whitelisting rule was created, updated or expired.
+ */
+public class RulesChangedEvent extends ApplicationEvent {
+
+    private final boolean applyToExistingViolations;
+
+    public RulesChangedEvent(final RuleEntity rule) {
+        this(rule, false);
+    }
+
+    public RulesChangedEvent(final RuleEntity rule, final boolean applyToExistingViolations) {
+        super(rule);
+        this.applyToExistingViolations = applyToExistingViolations;
+    }
+
+    public RuleEntity getRule() {
+        return (RuleEntity) getSource();
+    }
+
+    /**
+     * @return true if the rule should also whitelist the open violations persisted before
+     */
+    public boolean isApplyToExistingViolations() {
+        return applyToExistingViolations;
+    }
+}
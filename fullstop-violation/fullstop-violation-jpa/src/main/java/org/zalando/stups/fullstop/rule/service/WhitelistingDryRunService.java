@@ -0,0 +1,16 @@
+package org.zalando.stups.fullstop.rule.service;
+
+import org.zalando.stups.fullstop.rule.entity.RuleDTO;
+import org.zalando.stups.fullstop.rule.entity.WhitelistingDryRunResult;
+
+/**
+ * Evaluates a whitelisting rule against the open violations, without whitelisting them.
+ */
+public interface WhitelistingDryRunService {
+
+    /**
+     * Only the criteria of the rule are evaluated, its reason and expiry date are ignored. Stops when the configured
+     * time budget runs out.
+     */
+    WhitelistingDryRunResult dryRun(RuleDTO ruleDTO);
+}
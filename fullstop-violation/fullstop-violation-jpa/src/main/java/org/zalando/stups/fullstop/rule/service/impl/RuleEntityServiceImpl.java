@@ -4,11 +4,13 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.zalando.stups.fullstop.rule.entity.RuleDTO;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 import org.zalando.stups.fullstop.rule.repository.RuleEntityRepository;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.rule.service.RulesChangedEvent;
 
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -23,6 +25,9 @@ public class RuleEntityServiceImpl implements RuleEntityService {
     @Autowired
     private RuleEntityRepository ruleEntityRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
 
@@ -38,6 +43,7 @@ public class RuleEntityServiceImpl implements RuleEntityService {
         final RuleEntity entity = ruleEntityRepository.save(ruleEntity);
 
         log.info("New Whitelisting Rule created {}", ruleEntity);
+        eventPublisher.publishEvent(new RulesChangedEvent(entity, ruleDTO.isApplyToExistingViolations()));
 
         return entity;
 
@@ -95,6 +101,7 @@ public class RuleEntityServiceImpl implements RuleEntityService {
     private void invalidateRule(final RuleEntity ruleEntity, final DateTime expiryDate) {
         ruleEntity.setExpiryDate(expiryDate);
         ruleEntityRepository.save(ruleEntity);
+        eventPublisher.publishEvent(new RulesChangedEvent(ruleEntity));
     }
 
     private RuleEntity mapDtoToRuleEntity(final RuleDTO ruleDTO) {
@@ -3,6 +3,7 @@ package org.zalando.stups.fullstop.violation.entity;
 import org.zalando.stups.fullstop.domain.AbstractModifiableEntity;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -28,6 +29,13 @@ public class ViolationEntity extends AbstractModifiableEntity {
 
     private Object metaInfo;
 
+    /**
+     * The column of {@link #metaInfo} as stored, for projections that pass it on without parsing it. Read-only and
+     * not refreshed when {@link #metaInfo} changes.
+     */
+    @Column(name = "meta_info", insertable = false, updatable = false)
+    private String metaInfoJson;
+
     private String comment;
 
     private String pluginFullyQualifiedClassName;
@@ -103,6 +111,10 @@ public class ViolationEntity extends AbstractModifiableEntity {
         this.metaInfo = metaInfo;
     }
 
+    public String getMetaInfoJson() {
+        return metaInfoJson;
+    }
+
     public String getComment() {
         return comment;
     }
@@ -0,0 +1,71 @@
+package org.zalando.stups.fullstop.violation.entity;
+
+import java.util.Objects;
+
+/**
+ * The columns identifying a violation, as in the unique indices of the violation table.
+ */
+public class ViolationKey {
+
+    private final String accountId;
+    private final String region;
+    private final String eventId;
+    private final String instanceId;
+    private final String violationType;
+
+    public ViolationKey(final String accountId, final String region, final String eventId, final String instanceId,
+                        final String violationType) {
+        this.accountId = accountId;
+        this.region = region;
+        this.eventId = eventId;
+        this.instanceId = instanceId;
+        this.violationType = violationType;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getViolationType() {
+        return violationType;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ViolationKey that = (ViolationKey) o;
+        return Objects.equals(accountId, that.accountId)
+                && Objects.equals(region, that.region)
+                && Objects.equals(eventId, that.eventId)
+                && Objects.equals(instanceId, that.instanceId)
+                && Objects.equals(violationType, that.violationType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(accountId, region, eventId, instanceId, violationType);
+    }
+
+    @Override
+    public String toString() {
+        return "{" + "accountId='" + accountId + '\'' + ", region='" + region + '\'' + ", eventId='" + eventId + '\''
+                + ", instanceId='" + instanceId + '\'' + ", violationType='" + violationType + '\'' + '}';
+    }
+}
@@ -0,0 +1,145 @@
+package org.zalando.stups.fullstop.violation.entity;
+
+import org.joda.time.DateTime;
+
+/**
+ * The columns of a violation, with the names of its application and version and the ids of its type and rule.
+ * Selected as a projection, so reading many of them does not fill the persistence context nor load the associations
+ * one by one. The meta info is kept as the stored JSON and is not parsed.
+ */
+public class ViolationRow {
+
+    private final Long id;
+
+    private final Long version;
+
+    private final String eventId;
+
+    private final String accountId;
+
+    private final String region;
+
+    private final String instanceId;
+
+    private final String metaInfo;
+
+    private final String comment;
+
+    private final String pluginFullyQualifiedClassName;
+
+    private final String username;
+
+    private final String violationTypeId;
+
+    private final String applicationName;
+
+    private final String applicationVersionName;
+
+    private final Long ruleId;
+
+    private final DateTime created;
+
+    private final String createdBy;
+
+    private final DateTime lastModified;
+
+    private final String lastModifiedBy;
+
+    public ViolationRow(final Long id, final Long version, final String eventId, final String accountId,
+                        final String region, final String instanceId, final String metaInfo, final String comment,
+                        final String pluginFullyQualifiedClassName, final String username,
+                        final String violationTypeId, final String applicationName,
+                        final String applicationVersionName, final Long ruleId, final DateTime created,
+                        final String createdBy, final DateTime lastModified, final String lastModifiedBy) {
+        this.id = id;
+        this.version = version;
+        this.eventId = eventId;
+        this.accountId = accountId;
+        this.region = region;
+        this.instanceId = instanceId;
+        this.metaInfo = metaInfo;
+        this.comment = comment;
+        this.pluginFullyQualifiedClassName = pluginFullyQualifiedClassName;
+        this.username = username;
+        this.violationTypeId = violationTypeId;
+        this.applicationName = applicationName;
+        this.applicationVersionName = applicationVersionName;
+        this.ruleId = ruleId;
+        this.created = created;
+        this.createdBy = createdBy;
+        this.lastModified = lastModified;
+        this.lastModifiedBy = lastModifiedBy;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getMetaInfo() {
+        return metaInfo;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public String getPluginFullyQualifiedClassName() {
+        return pluginFullyQualifiedClassName;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getViolationTypeId() {
+        return violationTypeId;
+    }
+
+    public String getApplicationName() {
+        return applicationName;
+    }
+
+    public String getApplicationVersionName() {
+        return applicationVersionName;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public DateTime getCreated() {
+        return created;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public DateTime getLastModified() {
+        return lastModified;
+    }
+
+    public String getLastModifiedBy() {
+        return lastModifiedBy;
+    }
+}
@@ -0,0 +1,45 @@
+package org.zalando.stups.fullstop.violation.repository;
+
+import org.joda.time.DateTime;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Violation counts served from the fullstop_data.violation_count rollup. Database triggers journal every change of a
+ * violation in fullstop_data.violation_count_delta, which is read along with the rollup until it is folded into it.
+ * Whole days of the time range are read from the rollup, only the parts of the first and the last day are counted
+ * from the violations.
+ */
+public interface ViolationCountRepository {
+
+    /**
+     * Same as {@link ViolationRepositoryCustom#countByAccountAndType}.
+     */
+    List<CountByAccountAndType> countByAccountAndType(Set<String> accountIds, Optional<DateTime> from,
+                                                      Optional<DateTime> to, boolean resolved, boolean whitelisted);
+
+    /**
+     * Same as {@link ViolationRepositoryCustom#countByAppVersionAndType}.
+     */
+    List<CountByAppVersionAndType> countByAppVersionAndType(String account, Optional<DateTime> from,
+                                                            Optional<DateTime> to, boolean resolved,
+                                                            boolean whitelisted);
+
+    /**
+     * Recounts all violations into the rollup. Writes to violations wait until it is done.
+     *
+     * @return the number of rows of the rollup
+     */
+    long rebuild();
+
+    /**
+     * Adds the journaled changes to the rollup, unless another fold or a rebuild is running.
+     *
+     * @return the number of rows of the rollup changed
+     */
+    long fold();
+}
@@ -4,13 +4,18 @@ import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
 import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Created by gkneitschel.
@@ -18,14 +23,108 @@ import java.util.Set;
 @Repository
 public interface ViolationRepositoryCustom {
 
-    Page<ViolationEntity> queryViolations(List<String> accounts, DateTime from, DateTime to, Long lastViolation,
-                                          boolean checked, Integer severity, final Integer priority,
-                                          Boolean auditRelevant, List<String> types, boolean whitelisted,
-                                          List<String> applicationIds, List<String> applicationVersionIds,
-                                          Pageable pageable);
+    /**
+     * The violations matching the filters, selected as rows together with their application and version in a single
+     * query, plus one query for the total.
+     */
+    Page<ViolationRow> queryViolations(List<String> accounts, DateTime from, DateTime to, Long lastViolation,
+                                       boolean checked, Integer severity, final Integer priority,
+                                       Boolean auditRelevant, List<String> types, boolean whitelisted,
+                                       List<String> applicationIds, List<String> applicationVersionIds,
+                                       Pageable pageable);
 
+    /**
+     * Keyset variant of {@link #queryViolations}: the violations matching the filters with an id greater than
+     * afterId, ordered by id. Does not count them, so a page costs the same no matter how deep it is.
+     *
+     * @param afterId id of the last violation of the previous page, or null for the first page
+     */
+    List<ViolationRow> queryViolationsAfter(List<String> accounts, DateTime from, DateTime to, boolean checked,
+                                            Integer severity, Integer priority, Boolean auditRelevant,
+                                            List<String> types, boolean whitelisted, List<String> applicationIds,
+                                            List<String> applicationVersionIds, Long afterId, int limit);
+
+    /**
+     * Streams the violations matching the filters of {@link #queryViolations}, ordered by id, from a forward-only
+     * database cursor. Only one batch of rows is held in memory at a time.
+     *
+     * @param action called for every violation, within the reading transaction
+     */
+    void exportViolations(List<String> accounts, DateTime from, DateTime to, Long lastViolation, boolean checked,
+                          Integer severity, Integer priority, Boolean auditRelevant, List<String> types,
+                          boolean whitelisted, List<String> applicationIds, List<String> applicationVersionIds,
+                          Consumer<? super ViolationRow> action);
+
+    /**
+     * @return the number of violations matching the filters of {@link #queryViolationsAfter}
+     */
+    long countViolations(List<String> accounts, DateTime from, DateTime to, boolean checked, Integer severity,
+                         Integer priority, Boolean auditRelevant, List<String> types, boolean whitelisted,
+                         List<String> applicationIds, List<String> applicationVersionIds);
+
+    /**
+     * Served by the unique indices, stops at the first row found. A null account, region, event or instance matches
+     * violations without one.
+     */
     boolean violationExists(String accountId, String region, String eventId, String instanceId, String violationType);
 
+    /**
+     * Inserts the violation, unless it violates the unique indices, with a single statement. Unlike
+     * {@code save} this does not fail if another instance inserted the same violation meanwhile. The
+     * violation is not attached to the persistence context, its id stays null. The statement sets the audit
+     * columns and the initial version itself, as the entity listeners would.
+     * <p>
+     * NULLs never conflict in the unique indices, so a violation without account, region or event is looked up with
+     * {@link #violationExists} and persisted if absent instead. Other instances may still insert it meanwhile.
+     *
+     * @return true if the violation was new
+     */
+    boolean insertIfAbsent(ViolationEntity violation);
+
+    /**
+     * Looks up many violations with a single query.
+     *
+     * @return the given keys of violations that already exist
+     */
+    Set<ViolationKey> findExistingViolations(Collection<ViolationKey> keys);
+
+    /**
+     * Whitelists the open violations matching the account, region, violation type, application and version of the
+     * rule with a single update. Image and metaInfo criteria of the rule are ignored.
+     *
+     * @return the number of whitelisted violations
+     */
+    long whitelistOpenViolations(RuleEntity rule, String comment);
+
+    /**
+     * Pages through the open violations matching the account, region, violation type, application and version of
+     * the rule, ordered by id.
+     *
+     * @param afterId id of the last violation of the previous page, or null for the first page
+     */
+    List<ViolationEntity> findOpenViolations(RuleEntity rule, Long afterId, int limit);
+
+    /**
+     * Whitelists the given violations, if they are still open.
+     *
+     * @return the number of whitelisted violations
+     */
+    long whitelistOpenViolations(Collection<Long> violationIds, RuleEntity rule, String comment);
+
+    /**
+     * Counts the open violations matching the account, region, violation type, application and version of the rule,
+     * like {@link #whitelistOpenViolations(RuleEntity, String)} would whitelist them.
+     *
+     * @param timeoutMillis the database cancels the query after this time
+     */
+    List<CountByAccountAndType> countOpenViolations(RuleEntity rule, int timeoutMillis);
+
+    /**
+     * @return the ids of the first open violations matching the account, region, violation type, application and
+     * version of the rule
+     */
+    List<Long> findOpenViolationIds(RuleEntity rule, int limit);
+
     List<CountByAccountAndType> countByAccountAndType(Set<String> accountIds, Optional<DateTime> from,
                                                       Optional<DateTime> to, boolean resolved, boolean whitelisted);
 
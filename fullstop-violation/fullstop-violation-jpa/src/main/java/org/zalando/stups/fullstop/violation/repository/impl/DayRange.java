@@ -0,0 +1,88 @@
+package org.zalando.stups.fullstop.violation.repository.impl;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+import java.util.Optional;
+
+/**
+ * Splits a time range into the whole days in between, and the parts of the first and the last day around them.
+ * Days are those the violations are counted for, in UTC, see {@link ViolationCountRepositoryImpl}. If the bounds of
+ * the range are exclusive, a range starting at midnight starts with a partial day too, as the whole days include it.
+ */
+final class DayRange {
+
+    private final Optional<DateTime> from;
+
+    private final Optional<DateTime> to;
+
+    private final Optional<LocalDate> firstDay;
+
+    private final Optional<LocalDate> endDay;
+
+    private final DateTimeZone zone;
+
+    private final boolean inclusive;
+
+    DayRange(final Optional<DateTime> from, final Optional<DateTime> to, final DateTimeZone zone,
+             final boolean inclusive) {
+        this.from = from;
+        this.to = to;
+        this.zone = zone;
+        this.inclusive = inclusive;
+        this.firstDay = from.map(f -> {
+            final LocalDate day = f.withZone(zone).toLocalDate();
+            return inclusive && day.toDateTimeAtStartOfDay(zone).isEqual(f) ? day : day.plusDays(1);
+        });
+        this.endDay = to.map(t -> t.withZone(zone).toLocalDate());
+    }
+
+    /**
+     * @return true if violations created at the start or the end of the range belong to it
+     */
+    boolean isInclusive() {
+        return inclusive;
+    }
+
+    /**
+     * @return the first whole day, empty if unbounded
+     */
+    Optional<LocalDate> getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * @return the day after the last whole day, empty if unbounded
+     */
+    Optional<LocalDate> getEndDay() {
+        return endDay;
+    }
+
+    boolean hasWholeDays() {
+        return !firstDay.isPresent() || !endDay.isPresent() || firstDay.get().isBefore(endDay.get());
+    }
+
+    /**
+     * @return the start of the range up to the first whole day, empty if the range starts at midnight of the first
+     * whole day or is unbounded
+     */
+    Optional<DateTime> getHeadStart() {
+        return from.filter(f -> !firstDay.get().toDateTimeAtStartOfDay(zone).isEqual(f));
+    }
+
+    Optional<DateTime> getHeadEnd() {
+        return getHeadStart().flatMap(f -> firstDay).map(day -> day.toDateTimeAtStartOfDay(zone));
+    }
+
+    /**
+     * @return the start of the last day, which is counted up to the end of the range, empty if unbounded
+     */
+    Optional<DateTime> getTailStart() {
+        return endDay.map(day -> day.toDateTimeAtStartOfDay(zone));
+    }
+
+    Optional<DateTime> getTailEnd() {
+        return to;
+    }
+}
@@ -0,0 +1,180 @@
+package org.zalando.stups.fullstop.violation.repository.impl;
+
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
+import org.zalando.stups.fullstop.violation.repository.ViolationCountRepository;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+import static javax.persistence.TemporalType.DATE;
+import static javax.persistence.TemporalType.TIMESTAMP;
+import static org.joda.time.DateTimeZone.UTC;
+
+/**
+ * Counts the violations from the rollup maintained in the database, which counts them by their day of creation in
+ * UTC.
+ */
+@Repository
+public class ViolationCountRepositoryImpl implements ViolationCountRepository {
+
+    private final ViolationRepository violationRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ViolationCountRepositoryImpl(final ViolationRepository violationRepository) {
+        this.violationRepository = violationRepository;
+    }
+
+    @Override
+    public List<CountByAccountAndType> countByAccountAndType(final Set<String> accountIds,
+                                                             final Optional<DateTime> fromDate,
+                                                             final Optional<DateTime> toDate,
+                                                             final boolean resolved,
+                                                             final boolean whitelisted) {
+        // exclusive, like the query of the violation repository
+        final DayRange range = new DayRange(fromDate, toDate, UTC, false);
+        if (!range.hasWholeDays()) {
+            return violationRepository.countByAccountAndType(accountIds, fromDate, toDate, resolved, whitelisted);
+        }
+
+        final String sql = "SELECT account_id, type, CAST(sum(quantity) AS BIGINT) AS quantity FROM (" +
+                "SELECT c.account_id, c.violation_type_entity_id AS type, c.quantity " +
+                "FROM fullstop_data.violation_count_current c " +
+                "WHERE c.status = :status " +
+                (accountIds.isEmpty() ? "" : "AND c.account_id IN (:account_ids) ") +
+                wholeDaysPredicate(range) +
+                partialDaysSubquery(range,
+                        "SELECT v.account_id, v.violation_type_entity_id, count(*) ",
+                        accountIds.isEmpty() ? "" : "AND v.account_id IN (:account_ids) ",
+                        "GROUP BY v.account_id, v.violation_type_entity_id ") +
+                ") counts " +
+                "GROUP BY account_id, type " +
+                "HAVING sum(quantity) > 0 " +
+                "ORDER BY account_id ASC, type ASC ";
+
+        final Query query = createQuery(sql, range, resolved, whitelisted);
+        if (!accountIds.isEmpty()) {
+            query.setParameter("account_ids", accountIds);
+        }
+
+        final List<?> results = query.getResultList();
+        return results.stream()
+                .map((o) -> (Object[]) o)
+                .map(row -> new CountByAccountAndType((String) row[0], (String) row[1], ((Number) row[2]).longValue()))
+                .collect(toList());
+    }
+
+    @Override
+    public List<CountByAppVersionAndType> countByAppVersionAndType(final String account,
+                                                                   final Optional<DateTime> fromDate,
+                                                                   final Optional<DateTime> toDate,
+                                                                   final boolean resolved,
+                                                                   final boolean whitelisted) {
+        Assert.hasText(account, "account must not be blank");
+
+        // inclusive, like the query of the violation repository
+        final DayRange range = new DayRange(fromDate, toDate, UTC, true);
+        if (!range.hasWholeDays()) {
+            return violationRepository.countByAppVersionAndType(account, fromDate, toDate, resolved, whitelisted);
+        }
+
+        final String sql = "SELECT app.name AS application, ver.name AS version, counts.type, " +
+                "CAST(sum(counts.quantity) AS BIGINT) AS quantity FROM (" +
+                "SELECT c.application_id, c.application_version_id, c.violation_type_entity_id AS type, c.quantity " +
+                "FROM fullstop_data.violation_count_current c " +
+                "WHERE c.status = :status " +
+                "AND c.account_id = :account " +
+                wholeDaysPredicate(range) +
+                partialDaysSubquery(range,
+                        "SELECT v.application_id, v.application_version_id, v.violation_type_entity_id, count(*) ",
+                        "AND v.account_id = :account ",
+                        "GROUP BY v.application_id, v.application_version_id, v.violation_type_entity_id ") +
+                ") counts " +
+                "LEFT JOIN fullstop_data.application app ON app.id = counts.application_id " +
+                "LEFT JOIN fullstop_data.app_version ver ON ver.id = counts.application_version_id " +
+                "GROUP BY app.id, ver.id, counts.type " +
+                "HAVING sum(counts.quantity) > 0 " +
+                "ORDER BY app.name ASC NULLS LAST, ver.created DESC NULLS LAST, counts.type ASC ";
+
+        final Query query = createQuery(sql, range, resolved, whitelisted);
+        query.setParameter("account", account);
+
+        final List<?> results = query.getResultList();
+        return results.stream()
+                .map((o) -> (Object[]) o)
+                .map(row -> new CountByAppVersionAndType((String) row[0], (String) row[1], (String) row[2], ((Number) row[3]).longValue()))
+                .collect(toList());
+    }
+
+    @Override
+    @Transactional
+    public long rebuild() {
+        return ((Number) entityManager.createNativeQuery("SELECT fullstop_data.rebuild_violation_count()")
+                .getSingleResult()).longValue();
+    }
+
+    @Override
+    @Transactional
+    public long fold() {
+        return ((Number) entityManager.createNativeQuery("SELECT fullstop_data.fold_violation_count()")
+                .getSingleResult()).longValue();
+    }
+
+    private static String wholeDaysPredicate(final DayRange range) {
+        return (range.getFirstDay().isPresent() ? "AND c.day >= :first_day " : "") +
+                (range.getEndDay().isPresent() ? "AND c.day < :end_day " : "");
+    }
+
+    /**
+     * Counts the violations of the first and the last day of the range, which the rollup cannot tell apart from
+     * the rest of those days. The index on the creation timestamp keeps this cheap.
+     */
+    private static String partialDaysSubquery(final DayRange range, final String select, final String predicate,
+                                              final String groupBy) {
+        if (!range.getHeadStart().isPresent() && !range.getTailStart().isPresent()) {
+            return "";
+        }
+
+        return "UNION ALL " +
+                select +
+                "FROM fullstop_data.violation v " +
+                "WHERE fullstop_data.violation_status(v.comment, v.rule_entity_id) = :status " +
+                predicate +
+                "AND (" +
+                (range.getHeadStart().isPresent()
+                        ? "(v.created " + (range.isInclusive() ? ">=" : ">") + " :head_start AND v.created < :head_end) "
+                        : "") +
+                (range.getHeadStart().isPresent() && range.getTailStart().isPresent() ? "OR " : "") +
+                (range.getTailStart().isPresent()
+                        ? "(v.created >= :tail_start AND v.created " + (range.isInclusive() ? "<=" : "<") + " :tail_end) "
+                        : "") +
+                ") " +
+                groupBy;
+    }
+
+    private Query createQuery(final String sql, final DayRange range, final boolean resolved, final boolean whitelisted) {
+        final Query query = entityManager.createNativeQuery(sql);
+        query.setParameter("status", whitelisted ? "WHITELISTED" : resolved ? "RESOLVED" : "OPEN");
+        range.getFirstDay().ifPresent(d -> query.setParameter("first_day", d.toDate(), DATE));
+        range.getEndDay().ifPresent(d -> query.setParameter("end_day", d.toDate(), DATE));
+        range.getHeadStart().ifPresent(d -> query.setParameter("head_start", d.toDate(), TIMESTAMP));
+        range.getHeadEnd().ifPresent(d -> query.setParameter("head_end", d.toDate(), TIMESTAMP));
+        range.getTailStart().ifPresent(d -> query.setParameter("tail_start", d.toDate(), TIMESTAMP));
+        range.getTailEnd().ifPresent(d -> query.setParameter("tail_end", d.toDate(), TIMESTAMP));
+        return query;
+    }
+}
@@ -1,25 +1,40 @@
 package org.zalando.stups.fullstop.violation.repository.impl;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+import org.hibernate.type.TimestampType;
 import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.support.QueryDslRepositorySupport;
 import org.springframework.util.Assert;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.violation.converter.ViolationObjectConverter;
 import org.zalando.stups.fullstop.violation.entity.*;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepositoryCustom;
 
 import javax.persistence.Query;
+import javax.transaction.Transactional;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static com.google.common.collect.Iterables.isEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.querydsl.core.types.ExpressionUtils.allOf;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static javax.persistence.TemporalType.TIMESTAMP;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @SuppressWarnings("unused")
 public class ViolationRepositoryImpl extends QueryDslRepositorySupport implements ViolationRepositoryCustom {
@@ -28,30 +43,219 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
 
     private static final Sort SORT_BY_ID = new Sort(ID);
 
+    private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String DEFAULT_AUDITOR = "FULLSTOP";
+
+    private static final ViolationObjectConverter META_INFO_CONVERTER = new ViolationObjectConverter();
+
+    /**
+     * Any of the unique indices on account, region, event, violation type and instance skips the insert.
+     */
+    private static final String INSERT_IF_ABSENT = "INSERT INTO fullstop_data.violation (event_id, account_id, region, " +
+            "instance_id, meta_info, comment, plugin_fully_qualified_class_name, username, application_id, " +
+            "application_version_id, rule_entity_id, violation_type_entity_id, created, created_by, last_modified, " +
+            "last_modified_by, version) " +
+            "VALUES (:event_id, :account_id, :region, :instance_id, :meta_info, :comment, :plugin, :username, " +
+            ":application_id, :application_version_id, :rule_entity_id, :violation_type_entity_id, :now, :auditor, " +
+            ":now, :auditor, 0) " +
+            "ON CONFLICT DO NOTHING";
+
+    @Autowired(required = false)
+    private AuditorAware<String> auditorAware;
+
     public ViolationRepositoryImpl() {
         super(ViolationEntity.class);
     }
 
     @Override
-    public Page<ViolationEntity> queryViolations(final List<String> accounts,
-                                                 final DateTime from,
-                                                 final DateTime to,
-                                                 final Long lastViolation,
-                                                 final boolean checked,
-                                                 final Integer severity,
-                                                 final Integer priority,
-                                                 final Boolean auditRelevant,
-                                                 final List<String> types,
-                                                 final boolean whitelisted,
-                                                 final List<String> applicationIds,
-                                                 final List<String> applicationVersionIds,
-                                                 final Pageable pageable) {
+    public Page<ViolationRow> queryViolations(final List<String> accounts,
+                                              final DateTime from,
+                                              final DateTime to,
+                                              final Long lastViolation,
+                                              final boolean checked,
+                                              final Integer severity,
+                                              final Integer priority,
+                                              final Boolean auditRelevant,
+                                              final List<String> types,
+                                              final boolean whitelisted,
+                                              final List<String> applicationIds,
+                                              final List<String> applicationVersionIds,
+                                              final Pageable pageable) {
+
+        final QViolationEntity qViolationEntity = QViolationEntity.violationEntity;
+        final QViolationTypeEntity qViolationTypeEntity = QViolationTypeEntity.violationTypeEntity;
+
+        final List<Predicate> predicates = violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from,
+                to, checked, severity, priority, auditRelevant, types, whitelisted, applicationIds,
+                applicationVersionIds);
+
+        if (lastViolation != null) {
+            predicates.add(qViolationEntity.id.goe(lastViolation));
+        }
+
+        final long total = from(qViolationEntity)
+                .leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity)
+                .where(allOf(predicates))
+                .fetchCount();
+
+        final Sort sort = pageable.getSort();
+        final Sort fixedSort = (sort == null || isEmpty(sort)) ? SORT_BY_ID : sort;
+        final PageRequest fixedPage = new PageRequest(pageable.getPageNumber(), pageable.getPageSize(), fixedSort);
+
+        final JPQLQuery<ViolationRow> query = selectRows(qViolationEntity, qViolationTypeEntity, from(qViolationEntity))
+                .where(allOf(predicates));
+
+        getQuerydsl().applyPagination(fixedPage, query);
+
+        final List<ViolationRow> list;
+        list = total > 0 ? query.fetch() : emptyList();
+
+        return new PageImpl<>(list, fixedPage, total);
+    }
+
+    @Override
+    public List<ViolationRow> queryViolationsAfter(final List<String> accounts,
+                                                   final DateTime from,
+                                                   final DateTime to,
+                                                   final boolean checked,
+                                                   final Integer severity,
+                                                   final Integer priority,
+                                                   final Boolean auditRelevant,
+                                                   final List<String> types,
+                                                   final boolean whitelisted,
+                                                   final List<String> applicationIds,
+                                                   final List<String> applicationVersionIds,
+                                                   final Long afterId,
+                                                   final int limit) {
+        final QViolationEntity qViolationEntity = QViolationEntity.violationEntity;
+        final QViolationTypeEntity qViolationTypeEntity = QViolationTypeEntity.violationTypeEntity;
+
+        final List<Predicate> predicates = violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from,
+                to, checked, severity, priority, auditRelevant, types, whitelisted, applicationIds,
+                applicationVersionIds);
+
+        if (afterId != null) {
+            predicates.add(qViolationEntity.id.gt(afterId));
+        }
+
+        return selectRows(qViolationEntity, qViolationTypeEntity, from(qViolationEntity))
+                .where(allOf(predicates))
+                .orderBy(qViolationEntity.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    @Transactional
+    public void exportViolations(final List<String> accounts,
+                                 final DateTime from,
+                                 final DateTime to,
+                                 final Long lastViolation,
+                                 final boolean checked,
+                                 final Integer severity,
+                                 final Integer priority,
+                                 final Boolean auditRelevant,
+                                 final List<String> types,
+                                 final boolean whitelisted,
+                                 final List<String> applicationIds,
+                                 final List<String> applicationVersionIds,
+                                 final Consumer<? super ViolationRow> action) {
+        final QViolationEntity qViolationEntity = QViolationEntity.violationEntity;
+        final QViolationTypeEntity qViolationTypeEntity = QViolationTypeEntity.violationTypeEntity;
+
+        final List<Predicate> predicates = violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from,
+                to, checked, severity, priority, auditRelevant, types, whitelisted, applicationIds,
+                applicationVersionIds);
+
+        if (lastViolation != null) {
+            predicates.add(qViolationEntity.id.goe(lastViolation));
+        }
 
+        // PostgreSQL only uses a cursor with a fetch size within a transaction
+        try (CloseableIterator<ViolationRow> rows = selectRows(qViolationEntity, qViolationTypeEntity,
+                getQuerydsl().createQuery(qViolationEntity)
+                        .setHint(HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                        .setHint(HINT_READONLY, true))
+                .where(allOf(predicates))
+                .orderBy(qViolationEntity.id.asc())
+                .iterate()) {
+            rows.forEachRemaining(action);
+        }
+    }
+
+    @Override
+    public long countViolations(final List<String> accounts,
+                                final DateTime from,
+                                final DateTime to,
+                                final boolean checked,
+                                final Integer severity,
+                                final Integer priority,
+                                final Boolean auditRelevant,
+                                final List<String> types,
+                                final boolean whitelisted,
+                                final List<String> applicationIds,
+                                final List<String> applicationVersionIds) {
         final QViolationEntity qViolationEntity = QViolationEntity.violationEntity;
         final QViolationTypeEntity qViolationTypeEntity = QViolationTypeEntity.violationTypeEntity;
 
-        final JPQLQuery<ViolationEntity> query = from(qViolationEntity).leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity);
+        return from(qViolationEntity)
+                .leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity)
+                .where(allOf(violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from, to, checked,
+                        severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds)))
+                .fetchCount();
+    }
+
+    /**
+     * Joins type, application and version in the same query instead of loading them per violation, and selects the
+     * meta info as stored instead of parsing it.
+     */
+    private static JPQLQuery<ViolationRow> selectRows(final QViolationEntity qViolationEntity,
+                                                      final QViolationTypeEntity qViolationTypeEntity,
+                                                      final JPQLQuery<?> query) {
+        final QApplicationEntity qApplication = new QApplicationEntity("app");
+        final QVersionEntity qVersion = new QVersionEntity("ver");
+
+        return query
+                .leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity)
+                .leftJoin(qViolationEntity.application, qApplication)
+                .leftJoin(qViolationEntity.applicationVersion, qVersion)
+                .select(Projections.constructor(ViolationRow.class,
+                        qViolationEntity.id,
+                        qViolationEntity.version,
+                        qViolationEntity.eventId,
+                        qViolationEntity.accountId,
+                        qViolationEntity.region,
+                        qViolationEntity.instanceId,
+                        qViolationEntity.metaInfoJson,
+                        qViolationEntity.comment,
+                        qViolationEntity.pluginFullyQualifiedClassName,
+                        qViolationEntity.username,
+                        qViolationEntity.violationTypeEntity.id,
+                        qApplication.name,
+                        qVersion.name,
+                        qViolationEntity.ruleEntity.id,
+                        qViolationEntity.created,
+                        qViolationEntity.createdBy,
+                        qViolationEntity.lastModified,
+                        qViolationEntity.lastModifiedBy));
+    }
 
+    private List<Predicate> violationPredicates(final QViolationEntity qViolationEntity,
+                                                final QViolationTypeEntity qViolationTypeEntity,
+                                                final List<String> accounts,
+                                                final DateTime from,
+                                                final DateTime to,
+                                                final boolean checked,
+                                                final Integer severity,
+                                                final Integer priority,
+                                                final Boolean auditRelevant,
+                                                final List<String> types,
+                                                final boolean whitelisted,
+                                                final List<String> applicationIds,
+                                                final List<String> applicationVersionIds) {
         final List<Predicate> predicates = newArrayList();
 
         if (accounts != null) {
@@ -66,10 +270,6 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
             predicates.add(qViolationEntity.created.before(to));
         }
 
-        if (lastViolation != null) {
-            predicates.add(qViolationEntity.id.goe(lastViolation));
-        }
-
         if (whitelisted) {
             predicates.add(qViolationEntity.ruleEntity.isNotNull());
         } else if (checked) {
@@ -105,31 +305,202 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
             predicates.add(qViolationEntity.applicationVersion.name.in(applicationVersionIds));
         }
 
-        final long total = query.where(allOf(predicates)).fetchCount();
+        return predicates;
+    }
 
-        final Sort sort = pageable.getSort();
-        final Sort fixedSort = (sort == null || isEmpty(sort)) ? SORT_BY_ID : sort;
-        final PageRequest fixedPage = new PageRequest(pageable.getPageNumber(), pageable.getPageSize(), fixedSort);
+    @Override
+    public boolean violationExists(final String accountId, final String region, final String eventId, final String instanceId, final String violationType) {
+        final QViolationEntity qViolation = new QViolationEntity("v");
 
-        getQuerydsl().applyPagination(fixedPage, query);
+        return from(qViolation)
+                .select(qViolation.id)
+                .where(accountId == null ? qViolation.accountId.isNull() : qViolation.accountId.eq(accountId),
+                        region == null ? qViolation.region.isNull() : qViolation.region.eq(region),
+                        eventId == null ? qViolation.eventId.isNull() : qViolation.eventId.eq(eventId),
+                        instanceId == null ? qViolation.instanceId.isNull() : qViolation.instanceId.eq(instanceId),
+                        qViolation.violationTypeEntity.id.eq(violationType))
+                .fetchFirst() != null;
+    }
 
-        final List<ViolationEntity> list;
-        list = total > 0 ? query.where(allOf(predicates)).fetch() : emptyList();
+    @Override
+    @Transactional
+    public boolean insertIfAbsent(final ViolationEntity violation) {
+        if (violation.getAccountId() == null || violation.getRegion() == null || violation.getEventId() == null) {
+            // NULLs are distinct in the unique indices, the insert would never conflict
+            if (violationExists(violation.getAccountId(), violation.getRegion(), violation.getEventId(),
+                    violation.getInstanceId(), violation.getViolationTypeEntity().getId())) {
+                return false;
+            }
+            getEntityManager().persist(violation);
+            return true;
+        }
 
-        return new PageImpl<>(list, fixedPage, total);
+        final Date now = new Date();
+        final String auditor = auditorAware != null ? auditorAware.getCurrentAuditor() : DEFAULT_AUDITOR;
+
+        final Query query = getEntityManager().createNativeQuery(INSERT_IF_ABSENT);
+        query.setParameter("event_id", text(violation.getEventId()));
+        query.setParameter("account_id", text(violation.getAccountId()));
+        query.setParameter("region", text(violation.getRegion()));
+        query.setParameter("instance_id", text(violation.getInstanceId()));
+        query.setParameter("meta_info", text(META_INFO_CONVERTER.convertToDatabaseColumn(violation.getMetaInfo())));
+        query.setParameter("comment", text(violation.getComment()));
+        query.setParameter("plugin", text(violation.getPluginFullyQualifiedClassName()));
+        query.setParameter("username", text(violation.getUsername()));
+        query.setParameter("application_id", id(violation.getApplication() != null ? violation.getApplication().getId() : null));
+        query.setParameter("application_version_id",
+                id(violation.getApplicationVersion() != null ? violation.getApplicationVersion().getId() : null));
+        query.setParameter("rule_entity_id", id(violation.getRuleEntity() != null ? violation.getRuleEntity().getId() : null));
+        query.setParameter("violation_type_entity_id", text(violation.getViolationTypeEntity().getId()));
+        query.setParameter("now", new TypedParameterValue(TimestampType.INSTANCE, now));
+        query.setParameter("auditor", text(auditor));
+
+        return query.executeUpdate() > 0;
+    }
+
+    // Hibernate binds untyped nulls as bytea
+    private static TypedParameterValue text(final String value) {
+        return new TypedParameterValue(StringType.INSTANCE, value);
+    }
+
+    private static TypedParameterValue id(final Long value) {
+        return new TypedParameterValue(LongType.INSTANCE, value);
     }
 
     @Override
-    public boolean violationExists(final String accountId, final String region, final String eventId, final String instanceId, final String violationType) {
+    public Set<ViolationKey> findExistingViolations(final Collection<ViolationKey> keys) {
+        final Set<String> accountIds = keys.stream().map(ViolationKey::getAccountId).filter(Objects::nonNull).collect(toSet());
+        final Set<String> eventIds = keys.stream().map(ViolationKey::getEventId).filter(Objects::nonNull).collect(toSet());
+        if (accountIds.isEmpty() || eventIds.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        // served by the unique indices, candidates not in keys are dropped below
+        final List<ViolationKey> candidates = from(qViolation)
+                .select(Projections.constructor(ViolationKey.class,
+                        qViolation.accountId,
+                        qViolation.region,
+                        qViolation.eventId,
+                        qViolation.instanceId,
+                        qViolation.violationTypeEntity.id))
+                .where(qViolation.accountId.in(accountIds),
+                        qViolation.eventId.in(eventIds))
+                .fetch();
+
+        final Set<ViolationKey> existing = new HashSet<>(candidates);
+        existing.retainAll(keys);
+        return existing;
+    }
+
+    @Override
+    @Transactional
+    public long whitelistOpenViolations(final RuleEntity rule, final String comment) {
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        return whitelist(qViolation, rule, comment)
+                .where(allOf(openViolationsOf(qViolation, rule)))
+                .execute();
+    }
+
+    @Override
+    public List<ViolationEntity> findOpenViolations(final RuleEntity rule, final Long afterId, final int limit) {
         final QViolationEntity qViolation = new QViolationEntity("v");
 
+        final List<Predicate> predicates = openViolationsOf(qViolation, rule);
+        if (afterId != null) {
+            predicates.add(qViolation.id.gt(afterId));
+        }
+
         return from(qViolation)
-                .where(qViolation.accountId.eq(accountId),
-                        qViolation.region.eq(region),
-                        qViolation.eventId.eq(eventId),
-                        instanceId == null ? qViolation.instanceId.isNull() : qViolation.instanceId.eq(instanceId),
-                        qViolation.violationTypeEntity.id.eq(violationType))
-                .fetchCount() > 0;
+                .leftJoin(qViolation.application).fetchJoin()
+                .leftJoin(qViolation.applicationVersion).fetchJoin()
+                .leftJoin(qViolation.violationTypeEntity).fetchJoin()
+                .where(allOf(predicates))
+                .orderBy(qViolation.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    @Transactional
+    public long whitelistOpenViolations(final Collection<Long> violationIds, final RuleEntity rule,
+                                        final String comment) {
+        if (violationIds.isEmpty()) {
+            return 0;
+        }
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        return whitelist(qViolation, rule, comment)
+                .where(qViolation.id.in(violationIds),
+                        qViolation.ruleEntity.isNull(),
+                        qViolation.comment.isNull())
+                .execute();
+    }
+
+    @Override
+    public List<CountByAccountAndType> countOpenViolations(final RuleEntity rule, final int timeoutMillis) {
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        return getQuerydsl().createQuery(qViolation)
+                .setHint(QUERY_TIMEOUT_HINT, timeoutMillis)
+                .select(Projections.constructor(CountByAccountAndType.class,
+                        qViolation.accountId, qViolation.violationTypeEntity.id, qViolation.id.count()))
+                .where(allOf(openViolationsOf(qViolation, rule)))
+                .groupBy(qViolation.accountId, qViolation.violationTypeEntity.id)
+                .orderBy(qViolation.accountId.asc(), qViolation.violationTypeEntity.id.asc())
+                .fetch();
+    }
+
+    @Override
+    public List<Long> findOpenViolationIds(final RuleEntity rule, final int limit) {
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        return from(qViolation)
+                .select(qViolation.id)
+                .where(allOf(openViolationsOf(qViolation, rule)))
+                .orderBy(qViolation.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    private JPAUpdateClause whitelist(final QViolationEntity qViolation, final RuleEntity rule, final String comment) {
+        // bulk updates bypass the auditing and optimistic locking of the entities
+        return new JPAUpdateClause(getEntityManager(), qViolation)
+                .set(qViolation.ruleEntity, rule)
+                .set(qViolation.comment, comment)
+                .set(qViolation.lastModified, DateTime.now())
+                .set(qViolation.lastModifiedBy, rule.getLastModifiedBy())
+                .set(qViolation.version, qViolation.version.add(1));
+    }
+
+    private static List<Predicate> openViolationsOf(final QViolationEntity qViolation, final RuleEntity rule) {
+        final List<Predicate> predicates = newArrayList();
+        predicates.add(qViolation.ruleEntity.isNull());
+        predicates.add(qViolation.comment.isNull());
+
+        trimmed(rule.getAccountId()).map(qViolation.accountId::eq).ifPresent(predicates::add);
+        trimmed(rule.getRegion()).map(qViolation.region::eq).ifPresent(predicates::add);
+        trimmed(rule.getViolationTypeEntityId()).map(qViolation.violationTypeEntity.id::eq).ifPresent(predicates::add);
+
+        final QApplicationEntity qApplication = new QApplicationEntity("a");
+        trimmed(rule.getApplicationId())
+                .map(name -> qViolation.application.id.in(
+                        JPAExpressions.select(qApplication.id).from(qApplication).where(qApplication.name.eq(name))))
+                .ifPresent(predicates::add);
+
+        final QVersionEntity qVersion = new QVersionEntity("av");
+        trimmed(rule.getApplicationVersion())
+                .map(name -> qViolation.applicationVersion.id.in(
+                        JPAExpressions.select(qVersion.id).from(qVersion).where(qVersion.name.eq(name))))
+                .ifPresent(predicates::add);
+
+        return predicates;
+    }
+
+    private static Optional<String> trimmed(final String value) {
+        return Optional.ofNullable(value).map(String::trim).filter(string -> !string.isEmpty());
     }
 
     @Override
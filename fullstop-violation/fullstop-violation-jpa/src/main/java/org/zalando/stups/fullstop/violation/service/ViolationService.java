@@ -4,8 +4,10 @@ import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Created by mrandi.
@@ -20,10 +22,24 @@ public interface ViolationService {
 
     ViolationEntity findOne(Long id);
 
-    Page<ViolationEntity> queryViolations(List<String> accounts, DateTime from, DateTime to, Long lastViolation, boolean checked,
-                                          Integer severity, final Integer priority, Boolean auditRelevant, List<String> type,
-                                          boolean whitelisted, final List<String> applicationIds,
-                                          final List<String> applicationVersionIds, Pageable pageable);
+    Page<ViolationRow> queryViolations(List<String> accounts, DateTime from, DateTime to, Long lastViolation, boolean checked,
+                                       Integer severity, final Integer priority, Boolean auditRelevant, List<String> type,
+                                       boolean whitelisted, final List<String> applicationIds,
+                                       final List<String> applicationVersionIds, Pageable pageable);
+
+    List<ViolationRow> queryViolationsAfter(List<String> accounts, DateTime from, DateTime to, boolean checked,
+                                            Integer severity, Integer priority, Boolean auditRelevant,
+                                            List<String> types, boolean whitelisted, List<String> applicationIds,
+                                            List<String> applicationVersionIds, Long afterId, int limit);
+
+    void exportViolations(List<String> accounts, DateTime from, DateTime to, Long lastViolation, boolean checked,
+                          Integer severity, Integer priority, Boolean auditRelevant, List<String> types,
+                          boolean whitelisted, List<String> applicationIds, List<String> applicationVersionIds,
+                          Consumer<? super ViolationRow> action);
+
+    long countViolations(List<String> accounts, DateTime from, DateTime to, boolean checked, Integer severity,
+                         Integer priority, Boolean auditRelevant, List<String> types, boolean whitelisted,
+                         List<String> applicationIds, List<String> applicationVersionIds);
 
     boolean violationExists(String accountId, String region, String eventId, String instanceId, String violationTypeId);
 }
@@ -42,18 +42,25 @@ public class ApplicationVersionServiceImpl implements ApplicationVersionService
 
         if (applicationId != null) {
             application = applicationRepository.findByName(applicationId);
+            boolean changed = false;
 
             if (application == null) {
                 application = new ApplicationEntity(applicationId);
+                changed = true;
             }
 
             if (version != null) {
                 if (!application.getVersionEntities().contains(version)) {
                     application.getVersionEntities().add(version);
+                    changed = true;
                 }
 
             }
-            application = applicationRepository.save(application);
+
+            // existing stacks are only read
+            if (changed) {
+                application = applicationRepository.save(application);
+            }
         }
 
         return new Stack(application, version);
@@ -6,10 +6,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Created by mrandi.
@@ -41,23 +43,75 @@ public class ViolationServiceImpl implements ViolationService {
     }
 
     @Override
-    public Page<ViolationEntity> queryViolations(final List<String> accounts,
-                                                 final DateTime from,
-                                                 final DateTime to,
-                                                 final Long lastViolation,
-                                                 final boolean checked,
-                                                 final Integer severity,
-                                                 final Integer priority,
-                                                 final Boolean auditRelevant,
-                                                 final List<String> types,
-                                                 final boolean whitelisted,
-                                                 final List<String> applicationIds,
-                                                 final List<String> applicationVersionIds,
-                                                 final Pageable pageable) {
+    public Page<ViolationRow> queryViolations(final List<String> accounts,
+                                              final DateTime from,
+                                              final DateTime to,
+                                              final Long lastViolation,
+                                              final boolean checked,
+                                              final Integer severity,
+                                              final Integer priority,
+                                              final Boolean auditRelevant,
+                                              final List<String> types,
+                                              final boolean whitelisted,
+                                              final List<String> applicationIds,
+                                              final List<String> applicationVersionIds,
+                                              final Pageable pageable) {
         return violationRepository.queryViolations(accounts, from, to, lastViolation, checked, severity, priority,
                 auditRelevant, types, whitelisted, applicationIds, applicationVersionIds, pageable);
     }
 
+    @Override
+    public List<ViolationRow> queryViolationsAfter(final List<String> accounts,
+                                                   final DateTime from,
+                                                   final DateTime to,
+                                                   final boolean checked,
+                                                   final Integer severity,
+                                                   final Integer priority,
+                                                   final Boolean auditRelevant,
+                                                   final List<String> types,
+                                                   final boolean whitelisted,
+                                                   final List<String> applicationIds,
+                                                   final List<String> applicationVersionIds,
+                                                   final Long afterId,
+                                                   final int limit) {
+        return violationRepository.queryViolationsAfter(accounts, from, to, checked, severity, priority, auditRelevant,
+                types, whitelisted, applicationIds, applicationVersionIds, afterId, limit);
+    }
+
+    @Override
+    public void exportViolations(final List<String> accounts,
+                                 final DateTime from,
+                                 final DateTime to,
+                                 final Long lastViolation,
+                                 final boolean checked,
+                                 final Integer severity,
+                                 final Integer priority,
+                                 final Boolean auditRelevant,
+                                 final List<String> types,
+                                 final boolean whitelisted,
+                                 final List<String> applicationIds,
+                                 final List<String> applicationVersionIds,
+                                 final Consumer<? super ViolationRow> action) {
+        violationRepository.exportViolations(accounts, from, to, lastViolation, checked, severity, priority,
+                auditRelevant, types, whitelisted, applicationIds, applicationVersionIds, action);
+    }
+
+    @Override
+    public long countViolations(final List<String> accounts,
+                                final DateTime from,
+                                final DateTime to,
+                                final boolean checked,
+                                final Integer severity,
+                                final Integer priority,
+                                final Boolean auditRelevant,
+                                final List<String> types,
+                                final boolean whitelisted,
+                                final List<String> applicationIds,
+                                final List<String> applicationVersionIds) {
+        return violationRepository.countViolations(accounts, from, to, checked, severity, priority, auditRelevant,
+                types, whitelisted, applicationIds, applicationVersionIds);
+    }
+
     @Override
     public boolean violationExists(final String accountId,
                                    final String region,
@@ -7,6 +7,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.AdditionalAnswers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
@@ -15,7 +16,9 @@ import org.zalando.stups.fullstop.rule.entity.RuleDTO;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 import org.zalando.stups.fullstop.rule.repository.RuleEntityRepository;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.rule.service.RulesChangedEvent;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -34,11 +37,15 @@ public class RuleEntityServiceImplTest {
     @Autowired
     private RuleEntityService ruleEntityServiceImpl;
 
+    @Autowired
+    private RulesChangedListener rulesChangedListener;
+
     private RuleEntity ruleEntity;
 
     @Before
     public void setUp() throws Exception {
         reset(ruleEntityRepository);
+        rulesChangedListener.events.clear();
 
         ruleEntity = new RuleEntity();
         ruleEntity.setId(1L);
@@ -61,7 +68,7 @@ public class RuleEntityServiceImplTest {
         assertThat(savedRuleEntity.getExpiryDate()).isEqualTo(new DateTime(9999, 1, 1, 0, 0, 0, UTC));
 
         verify(ruleEntityRepository).save(any(RuleEntity.class));
-
+        assertThat(rulesChangedListener.events).extracting(RulesChangedEvent::getRule).containsExactly(savedRuleEntity);
     }
 
     @Test
@@ -134,6 +141,7 @@ public class RuleEntityServiceImplTest {
 
         verify(ruleEntityRepository).findOne(anyLong());
         verify(ruleEntityRepository).save(re);
+        assertThat(rulesChangedListener.events).extracting(RulesChangedEvent::getRule).containsExactly(re);
     }
 
     @Test
@@ -181,5 +189,20 @@ public class RuleEntityServiceImplTest {
         public RuleEntityRepository ruleEntityRepository() {
             return mock(RuleEntityRepository.class);
         }
+
+        @Bean
+        public RulesChangedListener rulesChangedListener() {
+            return new RulesChangedListener();
+        }
+    }
+
+    static class RulesChangedListener implements ApplicationListener<RulesChangedEvent> {
+
+        private final List<RulesChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void onApplicationEvent(final RulesChangedEvent event) {
+            events.add(event);
+        }
     }
 }
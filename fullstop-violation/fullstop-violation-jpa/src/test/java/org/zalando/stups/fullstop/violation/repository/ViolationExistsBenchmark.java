@@ -0,0 +1,124 @@
+package org.zalando.stups.fullstop.violation.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.zalando.stups.fullstop.violation.JpaConfig;
+import org.zalando.stups.fullstop.violation.entity.QViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking one violation on a table of 1M violations: the former {@code fetchCount()} query vs. the
+ * {@code EXISTS}-style {@link ViolationRepository#violationExists} and the single statement
+ * {@link ViolationRepository#insertIfAbsent} of an existing violation, which replaces check and insert.
+ * <p>
+ * Needs Docker, like the repository tests. Run {@link #main(String[])} from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ViolationExistsBenchmark {
+
+    private static final int VIOLATION_COUNT = 1_000_000;
+
+    private static final int ACCOUNT_COUNT = 500;
+
+    private static final String TYPE = "UNSECURED_PUBLIC_ENDPOINT";
+
+    private final Random random = new Random(42);
+
+    private ConfigurableApplicationContext context;
+
+    private ViolationRepository violationRepository;
+
+    private EntityManager entityManager;
+
+    private ViolationTypeEntity violationType;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ViolationExistsBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaConfig.class).web(false).run();
+        violationRepository = context.getBean(ViolationRepository.class);
+        violationType = context.getBean(ViolationTypeRepository.class).save(new ViolationTypeEntity(TYPE));
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+
+        // the unique indices of the Flyway migrations, the Hibernate schema has no instance_id in its constraint
+        entityManager.getTransaction().begin();
+        entityManager.createNativeQuery("ALTER TABLE fullstop_data.violation DROP CONSTRAINT IF EXISTS unique_violation")
+                .executeUpdate();
+        entityManager.createNativeQuery("CREATE UNIQUE INDEX unique_violation ON fullstop_data.violation "
+                + "(account_id, region, event_id, violation_type_entity_id, instance_id) WHERE instance_id IS NOT NULL")
+                .executeUpdate();
+        entityManager.createNativeQuery("INSERT INTO fullstop_data.violation (event_id, account_id, region, instance_id, "
+                + "violation_type_entity_id, created, created_by, last_modified, last_modified_by, version) "
+                + "SELECT 'event-' || (i % 1000), 'account-' || (i % " + ACCOUNT_COUNT + "), 'eu-west-1', 'i-' || i, '"
+                + TYPE + "', now(), 'benchmark', now(), 'benchmark', 0 "
+                + "FROM generate_series(1, " + VIOLATION_COUNT + ") AS i").executeUpdate();
+        entityManager.createNativeQuery("ANALYZE fullstop_data.violation").executeUpdate();
+        entityManager.getTransaction().commit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public boolean count() {
+        final int i = random.nextInt(VIOLATION_COUNT) + 1;
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        return new JPAQuery<ViolationEntity>(entityManager)
+                .from(qViolation)
+                .where(qViolation.accountId.eq("account-" + i % ACCOUNT_COUNT),
+                        qViolation.region.eq("eu-west-1"),
+                        qViolation.eventId.eq("event-" + i % 1000),
+                        qViolation.instanceId.eq("i-" + i),
+                        qViolation.violationTypeEntity.id.eq(TYPE))
+                .fetchCount() > 0;
+    }
+
+    @Benchmark
+    public boolean exists() {
+        final int i = random.nextInt(VIOLATION_COUNT) + 1;
+        return violationRepository.violationExists("account-" + i % ACCOUNT_COUNT, "eu-west-1", "event-" + i % 1000,
+                "i-" + i, TYPE);
+    }
+
+    @Benchmark
+    public boolean insertIfAbsent() {
+        final int i = random.nextInt(VIOLATION_COUNT) + 1;
+        final ViolationEntity violation = new ViolationEntity("event-" + i % 1000, "account-" + i % ACCOUNT_COUNT,
+                "eu-west-1", "i-" + i, null, null, null, null, null, null);
+        violation.setViolationTypeEntity(violationType);
+        return violationRepository.insertIfAbsent(violation);
+    }
+}
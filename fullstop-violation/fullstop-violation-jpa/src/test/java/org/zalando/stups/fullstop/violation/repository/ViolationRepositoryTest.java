@@ -3,6 +3,8 @@ package org.zalando.stups.fullstop.violation.repository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -12,9 +14,13 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 import org.zalando.stups.fullstop.rule.repository.RuleEntityRepository;
 import org.zalando.stups.fullstop.violation.JpaConfig;
+import org.zalando.stups.fullstop.violation.entity.ApplicationEntity;
 import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
 import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
+import org.zalando.stups.fullstop.violation.entity.VersionEntity;
 import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
 
 import javax.persistence.EntityManager;
@@ -24,6 +30,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Collections.emptySet;
@@ -44,6 +51,10 @@ public class ViolationRepositoryTest {
     private ViolationTypeRepository violationTypeRepository;
     @Autowired
     private RuleEntityRepository ruleEntityRepository;
+    @Autowired
+    private ApplicationRepository applicationRepository;
+    @Autowired
+    private VersionRepository versionRepository;
 
     @PersistenceContext
     private EntityManager em;
@@ -94,7 +105,7 @@ public class ViolationRepositoryTest {
 
     @Test
     public void testGetAllPage1() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(null, null, null, null, false, null, null, null, null, false, null, null, new PageRequest(0, 2, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -107,9 +118,118 @@ public class ViolationRepositoryTest {
                 .isEqualTo(newArrayList(vio2.getUsername(), vio5.getUsername()));
     }
 
+    @Test
+    public void testQueryViolationsAfter() throws Exception {
+        final List<ViolationRow> firstPage = violationRepository
+                .queryViolationsAfter(null, null, null, true, null, null, null, null, false, null, null, null, 1);
+        assertThat(firstPage).extracting("id", Long.class).containsExactly(vio1.getId());
+
+        final List<ViolationRow> secondPage = violationRepository
+                .queryViolationsAfter(null, null, null, true, null, null, null, null, false, null, null, vio1.getId(), 1);
+        assertThat(secondPage).extracting("id", Long.class).containsExactly(vio3.getId());
+
+        assertThat(violationRepository
+                .queryViolationsAfter(null, null, null, true, null, null, null, null, false, null, null, vio3.getId(), 1))
+                .isEmpty();
+        assertThat(violationRepository.countViolations(null, null, null, true, null, null, null, null, false, null, null))
+                .isEqualTo(2);
+    }
+
+    /**
+     * A page of entities loads every referenced type, rule, application and version with a select of its own, a
+     * page of rows needs the count and the select only.
+     */
+    @Test
+    public void testQueryViolationsStatementCount() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            save(new ViolationEntity("run1" + i, "acc4", "germany-east-1", "i-1234", metaInfoMap, null, "username",
+                    applicationRepository.save(new ApplicationEntity("app" + i)),
+                    versionRepository.save(new VersionEntity("1." + i)), null), vio2.getViolationTypeEntity());
+        }
+        em.flush();
+        em.clear();
+
+        final Statistics statistics = em.unwrap(Session.class).getSessionFactory().getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            assertThat(violationRepository.findAll(new PageRequest(0, 10, ASC, "id")).getContent()).hasSize(8);
+            final long entityStatements = statistics.getPrepareStatementCount();
+            em.clear();
+
+            statistics.clear();
+            assertThat(violationRepository.queryViolations(null, null, null, null, false, null, null, null, null,
+                    false, null, null, new PageRequest(0, 10, ASC, "id")).getContent()).hasSize(5);
+            final long rowStatements = statistics.getPrepareStatementCount();
+
+            // 2 types, 1 rule, 3 applications and 3 versions
+            assertThat(entityStatements).isGreaterThanOrEqualTo(2 + 9);
+            assertThat(rowStatements).isEqualTo(2);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void testExportViolations() throws Exception {
+        final List<ViolationRow> rows = new ArrayList<>();
+        violationRepository.exportViolations(null, null, null, null, true, null, null, null, null, false, null, null,
+                rows::add);
+
+        assertThat(rows).extracting(ViolationRow::getId).containsExactly(vio1.getId(), vio3.getId());
+        assertThat(rows).extracting(ViolationRow::getViolationTypeId)
+                .containsExactly("SOMETHING_WENT_WRONG", "YOU_SCREWED_UP");
+        assertThat(objectMapper.readValue(rows.get(0).getMetaInfo(), Map.class)).isEqualTo(metaInfoMap);
+    }
+
+    @Test
+    public void testFindExistingViolations() throws Exception {
+        final ViolationKey existing = new ViolationKey("acc1", "germany-east-1", "run01", "i-1234", "SOMETHING_WENT_WRONG");
+        final ViolationKey otherInstance = new ViolationKey("acc1", "germany-east-1", "run01", "i-5678", "SOMETHING_WENT_WRONG");
+        final ViolationKey otherType = new ViolationKey("acc2", "germany-east-1", "run03", "i-1234", "SOMETHING_WENT_WRONG");
+        final ViolationKey unknown = new ViolationKey("acc4", "germany-east-1", "run06", null, "YOU_SCREWED_UP");
+
+        final Set<ViolationKey> result = violationRepository.findExistingViolations(
+                newArrayList(existing, otherInstance, otherType, unknown));
+
+        assertThat(result).containsOnly(existing);
+        assertThat(violationRepository.findExistingViolations(emptySet())).isEmpty();
+    }
+
+    @Test
+    public void testViolationExists() throws Exception {
+        assertThat(violationRepository.violationExists("acc1", "germany-east-1", "run01", "i-1234", "SOMETHING_WENT_WRONG")).isTrue();
+        assertThat(violationRepository.violationExists("acc1", "germany-east-1", "run01", "i-5678", "SOMETHING_WENT_WRONG")).isFalse();
+    }
+
+    @Test
+    public void testInsertIfAbsent() throws Exception {
+        final ViolationEntity duplicate = new ViolationEntity("run01", "acc1", "germany-east-1", "i-1234", null, null, null, null, null, null);
+        duplicate.setViolationTypeEntity(vio1.getViolationTypeEntity());
+        final ViolationEntity fresh = new ViolationEntity("run06", "acc1", "germany-east-1", "i-1234", singletonMap("foo", "bar"), null, null, null, null, null);
+        fresh.setViolationTypeEntity(vio1.getViolationTypeEntity());
+
+        assertThat(violationRepository.insertIfAbsent(duplicate)).isFalse();
+        assertThat(violationRepository.insertIfAbsent(fresh)).isTrue();
+        assertThat(violationRepository.insertIfAbsent(fresh)).isFalse();
+        assertThat(violationRepository.violationExists("acc1", "germany-east-1", "run06", "i-1234", "SOMETHING_WENT_WRONG")).isTrue();
+    }
+
+    @Test
+    public void testInsertIfAbsentWithoutRegion() throws Exception {
+        final ViolationEntity withoutRegion = new ViolationEntity("run07", "acc1", null, "i-1234", null, null, null, null, null, null);
+        withoutRegion.setViolationTypeEntity(vio1.getViolationTypeEntity());
+        final ViolationEntity duplicate = new ViolationEntity("run07", "acc1", null, "i-1234", null, null, null, null, null, null);
+        duplicate.setViolationTypeEntity(vio1.getViolationTypeEntity());
+
+        assertThat(violationRepository.insertIfAbsent(withoutRegion)).isTrue();
+        assertThat(violationRepository.insertIfAbsent(duplicate)).isFalse();
+        assertThat(violationRepository.violationExists("acc1", null, "run07", "i-1234", "SOMETHING_WENT_WRONG")).isTrue();
+    }
+
     @Test
     public void testGetAllPage2() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(null, null, null, null, true, null, null, null, null, false, null, null, new PageRequest(1, 1, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -121,7 +241,7 @@ public class ViolationRepositoryTest {
 
     @Test
     public void testGetByAccounts() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(newArrayList("acc2", "acc3"), null, null, null, false, null, null, null, null, false, null, null, new PageRequest(0, 3, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -135,7 +255,7 @@ public class ViolationRepositoryTest {
 
     @Test
     public void testGetViolationsSince1() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(null, vio4.getCreated().plusSeconds(1), null, null, true, null, null, null, null, false, null, null, new PageRequest(0, 3, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -147,7 +267,7 @@ public class ViolationRepositoryTest {
 
     @Test
     public void testGetViolationsSince2() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(null, vio2.getCreated(), null, null, false, null, null, null, null, false, null, null, new PageRequest(0, 3, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -160,7 +280,7 @@ public class ViolationRepositoryTest {
 
     @Test
     public void testGetViolationsBeginningFrom() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(null, null, null, vio3.getId(), false, null, null, null, null, false, null, null, new PageRequest(0, 3, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -173,7 +293,7 @@ public class ViolationRepositoryTest {
 
     @Test
     public void testGetCheckedViolations() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(null, null, null, null, true, null, null, null, null, false, null, null, new PageRequest(0, 3, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -186,7 +306,7 @@ public class ViolationRepositoryTest {
 
     @Test
     public void testGetUncheckedViolations() throws Exception {
-        final Page<ViolationEntity> result = violationRepository
+        final Page<ViolationRow> result = violationRepository
                 .queryViolations(null, null, null, null, false, null, null, null, null, false, null, null, new PageRequest(0, 3, ASC, "id"));
 
         assertThat(result).isNotNull();
@@ -220,7 +340,7 @@ public class ViolationRepositoryTest {
     @Test
     public void testGetByTypes() {
         final ArrayList<String> types = newArrayList("SOMETHING_WENT_WRONG", "YOU_SCREWED_UP");
-        final Page<ViolationEntity> result = violationRepository.queryViolations(null, null, null, null, false, null, null, null, types, false, null, null, new PageRequest(0, 2, ASC, "id"));
+        final Page<ViolationRow> result = violationRepository.queryViolations(null, null, null, null, false, null, null, null, types, false, null, null, new PageRequest(0, 2, ASC, "id"));
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(2);
     }
@@ -0,0 +1,71 @@
+package org.zalando.stups.fullstop.violation.repository.impl;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.util.Optional.empty;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DayRangeTest {
+
+    private static final DateTimeZone ZONE = DateTimeZone.forID("Europe/Berlin");
+
+    @Test
+    public void testUnbounded() throws Exception {
+        final DayRange range = new DayRange(empty(), empty(), ZONE, true);
+
+        assertThat(range.hasWholeDays()).isTrue();
+        assertThat(range.getFirstDay()).isEmpty();
+        assertThat(range.getEndDay()).isEmpty();
+        assertThat(range.getHeadStart()).isEmpty();
+        assertThat(range.getTailStart()).isEmpty();
+    }
+
+    @Test
+    public void testPartialFirstAndLastDay() throws Exception {
+        final DateTime from = new DateTime(2017, 3, 1, 10, 30, ZONE);
+        final DateTime to = new DateTime(2017, 3, 5, 8, 0, ZONE);
+        final DayRange range = new DayRange(Optional.of(from), Optional.of(to), ZONE, true);
+
+        assertThat(range.hasWholeDays()).isTrue();
+        assertThat(range.getFirstDay()).contains(new LocalDate(2017, 3, 2));
+        assertThat(range.getEndDay()).contains(new LocalDate(2017, 3, 5));
+        assertThat(range.getHeadStart()).contains(from);
+        assertThat(range.getHeadEnd()).contains(new DateTime(2017, 3, 2, 0, 0, ZONE));
+        assertThat(range.getTailStart()).contains(new DateTime(2017, 3, 5, 0, 0, ZONE));
+        assertThat(range.getTailEnd()).contains(to);
+    }
+
+    @Test
+    public void testRangeStartingAtMidnightHasNoHead() throws Exception {
+        final DateTime from = new DateTime(2017, 3, 1, 0, 0, ZONE);
+        final DayRange range = new DayRange(Optional.of(from.withZone(DateTimeZone.UTC)), empty(), ZONE, true);
+
+        assertThat(range.getFirstDay()).contains(new LocalDate(2017, 3, 1));
+        assertThat(range.getHeadStart()).isEmpty();
+        assertThat(range.getHeadEnd()).isEmpty();
+    }
+
+    @Test
+    public void testExclusiveRangeStartingAtMidnightHasHead() throws Exception {
+        final DateTime from = new DateTime(2017, 3, 1, 0, 0, ZONE);
+        final DayRange range = new DayRange(Optional.of(from), empty(), ZONE, false);
+
+        assertThat(range.getFirstDay()).contains(new LocalDate(2017, 3, 2));
+        assertThat(range.getHeadStart()).contains(from);
+        assertThat(range.getHeadEnd()).contains(new DateTime(2017, 3, 2, 0, 0, ZONE));
+    }
+
+    @Test
+    public void testRangeWithinOneDay() throws Exception {
+        final DayRange range = new DayRange(
+                Optional.of(new DateTime(2017, 3, 1, 10, 0, ZONE)),
+                Optional.of(new DateTime(2017, 3, 1, 12, 0, ZONE)), ZONE, true);
+
+        assertThat(range.hasWholeDays()).isFalse();
+    }
+}
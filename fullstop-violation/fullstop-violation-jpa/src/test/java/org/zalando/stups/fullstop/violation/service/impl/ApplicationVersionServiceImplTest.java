@@ -94,6 +94,20 @@ public class ApplicationVersionServiceImplTest {
         verify(applicationRepositoryMock).save(any(ApplicationEntity.class));
     }
 
+    @Test
+    public void testExistingStackIsNotSaved() throws Exception {
+        applicationEntity.setVersionEntities(newArrayList(versionEntity));
+        when(versionRepositoryMock.findByName(anyString())).thenReturn(versionEntity);
+        when(applicationRepositoryMock.findByName(anyString())).thenReturn(applicationEntity);
+
+        final Stack stack = applicationVersionService.saveStack(MY_APP_1, SNAPSHOT);
+        assertThat(stack.getApplicationEntity()).isSameAs(applicationEntity);
+        assertThat(stack.getVersionEntity()).isSameAs(versionEntity);
+
+        verify(versionRepositoryMock).findByName(anyString());
+        verify(applicationRepositoryMock).findByName(anyString());
+    }
+
     @Test
     public void testNullVersion() throws Exception {
         when(applicationRepositoryMock.findByName(anyString())).thenReturn(null);
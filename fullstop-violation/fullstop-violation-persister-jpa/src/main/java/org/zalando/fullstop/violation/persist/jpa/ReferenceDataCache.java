@@ -0,0 +1,98 @@
+package org.zalando.fullstop.violation.persist.jpa;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.zalando.stups.fullstop.violation.entity.Stack;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
+import org.zalando.stups.fullstop.violation.service.ApplicationVersionService;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Violation types and application/version stacks referenced by violations, looked up or created on first use only.
+ * The cached entities are detached, violations only take their ids. Entries expire after a while, and all of them
+ * are dropped by {@link #invalidateAll()}, e.g. when a transaction that created one of them was rolled back.
+ */
+class ReferenceDataCache {
+
+    private final ViolationTypeRepository violationTypeRepository;
+
+    private final LoadingCache<String, ViolationTypeEntity> violationTypes;
+
+    private final LoadingCache<List<String>, Stack> stacks;
+
+    ReferenceDataCache(final ViolationTypeRepository violationTypeRepository,
+                       final ApplicationVersionService applicationVersionService,
+                       final long maximumSize, final long expireAfterMinutes) {
+        this.violationTypeRepository = violationTypeRepository;
+        this.violationTypes = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterMinutes, MINUTES)
+                .recordStats()
+                .build(new CacheLoader<String, ViolationTypeEntity>() {
+                    @Override
+                    public ViolationTypeEntity load(@Nonnull final String violationTypeId) throws Exception {
+                        return findOrCreateViolationType(violationTypeId);
+                    }
+                });
+        this.stacks = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterMinutes, MINUTES)
+                .recordStats()
+                .build(new CacheLoader<List<String>, Stack>() {
+                    @Override
+                    public Stack load(@Nonnull final List<String> applicationAndVersion) throws Exception {
+                        return applicationVersionService.saveStack(applicationAndVersion.get(0), applicationAndVersion.get(1));
+                    }
+                });
+    }
+
+    ViolationTypeEntity getViolationType(final String violationTypeId) {
+        return violationTypes.getUnchecked(violationTypeId);
+    }
+
+    Stack getStack(final String applicationId, final String applicationVersion) {
+        return stacks.getUnchecked(Arrays.asList(applicationId, applicationVersion));
+    }
+
+    void invalidateAll() {
+        violationTypes.invalidateAll();
+        stacks.invalidateAll();
+    }
+
+    /**
+     * @return the share of violation type lookups served from memory, 1 if there were none
+     */
+    double violationTypeHitRate() {
+        return violationTypes.stats().hitRate();
+    }
+
+    /**
+     * @return the share of stack lookups served from memory, 1 if there were none
+     */
+    double stackHitRate() {
+        return stacks.stats().hitRate();
+    }
+
+    private ViolationTypeEntity findOrCreateViolationType(final String violationTypeId) {
+        final ViolationTypeEntity violationTypeEntity = violationTypeRepository.findOne(violationTypeId);
+
+        if (violationTypeEntity != null) {
+            return violationTypeEntity;
+        }
+
+        final ViolationTypeEntity vte = new ViolationTypeEntity();
+        vte.setId(violationTypeId);
+        vte.setViolationSeverity(0);
+        vte.setIsAuditRelevant(false);
+        vte.setHelpText("This is only a default message");
+
+        return violationTypeRepository.save(vte);
+    }
+}
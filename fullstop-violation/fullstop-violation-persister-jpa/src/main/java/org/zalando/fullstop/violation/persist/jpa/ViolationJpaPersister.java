@@ -3,10 +3,13 @@ package org.zalando.fullstop.violation.persist.jpa;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.zalando.fullstop.violation.persist.jpa.config.ViolationJpaPersisterProperties;
 import org.zalando.stups.fullstop.violation.Violation;
 import org.zalando.stups.fullstop.violation.entity.Stack;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
-import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
 import org.zalando.stups.fullstop.violation.reactor.EventBusViolationHandler;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
 import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
@@ -14,7 +17,36 @@ import org.zalando.stups.fullstop.violation.service.ApplicationVersionService;
 import org.zalando.stups.fullstop.whitelist.WhitelistRules;
 import reactor.bus.EventBus;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Persists violations in micro-batches. Violations are handed over from the event bus to a single flushing thread,
+ * which writes a batch once it is full or its first violation waited for the flush interval. Every batch is checked
+ * for existing violations with one query and inserted in one transaction. If the transaction fails, e.g. because
+ * another instance inserted one of the violations meanwhile, the violations of the batch are inserted one by one,
+ * skipping those that exist by now.
+ * <p>
+ * The hand-over queue holds at most two batches, so a slow database blocks the event bus and in turn CloudTrail
+ * processing, as without batching. Once stopping, no more violations are handed over: those still arriving are
+ * persisted by the thread delivering them, and those the flusher left behind by the thread stopping the persister.
+ * <p>
+ * Publishes the size of every batch as {@code histogram.violations.persisted.jpa.batchSize} and the time to write it
+ * as {@code timer.violations.persisted.jpa.flush}.
+ * <p>
+ * Violation types and application/version stacks are kept in memory, so violations of known applications take no
+ * lookups. The share of lookups served from memory is published as
+ * {@code violations.persisted.jpa.cache.violationTypes.hitRate} and {@code violations.persisted.jpa.cache.stacks.hitRate}.
+ */
 public class ViolationJpaPersister extends EventBusViolationHandler {
 
     private static final String VIOLATIONS_EVENTBUS_QUEUED = "violations.eventbus.queued";
@@ -25,24 +57,51 @@ public class ViolationJpaPersister extends EventBusViolationHandler {
 
     private final ViolationRepository violationRepository;
 
-    private final ViolationTypeRepository violationTypeRepository;
-
     private final CounterService counterService;
 
+    private final GaugeService gaugeService;
+
     private final WhitelistRules whitelistRules;
 
-    private final ApplicationVersionService applicationVersionService;
+    private final ReferenceDataCache referenceData;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final BlockingQueue<Violation> pending;
+
+    /**
+     * Held for reading while handing over a violation, and for writing to stop accepting them.
+     */
+    private final ReadWriteLock handOver = new ReentrantReadWriteLock();
+
+    private boolean accepting;
+
+    private volatile boolean flushing;
+
+    private Thread flusher;
 
     public ViolationJpaPersister(final EventBus eventBus, final ViolationRepository violationRepository,
                                  final ViolationTypeRepository violationTypeRepository,
-                                 final CounterService counterService, final WhitelistRules whitelistRules,
-                                 final ApplicationVersionService applicationVersionService) {
+                                 final CounterService counterService, final GaugeService gaugeService,
+                                 final WhitelistRules whitelistRules,
+                                 final ApplicationVersionService applicationVersionService,
+                                 final TransactionTemplate transactionTemplate,
+                                 final ViolationJpaPersisterProperties properties) {
         super(eventBus);
         this.violationRepository = violationRepository;
-        this.violationTypeRepository = violationTypeRepository;
         this.counterService = counterService;
+        this.gaugeService = gaugeService;
         this.whitelistRules = whitelistRules;
-        this.applicationVersionService = applicationVersionService;
+        this.referenceData = new ReferenceDataCache(violationTypeRepository, applicationVersionService,
+                properties.getReferenceCacheSize(), properties.getReferenceCacheExpireMinutes());
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getFlushIntervalMillis()));
+        this.pending = new ArrayBlockingQueue<>(batchSize * 2);
     }
 
     protected ViolationEntity buildViolationEntity(final Violation violation) {
@@ -52,7 +111,7 @@ public class ViolationJpaPersister extends EventBusViolationHandler {
             return null;
         }
 
-        final Stack stack = applicationVersionService.saveStack(violation.getApplicationId(), violation.getApplicationVersion());
+        final Stack stack = referenceData.getStack(violation.getApplicationId(), violation.getApplicationVersion());
 
         final String violationTypeId = violation.getViolationType();
 
@@ -67,21 +126,7 @@ public class ViolationJpaPersister extends EventBusViolationHandler {
 
         entity.setUsername(violation.getUsername());
 
-        final ViolationTypeEntity violationTypeEntity = violationTypeRepository.findOne(violationTypeId);
-
-        if (violationTypeEntity != null) {
-            entity.setViolationTypeEntity(violationTypeEntity);
-        } else {
-            final ViolationTypeEntity vte = new ViolationTypeEntity();
-            vte.setId(violationTypeId);
-            vte.setViolationSeverity(0);
-            vte.setIsAuditRelevant(false);
-            vte.setHelpText("This is only a default message");
-
-            final ViolationTypeEntity savedViolationTypeEntity = violationTypeRepository.save(vte);
-
-            entity.setViolationTypeEntity(savedViolationTypeEntity);
-        }
+        entity.setViolationTypeEntity(referenceData.getViolationType(violationTypeId));
 
         entity.setMetaInfo(violation.getMetaInfo());
 
@@ -96,13 +141,192 @@ public class ViolationJpaPersister extends EventBusViolationHandler {
     public void handleViolation(final Violation violation) {
         this.counterService.decrement(VIOLATIONS_EVENTBUS_QUEUED);
 
-        if (violationRepository.violationExists(violation.getAccountId(), violation.getRegion(), violation.getEventId(), violation.getInstanceId(), violation.getViolationType())) {
+        if (violation == null || violation.getViolationType() == null) {
+            log.warn("Violation/Violation-Type must not be null!");
+            return;
+        }
+
+        try {
+            while (true) {
+                handOver.readLock().lock();
+                try {
+                    if (!accepting) {
+                        break;
+                    }
+                    // waits in rounds, so that stopping does not wait for a full queue
+                    if (pending.offer(violation, flushIntervalNanos, TimeUnit.NANOSECONDS)) {
+                        return;
+                    }
+                } finally {
+                    handOver.readLock().unlock();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted, violation {} is lost", violation);
+            return;
+        }
+
+        persistBatch(Collections.singletonList(violation));
+    }
+
+    /**
+     * Persists the violations not persisted before in one transaction.
+     */
+    void persistBatch(final List<Violation> batch) {
+        final long start = System.nanoTime();
+        try {
+            transactionTemplate.execute(status -> {
+                persist(batch);
+                return null;
+            });
+        } catch (final RuntimeException e) {
+            log.warn("Could not persist batch of {} violations, persisting them one by one: {}", batch.size(),
+                    e.getMessage());
+            // a violation type created by the failed transaction does not exist
+            referenceData.invalidateAll();
+            for (final Violation violation : batch) {
+                try {
+                    transactionTemplate.execute(status -> insertIfAbsent(violation));
+                } catch (final RuntimeException single) {
+                    log.error("Could not persist violation " + violation, single);
+                    referenceData.invalidateAll();
+                }
+            }
+        }
+
+        gaugeService.submit("histogram." + VIOLATIONS_PERSISTED_JPA + ".batchSize", batch.size());
+        gaugeService.submit("timer." + VIOLATIONS_PERSISTED_JPA + ".flush",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        gaugeService.submit(VIOLATIONS_PERSISTED_JPA + ".cache.violationTypes.hitRate", referenceData.violationTypeHitRate());
+        gaugeService.submit(VIOLATIONS_PERSISTED_JPA + ".cache.stacks.hitRate", referenceData.stackHitRate());
+        for (int i = 0; i < batch.size(); i++) {
+            this.counterService.increment(VIOLATIONS_PERSISTED_JPA);
+        }
+    }
+
+    private void persist(final List<Violation> batch) {
+        // first one wins, if the same violation was reported twice
+        final Map<ViolationKey, Violation> byKey = new LinkedHashMap<>();
+        for (final Violation violation : batch) {
+            byKey.putIfAbsent(keyOf(violation), violation);
+        }
+
+        final Set<ViolationKey> existing = violationRepository.findExistingViolations(byKey.keySet());
+        final List<ViolationEntity> entities = new ArrayList<>(byKey.size());
+        for (final Map.Entry<ViolationKey, Violation> entry : byKey.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                log.debug("Violation {} does already exist", entry.getValue());
+                continue;
+            }
+            final ViolationEntity entity = buildViolationEntity(entry.getValue());
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+
+        if (!entities.isEmpty()) {
+            violationRepository.save(entities);
+            violationRepository.flush();
+        }
+    }
+
+    private boolean insertIfAbsent(final Violation violation) {
+        final ViolationEntity entity = buildViolationEntity(violation);
+        if (entity == null) {
+            return false;
+        }
+
+        final boolean inserted = violationRepository.insertIfAbsent(entity);
+        if (!inserted) {
             log.debug("Violation {} does already exist", violation);
-        } else {
-            violationRepository.saveAndFlush(buildViolationEntity(violation));
+        }
+        return inserted;
+    }
+
+    private static ViolationKey keyOf(final Violation violation) {
+        return new ViolationKey(violation.getAccountId(), violation.getRegion(), violation.getEventId(),
+                violation.getInstanceId(), violation.getViolationType());
+    }
+
+    private void flushContinuously() {
+        final List<Violation> batch = new ArrayList<>(batchSize);
+        while (flushing || !pending.isEmpty()) {
+            try {
+                final Violation first = pending.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                final long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (pending.drainTo(batch, batchSize - batch.size()) == 0) {
+                        final long remaining = deadline - System.nanoTime();
+                        final Violation next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.drainTo(batch);
+                flushing = false;
+            }
+
+            if (!batch.isEmpty()) {
+                persistBatch(new ArrayList<>(batch));
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        flushing = true;
+        setAccepting(true);
+        flusher = new Thread(this::flushContinuously, "violation-persister");
+        flusher.setDaemon(true);
+        flusher.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isRunning()) {
+            return;
+        }
+
+        super.stop();
+        // waits for violations being handed over, none are queued after this
+        setAccepting(false);
+        // the flusher persists the pending violations before it ends
+        flushing = false;
+        try {
+            flusher.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 30_000);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
-        this.counterService.increment(VIOLATIONS_PERSISTED_JPA);
+        final List<Violation> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            log.info("Persisting {} violations left by the flusher", batch.size());
+            persistBatch(new ArrayList<>(batch));
+            batch.clear();
+        }
     }
 
+    private void setAccepting(final boolean accepting) {
+        handOver.writeLock().lock();
+        try {
+            this.accepting = accepting;
+        } finally {
+            handOver.writeLock().unlock();
+        }
+    }
 }
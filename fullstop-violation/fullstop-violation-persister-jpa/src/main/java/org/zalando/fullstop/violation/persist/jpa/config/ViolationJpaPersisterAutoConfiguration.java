@@ -2,10 +2,14 @@ package org.zalando.fullstop.violation.persist.jpa.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.zalando.fullstop.violation.persist.jpa.ViolationJpaPersister;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
 import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
@@ -21,6 +25,7 @@ import reactor.bus.EventBus;
 @Configuration
 @EnableJpaRepositories("org.zalando.stups.fullstop.violation.repository")
 @EnableSpringDataWebSupport
+@EnableConfigurationProperties(ViolationJpaPersisterProperties.class)
 public class ViolationJpaPersisterAutoConfiguration {
 
     @Autowired
@@ -35,15 +40,25 @@ public class ViolationJpaPersisterAutoConfiguration {
     @Autowired
     private CounterService counterService;
 
+    @Autowired
+    private GaugeService gaugeService;
+
     @Autowired
     private WhitelistRules whitelistRules;
 
     @Autowired
     private ApplicationVersionService applicationVersionService;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ViolationJpaPersisterProperties properties;
+
     @Bean
     public ViolationJpaPersister violationJpaPersister() {
         return new ViolationJpaPersister(eventBus, violationRepository, violationTypeRepository, counterService,
-                whitelistRules, applicationVersionService);
+                gaugeService, whitelistRules, applicationVersionService, new TransactionTemplate(transactionManager),
+                properties);
     }
 }
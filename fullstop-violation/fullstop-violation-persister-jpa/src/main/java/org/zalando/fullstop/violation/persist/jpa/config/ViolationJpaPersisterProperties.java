@@ -0,0 +1,62 @@
+package org.zalando.fullstop.violation.persist.jpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Micro-batches written by the {@link org.zalando.fullstop.violation.persist.jpa.ViolationJpaPersister}.
+ */
+@ConfigurationProperties(prefix = "fullstop.violation-persister")
+public class ViolationJpaPersisterProperties {
+
+    /**
+     * Violations persisted in one transaction at most.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Time a violation waits at most for its batch to fill up.
+     */
+    private long flushIntervalMillis = 500;
+
+    /**
+     * Violation types and application/version stacks kept in memory at most, each.
+     */
+    private long referenceCacheSize = 10_000;
+
+    /**
+     * Time a violation type or stack is kept in memory, before it is looked up again.
+     */
+    private long referenceCacheExpireMinutes = 60;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(final long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public long getReferenceCacheSize() {
+        return referenceCacheSize;
+    }
+
+    public void setReferenceCacheSize(final long referenceCacheSize) {
+        this.referenceCacheSize = referenceCacheSize;
+    }
+
+    public long getReferenceCacheExpireMinutes() {
+        return referenceCacheExpireMinutes;
+    }
+
+    public void setReferenceCacheExpireMinutes(final long referenceCacheExpireMinutes) {
+        this.referenceCacheExpireMinutes = referenceCacheExpireMinutes;
+    }
+}
@@ -0,0 +1,78 @@
+-- Number of violations by account, type, application, version, day of creation and status, so that the
+-- violation counts do not need to group the whole violation table. Maintained by the triggers below.
+CREATE TABLE fullstop_data.violation_count (
+  account_id               TEXT,
+  violation_type_entity_id TEXT   NOT NULL,
+  application_id           BIGINT,
+  application_version_id   BIGINT,
+  day                      DATE   NOT NULL,
+  status                   TEXT   NOT NULL,
+  quantity                 BIGINT NOT NULL
+);
+
+CREATE UNIQUE INDEX violation_count_key ON fullstop_data.violation_count (
+  COALESCE(account_id, ''), violation_type_entity_id, COALESCE(application_id, 0),
+  COALESCE(application_version_id, 0), day, status);
+
+CREATE FUNCTION fullstop_data.violation_status(comment TEXT, rule_entity_id BIGINT) RETURNS TEXT AS $$
+  SELECT CASE
+           WHEN rule_entity_id IS NOT NULL THEN 'WHITELISTED'
+           WHEN comment IS NOT NULL THEN 'RESOLVED'
+           ELSE 'OPEN'
+         END
+$$ LANGUAGE SQL IMMUTABLE;
+
+CREATE FUNCTION fullstop_data.count_violation(v fullstop_data.violation, delta BIGINT) RETURNS VOID AS $$
+  INSERT INTO fullstop_data.violation_count AS c (account_id, violation_type_entity_id, application_id,
+                                                  application_version_id, day, status, quantity)
+  VALUES (v.account_id, v.violation_type_entity_id, v.application_id, v.application_version_id,
+          COALESCE(v.created, 'epoch') :: DATE, fullstop_data.violation_status(v.comment, v.rule_entity_id), delta)
+  ON CONFLICT (COALESCE(account_id, ''), violation_type_entity_id, COALESCE(application_id, 0),
+               COALESCE(application_version_id, 0), day, status)
+    DO UPDATE SET quantity = c.quantity + EXCLUDED.quantity
+$$ LANGUAGE SQL;
+
+CREATE FUNCTION fullstop_data.maintain_violation_count() RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') THEN
+    PERFORM fullstop_data.count_violation(OLD, -1);
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') THEN
+    PERFORM fullstop_data.count_violation(NEW, 1);
+  END IF;
+  RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER violation_count_insert_delete
+AFTER INSERT OR DELETE ON fullstop_data.violation
+FOR EACH ROW EXECUTE PROCEDURE fullstop_data.maintain_violation_count();
+
+-- JPA updates all columns, only changes of the counted ones move a violation to another count
+CREATE TRIGGER violation_count_update
+AFTER UPDATE ON fullstop_data.violation
+FOR EACH ROW
+WHEN (OLD.account_id IS DISTINCT FROM NEW.account_id
+      OR OLD.violation_type_entity_id IS DISTINCT FROM NEW.violation_type_entity_id
+      OR OLD.application_id IS DISTINCT FROM NEW.application_id
+      OR OLD.application_version_id IS DISTINCT FROM NEW.application_version_id
+      OR OLD.created IS DISTINCT FROM NEW.created
+      OR fullstop_data.violation_status(OLD.comment, OLD.rule_entity_id)
+         IS DISTINCT FROM fullstop_data.violation_status(NEW.comment, NEW.rule_entity_id))
+EXECUTE PROCEDURE fullstop_data.maintain_violation_count();
+
+-- Recounts everything, e.g. after the counts were changed by hand. Blocks writes to the violation table meanwhile,
+-- so no trigger update gets lost.
+CREATE FUNCTION fullstop_data.rebuild_violation_count() RETURNS BIGINT AS $$
+  LOCK TABLE fullstop_data.violation IN SHARE MODE;
+  DELETE FROM fullstop_data.violation_count;
+  INSERT INTO fullstop_data.violation_count (account_id, violation_type_entity_id, application_id,
+                                             application_version_id, day, status, quantity)
+    SELECT account_id, violation_type_entity_id, application_id, application_version_id,
+      COALESCE(created, 'epoch') :: DATE, fullstop_data.violation_status(comment, rule_entity_id), count(*)
+    FROM fullstop_data.violation
+    GROUP BY 1, 2, 3, 4, 5, 6;
+  SELECT count(*) FROM fullstop_data.violation_count;
+$$ LANGUAGE SQL;
+
+SELECT fullstop_data.rebuild_violation_count();
@@ -0,0 +1,73 @@
+-- Changes of the violation counts not folded into fullstop_data.violation_count yet. The triggers append to it
+-- instead of updating the counts within the writing transaction: transactions changing violations of the same
+-- counts in a different order, e.g. a batch of the persister and a bulk whitelisting, deadlocked on the count rows.
+-- Appending locks no shared rows.
+CREATE TABLE fullstop_data.violation_count_delta (
+  account_id               TEXT,
+  violation_type_entity_id TEXT   NOT NULL,
+  application_id           BIGINT,
+  application_version_id   BIGINT,
+  day                      DATE   NOT NULL,
+  status                   TEXT   NOT NULL,
+  quantity                 BIGINT NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION fullstop_data.count_violation(v fullstop_data.violation, delta BIGINT) RETURNS VOID AS $$
+  INSERT INTO fullstop_data.violation_count_delta (account_id, violation_type_entity_id, application_id,
+                                                   application_version_id, day, status, quantity)
+  VALUES (v.account_id, v.violation_type_entity_id, v.application_id, v.application_version_id,
+          COALESCE(v.created, 'epoch') :: DATE, fullstop_data.violation_status(v.comment, v.rule_entity_id), delta)
+$$ LANGUAGE SQL;
+
+-- The counts including the changes not folded yet, to be summed up by key
+CREATE VIEW fullstop_data.violation_count_current AS
+  SELECT account_id, violation_type_entity_id, application_id, application_version_id, day, status, quantity
+  FROM fullstop_data.violation_count
+  UNION ALL
+  SELECT account_id, violation_type_entity_id, application_id, application_version_id, day, status, quantity
+  FROM fullstop_data.violation_count_delta;
+
+-- Adds the changes to the counts, in the order of their keys. Only one fold or rebuild runs at a time, a fold
+-- started meanwhile returns right away.
+CREATE FUNCTION fullstop_data.fold_violation_count() RETURNS BIGINT AS $$
+DECLARE
+  folded BIGINT;
+BEGIN
+  IF NOT pg_try_advisory_xact_lock(hashtext('fullstop_data.violation_count')) THEN
+    RETURN 0;
+  END IF;
+
+  WITH changes AS (
+    DELETE FROM fullstop_data.violation_count_delta
+    RETURNING account_id, violation_type_entity_id, application_id, application_version_id, day, status, quantity
+  )
+  INSERT INTO fullstop_data.violation_count AS c (account_id, violation_type_entity_id, application_id,
+                                                  application_version_id, day, status, quantity)
+    SELECT account_id, violation_type_entity_id, application_id, application_version_id, day, status, sum(quantity)
+    FROM changes
+    GROUP BY 1, 2, 3, 4, 5, 6
+    ORDER BY 1, 2, 3, 4, 5, 6
+  ON CONFLICT (COALESCE(account_id, ''), violation_type_entity_id, COALESCE(application_id, 0),
+               COALESCE(application_version_id, 0), day, status)
+    DO UPDATE SET quantity = c.quantity + EXCLUDED.quantity;
+
+  GET DIAGNOSTICS folded = ROW_COUNT;
+  RETURN folded;
+END
+$$ LANGUAGE plpgsql;
+
+-- Recounts everything, e.g. after the counts were changed by hand. Blocks writes to the violation table meanwhile,
+-- so no change gets lost, and waits for a running fold.
+CREATE OR REPLACE FUNCTION fullstop_data.rebuild_violation_count() RETURNS BIGINT AS $$
+  SELECT pg_advisory_xact_lock(hashtext('fullstop_data.violation_count'));
+  LOCK TABLE fullstop_data.violation IN SHARE MODE;
+  DELETE FROM fullstop_data.violation_count_delta;
+  DELETE FROM fullstop_data.violation_count;
+  INSERT INTO fullstop_data.violation_count (account_id, violation_type_entity_id, application_id,
+                                             application_version_id, day, status, quantity)
+    SELECT account_id, violation_type_entity_id, application_id, application_version_id,
+      COALESCE(created, 'epoch') :: DATE, fullstop_data.violation_status(comment, rule_entity_id), count(*)
+    FROM fullstop_data.violation
+    GROUP BY 1, 2, 3, 4, 5, 6;
+  SELECT count(*) FROM fullstop_data.violation_count;
+$$ LANGUAGE SQL;
@@ -0,0 +1,62 @@
+-- The day a violation is counted for, in UTC. The creation timestamps are stored without time zone, in the local
+-- time of the application, which the JDBC driver passes on as the time zone of the session.
+CREATE FUNCTION fullstop_data.violation_day(created TIMESTAMP) RETURNS DATE AS $$
+  SELECT COALESCE((created :: TIMESTAMPTZ AT TIME ZONE 'UTC') :: DATE, 'epoch')
+$$ LANGUAGE SQL STABLE;
+
+CREATE OR REPLACE FUNCTION fullstop_data.count_violation(v fullstop_data.violation, delta BIGINT) RETURNS VOID AS $$
+  INSERT INTO fullstop_data.violation_count_delta (account_id, violation_type_entity_id, application_id,
+                                                   application_version_id, day, status, quantity)
+  VALUES (v.account_id, v.violation_type_entity_id, v.application_id, v.application_version_id,
+          fullstop_data.violation_day(v.created), fullstop_data.violation_status(v.comment, v.rule_entity_id), delta)
+$$ LANGUAGE SQL;
+
+-- Groups the changes by the key of the counts, so that a NULL and an empty account or a NULL and a zero id do not
+-- end up in two rows updating the same count.
+CREATE OR REPLACE FUNCTION fullstop_data.fold_violation_count() RETURNS BIGINT AS $$
+DECLARE
+  folded BIGINT;
+BEGIN
+  IF NOT pg_try_advisory_xact_lock(hashtext('fullstop_data.violation_count')) THEN
+    RETURN 0;
+  END IF;
+
+  WITH changes AS (
+    DELETE FROM fullstop_data.violation_count_delta
+    RETURNING account_id, violation_type_entity_id, application_id, application_version_id, day, status, quantity
+  )
+  INSERT INTO fullstop_data.violation_count AS c (account_id, violation_type_entity_id, application_id,
+                                                  application_version_id, day, status, quantity)
+    SELECT min(account_id), violation_type_entity_id, min(application_id), min(application_version_id), day, status,
+      sum(quantity)
+    FROM changes
+    GROUP BY COALESCE(account_id, ''), violation_type_entity_id, COALESCE(application_id, 0),
+      COALESCE(application_version_id, 0), day, status
+    ORDER BY COALESCE(account_id, ''), violation_type_entity_id, COALESCE(application_id, 0),
+      COALESCE(application_version_id, 0), day, status
+  ON CONFLICT (COALESCE(account_id, ''), violation_type_entity_id, COALESCE(application_id, 0),
+               COALESCE(application_version_id, 0), day, status)
+    DO UPDATE SET quantity = c.quantity + EXCLUDED.quantity;
+
+  GET DIAGNOSTICS folded = ROW_COUNT;
+  RETURN folded;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fullstop_data.rebuild_violation_count() RETURNS BIGINT AS $$
+  SELECT pg_advisory_xact_lock(hashtext('fullstop_data.violation_count'));
+  LOCK TABLE fullstop_data.violation IN SHARE MODE;
+  DELETE FROM fullstop_data.violation_count_delta;
+  DELETE FROM fullstop_data.violation_count;
+  INSERT INTO fullstop_data.violation_count (account_id, violation_type_entity_id, application_id,
+                                             application_version_id, day, status, quantity)
+    SELECT min(account_id), violation_type_entity_id, min(application_id), min(application_version_id),
+      fullstop_data.violation_day(created), fullstop_data.violation_status(comment, rule_entity_id), count(*)
+    FROM fullstop_data.violation
+    GROUP BY COALESCE(account_id, ''), violation_type_entity_id, COALESCE(application_id, 0),
+      COALESCE(application_version_id, 0), 5, 6;
+  SELECT count(*) FROM fullstop_data.violation_count;
+$$ LANGUAGE SQL;
+
+-- the counts so far are by local day
+SELECT fullstop_data.rebuild_violation_count();
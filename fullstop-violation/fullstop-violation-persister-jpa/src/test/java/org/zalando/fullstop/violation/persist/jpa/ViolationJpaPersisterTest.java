@@ -0,0 +1,227 @@
+package org.zalando.fullstop.violation.persist.jpa;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.zalando.fullstop.violation.persist.jpa.config.ViolationJpaPersisterProperties;
+import org.zalando.stups.fullstop.violation.Violation;
+import org.zalando.stups.fullstop.violation.ViolationBuilder;
+import org.zalando.stups.fullstop.violation.entity.Stack;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
+import org.zalando.stups.fullstop.violation.service.ApplicationVersionService;
+import org.zalando.stups.fullstop.whitelist.WhitelistRules;
+import reactor.bus.EventBus;
+import reactor.bus.registry.Registration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ViolationJpaPersisterTest {
+
+    private EventBus eventBus;
+
+    private ViolationRepository violationRepository;
+
+    private ViolationTypeRepository violationTypeRepository;
+
+    private ApplicationVersionService applicationVersionService;
+
+    private ViolationJpaPersisterProperties properties;
+
+    /**
+     * Accounts of the violations saved, in order
+     */
+    private final List<String> saved = Collections.synchronizedList(new ArrayList<>());
+
+    private ViolationJpaPersister persister;
+
+    @Before
+    public void setUp() {
+        eventBus = mock(EventBus.class);
+        doReturn(mock(Registration.class)).when(eventBus).on(any(), any());
+
+        violationRepository = mock(ViolationRepository.class);
+        when(violationRepository.findExistingViolations(anyCollection())).thenReturn(Collections.emptySet());
+        doAnswer(this::recordSaved).when(violationRepository).save(any(Iterable.class));
+
+        violationTypeRepository = mock(ViolationTypeRepository.class);
+        when(violationTypeRepository.findOne(anyString())).thenReturn(new ViolationTypeEntity("WRONG_AMI"));
+
+        applicationVersionService = mock(ApplicationVersionService.class);
+        when(applicationVersionService.saveStack(anyString(), anyString())).thenReturn(new Stack(null, null));
+
+        properties = new ViolationJpaPersisterProperties();
+    }
+
+    @After
+    public void tearDown() {
+        if (persister != null) {
+            persister.stop();
+        }
+    }
+
+    @Test
+    public void testBatchIsFlushedWhenFull() throws Exception {
+        properties.setBatchSize(3);
+        properties.setFlushIntervalMillis(2000);
+        start();
+
+        persister.handleViolation(violation("1"));
+        persister.handleViolation(violation("2"));
+        persister.handleViolation(violation("3"));
+
+        // well before the flush interval ends
+        verify(violationRepository, timeout(1000)).flush();
+        assertThat(saved).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    public void testBatchIsFlushedAfterInterval() throws Exception {
+        properties.setBatchSize(100);
+        properties.setFlushIntervalMillis(100);
+        start();
+
+        persister.handleViolation(violation("1"));
+        persister.handleViolation(violation("2"));
+
+        verify(violationRepository, timeout(5000)).flush();
+        assertThat(saved).containsExactly("1", "2");
+    }
+
+    @Test
+    public void testFailedBatchIsPersistedOneByOne() throws Exception {
+        persister = persister();
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(violationRepository).save(any(Iterable.class));
+        when(violationRepository.insertIfAbsent(any(ViolationEntity.class)))
+                .thenThrow(new DataIntegrityViolationException("still failing"))
+                .thenReturn(false, true);
+
+        persister.persistBatch(asList(violation("1"), violation("2"), violation("3")));
+
+        verify(violationRepository, times(3)).insertIfAbsent(any(ViolationEntity.class));
+    }
+
+    @Test
+    public void testViolationsLeftByFlusherArePersistedOnStop() throws Exception {
+        properties.setBatchSize(1);
+        properties.setFlushIntervalMillis(50);
+        final CountDownLatch flushing = new CountDownLatch(1);
+        final AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                flushing.countDown();
+                throw new AssertionError("flusher died");
+            }
+            return recordSaved(invocation);
+        }).when(violationRepository).save(any(Iterable.class));
+        start();
+
+        persister.handleViolation(violation("1"));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        persister.handleViolation(violation("2"));
+
+        persister.stop();
+
+        assertThat(saved).containsExactly("2");
+    }
+
+    @Test
+    public void testViolationsHandedOverWhileStoppingArePersisted() throws Exception {
+        properties.setBatchSize(1);
+        properties.setFlushIntervalMillis(50);
+        final CountDownLatch flushing = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                flushing.countDown();
+                released.await();
+            }
+            return recordSaved(invocation);
+        }).when(violationRepository).save(any(Iterable.class));
+        start();
+
+        persister.handleViolation(violation("1"));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        // fills the hand-over queue
+        persister.handleViolation(violation("2"));
+        persister.handleViolation(violation("3"));
+
+        final Thread handingOver = new Thread(() -> persister.handleViolation(violation("4")));
+        handingOver.start();
+        final Thread stopping = new Thread(persister::stop);
+        stopping.start();
+        released.countDown();
+        handingOver.join(5000);
+        stopping.join(5000);
+
+        assertThat(saved).containsOnly("1", "2", "3", "4").hasSize(4);
+    }
+
+    @Test
+    public void testViolationWithoutTypeIsDropped() throws Exception {
+        start();
+
+        persister.handleViolation(new ViolationBuilder().withAccountId("1").build());
+        persister.stop();
+
+        verify(violationRepository, never()).save(any(Iterable.class));
+    }
+
+    private Object recordSaved(final InvocationOnMock invocation) {
+        @SuppressWarnings("unchecked")
+        final Iterable<ViolationEntity> entities = invocation.getArgumentAt(0, Iterable.class);
+        entities.forEach(entity -> saved.add(entity.getAccountId()));
+        return null;
+    }
+
+    private void start() {
+        persister = persister();
+        persister.start();
+    }
+
+    private ViolationJpaPersister persister() {
+        return new ViolationJpaPersister(eventBus, violationRepository, violationTypeRepository,
+                mock(CounterService.class), mock(GaugeService.class), mock(WhitelistRules.class),
+                applicationVersionService, new TransactionTemplate(mock(PlatformTransactionManager.class)), properties);
+    }
+
+    private static Violation violation(final String accountId) {
+        return new ViolationBuilder()
+                .withAccountId(accountId)
+                .withRegion("eu-west-1")
+                .withEventId("event-" + accountId)
+                .withType("WRONG_AMI")
+                .withApplicationId("app")
+                .withApplicationVersion("1.0")
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package org.zalando.stups.fullstop.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.*;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,23 +19,44 @@ import org.zalando.stups.fullstop.teams.Account;
 import org.zalando.stups.fullstop.teams.TeamOperations;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
+import org.zalando.stups.fullstop.web.api.BadRequestException;
 import org.zalando.stups.fullstop.web.api.ForbiddenException;
 import org.zalando.stups.fullstop.web.api.NotFoundException;
+import org.zalando.stups.fullstop.web.converter.ViolationRowToDtoConverter;
+import org.zalando.stups.fullstop.web.export.ViolationExportFormat;
+import org.zalando.stups.fullstop.web.export.ViolationWriter;
 import org.zalando.stups.fullstop.web.model.CreateViolation;
 import org.zalando.stups.fullstop.web.model.Violation;
+import org.zalando.stups.fullstop.web.model.ViolationCursorPage;
+import org.zalando.stups.fullstop.web.model.ViolationType;
 import springfox.documentation.annotations.ApiIgnore;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Base64.getUrlDecoder;
+import static java.util.Base64.getUrlEncoder;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static org.springframework.data.domain.Sort.Direction.ASC;
 import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
@@ -43,6 +65,12 @@ import static org.springframework.web.bind.annotation.RequestMethod.POST;
 @RequestMapping(value = "/api/violations", produces = APPLICATION_JSON_VALUE)
 @Api(value = "/api/violations", description = "the violations API")
 public class ViolationsController {
+
+    /**
+     * Same as the limit of {@link Pageable} parameters.
+     */
+    private static final int MAX_PAGE_SIZE = 2000;
+
     @Autowired
     private ViolationSink violationSink;
 
@@ -55,6 +83,15 @@ public class ViolationsController {
     @Autowired
     private Converter<ViolationEntity, Violation> entityToDto;
 
+    @Autowired
+    private ViolationTypeRepository violationTypeRepository;
+
+    @Autowired
+    private Converter<ViolationTypeEntity, ViolationType> violationTypeToDto;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @ApiOperation(
             value = "violations", notes = "Get one violation", response = Violation.class
     )
@@ -143,19 +180,214 @@ public class ViolationsController {
             to = DateTime.now();
         }
 
-        final List<String> allTypes = newArrayList();
-        if (types != null && !types.isEmpty()) {
-            types.stream().filter(Objects::nonNull).forEach(allTypes::add);
+        return mapBackendToFrontendViolations(
+                violationService.queryViolations(
+                        accounts, from, to, lastViolation,
+                        checked, severity, priority, auditRelevant, allTypes(type, types), whitelisted, applicationIds, applicationVersionIds, pageable));
+    }
+
+    @ApiOperation(
+            value = "violations", notes = "Get violations page by page, ordered by id. Unlike the paged listing, the " +
+            "cost of a page does not depend on its depth.", response = ViolationCursorPage.class
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of violations"),
+            @ApiResponse(code = 400, message = "Invalid cursor or size")})
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "from", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened after this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\""),
+            @ApiImplicitParam(name = "to", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened up to this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\"")
+    })
+    @RequestMapping(method = GET, params = "cursor")
+    public ViolationCursorPage violationsByCursor(
+            @ApiParam(value = "next_cursor of the previous page, empty for the first page")
+            @RequestParam(value = "cursor")
+            final String cursor,
+            @ApiParam(value = "Number of records per page.")
+            @RequestParam(value = "size", required = false, defaultValue = "10")
+            final int size,
+            @ApiParam(value = "Count all matching violations, which is costly for large results")
+            @RequestParam(value = "include-total", required = false, defaultValue = "false")
+            final boolean includeTotal,
+            @ApiParam(value = "Include only violations in these accounts")
+            @RequestParam(value = "accounts", required = false)
+            final List<String> accounts,
+            @ApiIgnore
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime from,
+            @ApiIgnore
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime to,
+            @ApiParam(value = "Include only violations where checked field equals this value (i.e. resolved violations)")
+            @RequestParam(value = "checked", required = false, defaultValue = "false")
+            final boolean checked,
+            @ApiParam(value = "Include only violations with a certain severity")
+            @RequestParam(value = "severity", required = false)
+            final Integer severity,
+            @ApiParam(value = "Include only violations with a certain priority")
+            @RequestParam(value = "priority", required = false)
+            final Integer priority,
+            @ApiParam(value = "Include only violations that are audit relevant")
+            @RequestParam(value = "audit-relevant", required = false)
+            final Boolean auditRelevant,
+            @ApiParam(value = "Include only violations with a certain type")
+            @RequestParam(value = "type", required = false)
+            final String type,
+            @ApiParam(value = "Include only violations with a certain types")
+            @RequestParam(value = "types", required = false)
+            final List<String> types,
+            @ApiParam(value = "Include only violations with a certain application name")
+            @RequestParam(value = "application-ids", required = false)
+            final List<String> applicationIds,
+            @ApiParam(value = "Include only violations with a certain application version")
+            @RequestParam(value = "application-version-ids", required = false)
+            final List<String> applicationVersionIds,
+            @ApiParam(value = "show also whitelisted vioaltions")
+            @RequestParam(value = "whitelisted", required = false, defaultValue = "false")
+            final boolean whitelisted) throws BadRequestException {
+
+        if (size < 1) {
+            throw new BadRequestException("Page size must be positive, but was " + size);
         }
 
-        if (type != null) {
-            allTypes.add(type);
+        if (from == null) {
+            from = new DateTime(0);
         }
 
-        return mapBackendToFrontendViolations(
-                violationService.queryViolations(
-                        accounts, from, to, lastViolation,
-                        checked, severity, priority, auditRelevant, allTypes, whitelisted, applicationIds, applicationVersionIds, pageable));
+        if (to == null) {
+            to = DateTime.now();
+        }
+
+        final List<String> allTypes = allTypes(type, types);
+        final int limit = Math.min(size, MAX_PAGE_SIZE);
+
+        // one more than requested tells whether there is a next page
+        final List<ViolationRow> violations = violationService.queryViolationsAfter(
+                accounts, from, to, checked, severity, priority, auditRelevant, allTypes, whitelisted, applicationIds,
+                applicationVersionIds, decodeCursor(cursor), limit + 1);
+        final boolean hasNext = violations.size() > limit;
+        final List<ViolationRow> content = hasNext ? violations.subList(0, limit) : violations;
+
+        final Converter<ViolationRow, Violation> rowToDto = rowToDto();
+        final ViolationCursorPage page = new ViolationCursorPage();
+        page.setContent(content.stream().map(rowToDto::convert).collect(toList()));
+        page.setNextCursor(hasNext ? encodeCursor(content.get(limit - 1).getId()) : null);
+        if (includeTotal) {
+            page.setTotalElements(violationService.countViolations(accounts, from, to, checked, severity, priority,
+                    auditRelevant, allTypes, whitelisted, applicationIds, applicationVersionIds));
+        }
+        return page;
+    }
+
+    @ApiOperation(
+            value = "violations", notes = "Export all violations matching the filters, ordered by id. The " +
+            "violations are streamed from the database as they are written, so there is no limit on their number."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Violations as NDJSON or CSV"),
+            @ApiResponse(code = 400, message = "Unknown format")})
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "from", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened after this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\""),
+            @ApiImplicitParam(name = "to", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened up to this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\"")
+    })
+    @RequestMapping(value = "/export", method = GET, produces = {"application/x-ndjson", "text/csv"})
+    public void exportViolations(
+            @ApiParam(value = "ndjson (one JSON violation per line) or csv")
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson")
+            final String format,
+            @ApiParam(value = "Compress the response with gzip")
+            @RequestParam(value = "gzip", required = false, defaultValue = "false")
+            final boolean gzip,
+            @ApiParam(value = "Include only violations in these accounts")
+            @RequestParam(value = "accounts", required = false)
+            final List<String> accounts,
+            @ApiIgnore
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime from,
+            @ApiIgnore
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime to,
+            @ApiParam(value = "Include only violations starting with the one with this id")
+            @RequestParam(value = "last-violation", required = false)
+            final Long lastViolation,
+            @ApiParam(value = "Include only violations where checked field equals this value (i.e. resolved violations)")
+            @RequestParam(value = "checked", required = false, defaultValue = "false")
+            final boolean checked,
+            @ApiParam(value = "Include only violations with a certain severity")
+            @RequestParam(value = "severity", required = false)
+            final Integer severity,
+            @ApiParam(value = "Include only violations with a certain priority")
+            @RequestParam(value = "priority", required = false)
+            final Integer priority,
+            @ApiParam(value = "Include only violations that are audit relevant")
+            @RequestParam(value = "audit-relevant", required = false)
+            final Boolean auditRelevant,
+            @ApiParam(value = "Include only violations with a certain type")
+            @RequestParam(value = "type", required = false)
+            final String type,
+            @ApiParam(value = "Include only violations with a certain types")
+            @RequestParam(value = "types", required = false)
+            final List<String> types,
+            @ApiParam(value = "Include only violations with a certain application name")
+            @RequestParam(value = "application-ids", required = false)
+            final List<String> applicationIds,
+            @ApiParam(value = "Include only violations with a certain application version")
+            @RequestParam(value = "application-version-ids", required = false)
+            final List<String> applicationVersionIds,
+            @ApiParam(value = "show also whitelisted vioaltions")
+            @RequestParam(value = "whitelisted", required = false, defaultValue = "false")
+            final boolean whitelisted,
+            @ApiIgnore final HttpServletResponse response) throws BadRequestException, IOException {
+
+        final ViolationExportFormat exportFormat;
+        try {
+            exportFormat = ViolationExportFormat.valueOf(format.toUpperCase(Locale.ENGLISH));
+        } catch (final IllegalArgumentException e) {
+            throw new BadRequestException("Unknown export format: " + format);
+        }
+
+        if (from == null) {
+            from = new DateTime(0);
+        }
+
+        if (to == null) {
+            to = DateTime.now();
+        }
+
+        final Converter<ViolationRow, Violation> rowToDto = rowToDto();
+
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(CONTENT_DISPOSITION, "attachment; filename=\"violations." + exportFormat.getFileExtension() + "\"");
+        if (gzip) {
+            response.setHeader(CONTENT_ENCODING, "gzip");
+        }
+
+        final OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream()) : response.getOutputStream();
+        try (final ViolationWriter writer = exportFormat.open(out, objectMapper)) {
+            violationService.exportViolations(
+                    accounts, from, to, lastViolation,
+                    checked, severity, priority, auditRelevant, allTypes(type, types), whitelisted, applicationIds, applicationVersionIds,
+                    row -> {
+                        try {
+                            writer.write(rowToDto.convert(row));
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     @ApiOperation(
@@ -209,13 +441,53 @@ public class ViolationsController {
         return false;
     }
 
-    private Page<Violation> mapBackendToFrontendViolations(final Page<ViolationEntity> backendViolations) {
+    /**
+     * Loads all violation types at once, there are only a few of them.
+     */
+    private Converter<ViolationRow, Violation> rowToDto() {
+        return new ViolationRowToDtoConverter(violationTypeRepository.findAll().stream()
+                .collect(toMap(ViolationTypeEntity::getId, violationTypeToDto::convert)));
+    }
+
+    private static List<String> allTypes(final String type, final List<String> types) {
+        final List<String> allTypes = newArrayList();
+        if (types != null && !types.isEmpty()) {
+            types.stream().filter(Objects::nonNull).forEach(allTypes::add);
+        }
+
+        if (type != null) {
+            allTypes.add(type);
+        }
+        return allTypes;
+    }
+
+    /**
+     * Cursors are opaque to clients, they only encode the id of the last violation of a page.
+     */
+    private static String encodeCursor(final Long lastViolationId) {
+        return getUrlEncoder().withoutPadding().encodeToString(lastViolationId.toString().getBytes(UTF_8));
+    }
+
+    private static Long decodeCursor(final String cursor) throws BadRequestException {
+        if (cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(new String(getUrlDecoder().decode(cursor), UTF_8));
+        } catch (final IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private Page<Violation> mapBackendToFrontendViolations(final Page<ViolationRow> backendViolations) {
         final PageRequest currentPageRequest = new PageRequest(
                 backendViolations.getNumber(),
                 backendViolations.getSize(),
                 backendViolations.getSort());
+        final Converter<ViolationRow, Violation> rowToDto = rowToDto();
         return new PageImpl<>(
-                backendViolations.getContent().stream().map(entityToDto::convert).collect(toList()),
+                backendViolations.getContent().stream().map(rowToDto::convert).collect(toList()),
                 currentPageRequest,
                 backendViolations.getTotalElements());
     }
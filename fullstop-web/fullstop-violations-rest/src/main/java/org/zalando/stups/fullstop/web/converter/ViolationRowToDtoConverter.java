@@ -0,0 +1,74 @@
+package org.zalando.stups.fullstop.web.converter;
+
+import org.springframework.core.convert.converter.Converter;
+import org.zalando.stups.fullstop.violation.converter.ViolationObjectConverter;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
+import org.zalando.stups.fullstop.web.model.RawJson;
+import org.zalando.stups.fullstop.web.model.Violation;
+import org.zalando.stups.fullstop.web.model.ViolationType;
+
+import java.util.Map;
+
+/**
+ * Same as {@link ViolationEntityToDtoConverter}, but for projected rows. The violation types are looked up in the
+ * given map instead of being loaded for every violation.
+ */
+public class ViolationRowToDtoConverter implements Converter<ViolationRow, Violation> {
+
+    private static final ViolationObjectConverter META_INFO_CONVERTER = new ViolationObjectConverter();
+
+    private final Map<String, ViolationType> violationTypes;
+
+    public ViolationRowToDtoConverter(final Map<String, ViolationType> violationTypes) {
+        this.violationTypes = violationTypes;
+    }
+
+    @Override
+    public Violation convert(final ViolationRow source) {
+        final Violation violation = new Violation();
+
+        violation.setId(source.getId());
+        violation.setVersion(source.getVersion());
+
+        violation.setCreated(source.getCreated());
+        violation.setCreatedBy(source.getCreatedBy());
+        violation.setLastModified(source.getLastModified());
+        violation.setLastModifiedBy(source.getLastModifiedBy());
+
+        violation.setAccountId(source.getAccountId());
+        violation.setEventId(source.getEventId());
+
+        violation.setPluginFullyQualifiedClassName(source.getPluginFullyQualifiedClassName());
+        violation.setRegion(source.getRegion());
+        violation.setInstanceId(source.getInstanceId());
+        violation.setComment(source.getComment());
+        violation.setMetaInfo(metaInfo(source.getMetaInfo()));
+
+        violation.setUsername(source.getUsername());
+
+        violation.setApplicationId(source.getApplicationName());
+        violation.setApplicationVersionId(source.getApplicationVersionName());
+        violation.setRuleID(source.getRuleId());
+        violation.setViolationType(violationTypes.get(source.getViolationTypeId()));
+
+        return violation;
+    }
+
+    /**
+     * Valid JSON objects and arrays, which is what the plugins store, are passed on unparsed. Anything else may be
+     * plain text of older violations, or the toString() of an object that could not be serialized, and is converted
+     * like the entities do it.
+     */
+    private static Object metaInfo(final String json) {
+        if (json == null) {
+            return null;
+        }
+
+        final String trimmed = json.trim();
+        if ((trimmed.startsWith("{") || trimmed.startsWith("[")) && RawJson.isValid(trimmed)) {
+            return new RawJson(trimmed);
+        }
+
+        return META_INFO_CONVERTER.convertToEntityAttribute(json);
+    }
+}
@@ -0,0 +1,60 @@
+package org.zalando.stups.fullstop.web.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.zalando.stups.fullstop.web.model.Violation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+class CsvViolationWriter implements ViolationWriter {
+
+    private static final String[] HEADER = {
+            "id", "account_id", "region", "violation_type", "event_id", "instance_id", "application_id",
+            "application_version_id", "comment", "username", "rule_id", "plugin_fully_qualified_class_name",
+            "meta_info", "created", "created_by", "last_modified", "last_modified_by", "version"};
+
+    private final CSVPrinter printer;
+
+    private final ObjectMapper objectMapper;
+
+    CsvViolationWriter(final OutputStream out, final ObjectMapper objectMapper) throws IOException {
+        this.printer = CSVFormat.DEFAULT.withHeader(HEADER)
+                .print(new BufferedWriter(new OutputStreamWriter(out, UTF_8)));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(final Violation violation) throws IOException {
+        printer.printRecord(
+                violation.getId(),
+                violation.getAccountId(),
+                violation.getRegion(),
+                violation.getViolationType() == null ? null : violation.getViolationType().getId(),
+                violation.getEventId(),
+                violation.getInstanceId(),
+                violation.getApplicationId(),
+                violation.getApplicationVersionId(),
+                violation.getComment(),
+                violation.getUsername(),
+                violation.getRuleID(),
+                violation.getPluginFullyQualifiedClassName(),
+                violation.getMetaInfo() == null ? null : objectMapper.writeValueAsString(violation.getMetaInfo()),
+                Objects.toString(violation.getCreated(), null),
+                violation.getCreatedBy(),
+                Objects.toString(violation.getLastModified(), null),
+                violation.getLastModifiedBy(),
+                violation.getVersion());
+    }
+
+    @Override
+    public void close() throws IOException {
+        printer.close();
+    }
+}
@@ -0,0 +1,34 @@
+package org.zalando.stups.fullstop.web.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.zalando.stups.fullstop.web.model.Violation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+class NdjsonViolationWriter implements ViolationWriter {
+
+    private static final int NEWLINE = '\n';
+
+    private final OutputStream out;
+
+    private final ObjectWriter objectWriter;
+
+    NdjsonViolationWriter(final OutputStream out, final ObjectMapper objectMapper) {
+        this.out = new BufferedOutputStream(out);
+        this.objectWriter = objectMapper.writerFor(Violation.class);
+    }
+
+    @Override
+    public void write(final Violation violation) throws IOException {
+        out.write(objectWriter.writeValueAsBytes(violation));
+        out.write(NEWLINE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
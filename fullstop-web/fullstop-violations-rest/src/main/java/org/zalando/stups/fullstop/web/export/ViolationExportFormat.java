@@ -0,0 +1,48 @@
+package org.zalando.stups.fullstop.web.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public enum ViolationExportFormat {
+
+    /**
+     * One JSON document per line, each like the violations of GET /api/violations.
+     */
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public ViolationWriter open(final OutputStream out, final ObjectMapper objectMapper) {
+            return new NdjsonViolationWriter(out, objectMapper);
+        }
+    },
+
+    /**
+     * One line per violation after a header, with the violation type as id and the meta info as JSON.
+     */
+    CSV("text/csv", "csv") {
+        @Override
+        public ViolationWriter open(final OutputStream out, final ObjectMapper objectMapper) throws IOException {
+            return new CsvViolationWriter(out, objectMapper);
+        }
+    };
+
+    private final String contentType;
+
+    private final String fileExtension;
+
+    ViolationExportFormat(final String contentType, final String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public abstract ViolationWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException;
+}
@@ -0,0 +1,14 @@
+package org.zalando.stups.fullstop.web.export;
+
+import org.zalando.stups.fullstop.web.model.Violation;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes violations one after the other to a stream, without keeping them. Closing flushes and closes the stream.
+ */
+public interface ViolationWriter extends Closeable {
+
+    void write(Violation violation) throws IOException;
+}
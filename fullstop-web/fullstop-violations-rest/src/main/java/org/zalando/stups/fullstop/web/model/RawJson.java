@@ -0,0 +1,85 @@
+package org.zalando.stups.fullstop.web.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * JSON as read from the database, written to the response as it is instead of being parsed and serialized again.
+ * Only JSON spanning several lines is parsed and written compact, so that it does not break the lines of an NDJSON
+ * export.
+ */
+public class RawJson extends JsonSerializable.Base {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String json;
+
+    public RawJson(final String json) {
+        this.json = json;
+    }
+
+    /**
+     * @return true if the text is exactly one JSON value, checked by streaming over it without building a tree
+     */
+    public static boolean isValid(final String json) {
+        try (final JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    @Override
+    public void serialize(final JsonGenerator gen, final SerializerProvider serializers) throws IOException {
+        if (json.indexOf('\n') < 0 && json.indexOf('\r') < 0) {
+            gen.writeRawValue(json);
+        } else {
+            try (final JsonParser parser = JSON_FACTORY.createParser(json)) {
+                parser.nextToken();
+                gen.copyCurrentStructure(parser);
+            }
+        }
+    }
+
+    @Override
+    public void serializeWithType(final JsonGenerator gen, final SerializerProvider serializers,
+                                  final TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(json, ((RawJson) o).json);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(json);
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
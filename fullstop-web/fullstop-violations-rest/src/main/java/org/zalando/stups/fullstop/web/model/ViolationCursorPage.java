@@ -0,0 +1,54 @@
+package org.zalando.stups.fullstop.web.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+@ApiModel(description = "A page of violations ordered by id")
+public class ViolationCursorPage {
+
+    private List<Violation> content = null;
+
+    private String nextCursor = null;
+
+    private Long totalElements = null;
+
+    @ApiModelProperty(value = "")
+    public List<Violation> getContent() {
+        return content;
+    }
+
+    public void setContent(final List<Violation> content) {
+        this.content = content;
+    }
+
+    @ApiModelProperty(value = "Pass as cursor to get the next page, null on the last page")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(final String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @ApiModelProperty(value = "Number of all matching violations, only if include-total was requested")
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(final Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("content", content)
+                .add("nextCursor", nextCursor)
+                .add("totalElements", totalElements)
+                .toString();
+    }
+}
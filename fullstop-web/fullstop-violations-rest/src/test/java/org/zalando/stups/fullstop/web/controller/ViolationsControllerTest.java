@@ -1,6 +1,7 @@
 package org.zalando.stups.fullstop.web.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
 import org.joda.time.DateTime;
 import org.junit.After;
 import org.junit.Before;
@@ -26,20 +27,35 @@ import org.zalando.stups.fullstop.teams.Account;
 import org.zalando.stups.fullstop.teams.TeamOperations;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 import org.zalando.stups.fullstop.web.model.CreateViolation;
 import org.zalando.stups.fullstop.web.model.Violation;
+import org.zalando.stups.fullstop.web.model.ViolationType;
 import org.zalando.stups.fullstop.web.test.ControllerTestConfig;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyListOf;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.mock;
@@ -52,6 +68,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.zalando.stups.fullstop.web.test.MatcherHelper.hasSize;
@@ -83,6 +100,12 @@ public class ViolationsControllerTest {
     @Autowired
     private Converter<ViolationEntity, Violation> mockViolationConverter;
 
+    @Autowired
+    private Converter<ViolationTypeEntity, ViolationType> mockViolationTypeConverter;
+
+    @Autowired
+    private ViolationTypeRepository violationTypeRepositoryMock;
+
     private CreateViolation createViolation;
 
     private Violation violationRequest;
@@ -94,7 +117,8 @@ public class ViolationsControllerTest {
 
     @Before
     public void setUp() {
-        reset(violationServiceMock, mockTeamOperations, mockViolationConverter);
+        reset(violationServiceMock, mockTeamOperations, mockViolationConverter, mockViolationTypeConverter,
+                violationTypeRepositoryMock);
 
         Map<String, String> metainfo = new HashMap<String, String>();
         metainfo.put("info", "meta info test string");
@@ -159,13 +183,16 @@ public class ViolationsControllerTest {
     @SuppressWarnings("unchecked")
     @Test
     public void testViolations() throws Exception {
+        stubViolationTypes();
         when(violationServiceMock.queryViolations(any(), any(), any(), any(), anyBoolean(), any(), any(), any(), any(), anyBoolean(), any(), any(), any())).thenReturn(
                 new PageImpl<>(
-                        newArrayList(violationResult), new PageRequest(0, 20, ASC, "id"), 50));
+                        newArrayList(row(1L, "i-1234")), new PageRequest(0, 20, ASC, "id"), 50));
 
         final ResultActions resultActions = this.mockMvc.perform(get("/api/violations")).andExpect(status().isOk());
 
         resultActions.andExpect(jsonPath("$.content").value(hasSize(1)));
+        resultActions.andExpect(jsonPath("$.content[0].violationType.id").value("WRONG_AMI"));
+        resultActions.andExpect(jsonPath("$.content[0].metaInfo.ami_name").value("jenkins"));
 
         verify(violationServiceMock).queryViolations(
                 isNull(List.class),
@@ -181,7 +208,6 @@ public class ViolationsControllerTest {
                 isNull(List.class),
                 isNull(List.class),
                 any());
-        verify(mockViolationConverter).convert(any(ViolationEntity.class));
     }
 
     @Test
@@ -205,7 +231,7 @@ public class ViolationsControllerTest {
                         any(),
                         any(),
                         any()))
-                .thenReturn(new PageImpl<>(newArrayList(violationResult), new PageRequest(0, 20, ASC, "id"), 50));
+                .thenReturn(new PageImpl<>(newArrayList(row(1L, "i-1234")), new PageRequest(0, 20, ASC, "id"), 50));
 
         final ResultActions resultActions = this.mockMvc.perform(
                 get("/api/violations?accounts=123&checked=true&last-violation=0&since=" + dateTime))
@@ -216,7 +242,133 @@ public class ViolationsControllerTest {
         verify(violationServiceMock).queryViolations(
                 eq(newArrayList("123")), any(DateTime.class), any(DateTime.class), eq(lastViolation), eq(
                         true), any(), any(), any(), anyListOf(String.class), anyBoolean(), anyListOf(String.class), anyListOf(String.class), any());
-        verify(mockViolationConverter).convert(any(ViolationEntity.class));
+    }
+
+    @Test
+    public void testViolationsByCursor() throws Exception {
+        when(violationServiceMock.queryViolationsAfter(any(), any(), any(), anyBoolean(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), any(), anyInt()))
+                .thenReturn(newArrayList(row(1L, "i-1234"), row(2L, "i-5678"), row(3L, null)));
+
+        final ResultActions resultActions = this.mockMvc.perform(get("/api/violations?cursor=&size=2"))
+                .andExpect(status().isOk());
+
+        resultActions.andExpect(jsonPath("$.content").value(hasSize(2)));
+        resultActions.andExpect(jsonPath("$.nextCursor").value("Mg"));
+        resultActions.andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(violationServiceMock).queryViolationsAfter(
+                isNull(List.class), any(DateTime.class), any(DateTime.class), eq(false), isNull(Integer.class),
+                isNull(Integer.class), isNull(Boolean.class), anyListOf(String.class), eq(false), isNull(List.class),
+                isNull(List.class), isNull(Long.class), eq(3));
+    }
+
+    @Test
+    public void testLastViolationsByCursorWithTotal() throws Exception {
+        when(violationServiceMock.queryViolationsAfter(any(), any(), any(), anyBoolean(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), any(), anyInt()))
+                .thenReturn(newArrayList(row(3L, null)));
+        when(violationServiceMock.countViolations(any(), any(), any(), anyBoolean(), any(), any(), any(), any(),
+                anyBoolean(), any(), any())).thenReturn(3L);
+
+        final ResultActions resultActions = this.mockMvc
+                .perform(get("/api/violations?cursor=Mg&size=2&include-total=true&accounts=123"))
+                .andExpect(status().isOk());
+
+        resultActions.andExpect(jsonPath("$.content").value(hasSize(1)));
+        resultActions.andExpect(jsonPath("$.nextCursor").doesNotExist());
+        resultActions.andExpect(jsonPath("$.totalElements").value(3));
+
+        verify(violationServiceMock).queryViolationsAfter(
+                eq(newArrayList("123")), any(DateTime.class), any(DateTime.class), eq(false), any(), any(), any(),
+                anyListOf(String.class), eq(false), any(), any(), eq(2L), eq(3));
+        verify(violationServiceMock).countViolations(
+                eq(newArrayList("123")), any(DateTime.class), any(DateTime.class), eq(false), any(), any(), any(),
+                anyListOf(String.class), eq(false), any(), any());
+    }
+
+    @Test
+    public void testViolationsByInvalidCursor() throws Exception {
+        this.mockMvc.perform(get("/api/violations?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/api/violations?cursor=&size=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testExportViolationsAsNdjson() throws Exception {
+        exportRows(row(1L, "i-1234"), row(2L, null));
+
+        final String content = this.mockMvc.perform(get("/api/violations/export?accounts=123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        final String[] lines = content.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(1L);
+        assertThat(objectMapper.readTree(lines[0]).get("instanceId").asText()).isEqualTo("i-1234");
+        assertThat(objectMapper.readTree(lines[0]).get("violationType").get("id").asText()).isEqualTo("WRONG_AMI");
+        assertThat(objectMapper.readTree(lines[0]).get("metaInfo").get("ami_name").asText()).isEqualTo("jenkins");
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong()).isEqualTo(2L);
+
+        verifyExport(newArrayList("123"));
+    }
+
+    @Test
+    public void testExportViolationsAsGzippedCsv() throws Exception {
+        exportRows(row(1L, "i-1234"));
+
+        final byte[] content = this.mockMvc.perform(get("/api/violations/export?format=csv&gzip=true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        final List<String> lines = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(content)), UTF_8)).lines().collect(toList());
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("id,account_id,region,violation_type,event_id,instance_id,");
+        assertThat(lines.get(1)).startsWith("1,123,eu-west-1,WRONG_AMI,event-1,i-1234,app,1.0,,user,,");
+
+        verifyExport(null);
+    }
+
+    @Test
+    public void testExportViolationsInUnknownFormat() throws Exception {
+        this.mockMvc.perform(get("/api/violations/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void exportRows(final ViolationRow... rows) {
+        stubViolationTypes();
+        doAnswer(invocationOnMock -> {
+            final Consumer<ViolationRow> action = (Consumer<ViolationRow>) invocationOnMock.getArguments()[12];
+            Stream.of(rows).forEach(action);
+            return null;
+        }).when(violationServiceMock).exportViolations(any(), any(), any(), any(), anyBoolean(), any(), any(), any(),
+                any(), anyBoolean(), any(), any(), any());
+    }
+
+    private void stubViolationTypes() {
+        when(violationTypeRepositoryMock.findAll()).thenReturn(newArrayList(new ViolationTypeEntity("WRONG_AMI")));
+        when(mockViolationTypeConverter.convert(any(ViolationTypeEntity.class))).thenAnswer(invocationOnMock -> {
+            final ViolationType dto = new ViolationType();
+            dto.setId(((ViolationTypeEntity) invocationOnMock.getArguments()[0]).getId());
+            return dto;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyExport(final List<String> accounts) {
+        verify(violationServiceMock).exportViolations(
+                eq(accounts), any(DateTime.class), any(DateTime.class), isNull(Long.class), eq(false),
+                isNull(Integer.class), isNull(Integer.class), isNull(Boolean.class), anyListOf(String.class), eq(false),
+                isNull(List.class), isNull(List.class), any(Consumer.class));
+    }
+
+    private static ViolationRow row(final Long id, final String instanceId) {
+        return new ViolationRow(id, 0L, "event-" + id, "123", "eu-west-1", instanceId, "{\"ami_name\":\"jenkins\"}",
+                null, null, "user", "WRONG_AMI", "app", "1.0", null, new DateTime(UTC), "FULLSTOP", new DateTime(UTC),
+                "FULLSTOP");
     }
 
     @Test
@@ -334,5 +486,21 @@ public class ViolationsControllerTest {
         public Converter<ViolationEntity, Violation> violationConverter() {
             return mock(Converter.class, "violationConverter");
         }
+
+        @Bean
+        @SuppressWarnings("unchecked")
+        public Converter<ViolationTypeEntity, ViolationType> violationTypeConverter() {
+            return mock(Converter.class, "violationTypeConverter");
+        }
+
+        @Bean
+        public ViolationTypeRepository violationTypeRepository() {
+            return mock(ViolationTypeRepository.class);
+        }
+
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JodaModule());
+        }
     }
 }
@@ -0,0 +1,63 @@
+package org.zalando.stups.fullstop.web.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.core.convert.converter.Converter;
+import org.zalando.stups.fullstop.violation.entity.ViolationRow;
+import org.zalando.stups.fullstop.web.model.RawJson;
+import org.zalando.stups.fullstop.web.model.Violation;
+import org.zalando.stups.fullstop.web.model.ViolationType;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ViolationRowToDtoConverterTest {
+
+    private final ViolationType violationType = new ViolationType();
+
+    private final Converter<ViolationRow, Violation> rowToDto =
+            new ViolationRowToDtoConverter(singletonMap("WRONG_AMI", violationType));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testConvert() throws Exception {
+        final Violation dto = rowToDto.convert(row("{\"ami_name\": \"jenkins\"}"));
+
+        assertThat(dto.getId()).isEqualTo(1L);
+        assertThat(dto.getAccountId()).isEqualTo("123");
+        assertThat(dto.getApplicationId()).isEqualTo("app");
+        assertThat(dto.getApplicationVersionId()).isEqualTo("1.0");
+        assertThat(dto.getRuleID()).isEqualTo(2L);
+        assertThat(dto.getViolationType()).isSameAs(violationType);
+        assertThat(dto.getMetaInfo()).isEqualTo(new RawJson("{\"ami_name\": \"jenkins\"}"));
+        assertThat(objectMapper.writeValueAsString(dto.getMetaInfo())).isEqualTo("{\"ami_name\": \"jenkins\"}");
+    }
+
+    @Test
+    public void testConvertPlainTextMetaInfo() throws Exception {
+        assertThat(rowToDto.convert(row("not json")).getMetaInfo()).isEqualTo(singletonMap("data", "not json"));
+        assertThat(rowToDto.convert(row(null)).getMetaInfo()).isNull();
+    }
+
+    @Test
+    public void testConvertMalformedJsonMetaInfo() throws Exception {
+        assertThat(rowToDto.convert(row("{ami_name=jenkins}")).getMetaInfo())
+                .isEqualTo(singletonMap("data", "{ami_name=jenkins}"));
+        assertThat(rowToDto.convert(row("[1, 2")).getMetaInfo()).isEqualTo(singletonMap("data", "[1, 2"));
+        assertThat(rowToDto.convert(row("{\"a\": 1} {\"b\": 2}")).getMetaInfo()).isNotInstanceOf(RawJson.class);
+    }
+
+    @Test
+    public void testMultiLineMetaInfoIsWrittenOnOneLine() throws Exception {
+        final Violation dto = rowToDto.convert(row("{\n  \"ami_name\": \"jenkins\",\n  \"ports\": [80, 443]\n}"));
+
+        assertThat(objectMapper.writeValueAsString(dto.getMetaInfo()))
+                .isEqualTo("{\"ami_name\":\"jenkins\",\"ports\":[80,443]}");
+    }
+
+    private static ViolationRow row(final String metaInfo) {
+        return new ViolationRow(1L, 0L, "event-1", "123", "eu-west-1", "i-1234", metaInfo, null, null, "user",
+                "WRONG_AMI", "app", "1.0", 2L, null, "FULLSTOP", null, "FULLSTOP");
+    }
+}
@@ -0,0 +1,7 @@
+package org.zalando.stups.fullstop.web.api;
+
+public class BadRequestException extends ApiException {
+    public BadRequestException(final String msg) {
+        super(400, msg);
+    }
+}
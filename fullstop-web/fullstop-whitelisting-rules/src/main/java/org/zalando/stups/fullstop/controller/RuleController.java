@@ -8,9 +8,13 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.zalando.stups.fullstop.config.RuleControllerProperties;
+import org.zalando.stups.fullstop.rule.entity.RetroactiveWhitelistingStatus;
 import org.zalando.stups.fullstop.rule.entity.RuleDTO;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.entity.WhitelistingDryRunResult;
+import org.zalando.stups.fullstop.rule.service.RetroactiveWhitelistingService;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.rule.service.WhitelistingDryRunService;
 import org.zalando.stups.fullstop.teams.TeamOperations;
 import org.zalando.stups.fullstop.web.api.ForbiddenException;
 import org.zalando.stups.fullstop.web.api.NotFoundException;
@@ -35,6 +39,12 @@ public class RuleController {
     @Autowired
     private RuleEntityService ruleEntityService;
 
+    @Autowired
+    private RetroactiveWhitelistingService retroactiveWhitelistingService;
+
+    @Autowired
+    private WhitelistingDryRunService whitelistingDryRunService;
+
     @Autowired
     private TeamOperations teamOperations;
 
@@ -68,6 +78,19 @@ public class RuleController {
         return ruleEntityService.save(ruleDTO);
     }
 
+    @RequestMapping(value = "/dry-run", method = POST)
+    @ApiOperation(value = "counts the open violations a new rule would whitelist, without saving the rule",
+            response = WhitelistingDryRunResult.class,
+            authorizations = {@Authorization(value = "oauth",
+                    scopes = {@AuthorizationScope(scope = "uid", description = "")})})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "There you go")})
+    @ResponseStatus(OK)
+    public WhitelistingDryRunResult dryRunWhitelisting(@RequestBody final RuleDTO ruleDTO, @ApiIgnore @AuthenticationPrincipal(errorOnInvalidType = true) final String userId) throws ForbiddenException {
+
+        checkPermission(userId);
+        return whitelistingDryRunService.dryRun(ruleDTO);
+    }
+
     @RequestMapping(value = "/{id}", method = GET)
     @ApiOperation(value = "adds a new rule for whitelisting violations", response = RuleEntity.class,
             authorizations = {@Authorization(value = "oauth",
@@ -84,6 +107,24 @@ public class RuleController {
         return ruleEntity;
     }
 
+    @RequestMapping(value = "/{id}/retroactive-whitelisting", method = GET)
+    @ApiOperation(value = "shows the progress of applying a rule to the open violations persisted before, "
+            + "if requested with apply_to_existing_violations on this instance", response = RetroactiveWhitelistingStatus.class,
+            authorizations = {@Authorization(value = "oauth",
+                    scopes = {@AuthorizationScope(scope = "uid", description = "")})})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "There you go")})
+    @ResponseStatus(OK)
+    public RetroactiveWhitelistingStatus getRetroactiveWhitelisting(@PathVariable("id") final Long id,
+                                                                    @ApiIgnore @AuthenticationPrincipal(errorOnInvalidType = true) final String userId)
+            throws NotFoundException, ForbiddenException {
+        checkPermission(userId);
+        final RetroactiveWhitelistingStatus status = retroactiveWhitelistingService.getStatus(id);
+        if (status == null) {
+            throw new NotFoundException(format("Rule %s was not applied to existing violations by this instance", id));
+        }
+        return status;
+    }
+
     @RequestMapping(value = "/{id}", method = PUT)
     @ApiOperation(value = "updates a rule by invalidating it and creating a new rule",
             authorizations = {@Authorization(value = "oauth", scopes = {@AuthorizationScope(scope = "uid", description = "")})})
@@ -21,12 +21,17 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.zalando.stups.fullstop.config.RuleControllerProperties;
+import org.zalando.stups.fullstop.rule.entity.RetroactiveWhitelistingStatus;
 import org.zalando.stups.fullstop.rule.entity.RuleDTO;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.entity.WhitelistingDryRunResult;
 import org.zalando.stups.fullstop.rule.repository.RuleEntityRepository;
+import org.zalando.stups.fullstop.rule.service.RetroactiveWhitelistingService;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.rule.service.WhitelistingDryRunService;
 import org.zalando.stups.fullstop.teams.Account;
 import org.zalando.stups.fullstop.teams.TeamOperations;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
 
 import java.util.NoSuchElementException;
 
@@ -70,6 +75,12 @@ public class RuleControllerTest {
     @Autowired
     private RuleEntityService ruleEntityService;
 
+    @Autowired
+    private RetroactiveWhitelistingService retroactiveWhitelistingService;
+
+    @Autowired
+    private WhitelistingDryRunService whitelistingDryRunService;
+
     @Autowired
     private TeamOperations teamOperationsMock;
 
@@ -79,7 +90,7 @@ public class RuleControllerTest {
 
     @Before
     public void setUp() throws Exception {
-        reset(ruleEntityService, teamOperationsMock, ruleControllerPropertiesMock);
+        reset(ruleEntityService, retroactiveWhitelistingService, whitelistingDryRunService, teamOperationsMock, ruleControllerPropertiesMock);
 
         ruleDTO = new RuleDTO();
         ruleDTO.setAccountId("12345");
@@ -121,7 +132,7 @@ public class RuleControllerTest {
     @After
     public void tearDown() throws Exception {
 
-        verifyNoMoreInteractions(ruleEntityService, teamOperationsMock, ruleControllerPropertiesMock);
+        verifyNoMoreInteractions(ruleEntityService, retroactiveWhitelistingService, whitelistingDryRunService, teamOperationsMock, ruleControllerPropertiesMock);
 
     }
 
@@ -158,6 +169,28 @@ public class RuleControllerTest {
 
     }
 
+    @Test
+    public void testDryRunWhitelisting() throws Exception {
+        final RuleDTO ruleDTO = new RuleDTO();
+        ruleDTO.setAccountId("1234");
+        when(whitelistingDryRunService.dryRun(any(RuleDTO.class))).thenReturn(new WhitelistingDryRunResult(
+                newArrayList(new CountByAccountAndType("1234", "WRONG_AMI", 2)), newArrayList(7L, 8L), true, 2, true, 15));
+
+        final String ruleAsJson = new ObjectMapper().writeValueAsString(ruleDTO);
+
+        mockMvc.perform(post("/api/whitelisting-rules/dry-run").contentType(APPLICATION_JSON).content(ruleAsJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.counts[0].account").value("1234"))
+                .andExpect(jsonPath("$.counts[0].type").value("WRONG_AMI"))
+                .andExpect(jsonPath("$.counts[0].quantity").value(2))
+                .andExpect(jsonPath("$.sample_violation_ids[1]").value(8))
+                .andExpect(jsonPath("$.complete").value(true));
+
+        verify(whitelistingDryRunService).dryRun(any(RuleDTO.class));
+        verify(teamOperationsMock).getTeamIdsByUser(anyString());
+        verify(ruleControllerPropertiesMock).getAllowedTeams();
+    }
+
     @Test
     public void testGetWhitelisting() throws Exception {
         when(ruleEntityService.findById(anyLong())).thenReturn(ruleEntity);
@@ -183,6 +216,33 @@ public class RuleControllerTest {
 
     }
 
+    @Test
+    public void testGetRetroactiveWhitelisting() throws Exception {
+        final RetroactiveWhitelistingStatus status = new RetroactiveWhitelistingStatus(1L);
+        status.start(false);
+        status.evaluated(100, 3);
+        when(retroactiveWhitelistingService.getStatus(1L)).thenReturn(status);
+
+        mockMvc.perform(get("/api/whitelisting-rules/1/retroactive-whitelisting")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.rule_id").value(1))
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.evaluated_violations").value(100))
+                .andExpect(jsonPath("$.whitelisted_violations").value(3));
+
+        verify(retroactiveWhitelistingService).getStatus(1L);
+        verify(teamOperationsMock).getTeamIdsByUser(anyString());
+        verify(ruleControllerPropertiesMock).getAllowedTeams();
+    }
+
+    @Test
+    public void testGetRetroactiveWhitelistingFails() throws Exception {
+        mockMvc.perform(get("/api/whitelisting-rules/2/retroactive-whitelisting")).andExpect(status().isNotFound());
+
+        verify(retroactiveWhitelistingService).getStatus(2L);
+        verify(teamOperationsMock).getTeamIdsByUser(anyString());
+        verify(ruleControllerPropertiesMock).getAllowedTeams();
+    }
+
     @Test
     public void testUpdateWhitelisting() throws Exception {
         final RuleDTO ruleDTO = new RuleDTO();
@@ -295,6 +355,16 @@ public class RuleControllerTest {
             return mock(RuleEntityService.class);
         }
 
+        @Bean
+        public RetroactiveWhitelistingService retroactiveWhitelistingService() {
+            return mock(RetroactiveWhitelistingService.class);
+        }
+
+        @Bean
+        public WhitelistingDryRunService whitelistingDryRunService() {
+            return mock(WhitelistingDryRunService.class);
+        }
+
         @Bean
         public TeamOperations teamOperationsMock() { return mock(TeamOperations.class); }
 
@@ -0,0 +1,185 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import org.slf4j.Logger;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.violation.entity.ApplicationEntity;
+import org.zalando.stups.fullstop.violation.entity.VersionEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A {@link RuleEntity} with trimmed criteria and a compiled image name pattern and JSON path, matching the same
+ * violations as the {@link WhitelistRulesEvaluator}. Rules with an invalid pattern or path never match.
+ */
+class CompiledRule {
+
+    private static final Logger log = getLogger(CompiledRule.class);
+
+    private final RuleEntity ruleEntity;
+
+    private final int order;
+
+    private final long expiryMillis;
+
+    private final String accountId;
+
+    private final String region;
+
+    private final String violationTypeId;
+
+    private final Pattern imageName;
+
+    private final String imageOwner;
+
+    private final String applicationId;
+
+    private final String applicationVersion;
+
+    private final JsonPath metaInfoJsonPath;
+
+    private final boolean valid;
+
+    CompiledRule(final RuleEntity ruleEntity, final int order) {
+        this.ruleEntity = ruleEntity;
+        this.order = order;
+        this.expiryMillis = ruleEntity.getExpiryDate() != null ? ruleEntity.getExpiryDate().getMillis() : Long.MAX_VALUE;
+        this.accountId = trim(ruleEntity.getAccountId());
+        this.region = trim(ruleEntity.getRegion());
+        this.violationTypeId = trim(ruleEntity.getViolationTypeEntityId());
+        this.imageOwner = trim(ruleEntity.getImageOwner());
+        this.applicationId = trim(ruleEntity.getApplicationId());
+        this.applicationVersion = trim(ruleEntity.getApplicationVersion());
+
+        boolean compiled = true;
+        Pattern pattern = null;
+        JsonPath jsonPath = null;
+        try {
+            pattern = Optional.ofNullable(trim(ruleEntity.getImageName())).map(Pattern::compile).orElse(null);
+            jsonPath = Optional.ofNullable(trim(ruleEntity.getMetaInfoJsonPath())).map(JsonPath::compile).orElse(null);
+        } catch (PatternSyntaxException | InvalidPathException e) {
+            log.warn("Whitelisting rule {} will never match: {}", ruleEntity.getId(), e.getMessage());
+            compiled = false;
+        }
+        this.imageName = pattern;
+        this.metaInfoJsonPath = jsonPath;
+
+        // a rule without any criteria matches nothing
+        this.valid = compiled && (accountId != null || region != null || violationTypeId != null || imageName != null
+                || imageOwner != null || applicationId != null || applicationVersion != null
+                || metaInfoJsonPath != null);
+    }
+
+    /**
+     * @param metaInfo the metaInfo of the violation as parsed JSON, only evaluated if this rule has a JSON path or
+     *                 image criteria and the metaInfo is not a map, as for violations loaded from the database
+     */
+    boolean matches(final ViolationEntity violation, final Supplier<DocumentContext> metaInfo) {
+        if (!valid
+                || accountId != null && !accountId.equals(violation.getAccountId())
+                || region != null && !region.equals(violation.getRegion())
+                || violationTypeId != null && (violation.getViolationTypeEntity() == null
+                    || !violationTypeId.equals(violation.getViolationTypeEntity().getId()))
+                || applicationId != null && !applicationId.equals(applicationName(violation))
+                || applicationVersion != null && !applicationVersion.equals(versionName(violation))) {
+            return false;
+        }
+
+        if (imageName != null) {
+            final Object amiName = metaInfoValue(violation, metaInfo, "ami_name");
+            if (!(amiName instanceof String) || !imageName.matcher((String) amiName).matches()) {
+                return false;
+            }
+        }
+        if (imageOwner != null && !imageOwner.equals(metaInfoValue(violation, metaInfo, "ami_owner_id"))) {
+            return false;
+        }
+
+        return metaInfoJsonPath == null || jsonPathExists(metaInfo.get());
+    }
+
+    private static Object metaInfoValue(final ViolationEntity violation, final Supplier<DocumentContext> metaInfo,
+                                        final String key) {
+        if (violation.getMetaInfo() instanceof Map) {
+            return ((Map<?, ?>) violation.getMetaInfo()).get(key);
+        }
+        final DocumentContext document = metaInfo.get();
+        if (document == null) {
+            return null;
+        }
+        try {
+            return document.read("$." + key);
+        } catch (final JsonPathException e) {
+            return null;
+        }
+    }
+
+    private boolean jsonPathExists(final DocumentContext metaInfo) {
+        if (metaInfo == null) {
+            return false;
+        }
+        try {
+            final Object matches = metaInfo.read(metaInfoJsonPath);
+            return matches instanceof List ? !((List<?>) matches).isEmpty() : matches != null;
+        } catch (final JsonPathException e) {
+            return false;
+        }
+    }
+
+    private static String applicationName(final ViolationEntity violation) {
+        return Optional.ofNullable(violation.getApplication()).map(ApplicationEntity::getName).orElse(null);
+    }
+
+    private static String versionName(final ViolationEntity violation) {
+        return Optional.ofNullable(violation.getApplicationVersion()).map(VersionEntity::getName).orElse(null);
+    }
+
+    private static String trim(final String value) {
+        return Optional.ofNullable(value).map(String::trim).filter(string -> !string.isEmpty()).orElse(null);
+    }
+
+    /**
+     * @return false if the rule never matches, because of an invalid pattern or path or no criteria at all
+     */
+    boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * @return true if the rule has criteria on the metaInfo of violations, which the database can not evaluate
+     */
+    boolean needsEvaluation() {
+        return imageName != null || imageOwner != null || metaInfoJsonPath != null;
+    }
+
+    boolean isExpired(final long nowMillis) {
+        return expiryMillis <= nowMillis;
+    }
+
+    RuleEntity getRuleEntity() {
+        return ruleEntity;
+    }
+
+    int getOrder() {
+        return order;
+    }
+
+    String getAccountId() {
+        return accountId;
+    }
+
+    String getViolationTypeId() {
+        return violationTypeId;
+    }
+}
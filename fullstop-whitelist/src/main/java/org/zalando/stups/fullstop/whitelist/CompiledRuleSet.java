@@ -0,0 +1,84 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of compiled rules, indexed by account and violation type. A violation is only tested against the
+ * rules for its account and type, and the rules without account or type. Like before, the first rule in the order of
+ * the given list wins.
+ */
+class CompiledRuleSet {
+
+    private static final String ANY = "\u0000any";
+
+    private final Map<String, Map<String, List<CompiledRule>>> byAccountAndType = new HashMap<>();
+
+    private final int size;
+
+    CompiledRuleSet(final List<RuleEntity> rules) {
+        int order = 0;
+        for (final RuleEntity rule : rules) {
+            final CompiledRule compiled = new CompiledRule(rule, order++);
+            byAccountAndType
+                    .computeIfAbsent(keyOf(compiled.getAccountId()), key -> new HashMap<>())
+                    .computeIfAbsent(keyOf(compiled.getViolationTypeId()), key -> new ArrayList<>())
+                    .add(compiled);
+        }
+        this.size = order;
+    }
+
+    /**
+     * @return the first rule matching the violation and not expired at the given time, or null
+     */
+    RuleEntity findMatch(final ViolationEntity violation, final long nowMillis) {
+        final String account = violation.getAccountId();
+        final String type = violation.getViolationTypeEntity() != null ? violation.getViolationTypeEntity().getId() : null;
+        final MetaInfoDocument metaInfo = new MetaInfoDocument(violation);
+
+        CompiledRule best = null;
+        for (final List<CompiledRule> candidates : candidates(account, type)) {
+            for (final CompiledRule rule : candidates) {
+                if (best != null && rule.getOrder() >= best.getOrder()) {
+                    break;
+                }
+                if (!rule.isExpired(nowMillis) && rule.matches(violation, metaInfo)) {
+                    best = rule;
+                    break;
+                }
+            }
+        }
+        return best != null ? best.getRuleEntity() : null;
+    }
+
+    private List<List<CompiledRule>> candidates(final String account, final String type) {
+        final List<List<CompiledRule>> candidates = new ArrayList<>(4);
+        for (final String accountKey : keys(account)) {
+            final Map<String, List<CompiledRule>> byType = byAccountAndType.get(accountKey);
+            if (byType != null) {
+                for (final String typeKey : keys(type)) {
+                    candidates.add(byType.getOrDefault(typeKey, Collections.emptyList()));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static String[] keys(final String value) {
+        return value != null ? new String[]{ value, ANY } : new String[]{ ANY };
+    }
+
+    private static String keyOf(final String value) {
+        return value != null ? value : ANY;
+    }
+
+    int size() {
+        return size;
+    }
+}
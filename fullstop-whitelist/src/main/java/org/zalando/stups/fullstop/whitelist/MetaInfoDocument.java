@@ -0,0 +1,46 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import org.slf4j.Logger;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+
+import java.util.function.Supplier;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Serializes and parses the metaInfo of a violation on first use only.
+ */
+class MetaInfoDocument implements Supplier<DocumentContext> {
+
+    private static final Logger log = getLogger(MetaInfoDocument.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ViolationEntity violation;
+
+    private boolean parsed;
+
+    private DocumentContext document;
+
+    MetaInfoDocument(final ViolationEntity violation) {
+        this.violation = violation;
+    }
+
+    @Override
+    public DocumentContext get() {
+        if (!parsed && violation.getMetaInfo() != null) {
+            parsed = true;
+            try {
+                document = JsonPath.parse(OBJECT_MAPPER.writeValueAsString(violation.getMetaInfo()));
+            } catch (JsonProcessingException | JsonPathException e) {
+                log.warn("Could not read violation metaInfo as JSON: " + violation, e);
+            }
+        }
+        return document;
+    }
+}
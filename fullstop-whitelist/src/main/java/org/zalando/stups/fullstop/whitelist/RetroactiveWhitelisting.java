@@ -0,0 +1,126 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationListener;
+import org.zalando.stups.fullstop.rule.entity.RetroactiveWhitelistingStatus;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.service.RetroactiveWhitelistingService;
+import org.zalando.stups.fullstop.rule.service.RulesChangedEvent;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Applies a new whitelisting rule to the open violations persisted before it, if requested on creation. The account,
+ * region, violation type, application and version of the rule are evaluated by the database with a single update.
+ * Rules on the image or the metaInfo of violations are evaluated here instead, page by page in parallel, over the
+ * violations matching the other criteria. One rule is applied at a time, the progress is kept in memory.
+ */
+public class RetroactiveWhitelisting implements RetroactiveWhitelistingService, ApplicationListener<RulesChangedEvent>,
+        DisposableBean {
+
+    private final Logger log = getLogger(getClass());
+
+    private final ViolationRepository violationRepository;
+
+    private final int pageSize;
+
+    private final ExecutorService jobs = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "retroactive-whitelisting");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ForkJoinPool evaluation;
+
+    private final Map<Long, RetroactiveWhitelistingStatus> statuses = new ConcurrentHashMap<>();
+
+    public RetroactiveWhitelisting(final ViolationRepository violationRepository, final int pageSize,
+                                   final int parallelism) {
+        this.violationRepository = violationRepository;
+        this.pageSize = pageSize;
+        this.evaluation = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public void onApplicationEvent(final RulesChangedEvent event) {
+        if (event.isApplyToExistingViolations() && event.getRule().getId() != null) {
+            submit(event.getRule());
+        }
+    }
+
+    @Override
+    public RetroactiveWhitelistingStatus getStatus(final Long ruleId) {
+        return statuses.get(ruleId);
+    }
+
+    RetroactiveWhitelistingStatus submit(final RuleEntity rule) {
+        final RetroactiveWhitelistingStatus status = new RetroactiveWhitelistingStatus(rule.getId());
+        statuses.put(rule.getId(), status);
+        jobs.execute(() -> apply(rule, status));
+        return status;
+    }
+
+    void apply(final RuleEntity rule, final RetroactiveWhitelistingStatus status) {
+        final CompiledRule compiled = new CompiledRule(rule, 0);
+        final String comment = WhitelistRules.comment(rule);
+        try {
+            if (!compiled.isValid()) {
+                status.start(true);
+            } else if (!compiled.needsEvaluation()) {
+                status.start(true);
+                final long whitelisted = violationRepository.whitelistOpenViolations(rule, comment);
+                status.evaluated(whitelisted, whitelisted);
+            } else {
+                status.start(false);
+                evaluate(compiled, comment, status);
+            }
+            status.done();
+            log.info("Whitelisting rule {} applied to {} existing violations", rule.getId(),
+                    status.getWhitelistedViolations());
+        } catch (final RuntimeException | InterruptedException | ExecutionException e) {
+            log.error("Could not apply whitelisting rule {} to existing violations", rule.getId(), e);
+            status.failed(e.getMessage());
+        }
+    }
+
+    private void evaluate(final CompiledRule compiled, final String comment, final RetroactiveWhitelistingStatus status)
+            throws InterruptedException, ExecutionException {
+        final RuleEntity rule = compiled.getRuleEntity();
+        Long afterId = null;
+        List<ViolationEntity> page;
+        do {
+            page = violationRepository.findOpenViolations(rule, afterId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            final List<ViolationEntity> violations = page;
+            final List<Long> matching = evaluation.submit(() -> violations.parallelStream()
+                    .filter(violation -> compiled.matches(violation, new MetaInfoDocument(violation)))
+                    .map(ViolationEntity::getId)
+                    .collect(toList())).get();
+
+            final long whitelisted = violationRepository.whitelistOpenViolations(matching, rule, comment);
+            status.evaluated(page.size(), whitelisted);
+            afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+    }
+
+    @Override
+    public void destroy() {
+        jobs.shutdownNow();
+        evaluation.shutdownNow();
+    }
+}
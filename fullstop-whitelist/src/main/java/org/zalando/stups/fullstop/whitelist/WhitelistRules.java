@@ -1,44 +1,102 @@
 package org.zalando.stups.fullstop.whitelist;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.springframework.context.ApplicationListener;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.rule.service.RulesChangedEvent;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
 
+import java.time.Clock;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class WhitelistRules {
+import static org.slf4j.LoggerFactory.getLogger;
 
-    private final WhitelistRulesEvaluator whitelistRulesEvaluator;
+/**
+ * Whitelists violations with the rules not expired. The rules are compiled once and kept in memory, until a rule is
+ * created, updated or expired through the {@link RuleEntityService}. As other instances may change rules too, they
+ * are reloaded after the refresh interval at the latest.
+ */
+public class WhitelistRules implements ApplicationListener<RulesChangedEvent> {
+
+    private final Logger log = getLogger(getClass());
 
     private final RuleEntityService ruleEntityService;
 
-    @Autowired
-    public WhitelistRules(final WhitelistRulesEvaluator whitelistRulesEvaluator, final RuleEntityService ruleEntityService) {
-        this.whitelistRulesEvaluator = whitelistRulesEvaluator;
+    private final long refreshIntervalMillis;
+
+    private final Clock clock;
+
+    private volatile CompiledRuleSet rules;
+
+    private volatile long loadedAt;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public WhitelistRules(final RuleEntityService ruleEntityService, final long refreshIntervalMillis) {
+        this(ruleEntityService, refreshIntervalMillis, Clock.systemUTC());
+    }
+
+    WhitelistRules(final RuleEntityService ruleEntityService, final long refreshIntervalMillis, final Clock clock) {
         this.ruleEntityService = ruleEntityService;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.clock = clock;
     }
 
     public void execute(final ViolationEntity violationEntity) {
 
         if (violationEntity != null) {
 
-            final List<RuleEntity> rules = ruleEntityService.findByNotExpired();
-            if (rules == null) {
-                return;
+            final RuleEntity rule = currentRules().findMatch(violationEntity, clock.millis());
+            if (rule != null) {
+                violationEntity.setRuleEntity(rule);
+                violationEntity.setComment(comment(rule));
             }
 
-            for (final RuleEntity rule : rules) {
+        }
+    }
 
-                if (whitelistRulesEvaluator.apply(rule, violationEntity)){
-                    violationEntity.setRuleEntity(rule);
-                    violationEntity.setComment("Whitelisted automatically because of:" + rule.getReason());
-                    return;
-                }
+    static String comment(final RuleEntity rule) {
+        return "Whitelisted automatically because of:" + rule.getReason();
+    }
+
+    /**
+     * Drops the compiled rules, they are loaded again on next use.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        rules = null;
+    }
+
+    @Override
+    public void onApplicationEvent(final RulesChangedEvent event) {
+        invalidate();
+    }
 
+    private CompiledRuleSet currentRules() {
+        final CompiledRuleSet current = rules;
+        if (current != null && clock.millis() - loadedAt < refreshIntervalMillis) {
+            return current;
+        }
+
+        synchronized (this) {
+            final CompiledRuleSet loaded = rules;
+            if (loaded != null && clock.millis() - loadedAt < refreshIntervalMillis) {
+                return loaded;
             }
 
+            final long loading = generation.get();
+            final List<RuleEntity> notExpired = ruleEntityService.findByNotExpired();
+            final CompiledRuleSet compiled = new CompiledRuleSet(
+                    notExpired != null ? notExpired : Collections.emptyList());
+            log.debug("Compiled {} whitelisting rules", compiled.size());
+
+            // a rule changed while loading, the next violation loads again
+            loadedAt = loading == generation.get() ? clock.millis() : clock.millis() - refreshIntervalMillis;
+            rules = compiled;
+            return compiled;
         }
     }
-
 }
@@ -0,0 +1,171 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.zalando.stups.fullstop.rule.entity.RuleDTO;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.rule.entity.WhitelistingDryRunResult;
+import org.zalando.stups.fullstop.rule.service.WhitelistingDryRunService;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Counts the open violations a rule would whitelist, within a time budget. Like the {@link RetroactiveWhitelisting},
+ * the account, region, violation type, application and version of the rule are evaluated by the database. Rules on
+ * the image or the metaInfo of violations are evaluated here, page by page in parallel, until the budget runs out.
+ */
+public class WhitelistingDryRun implements WhitelistingDryRunService, DisposableBean {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final Logger log = getLogger(getClass());
+
+    private final ViolationRepository violationRepository;
+
+    private final int pageSize;
+
+    private final int sampleSize;
+
+    private final long timeBudgetMillis;
+
+    private final ForkJoinPool evaluation;
+
+    private final Clock clock;
+
+    public WhitelistingDryRun(final ViolationRepository violationRepository, final int pageSize, final int sampleSize,
+                              final long timeBudgetMillis, final int parallelism) {
+        this(violationRepository, pageSize, sampleSize, timeBudgetMillis, parallelism, Clock.systemUTC());
+    }
+
+    WhitelistingDryRun(final ViolationRepository violationRepository, final int pageSize, final int sampleSize,
+                       final long timeBudgetMillis, final int parallelism, final Clock clock) {
+        this.violationRepository = violationRepository;
+        this.pageSize = pageSize;
+        this.sampleSize = sampleSize;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.evaluation = new ForkJoinPool(parallelism);
+        this.clock = clock;
+    }
+
+    @Override
+    public WhitelistingDryRunResult dryRun(final RuleDTO ruleDTO) {
+        final long started = clock.millis();
+        final CompiledRule compiled = new CompiledRule(criteriaOf(ruleDTO), 0);
+
+        if (!compiled.isValid()) {
+            return new WhitelistingDryRunResult(Collections.emptyList(), Collections.emptyList(), true, 0, true, 0);
+        } else if (!compiled.needsEvaluation()) {
+            return inDatabase(compiled.getRuleEntity(), started);
+        } else {
+            return evaluate(compiled, started);
+        }
+    }
+
+    private WhitelistingDryRunResult inDatabase(final RuleEntity rule, final long started) {
+        try {
+            final List<CountByAccountAndType> counts = violationRepository.countOpenViolations(rule,
+                    (int) Math.min(Integer.MAX_VALUE, timeBudgetMillis));
+            final List<Long> sample = violationRepository.findOpenViolationIds(rule, sampleSize);
+            final long matching = counts.stream().mapToLong(CountByAccountAndType::getQuantity).sum();
+            return new WhitelistingDryRunResult(counts, sample, true, matching, true, clock.millis() - started);
+        } catch (final QueryTimeoutException e) {
+            log.info("Dry run of whitelisting rule exceeded the time budget of {} ms", timeBudgetMillis);
+            return new WhitelistingDryRunResult(Collections.emptyList(), Collections.emptyList(), true, 0, false,
+                    clock.millis() - started);
+        }
+    }
+
+    private WhitelistingDryRunResult evaluate(final CompiledRule compiled, final long started) {
+        final Map<String, Map<String, Long>> counts = new TreeMap<>();
+        final List<Long> sample = new ArrayList<>(sampleSize);
+        long evaluated = 0;
+        boolean complete = false;
+        // cancelling the task does not stop the evaluation already running in the pool
+        final AtomicBoolean expired = new AtomicBoolean();
+
+        Long afterId = null;
+        while (clock.millis() - started < timeBudgetMillis) {
+            final List<ViolationEntity> page = violationRepository.findOpenViolations(compiled.getRuleEntity(), afterId,
+                    pageSize);
+
+            final ForkJoinTask<List<ViolationEntity>> matching = evaluation.submit(() -> page.parallelStream()
+                    .filter(violation -> !expired.get() && compiled.matches(violation, new MetaInfoDocument(violation)))
+                    .collect(toList()));
+            try {
+                final long remaining = Math.max(0, timeBudgetMillis - (clock.millis() - started));
+                for (final ViolationEntity violation : matching.get(remaining, TimeUnit.MILLISECONDS)) {
+                    counts.computeIfAbsent(accountOf(violation), account -> new TreeMap<>())
+                            .merge(typeOf(violation), 1L, Long::sum);
+                    if (sample.size() < sampleSize) {
+                        sample.add(violation.getId());
+                    }
+                }
+            } catch (final TimeoutException e) {
+                expired.set(true);
+                matching.cancel(true);
+                break;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (final ExecutionException e) {
+                throw new IllegalStateException("Could not evaluate whitelisting rule", e.getCause());
+            }
+
+            evaluated += page.size();
+            if (page.size() < pageSize) {
+                complete = true;
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        final List<CountByAccountAndType> result = new ArrayList<>();
+        counts.forEach((account, byType) -> byType.forEach((type, quantity) ->
+                result.add(new CountByAccountAndType(account, type, quantity))));
+        return new WhitelistingDryRunResult(result, sample, false, evaluated, complete, clock.millis() - started);
+    }
+
+    private static String accountOf(final ViolationEntity violation) {
+        return violation.getAccountId() != null ? violation.getAccountId() : UNKNOWN;
+    }
+
+    private static String typeOf(final ViolationEntity violation) {
+        return violation.getViolationTypeEntity() != null ? violation.getViolationTypeEntity().getId() : UNKNOWN;
+    }
+
+    private static RuleEntity criteriaOf(final RuleDTO ruleDTO) {
+        final RuleEntity rule = new RuleEntity();
+        rule.setAccountId(ruleDTO.getAccountId());
+        rule.setRegion(ruleDTO.getRegion());
+        rule.setApplicationId(ruleDTO.getApplicationId());
+        rule.setApplicationVersion(ruleDTO.getApplicationVersion());
+        rule.setImageName(ruleDTO.getImageName());
+        rule.setImageOwner(ruleDTO.getImageOwner());
+        rule.setViolationTypeEntityId(ruleDTO.getViolationTypeEntityId());
+        rule.setMetaInfoJsonPath(ruleDTO.getMetaInfoJsonPath());
+        return rule;
+    }
+
+    @Override
+    public void destroy() {
+        evaluation.shutdownNow();
+    }
+}
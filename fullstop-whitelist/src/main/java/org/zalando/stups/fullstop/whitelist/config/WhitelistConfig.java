@@ -1,11 +1,17 @@
 package org.zalando.stups.fullstop.whitelist.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.whitelist.RetroactiveWhitelisting;
 import org.zalando.stups.fullstop.whitelist.WhitelistRules;
 import org.zalando.stups.fullstop.whitelist.WhitelistRulesEvaluator;
+import org.zalando.stups.fullstop.whitelist.WhitelistingDryRun;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WhitelistConfig {
@@ -14,6 +20,24 @@ public class WhitelistConfig {
     @Autowired
     private RuleEntityService ruleEntityService;
 
+    @Autowired
+    private ViolationRepository violationRepository;
+
+    @Value("${fullstop.whitelist.refreshIntervalSeconds:60}")
+    private long refreshIntervalSeconds;
+
+    @Value("${fullstop.whitelist.retroactive.pageSize:1000}")
+    private int retroactivePageSize;
+
+    @Value("${fullstop.whitelist.retroactive.parallelism:2}")
+    private int retroactiveParallelism;
+
+    @Value("${fullstop.whitelist.dryRun.timeBudgetMillis:10000}")
+    private long dryRunTimeBudgetMillis;
+
+    @Value("${fullstop.whitelist.dryRun.sampleSize:20}")
+    private int dryRunSampleSize;
+
     @Bean
     WhitelistRulesEvaluator whitelistRulesEvaluator() {
         return new WhitelistRulesEvaluator();
@@ -21,6 +45,17 @@ public class WhitelistConfig {
 
     @Bean
     WhitelistRules whitelistRules() {
-        return new WhitelistRules(whitelistRulesEvaluator(), ruleEntityService);
+        return new WhitelistRules(ruleEntityService, TimeUnit.SECONDS.toMillis(refreshIntervalSeconds));
+    }
+
+    @Bean
+    RetroactiveWhitelisting retroactiveWhitelisting() {
+        return new RetroactiveWhitelisting(violationRepository, retroactivePageSize, retroactiveParallelism);
+    }
+
+    @Bean
+    WhitelistingDryRun whitelistingDryRun() {
+        return new WhitelistingDryRun(violationRepository, retroactivePageSize, dryRunSampleSize,
+                dryRunTimeBudgetMillis, retroactiveParallelism);
     }
 }